@@ -0,0 +1,125 @@
+package icu.etl.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import icu.etl.collection.ByteBuffer;
+import icu.etl.collection.CharBuffer;
+import icu.etl.collection.SegmentedByteBuffer;
+import icu.etl.collection.SegmentedCharBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@linkplain ByteBuffer} 与 {@linkplain CharBuffer} 追加数据的性能测试
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-06
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferBenchmark {
+
+    /** 追加的次数 */
+    @Param({"100", "10000"})
+    public int times;
+
+    /** 每次追加的字节 */
+    private byte[] bytes;
+
+    /** 每次追加的字符串 */
+    private String str;
+
+    /** 重复使用的分段字节缓冲区 */
+    private SegmentedByteBuffer segmented;
+
+    /** 重复使用的分段字符缓冲区 */
+    private SegmentedCharBuffer chars;
+
+    @Setup
+    public void setup() {
+        this.str = "0123456789,customer,2024-01-06,100.00|";
+        this.bytes = this.str.getBytes();
+        this.segmented = new SegmentedByteBuffer();
+        this.chars = new SegmentedCharBuffer();
+    }
+
+    @Benchmark
+    public ByteBuffer byteBufferAppend() {
+        ByteBuffer buf = new ByteBuffer();
+        for (int i = 0; i < this.times; i++) {
+            buf.append(this.bytes);
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public ByteBuffer byteBufferAppendByte() {
+        ByteBuffer buf = new ByteBuffer();
+        for (int i = 0; i < this.times; i++) {
+            buf.append((byte) i);
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public SegmentedByteBuffer segmentedAppend() {
+        SegmentedByteBuffer buf = this.segmented;
+        buf.clear();
+        for (int i = 0; i < this.times; i++) {
+            buf.append(this.bytes);
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public SegmentedByteBuffer segmentedAppendString() {
+        SegmentedByteBuffer buf = this.segmented;
+        buf.clear();
+        for (int i = 0; i < this.times; i++) {
+            buf.append(this.str);
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public CharBuffer charBufferAppend() {
+        CharBuffer buf = new CharBuffer(256, 128);
+        for (int i = 0; i < this.times; i++) {
+            buf.append(this.str);
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public CharBuffer charBufferAppendChar() {
+        CharBuffer buf = new CharBuffer(256, 128);
+        for (int i = 0; i < this.times; i++) {
+            buf.append((char) ('a' + i % 26));
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public SegmentedCharBuffer segmentedCharAppend() {
+        SegmentedCharBuffer buf = this.chars;
+        buf.restore();
+        for (int i = 0; i < this.times; i++) {
+            buf.append(this.str);
+        }
+        return buf;
+    }
+
+}
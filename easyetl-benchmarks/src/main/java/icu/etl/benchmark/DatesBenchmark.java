@@ -0,0 +1,105 @@
+package icu.etl.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import icu.etl.util.DateFormatter;
+import icu.etl.util.DateParser;
+import icu.etl.util.Dates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@linkplain Dates} 中日期解析与格式化的性能测试
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-06
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatesBenchmark {
+
+    /** 待解析的日期字符串 */
+    @Param({"2024-01-06", "20240106", "2024-01-06 12:34:56", "2024-01-06 12:34:56.789"})
+    public String value;
+
+    /** 待格式化的日期 */
+    private Date date;
+
+    /** 已编译日期格式的解析器 */
+    private DateParser parser;
+
+    /** 格式化使用的字符数组 */
+    private final char[] chars = new char[32];
+
+    @Setup
+    public void setup() {
+        this.date = Dates.parse("2024-01-06 12:34:56.789");
+        this.parser = new DateParser(this.value);
+    }
+
+    @Benchmark
+    public Date parse() {
+        return Dates.parse(this.value);
+    }
+
+    @Benchmark
+    public Date parser() {
+        return this.parser.parse(this.value);
+    }
+
+    @Benchmark
+    public String format10() {
+        return Dates.format10(this.date);
+    }
+
+    @Benchmark
+    public String format19() {
+        return Dates.format19(this.date);
+    }
+
+    @Benchmark
+    public String format21() {
+        return Dates.format21(this.date);
+    }
+
+    @Benchmark
+    public int formatter21() {
+        return DateFormatter.format(this.date.getTime(), 21, this.chars, 0);
+    }
+
+    /**
+     * 推断日期格式的性能测试（{@linkplain Dates#pattern(String)} 不支持带毫秒的日期字符串，所以使用单独的参数）
+     */
+    @State(Scope.Thread)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public static class Pattern {
+
+        /** 日期字符串 */
+        @Param({"2024-01-06", "20240106", "2024-01-06 12:34:56"})
+        public String value;
+
+        @Benchmark
+        public String pattern() {
+            return Dates.pattern(this.value);
+        }
+    }
+
+}
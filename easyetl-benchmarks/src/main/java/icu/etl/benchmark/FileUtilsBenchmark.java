@@ -0,0 +1,109 @@
+package icu.etl.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import icu.etl.util.FileUtils;
+import icu.etl.util.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@linkplain FileUtils} 中读取文本文件的性能测试
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-06
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileUtilsBenchmark {
+
+    /** 文件行数 */
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    /** 测试文件 */
+    private File file;
+
+    /** 测试文件的副本 */
+    private File copy;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        File dir = FileUtils.getTempDir("benchmark", FileUtilsBenchmark.class.getSimpleName());
+        FileUtils.assertCreateDirectory(dir);
+        this.file = new File(dir, "rows" + this.rows + ".txt");
+
+        StringBuilder buf = new StringBuilder(128 * 1000);
+        FileUtils.write(this.file, StringUtils.CHARSET, false, "");
+        for (int i = 1; i <= this.rows; i++) {
+            buf.append(i).append(",customer").append(i).append(",2024-01-06,100.00,中文字段\n");
+            if (i % 1000 == 0) {
+                FileUtils.write(this.file, StringUtils.CHARSET, true, buf);
+                buf.setLength(0);
+            }
+        }
+        FileUtils.write(this.file, StringUtils.CHARSET, true, buf);
+
+        this.copy = new File(dir, "rows" + this.rows + ".copy.txt");
+        FileUtils.copy(this.file, this.copy);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        FileUtils.deleteFile(this.file);
+        FileUtils.deleteFile(this.copy);
+    }
+
+    @Benchmark
+    public long count() throws IOException {
+        return FileUtils.count(this.file, StringUtils.CHARSET);
+    }
+
+    @Benchmark
+    public String readlineMiddle() throws IOException {
+        return FileUtils.readline(this.file, StringUtils.CHARSET, this.rows / 2);
+    }
+
+    @Benchmark
+    public String readlineLast() throws IOException {
+        return FileUtils.readline(this.file, StringUtils.CHARSET, -1);
+    }
+
+    @Benchmark
+    public boolean equals() throws IOException {
+        return FileUtils.equals(this.file, this.copy, 0);
+    }
+
+    @Benchmark
+    public boolean dos2unix() throws IOException {
+        return FileUtils.dos2unix(this.file, StringUtils.CHARSET, null); // 文件中只有 \n，只需要扫描一次
+    }
+
+    @Benchmark
+    public boolean copy() throws IOException {
+        return FileUtils.copy(this.file, this.copy);
+    }
+
+    @Benchmark
+    public int find() {
+        return FileUtils.find(FileUtils.getTempDir("benchmark"), "rows[0-9]+\\.copy\\.txt").size();
+    }
+
+}
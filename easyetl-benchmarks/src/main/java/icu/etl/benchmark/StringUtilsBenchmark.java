@@ -0,0 +1,172 @@
+package icu.etl.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import icu.etl.util.CompiledTemplate;
+import icu.etl.util.FieldCursor;
+import icu.etl.util.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@linkplain StringUtils} 中按记录调用的字符串操作的性能测试
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-06
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringUtilsBenchmark {
+
+    /** 以逗号分隔的一条记录（20个字段） */
+    private String record;
+
+    /** 使用多字符分隔符与转义字符的一条记录 */
+    private String escapeRecord;
+
+    /** 左右两端存在空白字符的字符串 */
+    private String blankString;
+
+    /** 中英文混合的字符串 */
+    private String chinese;
+
+    /** 带变量占位符的模版 */
+    private String template;
+
+    /** 预编译的模版 */
+    private CompiledTemplate compiled;
+
+    /** 替换模版变量时重复使用的缓冲区 */
+    private StringBuilder buf;
+
+    /** 变量名与变量值的映射 */
+    private Map<String, String> variables;
+
+    /** 保存字段的集合 */
+    private List<String> list;
+
+    /** 字段游标 */
+    private FieldCursor cursor;
+
+    /** 使用多字符分隔符与转义字符的字段游标 */
+    private FieldCursor escapeCursor;
+
+    @Setup
+    public void setup() {
+        StringBuilder buf = new StringBuilder();
+        StringBuilder esc = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) {
+                buf.append(',');
+                esc.append("||");
+            }
+            buf.append("field").append(i).append("_value");
+            esc.append("field").append(i).append("\\|value");
+        }
+        this.record = buf.toString();
+        this.escapeRecord = esc.toString();
+        this.blankString = " \t  " + this.record + "\r\n  ";
+        this.chinese = "客户名称,customer_name,上海市浦东新区,2024-01-06,交易金额";
+        this.template = "select * from ${schema}.${table} where load_date = '${date}' and branch in (${branch}) and ${${column}} is not null";
+
+        this.variables = new HashMap<String, String>();
+        this.variables.put("schema", "etl");
+        this.variables.put("table", "t_customer_detail");
+        this.variables.put("date", "2024-01-06");
+        this.variables.put("branch", "'0101', '0102', '0103'");
+        this.variables.put("column", "name");
+        this.variables.put("name", "customer_name");
+
+        this.compiled = new CompiledTemplate(this.template);
+        this.buf = new StringBuilder(256);
+        this.list = new ArrayList<String>(32);
+        this.cursor = new FieldCursor(',');
+        this.escapeCursor = new FieldCursor("||", '\\');
+    }
+
+    @Benchmark
+    public String[] splitChar() {
+        return StringUtils.split(this.record, ',');
+    }
+
+    @Benchmark
+    public List<String> splitCharCollection() {
+        this.list.clear();
+        StringUtils.split(this.record, ',', this.list);
+        return this.list;
+    }
+
+    @Benchmark
+    public String[] splitString() {
+        return StringUtils.split(this.record, ",");
+    }
+
+    @Benchmark
+    public String[] splitEscape() {
+        return StringUtils.split(this.escapeRecord, "||", '\\');
+    }
+
+    @Benchmark
+    public int fieldCursor() {
+        int length = 0;
+        FieldCursor cursor = this.cursor.reset(this.record);
+        while (cursor.next()) {
+            length += cursor.getLength();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int fieldCursorEscape() {
+        int length = 0;
+        FieldCursor cursor = this.escapeCursor.reset(this.escapeRecord);
+        while (cursor.next()) {
+            length += cursor.getLength();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public String trimBlank() {
+        return StringUtils.trimBlank(this.blankString);
+    }
+
+    @Benchmark
+    public void replaceVariable(Blackhole bh) {
+        bh.consume(StringUtils.replaceVariable(this.template, this.variables));
+    }
+
+    @Benchmark
+    public int width() {
+        return StringUtils.width(this.chinese, "UTF-8");
+    }
+
+    @Benchmark
+    public String middle() {
+        return StringUtils.middle(this.chinese, 80, "UTF-8", ' ');
+    }
+
+    @Benchmark
+    public void compiledTemplate(Blackhole bh) {
+        this.buf.setLength(0);
+        bh.consume(this.compiled.render(this.variables, null, this.buf));
+    }
+
+}
@@ -0,0 +1,154 @@
+package icu.etl.maven;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import icu.etl.annotation.EasyBean;
+import icu.etl.util.CharsetName;
+import icu.etl.util.ClassUtils;
+import icu.etl.util.EasyBeanIndex;
+import icu.etl.util.FileUtils;
+import icu.etl.util.IO;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * 在 {@linkplain LifecyclePhase#PROCESS_CLASSES} 阶段，扫描编译输出目录中带 {@linkplain EasyBean} 注解的类，
+ * 生成组件索引文件 {@linkplain EasyBeanIndex#INDEX} 并保存到编译输出目录中 <br>
+ * 运行时通过 {@linkplain EasyBeanIndex#load(ClassLoader)} 读取类路径中所有jar包的组件索引，不再扫描类文件
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-29
+ */
+@Mojo(name = "easybean", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.COMPILE)
+public class EasyBeanIndexMojo extends AbstractMojo {
+
+    /**
+     * 编译输出目录
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}")
+    private File outputDirectory;
+
+    /**
+     * 编译时的类路径（包含编译输出目录）
+     */
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true)
+    private List<String> classpathElements;
+
+    public void execute() throws MojoExecutionException {
+        if (this.outputDirectory == null || !this.outputDirectory.isDirectory()) {
+            getLog().info("编译输出目录 " + this.outputDirectory + " 不存在，不生成组件索引");
+            return;
+        }
+
+        try {
+            List<URL> urls = new ArrayList<URL>();
+            urls.add(this.outputDirectory.toURI().toURL());
+            if (this.classpathElements != null) {
+                for (String element : this.classpathElements) {
+                    urls.add(new File(element).toURI().toURL());
+                }
+            }
+
+            // 工程中的类只从工程的类路径加载，不会被插件中同名的类（如: easyetl-tool 中的类）遮蔽
+            ProjectClassLoader loader = new ProjectClassLoader(urls.toArray(new URL[urls.size()]));
+            List<EasyBeanIndex> list = new ArrayList<EasyBeanIndex>();
+            try {
+                this.scan(loader, this.outputDirectory, "", list);
+            } finally {
+                IO.closeQuietly(loader); // 释放jar包的文件句柄
+            }
+            Collections.sort(list, new Comparator<EasyBeanIndex>() { // 按类名排序，保证每次生成的索引文件相同
+                public int compare(EasyBeanIndex o1, EasyBeanIndex o2) {
+                    return o1.getClassName().compareTo(o2.getClassName());
+                }
+            });
+
+            File index = new File(this.outputDirectory, EasyBeanIndex.INDEX);
+            FileUtils.assertCreateDirectory(index.getParentFile());
+            Writer out = new OutputStreamWriter(new FileOutputStream(index, false), CharsetName.UTF_8);
+            try {
+                out.write("# generated by easyetl-maven-plugin:easybean");
+                out.write(FileUtils.lineSeparatorUnix);
+                EasyBeanIndex.store(out, list);
+            } finally {
+                out.close();
+            }
+            getLog().info("生成组件索引 " + index.getAbsolutePath() + " 共 " + list.size() + " 个组件");
+        } catch (Throwable e) {
+            String message = "easyetl 插件发生错误";
+            getLog().error(message, e);
+            throw new MojoExecutionException(message, e);
+        }
+    }
+
+    /**
+     * 扫描目录中带 {@linkplain EasyBean} 注解的类
+     *
+     * @param loader      类加载器
+     * @param dir         目录
+     * @param packageName 目录对应的包名
+     * @param list        组件集合
+     */
+    protected void scan(ClassLoader loader, File dir, String packageName, List<EasyBeanIndex> list) {
+        File[] files = FileUtils.array(dir.listFiles());
+        for (File file : files) {
+            if (file == null) {
+                continue;
+            }
+
+            String name = file.getName();
+            if (file.isDirectory()) {
+                this.scan(loader, file, packageName + name + ".", list);
+                continue;
+            }
+
+            if (!file.isFile() || !name.endsWith(".class") || name.equals("package-info.class")) {
+                continue;
+            }
+
+            String className = packageName + name.substring(0, name.length() - ".class".length());
+            Class<?> cls = ClassUtils.forName(className, false, loader);
+            if (cls == null) {
+                getLog().warn("不能加载类 " + className);
+                continue;
+            }
+
+            if (cls.isAnnotationPresent(EasyBean.class)) {
+                list.add(new EasyBeanIndex(cls));
+            }
+        }
+    }
+
+    /**
+     * 加载工程类的类加载器 <br>
+     * 只从工程的类路径与JDK中加载类，只有注解 {@linkplain EasyBean} 使用插件中的类（保证 {@linkplain Class#getAnnotation(Class)} 能读取到注解）
+     */
+    private static class ProjectClassLoader extends URLClassLoader {
+
+        public ProjectClassLoader(URL[] urls) {
+            super(urls, ClassLoader.getSystemClassLoader().getParent()); // 父类加载器只包含JDK中的类
+        }
+
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (EasyBean.class.getName().equals(name)) {
+                return EasyBean.class;
+            } else {
+                return super.loadClass(name, resolve);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package icu.etl.maven;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import icu.etl.util.CharsetName;
+import icu.etl.util.FileUtils;
+import icu.etl.util.IO;
+import icu.etl.util.SPI;
+import icu.etl.util.StringUtils;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * 在 {@linkplain LifecyclePhase#PROCESS_CLASSES} 阶段，按类路径顺序合并所有目录与jar包中的 META-INF/services 配置文件，
+ * 生成服务索引文件 {@linkplain SPI#INDEX} 并保存到编译输出目录中 <br>
+ * 运行时 {@linkplain SPI#load(ClassLoader, Class)} 直接从索引中读取实现类，不再查找类路径中的所有服务配置文件 <br>
+ * <br>
+ * 索引中的接口只使用索引中的实现类，所以只应在最终运行的工程中执行（运行时的类路径与编译时相同），
+ * 需要设置参数 application 为 true，生成的索引文件中会写入标记 {@linkplain SPI#APPLICATION}，运行时只使用带标记的索引文件
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-29
+ */
+@Mojo(name = "spi", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.RUNTIME)
+public class ServiceIndexMojo extends AbstractMojo {
+
+    /**
+     * 编译输出目录
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}")
+    private File outputDirectory;
+
+    /**
+     * 运行时的类路径（包含编译输出目录）
+     */
+    @Parameter(defaultValue = "${project.runtimeClasspathElements}", readonly = true)
+    private List<String> classpathElements;
+
+    /**
+     * true表示当前工程是最终运行的工程（不会被其他工程依赖），只有最终运行的工程才生成服务索引
+     */
+    @Parameter(property = "easyetl.spi.application", defaultValue = "false")
+    private boolean application;
+
+    public void execute() throws MojoExecutionException {
+        if (!this.application) {
+            getLog().info("当前工程不是最终运行的工程（参数 application 是 false），不生成服务索引");
+            return;
+        }
+
+        Map<String, List<String>> services = new TreeMap<String, List<String>>();
+        try {
+            List<String> elements = new ArrayList<String>();
+            elements.add(this.outputDirectory.getAbsolutePath());
+            if (this.classpathElements != null) {
+                elements.addAll(this.classpathElements);
+            }
+
+            List<File> files = new ArrayList<File>(elements.size());
+            for (String element : elements) {
+                File file = new File(element);
+                if (file.exists() && !files.contains(file)) {
+                    files.add(file);
+                }
+            }
+
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    this.readDirectory(file, services);
+                } else if (file.isFile()) {
+                    this.readJar(file, services);
+                }
+            }
+
+            File index = new File(this.outputDirectory, SPI.INDEX);
+            this.write(index, services);
+            getLog().info("生成服务索引 " + index.getAbsolutePath() + " 共 " + services.size() + " 个接口");
+        } catch (Throwable e) {
+            String message = "easyetl 插件发生错误";
+            getLog().error(message, e);
+            throw new MojoExecutionException(message, e);
+        }
+    }
+
+    /**
+     * 读取目录中的服务配置文件
+     *
+     * @param dir      类路径中的目录
+     * @param services 接口名与实现类名的映射关系
+     * @throws IOException 读取文件错误
+     */
+    protected void readDirectory(File dir, Map<String, List<String>> services) throws IOException {
+        File parent = new File(dir, SPI.SERVICES);
+        File[] files = FileUtils.array(parent.listFiles());
+        for (File file : files) {
+            if (file == null || !file.isFile()) {
+                continue;
+            }
+
+            InputStream in = new FileInputStream(file);
+            try {
+                SPI.parse(in, this.get(services, file.getName()));
+            } finally {
+                IO.close(in);
+            }
+        }
+    }
+
+    /**
+     * 读取jar包中的服务配置文件
+     *
+     * @param file     类路径中的jar包
+     * @param services 接口名与实现类名的映射关系
+     * @throws IOException 读取文件错误
+     */
+    protected void readJar(File file, Map<String, List<String>> services) throws IOException {
+        JarFile jar = new JarFile(file);
+        try {
+            for (Enumeration<JarEntry> it = jar.entries(); it.hasMoreElements(); ) {
+                JarEntry entry = it.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory() || !name.startsWith(SPI.SERVICES) || name.length() == SPI.SERVICES.length() || name.indexOf('/', SPI.SERVICES.length()) != -1) {
+                    continue;
+                }
+
+                InputStream in = jar.getInputStream(entry);
+                try {
+                    SPI.parse(in, this.get(services, name.substring(SPI.SERVICES.length())));
+                } finally {
+                    IO.close(in);
+                }
+            }
+        } finally {
+            jar.close();
+        }
+    }
+
+    /**
+     * 返回接口对应的实现类名集合
+     *
+     * @param services 接口名与实现类名的映射关系
+     * @param service  接口名
+     * @return 实现类名集合
+     */
+    private List<String> get(Map<String, List<String>> services, String service) {
+        List<String> list = services.get(service);
+        if (list == null) {
+            list = new ArrayList<String>();
+            services.put(service, list);
+        }
+        return list;
+    }
+
+    /**
+     * 保存服务索引，格式: 接口名=实现类名,实现类名
+     *
+     * @param index    索引文件
+     * @param services 接口名与实现类名的映射关系
+     * @throws IOException 写文件错误
+     */
+    protected void write(File index, Map<String, List<String>> services) throws IOException {
+        FileUtils.assertCreateDirectory(index.getParentFile());
+        Writer out = new OutputStreamWriter(new FileOutputStream(index, false), CharsetName.ISO_8859_1);
+        try {
+            out.write("# generated by easyetl-maven-plugin:spi");
+            out.write(FileUtils.lineSeparatorUnix);
+            out.write(SPI.APPLICATION);
+            out.write("=true");
+            out.write(FileUtils.lineSeparatorUnix);
+            for (Map.Entry<String, List<String>> entry : services.entrySet()) {
+                out.write(entry.getKey());
+                out.write('=');
+                out.write(StringUtils.join(entry.getValue(), ","));
+                out.write(FileUtils.lineSeparatorUnix);
+            }
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+}
@@ -9,6 +9,7 @@ import java.lang.annotation.Target;
 /**
  * 组件注解
  * IOC容器启动时会扫描带 {@linkplain EasyBean} 注解的类
+ * 编译时可以使用 easyetl-maven-plugin 插件的 easybean 目标生成组件索引，容器启动时通过 {@linkplain icu.etl.util.EasyBeanIndex} 读取索引，不再扫描类文件
  *
  * @author jeremy8551@qq.com
  * @createtime 2021-02-08
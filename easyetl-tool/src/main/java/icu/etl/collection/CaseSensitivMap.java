@@ -1,31 +1,31 @@
 package icu.etl.collection;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * 在 Map 的 Key 属性忽略英文字符大小写
+ * 在 Map 的 Key 属性忽略英文字符大小写 <br>
+ * 关键字保留第一次添加时的原始字符串与添加顺序，内部使用忽略大小写的关键字（详见 {@linkplain CaseSensitivSet#toKey(String)}）建立哈希索引 <br>
+ * 不是线程安全的，多线程环境下可以使用 {@linkplain ConcurrentCaseSensitivMap}
  *
  * @param <E>
  * @author jeremy8551@qq.com
  */
 public class CaseSensitivMap<E> implements Map<String, E> {
 
-    /** 关键字与数值的映射关系 */
-    private HashMap<String, E> map;
-
-    /** 关键字集合 */
-    private CaseSensitivSet keys;
+    /** 忽略大小写的关键字与映射关系 */
+    private LinkedHashMap<String, SE> map;
 
     /**
      * 初始化
      */
     public CaseSensitivMap() {
-        this.map = new HashMap<String, E>();
-        this.keys = new CaseSensitivSet();
+        this.map = new LinkedHashMap<String, SE>();
     }
 
     public int size() {
@@ -37,32 +37,46 @@ public class CaseSensitivMap<E> implements Map<String, E> {
     }
 
     public boolean containsValue(Object value) {
-        return this.map.containsValue(value);
+        for (SE entry : this.map.values()) {
+            if (value == null ? entry.obj == null : value.equals(entry.obj)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean containsKey(Object key) {
-        return this.keys.contains(key);
+        if (key instanceof String) {
+            return this.map.containsKey(CaseSensitivSet.toKey((String) key));
+        } else {
+            return false;
+        }
     }
 
     public E get(Object key) {
         if (key instanceof String) {
-            return this.map.get(((String) key).toUpperCase());
+            SE entry = this.map.get(CaseSensitivSet.toKey((String) key));
+            return entry == null ? null : entry.obj;
         } else {
             return null;
         }
     }
 
     public E put(String key, E value) {
-        E old = this.map.put(key.toUpperCase(), value);
-        this.keys.add(key);
-        return old;
+        String name = CaseSensitivSet.toKey(key);
+        SE entry = this.map.get(name);
+        if (entry == null) {
+            this.map.put(name, new SE(key, value));
+            return null;
+        } else {
+            return entry.setValue(value);
+        }
     }
 
     public E remove(Object key) {
         if (key instanceof String) { // 如果输入参数是字符串
-            E old = this.map.remove(((String) key).toUpperCase());
-            this.keys.remove(key);
-            return old;
+            SE entry = this.map.remove(CaseSensitivSet.toKey((String) key));
+            return entry == null ? null : entry.obj;
         } else {
             return null;
         }
@@ -83,24 +97,41 @@ public class CaseSensitivMap<E> implements Map<String, E> {
 
     public Set<String> keySet() {
         CaseSensitivSet set = new CaseSensitivSet();
-        set.addAll(this.keys);
+        for (SE entry : this.map.values()) {
+            set.add(entry.key);
+        }
         return set;
     }
 
     public Collection<E> values() {
-        return this.map.values();
+        return new AbstractCollection<E>() {
+
+            public Iterator<E> iterator() {
+                final Iterator<SE> it = CaseSensitivMap.this.map.values().iterator();
+                return new Iterator<E>() {
+
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    public E next() {
+                        return it.next().obj;
+                    }
+
+                    public void remove() {
+                        it.remove();
+                    }
+                };
+            }
+
+            public int size() {
+                return CaseSensitivMap.this.map.size();
+            }
+        };
     }
 
     public Set<Entry<String, E>> entrySet() {
-        Set<Entry<String, E>> newset = new HashSet<Entry<String, E>>();
-        Set<Entry<String, E>> set = this.map.entrySet();
-        for (Entry<String, E> entry : set) {
-            String key = entry.getKey(); // 大写关键字
-            E value = entry.getValue(); // 关键字对应的数值
-            String okey = this.keys.get(key); // 原关键字
-            newset.add(new SE(okey, value));
-        }
-        return newset;
+        return new LinkedHashSet<Entry<String, E>>(this.map.values());
     }
 
     private class SE implements Entry<String, E> {
@@ -2,24 +2,26 @@ package icu.etl.collection;
 
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.Set;
 
 /**
- * 英文字母大小写不敏感集合
- * 集合内部统一使用英文字母大写作为集合元素
+ * 英文字母大小写不敏感集合 <br>
+ * 集合元素保留第一次添加时的原始字符串与添加顺序，内部使用忽略大小写的关键字（详见 {@linkplain #toKey(String)}）建立哈希索引，查找元素的时间复杂度是 O(1) <br>
+ * 添加与删除元素的方法是同步方法，多线程并发查询时可以使用 {@linkplain ConcurrentCaseSensitivMap}
  *
  * @author jeremy8551@qq.com
  */
 public class CaseSensitivSet implements Set<String> {
 
-    private LinkedHashSet<String> set;
+    /** 忽略大小写的关键字与原始字符串的映射关系 */
+    private LinkedHashMap<String, String> map;
 
     /**
      * 初始化
      */
     public CaseSensitivSet() {
-        this.set = new LinkedHashSet<String>();
+        this.map = new LinkedHashMap<String, String>();
     }
 
     /**
@@ -36,12 +38,37 @@ public class CaseSensitivSet implements Set<String> {
         }
     }
 
-    public synchronized boolean add(String str) {
+    /**
+     * 返回字符串忽略大小写后的关键字，二个字符串的关键字相等与 {@linkplain String#equalsIgnoreCase(String)} 返回 true 等价
+     *
+     * @param str 字符串
+     * @return 关键字，如果字符串中所有字符都不需要转换则返回字符串本身
+     */
+    protected static String toKey(String str) {
         if (str == null) {
-            return this.containsNull() ? false : this.set.add(null);
+            return null;
+        }
+
+        for (int i = 0, length = str.length(); i < length; i++) {
+            char c = str.charAt(i);
+            if (Character.toLowerCase(Character.toUpperCase(c)) != c) {
+                char[] array = str.toCharArray();
+                for (; i < length; i++) {
+                    array[i] = Character.toLowerCase(Character.toUpperCase(array[i]));
+                }
+                return new String(array);
+            }
+        }
+        return str;
+    }
+
+    public synchronized boolean add(String str) {
+        String key = toKey(str);
+        if (this.map.containsKey(key)) {
+            return false;
         } else {
-            String key = this.get(str);
-            return key == null ? this.set.add(str) : false;
+            this.map.put(key, str);
+            return true;
         }
     }
 
@@ -63,7 +90,7 @@ public class CaseSensitivSet implements Set<String> {
         if (obj == null) {
             return this.containsNull();
         } else if (obj instanceof String) {
-            return this.get((String) obj) != null;
+            return this.map.containsKey(toKey((String) obj));
         } else {
             return false;
         }
@@ -75,12 +102,7 @@ public class CaseSensitivSet implements Set<String> {
      * @return
      */
     public boolean containsNull() {
-        for (Iterator<String> it = this.set.iterator(); it.hasNext(); ) {
-            if (it.next() == null) {
-                return true;
-            }
-        }
-        return false;
+        return this.map.containsKey(null);
     }
 
     /**
@@ -93,25 +115,18 @@ public class CaseSensitivSet implements Set<String> {
         if (str == null) {
             throw new NullPointerException();
         }
-
-        for (Iterator<String> it = this.set.iterator(); it.hasNext(); ) {
-            String obj = it.next();
-            if (obj != null && obj.equalsIgnoreCase(str)) {
-                return obj;
-            }
-        }
-        return null;
+        return this.map.get(toKey(str));
     }
 
     public synchronized boolean remove(Object obj) {
-        if (obj == null) {
-            return this.containsNull() ? this.set.remove(null) : false;
-        } else if (obj instanceof String) {
-            String key = this.get((String) obj);
-            return key == null ? false : this.set.remove(key);
-        } else {
-            return false;
+        if (obj == null || obj instanceof String) {
+            String key = toKey((String) obj);
+            if (this.map.containsKey(key)) {
+                this.map.remove(key);
+                return true;
+            }
         }
+        return false;
     }
 
     public synchronized boolean removeAll(Collection<?> c) {
@@ -127,23 +142,23 @@ public class CaseSensitivSet implements Set<String> {
     }
 
     public int size() {
-        return this.set.size();
+        return this.map.size();
     }
 
     public boolean isEmpty() {
-        return this.set.isEmpty();
+        return this.map.isEmpty();
     }
 
     public Iterator<String> iterator() {
-        return this.set.iterator();
+        return this.map.values().iterator();
     }
 
     public Object[] toArray() {
-        return this.set.toArray();
+        return this.map.values().toArray();
     }
 
     public <T> T[] toArray(T[] a) {
-        return this.set.toArray(a);
+        return this.map.values().toArray(a);
     }
 
     public boolean containsAll(Collection<?> c) {
@@ -167,48 +182,32 @@ public class CaseSensitivSet implements Set<String> {
     public synchronized boolean retainAll(Collection<?> c) {
         if (c == null) {
             throw new NullPointerException();
+        }
+
+        CaseSensitivSet set; // 忽略参数 c 中的非字符串元素
+        if (c instanceof CaseSensitivSet) {
+            set = (CaseSensitivSet) c;
         } else {
-            boolean modified = false;
-            for (Iterator<String> it = this.iterator(); it.hasNext(); ) {
-                String str = it.next();
-                if (!this.contains(c, str)) {
-                    this.remove(str);
-                    modified = true;
+            set = new CaseSensitivSet();
+            for (Object obj : c) {
+                if (obj == null || obj instanceof String) {
+                    set.add((String) obj);
                 }
             }
-            return modified;
         }
-    }
 
-    /**
-     * 判断在集合参数 c 中是否存在字符串 str
-     *
-     * @param c   集合
-     * @param str 元素
-     * @return
-     */
-    private boolean contains(Collection<?> c, String str) {
-        if (str == null) {
-            for (Iterator<?> it = c.iterator(); it.hasNext(); ) {
-                Object obj = it.next();
-                if (obj == null) {
-                    return true;
-                }
-            }
-            return false;
-        } else {
-            for (Iterator<?> it = c.iterator(); it.hasNext(); ) {
-                Object obj = it.next();
-                if (obj instanceof String && str.equalsIgnoreCase((String) obj)) {
-                    return true;
-                }
+        boolean modified = false;
+        for (Iterator<String> it = this.map.keySet().iterator(); it.hasNext(); ) {
+            if (!set.map.containsKey(it.next())) {
+                it.remove();
+                modified = true;
             }
-            return false;
         }
+        return modified;
     }
 
     public void clear() {
-        this.set.clear();
+        this.map.clear();
     }
 
 }
@@ -2,6 +2,7 @@ package icu.etl.collection;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
 import java.text.Format;
 
 import icu.etl.util.StringUtils;
@@ -455,6 +456,16 @@ public class CharBuffer implements Appendable, CharSequence {
         return false;
     }
 
+    /**
+     * 将缓冲区中的字符写入输出流，不需要先转为字符串
+     *
+     * @param out 输出流
+     * @throws IOException 写入输出流发生错误
+     */
+    public void write(Writer out) throws IOException {
+        out.write(this.value, 0, this.count);
+    }
+
     public String toString() {
         return new String(this.value, 0, this.count);
     }
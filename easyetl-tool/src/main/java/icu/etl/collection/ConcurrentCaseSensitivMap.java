@@ -0,0 +1,258 @@
+package icu.etl.collection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 线程安全的 {@linkplain CaseSensitivMap} <br>
+ * 使用 {@linkplain ConcurrentHashMap} 保存忽略大小写的关键字与映射关系，读操作不需要加锁，适用于多线程并发查询元数据（例如：表的字段名） <br>
+ * 每个映射关系记录添加时的序号，{@linkplain #keySet()}, {@linkplain #values()}, {@linkplain #entrySet()} 按添加顺序返回当前映射关系的快照 <br>
+ * 关键字与值都不能是 null
+ *
+ * @param <E>
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-16
+ */
+public class ConcurrentCaseSensitivMap<E> implements Map<String, E> {
+
+    /** 忽略大小写的关键字与映射关系 */
+    private final ConcurrentHashMap<String, Node> map;
+
+    /** 映射关系的添加序号 */
+    private final AtomicLong sequence;
+
+    /**
+     * 初始化
+     */
+    public ConcurrentCaseSensitivMap() {
+        this.map = new ConcurrentHashMap<String, Node>();
+        this.sequence = new AtomicLong();
+    }
+
+    /**
+     * 初始化
+     *
+     * @param map 映射关系
+     */
+    public ConcurrentCaseSensitivMap(Map<? extends String, ? extends E> map) {
+        this();
+        this.putAll(map);
+    }
+
+    public int size() {
+        return this.map.size();
+    }
+
+    public boolean isEmpty() {
+        return this.map.isEmpty();
+    }
+
+    public boolean containsKey(Object key) {
+        if (key instanceof String) {
+            return this.map.containsKey(CaseSensitivSet.toKey((String) key));
+        } else {
+            return false;
+        }
+    }
+
+    public boolean containsValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+
+        for (Node node : this.map.values()) {
+            if (value.equals(node.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public E get(Object key) {
+        if (key instanceof String) {
+            Node node = this.map.get(CaseSensitivSet.toKey((String) key));
+            return node == null ? null : node.getValue();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * 返回关键字第一次添加时的原始字符串
+     *
+     * @param key 关键字
+     * @return 返回 null 表示关键字不存在
+     */
+    public String getKey(String key) {
+        Node node = this.map.get(CaseSensitivSet.toKey(key));
+        return node == null ? null : node.getKey();
+    }
+
+    public E put(String key, E value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+
+        String name = CaseSensitivSet.toKey(key);
+        while (true) {
+            Node node = this.map.get(name);
+            if (node == null) {
+                node = this.map.putIfAbsent(name, new Node(key, value, this.sequence.incrementAndGet()));
+                if (node == null) {
+                    return null;
+                }
+            }
+
+            // 映射关系不可修改，使用新映射关系替换原映射关系（保留添加序号），替换失败表示映射关系已被并发修改或删除
+            if (this.map.replace(name, node, new Node(node.getKey(), value, node.sequence))) {
+                return node.getValue();
+            }
+        }
+    }
+
+    /**
+     * 如果关键字不存在则添加映射关系
+     *
+     * @param key   关键字
+     * @param value 值
+     * @return 返回关键字对应的原值，返回 null 表示添加了映射关系
+     */
+    public E putIfAbsent(String key, E value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+
+        Node node = this.map.putIfAbsent(CaseSensitivSet.toKey(key), new Node(key, value, this.sequence.incrementAndGet()));
+        return node == null ? null : node.getValue();
+    }
+
+    public void putAll(Map<? extends String, ? extends E> map) {
+        if (map != null) {
+            for (Entry<? extends String, ? extends E> entry : map.entrySet()) {
+                this.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public E remove(Object key) {
+        if (key instanceof String) {
+            Node node = this.map.remove(CaseSensitivSet.toKey((String) key));
+            return node == null ? null : node.getValue();
+        } else {
+            return null;
+        }
+    }
+
+    public void clear() {
+        this.map.clear();
+    }
+
+    /**
+     * 按添加顺序返回所有映射关系
+     *
+     * @return 映射关系
+     */
+    private List<Node> nodes() {
+        List<Node> list = new ArrayList<Node>(this.map.values());
+        Collections.sort(list);
+        return list;
+    }
+
+    /**
+     * 返回关键字集合的快照
+     *
+     * @return 关键字集合（关键字是原始字符串）
+     */
+    public Set<String> keySet() {
+        CaseSensitivSet set = new CaseSensitivSet();
+        for (Node node : this.nodes()) {
+            set.add(node.getKey());
+        }
+        return set;
+    }
+
+    /**
+     * 返回值集合的快照
+     *
+     * @return 值集合
+     */
+    public Collection<E> values() {
+        List<E> list = new ArrayList<E>(this.map.size());
+        for (Node node : this.nodes()) {
+            list.add(node.getValue());
+        }
+        return list;
+    }
+
+    /**
+     * 返回映射关系集合的快照（映射关系中的 {@linkplain Entry#setValue(Object)} 会修改当前对象，但不会改变快照）
+     *
+     * @return 映射关系集合
+     */
+    public Set<Entry<String, E>> entrySet() {
+        return new LinkedHashSet<Entry<String, E>>(this.nodes());
+    }
+
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append('{');
+        for (Node node : this.nodes()) {
+            if (buf.length() > 1) {
+                buf.append(", ");
+            }
+            buf.append(node.getKey()).append('=').append(node.getValue());
+        }
+        return buf.append('}').toString();
+    }
+
+    /**
+     * 映射关系（不可修改，修改值时使用新映射关系替换）
+     */
+    private class Node implements Entry<String, E>, Comparable<Node> {
+
+        /** 原始关键字 */
+        private final String key;
+
+        /** 添加序号 */
+        private final long sequence;
+
+        /** 值 */
+        private final E value;
+
+        public Node(String key, E value, long sequence) {
+            this.key = key;
+            this.value = value;
+            this.sequence = sequence;
+        }
+
+        public String getKey() {
+            return this.key;
+        }
+
+        public E getValue() {
+            return this.value;
+        }
+
+        /**
+         * 修改当前对象中关键字对应的值（快照中的映射关系不会改变）
+         *
+         * @param value 值
+         * @return 关键字对应的原值
+         */
+        public E setValue(E value) {
+            return ConcurrentCaseSensitivMap.this.put(this.key, value);
+        }
+
+        public int compareTo(Node node) {
+            return this.sequence < node.sequence ? -1 : (this.sequence == node.sequence ? 0 : 1);
+        }
+    }
+
+}
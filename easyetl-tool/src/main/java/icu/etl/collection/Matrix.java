@@ -1,8 +1,14 @@
 package icu.etl.collection;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import icu.etl.util.CharTable;
 import icu.etl.util.StringUtils;
@@ -15,6 +21,9 @@ import icu.etl.util.StringUtils;
  */
 public class Matrix<E> implements Cloneable {
 
+    /** 并发排序时每个线程至少排序的元素个数 */
+    public static int PARALLEL_THRESHOLD = 8192;
+
     /** 行数与列数 */
     protected int row, col;
 
@@ -199,14 +208,27 @@ public class Matrix<E> implements Cloneable {
     }
 
     /**
-     * 对矩阵中的行进行排序
+     * 对矩阵中的行进行排序 <br>
+     * 稳定排序：排序字段都相等的行保持原有顺序
      *
      * @param ascOrDesc true表示从小到大排序
-     * @param positions 排序字段所在列数;从0开始
+     * @param positions 排序字段所在列数;从0开始，按字段顺序依次比较（前一个字段相等时再比较后一个字段）
      * @param compare   排序比较类
      */
-    @SuppressWarnings("unchecked")
     public void sortRow(boolean ascOrDesc, int[] positions, Comparator<E> compare) {
+        this.sortRow(ascOrDesc, positions, compare, 1);
+    }
+
+    /**
+     * 对矩阵中的行进行排序 <br>
+     * 稳定排序：排序字段都相等的行保持原有顺序
+     *
+     * @param ascOrDesc true表示从小到大排序
+     * @param positions 排序字段所在列数;从0开始，按字段顺序依次比较（前一个字段相等时再比较后一个字段）
+     * @param compare   排序比较类
+     * @param threads   并发排序的线程数, 小于等于零时使用处理器个数, 详见 {@linkplain #PARALLEL_THRESHOLD}
+     */
+    public void sortRow(final boolean ascOrDesc, int[] positions, final Comparator<E> compare, int threads) {
         if (positions == null || positions.length == 0) {
             throw new IllegalArgumentException(StringUtils.toString(positions));
         }
@@ -217,53 +239,45 @@ public class Matrix<E> implements Cloneable {
             throw new NullPointerException();
         }
 
-        if (ascOrDesc) {
-            int l = this.row - 1;
-            for (int i = 0; i < l; i++) {
-                int ll = (l - i);
-                for (int j = 0; j < ll; j++) {
-                    Object[] array1 = this.matrix[j];
-                    Object[] array2 = this.matrix[j + 1];
-                    for (int z = 0; z < positions.length; z++) {
-                        int index = positions[z];
-                        int r = compare.compare((E) array1[index], (E) array2[index]);
-                        if (r > 0) {
-                            this.matrix[j + 1] = array1;
-                            this.matrix[j] = array2;
-                            continue;
-                        }
-                    }
-                }
-            }
-        } else {
-            int l = this.row - 1;
-            for (int i = 0; i < l; i++) {
-                int ll = (l - i);
-                for (int j = 0; j < ll; j++) {
-                    Object[] array1 = this.matrix[j];
-                    Object[] array2 = this.matrix[j + 1];
-                    for (int z = 0; z < positions.length; z++) {
-                        int index = positions[z];
-                        int r = compare.compare((E) array1[index], (E) array2[index]);
-                        if (r < 0) {
-                            this.matrix[j + 1] = array1;
-                            this.matrix[j] = array2;
-                            continue;
-                        }
+        final int[] array = positions.clone();
+        Matrix.sort(this.matrix, this.row, new Comparator<Object>() {
+            @SuppressWarnings("unchecked")
+            public int compare(Object o1, Object o2) {
+                Object[] row1 = (Object[]) o1;
+                Object[] row2 = (Object[]) o2;
+                for (int index : array) {
+                    int r = compare.compare((E) row1[index], (E) row2[index]);
+                    if (r != 0) {
+                        return ascOrDesc ? r : (r > 0 ? -1 : 1);
                     }
                 }
+                return 0;
             }
-        }
+        }, threads);
     }
 
     /**
-     * 对矩阵中的列进行排序
+     * 对矩阵中的列进行排序 <br>
+     * 稳定排序：排序字段都相等的列保持原有顺序
      *
      * @param ascOrDesc true表示从小到大排序
-     * @param positions 排序字段所在行号
+     * @param positions 排序字段所在行号，按字段顺序依次比较（前一个字段相等时再比较后一个字段）
      * @param compare   排序比较类
      */
     public void sortCol(boolean ascOrDesc, int[] positions, Comparator<E> compare) {
+        this.sortCol(ascOrDesc, positions, compare, 1);
+    }
+
+    /**
+     * 对矩阵中的列进行排序 <br>
+     * 稳定排序：排序字段都相等的列保持原有顺序
+     *
+     * @param ascOrDesc true表示从小到大排序
+     * @param positions 排序字段所在行号，按字段顺序依次比较（前一个字段相等时再比较后一个字段）
+     * @param compare   排序比较类
+     * @param threads   并发排序的线程数, 小于等于零时使用处理器个数, 详见 {@linkplain #PARALLEL_THRESHOLD}
+     */
+    public void sortCol(final boolean ascOrDesc, int[] positions, final Comparator<E> compare, int threads) {
         if (positions == null || positions.length == 0) {
             throw new IllegalArgumentException(StringUtils.toString(positions));
         }
@@ -274,53 +288,157 @@ public class Matrix<E> implements Cloneable {
             throw new NullPointerException();
         }
 
-        if (ascOrDesc) {
-            Object[] array = new Object[this.row];
-            int len = this.col - 1;
-            for (int i = 0; i < len; i++) {
-                int ll = (len - i);
-                for (int j = 0; j < ll; j++) {
-                    for (int z = 0; z < positions.length; z++) {
-                        int index = positions[z];
-                        int r = compare.compare(this.elementData(index, j), this.elementData(index, j + 1));
-                        if (r > 0) {
-                            for (int b = 0; b < this.row; b++) {
-                                array[b] = this.matrix[b][j + 1];
-                            }
-                            for (int b = 0; b < this.row; b++) {
-                                this.matrix[b][j + 1] = this.matrix[b][j];
-                            }
-                            for (int b = 0; b < this.row; b++) {
-                                this.matrix[b][j] = array[b];
-                            }
-                            continue;
-                        }
+        // 对列号排序
+        final int[] array = positions.clone();
+        Integer[] columns = new Integer[this.col];
+        for (int j = 0; j < this.col; j++) {
+            columns[j] = j;
+        }
+
+        Matrix.sort(columns, columns.length, new Comparator<Object>() {
+            public int compare(Object o1, Object o2) {
+                int col1 = (Integer) o1;
+                int col2 = (Integer) o2;
+                for (int index : array) {
+                    int r = compare.compare(Matrix.this.elementData(index, col1), Matrix.this.elementData(index, col2));
+                    if (r != 0) {
+                        return ascOrDesc ? r : (r > 0 ? -1 : 1);
                     }
                 }
+                return 0;
             }
-        } else {
-            Object[] array = new Object[this.row];
-            int len = this.col - 1;
-            for (int i = 0; i < len; i++) {
-                int ll = (len - i);
-                for (int j = 0; j < ll; j++) {
-                    for (int z = 0; z < positions.length; z++) {
-                        int index = positions[z];
-                        int r = compare.compare(this.elementData(index, j), this.elementData(index, j + 1));
-                        if (r < 0) {
-                            for (int b = 0; b < this.row; b++) {
-                                array[b] = this.matrix[b][j + 1];
-                            }
-                            for (int b = 0; b < this.row; b++) {
-                                this.matrix[b][j + 1] = this.matrix[b][j];
-                            }
-                            for (int b = 0; b < this.row; b++) {
-                                this.matrix[b][j] = array[b];
-                            }
-                            continue;
-                        }
+        }, threads);
+
+        // 按列号的顺序调整每行中的元素
+        Object[] buf = new Object[this.col];
+        for (int i = 0; i < this.row; i++) {
+            Object[] row = this.matrix[i];
+            for (int j = 0; j < this.col; j++) {
+                buf[j] = row[columns[j]];
+            }
+            System.arraycopy(buf, 0, row, 0, this.col);
+        }
+    }
+
+    /**
+     * 稳定排序，数组长度超过 {@linkplain #PARALLEL_THRESHOLD} 时先将数组分段并发排序，再并发合并相邻的分段
+     *
+     * @param array   数组
+     * @param length  排序元素个数（从数组第一个元素开始）
+     * @param c       比较器
+     * @param threads 线程数, 小于等于零时使用处理器个数
+     */
+    private static void sort(Object[] array, int length, final Comparator<Object> c, int threads) {
+        if (threads <= 0) {
+            threads = Runtime.getRuntime().availableProcessors();
+        }
+
+        int parts = Math.min(threads, length / Math.max(1, PARALLEL_THRESHOLD));
+        if (parts <= 1) {
+            Arrays.sort(array, 0, length, c);
+            return;
+        }
+
+        // 分段
+        final int[] bounds = new int[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            bounds[i] = (int) ((long) length * i / parts);
+        }
+
+        ExecutorService service = Executors.newFixedThreadPool(parts);
+        try {
+            final Object[] sorted = array;
+            List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(parts);
+            for (int i = 0; i < parts; i++) {
+                final int from = bounds[i], to = bounds[i + 1];
+                tasks.add(new Callable<Object>() {
+                    public Object call() {
+                        Arrays.sort(sorted, from, to, c);
+                        return null;
                     }
+                });
+            }
+            Matrix.execute(service, tasks);
+
+            // 合并相邻的分段
+            Object[] src = array;
+            Object[] dest = new Object[length];
+            int[] ranges = bounds;
+            while (ranges.length > 2) {
+                final Object[] from = src, to = dest;
+                final int[] current = ranges;
+                int[] next = new int[current.length / 2 + 1];
+                tasks.clear();
+                for (int i = 0, k = 0; i < ranges.length - 1; i += 2, k++) {
+                    final int begin = current[i];
+                    final int middle = current[i + 1];
+                    final int end = i + 2 < current.length ? current[i + 2] : middle;
+                    next[k] = begin;
+                    next[k + 1] = end;
+                    tasks.add(new Callable<Object>() {
+                        public Object call() {
+                            Matrix.merge(from, to, begin, middle, end, c);
+                            return null;
+                        }
+                    });
                 }
+                Matrix.execute(service, tasks);
+                src = dest;
+                dest = from;
+                ranges = next;
+            }
+
+            if (src != array) {
+                System.arraycopy(src, 0, array, 0, length);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * 合并二个相邻的有序分段，相等的元素优先取前一个分段中的元素
+     *
+     * @param src    源数组
+     * @param dest   目标数组
+     * @param begin  前一个分段的起始位置
+     * @param middle 后一个分段的起始位置
+     * @param end    后一个分段的结束位置（不包含）
+     * @param c      比较器
+     */
+    private static void merge(Object[] src, Object[] dest, int begin, int middle, int end, Comparator<Object> c) {
+        int i = begin, j = middle, k = begin;
+        while (i < middle && j < end) {
+            dest[k++] = c.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+        }
+        while (i < middle) {
+            dest[k++] = src[i++];
+        }
+        while (j < end) {
+            dest[k++] = src[j++];
+        }
+    }
+
+    /**
+     * 执行任务，并等待所有任务执行完毕
+     *
+     * @param service 线程池
+     * @param tasks   任务
+     */
+    private static void execute(ExecutorService service, List<Callable<Object>> tasks) {
+        try {
+            for (Future<Object> future : service.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new RuntimeException(cause);
             }
         }
     }
@@ -0,0 +1,573 @@
+package icu.etl.collection;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import icu.etl.util.CharsetName;
+import icu.etl.util.StringUtils;
+
+/**
+ * 分段字节缓冲区 <br>
+ * 与 {@linkplain icu.etl.collection.ByteBuffer} 不同，缓冲区由多个字节段（{@linkplain ByteBuffer}）组成，容量不足时追加一个新的字节段，不复制已有的字节；
+ * 字节段的容量按2倍增长（最大 {@linkplain #MAX_SEGMENT_SIZE}） <br>
+ * <br>
+ * 默认使用堆外内存（{@linkplain ByteBuffer#allocateDirect(int)}），字符串直接编码到字节段中，
+ * 输出到文件通道时使用 {@linkplain GatheringByteChannel#write(ByteBuffer[])} 一次写出所有字节段，不需要复制到堆内存 <br>
+ * <br>
+ * {@linkplain #clear()} 保留所有字节段，适合逐条记录重复使用同一个缓冲区；
+ * {@linkplain #release()} 将字节段归还到共享的字节段池中，供其他缓冲区使用 <br>
+ * 缓冲区不是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-18
+ */
+public class SegmentedByteBuffer implements Appendable, CharsetName {
+
+    /** 字节段的最大容量，单位: 字节 */
+    public static int MAX_SEGMENT_SIZE = 1024 * 1024;
+
+    /** 字节段池中每种容量的字节段最多保留的个数 */
+    public static int POOL_SIZE = 64;
+
+    /** 字节段池，字节段容量（堆内存使用负数）与空闲字节段的映射关系 */
+    private final static ConcurrentHashMap<Integer, Queue<ByteBuffer>> pool = new ConcurrentHashMap<Integer, Queue<ByteBuffer>>();
+
+    /** 字符串的默认字符集名称 */
+    private String charsetName;
+
+    /** 字符集编码器 */
+    private CharsetEncoder encoder;
+
+    /** 编码器的字符集名称 */
+    private String encoderName;
+
+    /** 追加单个字符时使用的字符数组 */
+    private final char[] chars;
+
+    /** true表示使用堆外内存 */
+    private final boolean direct;
+
+    /** 第一个字节段的容量 */
+    private final int initCapacity;
+
+    /** 字节段 */
+    private ByteBuffer[] segments;
+
+    /** 已分配的字节段个数 */
+    private int allocated;
+
+    /** 正在写入的字节段的位置 */
+    private int current;
+
+    /** 字节个数 */
+    private int count;
+
+    /**
+     * 初始化缓冲区，第一个字节段的容量是 256，使用堆外内存
+     */
+    public SegmentedByteBuffer() {
+        this(256, true, StringUtils.CHARSET);
+    }
+
+    /**
+     * 初始化缓冲区
+     *
+     * @param size        第一个字节段的容量
+     * @param direct      true表示使用堆外内存 false表示使用堆内存
+     * @param charsetName 字符集
+     */
+    public SegmentedByteBuffer(int size, boolean direct, String charsetName) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.valueOf(size));
+        }
+
+        this.initCapacity = size;
+        this.direct = direct;
+        this.chars = new char[1];
+        this.segments = new ByteBuffer[8];
+        this.current = -1;
+        this.setCharsetName(charsetName);
+    }
+
+    /**
+     * 从字节段池中取出一个字节段，如果没有空闲的字节段则创建一个新的字节段
+     *
+     * @param capacity 容量
+     * @param direct   true表示使用堆外内存
+     * @return 字节段
+     */
+    protected static ByteBuffer allocate(int capacity, boolean direct) {
+        Queue<ByteBuffer> queue = pool.get(direct ? capacity : -capacity);
+        ByteBuffer buf = queue == null ? null : queue.poll();
+        if (buf == null) {
+            return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        } else {
+            buf.clear();
+            return buf;
+        }
+    }
+
+    /**
+     * 将字节段归还到字节段池中
+     *
+     * @param buf 字节段
+     */
+    protected static void free(ByteBuffer buf) {
+        Integer key = buf.isDirect() ? buf.capacity() : -buf.capacity();
+        Queue<ByteBuffer> queue = pool.get(key);
+        if (queue == null) {
+            pool.putIfAbsent(key, new ConcurrentLinkedQueue<ByteBuffer>());
+            queue = pool.get(key);
+        }
+        if (queue.size() < POOL_SIZE) {
+            queue.offer(buf);
+        }
+    }
+
+    /**
+     * 返回一个可以写入字节的字节段
+     *
+     * @return 字节段
+     */
+    private ByteBuffer segment() {
+        if (this.current >= 0) {
+            ByteBuffer buf = this.segments[this.current];
+            if (buf.hasRemaining()) {
+                return buf;
+            }
+        }
+
+        if (this.current + 1 < this.allocated) { // 重复使用已分配的字节段
+            return this.segments[++this.current];
+        }
+
+        if (this.allocated == this.segments.length) {
+            ByteBuffer[] array = new ByteBuffer[this.segments.length * 2];
+            System.arraycopy(this.segments, 0, array, 0, this.allocated);
+            this.segments = array;
+        }
+
+        long capacity = (long) this.initCapacity << Math.min(this.allocated, 30);
+        ByteBuffer buf = allocate((int) Math.min(capacity, Math.max(MAX_SEGMENT_SIZE, this.initCapacity)), this.direct);
+        this.segments[this.allocated++] = buf;
+        this.current++;
+        return buf;
+    }
+
+    /**
+     * 返回字符集编码器，无法编码的字符使用替换字符（与 {@linkplain String#getBytes(String)} 相同）
+     *
+     * @param charsetName 字符集
+     * @return 编码器
+     */
+    private CharsetEncoder getEncoder(String charsetName) {
+        if (this.encoder == null || !this.encoderName.equals(charsetName)) {
+            this.encoder = Charset.forName(charsetName).newEncoder() //
+                    .onMalformedInput(CodingErrorAction.REPLACE) //
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.encoderName = charsetName;
+        }
+        return this.encoder;
+    }
+
+    /**
+     * 将字符编码后写入字节段
+     *
+     * @param in          字符
+     * @param charsetName 字符集
+     * @return 缓冲区
+     */
+    private SegmentedByteBuffer encode(CharBuffer in, String charsetName) {
+        if (StringUtils.isBlank(charsetName)) {
+            throw new IllegalArgumentException(charsetName);
+        }
+
+        CharsetEncoder encoder = this.getEncoder(charsetName).reset();
+        boolean flush = false;
+        boolean overflow = false;
+        while (true) {
+            ByteBuffer buf = flush && !overflow && this.current >= 0 ? this.segments[this.current] : this.segment(); // 没有需要输出的字节时不分配新字节段
+            int position = buf.position();
+            CoderResult result = flush ? encoder.flush(buf) : encoder.encode(in, buf, true);
+            this.count += buf.position() - position;
+
+            overflow = result.isOverflow();
+            if (overflow) { // 字节段剩余空间不足，关闭字节段，下次写入新的字节段
+                buf.limit(buf.position());
+            } else if (result.isUnderflow()) {
+                if (flush) {
+                    return this;
+                }
+                flush = true;
+            } else {
+                throw new IllegalStateException(result.toString());
+            }
+        }
+    }
+
+    /**
+     * 追加字节数组
+     *
+     * @param array  字节数组
+     * @param offset 数组起始位置
+     * @param length 长度
+     * @return 缓冲区
+     */
+    public SegmentedByteBuffer append(byte[] array, int offset, int length) {
+        if (array == null) {
+            return this;
+        } else if (length < 0 || offset < 0 || (offset + length) > array.length) {
+            throw new IllegalArgumentException(array.length + ", " + offset + ", " + length);
+        }
+
+        while (length > 0) {
+            ByteBuffer buf = this.segment();
+            int size = Math.min(buf.remaining(), length);
+            buf.put(array, offset, size);
+            offset += size;
+            length -= size;
+            this.count += size;
+        }
+        return this;
+    }
+
+    /**
+     * 追加字节数组
+     *
+     * @param array 字节数组
+     * @return 缓冲区
+     */
+    public SegmentedByteBuffer append(byte[] array) {
+        return array == null ? this : this.append(array, 0, array.length);
+    }
+
+    /**
+     * 追加字节
+     *
+     * @param b 字节
+     * @return 缓冲区
+     */
+    public SegmentedByteBuffer append(byte b) {
+        this.segment().put(b);
+        this.count++;
+        return this;
+    }
+
+    /**
+     * 追加缓冲区中剩余的字节（会改变参数 src 的位置）
+     *
+     * @param src 缓冲区
+     * @return 缓冲区
+     */
+    public SegmentedByteBuffer append(ByteBuffer src) {
+        if (src == null) {
+            return this;
+        }
+
+        while (src.hasRemaining()) {
+            ByteBuffer buf = this.segment();
+            int size = Math.min(buf.remaining(), src.remaining());
+            ByteBuffer part = src.duplicate();
+            part.limit(part.position() + size);
+            buf.put(part);
+            src.position(src.position() + size);
+            this.count += size;
+        }
+        return this;
+    }
+
+    /**
+     * 追加字节缓冲区
+     *
+     * @param bytes 字节缓冲区
+     * @return 缓冲区
+     */
+    public SegmentedByteBuffer append(icu.etl.collection.ByteBuffer bytes) {
+        return bytes == null ? this : this.append(bytes.getBytes(), 0, bytes.length());
+    }
+
+    /**
+     * 从输入流中读取所有字节
+     *
+     * @param in 输入流
+     * @return 缓冲区
+     * @throws IOException 读取输入流发生错误
+     */
+    public SegmentedByteBuffer append(InputStream in) throws IOException {
+        if (in != null) {
+            byte[] array = new byte[1024];
+            for (int size; (size = in.read(array)) != -1; ) {
+                this.append(array, 0, size);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 追加字符串
+     *
+     * @param str         字符串
+     * @param charsetName 字符串的字符集
+     * @return 缓冲区
+     */
+    public SegmentedByteBuffer append(CharSequence str, String charsetName) {
+        if (str == null || str.length() == 0) {
+            return this;
+        } else {
+            return this.encode(CharBuffer.wrap(str), charsetName);
+        }
+    }
+
+    public SegmentedByteBuffer append(CharSequence cs) {
+        return cs == null ? this : this.append(cs, this.charsetName);
+    }
+
+    public SegmentedByteBuffer append(CharSequence cs, int start, int end) {
+        if (cs == null || start == end) {
+            return this;
+        } else {
+            return this.encode(CharBuffer.wrap(cs, start, end), this.charsetName);
+        }
+    }
+
+    public SegmentedByteBuffer append(char c) {
+        return this.append(c, this.charsetName);
+    }
+
+    /**
+     * 追加字符
+     *
+     * @param c           字符
+     * @param charsetName 字符的编码集
+     * @return 缓冲区
+     */
+    public SegmentedByteBuffer append(char c, String charsetName) {
+        this.chars[0] = c;
+        return this.encode(CharBuffer.wrap(this.chars), charsetName);
+    }
+
+    /**
+     * 返回指定位置上的字节
+     *
+     * @param index 位置，从0开始
+     * @return 字节
+     */
+    public byte byteAt(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IllegalArgumentException(String.valueOf(index));
+        }
+
+        for (int i = 0; i <= this.current; i++) {
+            ByteBuffer buf = this.segments[i];
+            if (index < buf.position()) {
+                return buf.get(index);
+            }
+            index -= buf.position();
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * 返回所有字节段中已写入字节的只读视图
+     *
+     * @return 字节段视图数组
+     */
+    public ByteBuffer[] buffers() {
+        ByteBuffer[] array = new ByteBuffer[this.current + 1];
+        for (int i = 0; i <= this.current; i++) {
+            ByteBuffer buf = this.segments[i].asReadOnlyBuffer();
+            buf.flip();
+            array[i] = buf;
+        }
+        return array;
+    }
+
+    /**
+     * 返回缓冲区中的字节数组副本
+     *
+     * @return 字节数组
+     */
+    public byte[] value() {
+        byte[] array = new byte[this.count];
+        int offset = 0;
+        for (ByteBuffer buf : this.buffers()) {
+            int length = buf.remaining();
+            buf.get(array, offset, length);
+            offset += length;
+        }
+        return array;
+    }
+
+    /**
+     * 向输出流中写入全部字节 <br>
+     * 如果输出流是 {@linkplain FileOutputStream}，则使用文件通道的聚集写入
+     *
+     * @param out 输出流
+     * @throws IOException 写入输出流发生错误
+     */
+    public void write(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullPointerException();
+        }
+        if (out instanceof FileOutputStream) {
+            this.write(((FileOutputStream) out).getChannel());
+            return;
+        }
+
+        byte[] array = null;
+        for (ByteBuffer buf : this.buffers()) {
+            if (buf.hasArray()) {
+                out.write(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            } else {
+                if (array == null) {
+                    array = new byte[Math.min(this.count, 8192)];
+                }
+                while (buf.hasRemaining()) {
+                    int length = Math.min(array.length, buf.remaining());
+                    buf.get(array, 0, length);
+                    out.write(array, 0, length);
+                }
+            }
+        }
+    }
+
+    /**
+     * 向通道中写入全部字节，如果是 {@linkplain GatheringByteChannel} 则一次写入所有字节段
+     *
+     * @param channel 通道
+     * @throws IOException 写入通道发生错误
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new NullPointerException();
+        }
+
+        ByteBuffer[] array = this.buffers();
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gathering = (GatheringByteChannel) channel;
+            for (long length = this.count; length > 0; ) {
+                length -= gathering.write(array);
+            }
+        } else {
+            for (ByteBuffer buf : array) {
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空所有字节，保留已分配的字节段
+     */
+    public void clear() {
+        for (int i = 0; i < this.allocated; i++) {
+            this.segments[i].clear();
+        }
+        this.current = this.allocated == 0 ? -1 : 0;
+        this.count = 0;
+    }
+
+    /**
+     * 清空所有字节，并将所有字节段归还到字节段池中
+     */
+    public void release() {
+        for (int i = 0; i < this.allocated; i++) {
+            free(this.segments[i]);
+            this.segments[i] = null;
+        }
+        this.allocated = 0;
+        this.current = -1;
+        this.count = 0;
+    }
+
+    /**
+     * 字节个数
+     *
+     * @return 字节个数
+     */
+    public int length() {
+        return this.count;
+    }
+
+    /**
+     * 判断缓冲区是否为空
+     *
+     * @return true表示没有字节
+     */
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    /**
+     * 返回已分配的所有字节段的容量之和
+     *
+     * @return 容量
+     */
+    public long getCapacity() {
+        long capacity = 0;
+        for (int i = 0; i < this.allocated; i++) {
+            capacity += this.segments[i].capacity();
+        }
+        return capacity;
+    }
+
+    /**
+     * 返回已分配的字节段个数
+     *
+     * @return 字节段个数
+     */
+    public int getSegments() {
+        return this.allocated;
+    }
+
+    /**
+     * 判断是否使用堆外内存
+     *
+     * @return true表示使用堆外内存
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    /**
+     * 把字节转成字符串
+     *
+     * @param charsetName 字符集
+     * @return 字符串
+     */
+    public String toString(String charsetName) {
+        try {
+            return new String(this.value(), charsetName);
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(charsetName, e);
+        }
+    }
+
+    public String toString() {
+        return this.toString(this.charsetName);
+    }
+
+    public String getCharsetName() {
+        return charsetName;
+    }
+
+    public void setCharsetName(String charsetName) {
+        this.charsetName = charsetName;
+    }
+
+}
@@ -0,0 +1,542 @@
+package icu.etl.collection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.text.Format;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import icu.etl.util.StringUtils;
+
+/**
+ * 分段字符缓冲区 <br>
+ * 与 {@linkplain CharBuffer} 不同，缓冲区由多个字符数组（字符段）组成，容量不足时追加一个新的字符段，不复制已有的字符；
+ * 字符段的容量按2倍增长（最大 {@linkplain #MAX_SEGMENT_SIZE}） <br>
+ * <br>
+ * 适合逐条记录拼接输出内容：每条记录输出后调用 {@linkplain #restore()}，只保留不超过收缩阈值的字符段，其余字符段归还到共享的字符段池中；
+ * 拼接的内容可以通过 {@linkplain #write(Writer)} 或 {@linkplain #write(OutputStream, CharsetEncoder)} 直接输出，不需要先转为字符串 <br>
+ * 缓冲区不是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-19
+ */
+public class SegmentedCharBuffer implements Appendable, CharSequence {
+
+    /** 字符段的最大容量，单位: 字符 */
+    public static int MAX_SEGMENT_SIZE = 64 * 1024;
+
+    /** 字符段池中每种容量的字符段最多保留的个数 */
+    public static int POOL_SIZE = 64;
+
+    /** 编码时使用的字符缓冲区的最大容量 */
+    private final static int ENCODE_BUFFER_SIZE = 8192;
+
+    /** 字符段池，字符段容量与空闲字符段的映射关系 */
+    private final static ConcurrentHashMap<Integer, Queue<char[]>> pool = new ConcurrentHashMap<Integer, Queue<char[]>>();
+
+    /** 第一个字符段的容量 */
+    private final int initCapacity;
+
+    /** 收缩阈值，执行 {@linkplain #restore()} 时保留的字符段容量之和不超过这个值 */
+    private final int shrinkCapacity;
+
+    /** 字符段 */
+    private char[][] segments;
+
+    /** 已分配的字符段个数 */
+    private int allocated;
+
+    /** 正在写入的字符段的位置 */
+    private int current;
+
+    /** 正在写入的字符段中已写入的字符个数 */
+    private int position;
+
+    /** 字符个数 */
+    private int count;
+
+    /** 类型转换器 */
+    private Format converter;
+
+    /**
+     * 初始化，第一个字符段的容量是 128，收缩阈值是 8192
+     */
+    public SegmentedCharBuffer() {
+        this(128, 8192);
+    }
+
+    /**
+     * 初始化
+     *
+     * @param size   第一个字符段的容量, 单位字符
+     * @param shrink 收缩阈值, 单位字符，执行 {@linkplain #restore()} 时保留的字符段容量之和不超过这个值（至少保留第一个字符段）
+     */
+    public SegmentedCharBuffer(int size, int shrink) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(String.valueOf(size));
+        }
+        if (shrink < 0) {
+            throw new IllegalArgumentException(String.valueOf(shrink));
+        }
+
+        this.initCapacity = size;
+        this.shrinkCapacity = shrink;
+        this.segments = new char[8][];
+        this.current = -1;
+    }
+
+    /**
+     * 从字符段池中取出一个字符段，如果没有空闲的字符段则创建一个新的字符段
+     *
+     * @param capacity 容量
+     * @return 字符段
+     */
+    protected static char[] allocate(int capacity) {
+        Queue<char[]> queue = pool.get(capacity);
+        char[] array = queue == null ? null : queue.poll();
+        return array == null ? new char[capacity] : array;
+    }
+
+    /**
+     * 将字符段归还到字符段池中
+     *
+     * @param array 字符段
+     */
+    protected static void free(char[] array) {
+        Queue<char[]> queue = pool.get(array.length);
+        if (queue == null) {
+            pool.putIfAbsent(array.length, new ConcurrentLinkedQueue<char[]>());
+            queue = pool.get(array.length);
+        }
+        if (queue.size() < POOL_SIZE) {
+            queue.offer(array);
+        }
+    }
+
+    /**
+     * 返回一个可以写入字符的字符段，并设置 {@linkplain #position}
+     *
+     * @return 字符段
+     */
+    private char[] segment() {
+        if (this.current >= 0 && this.position < this.segments[this.current].length) {
+            return this.segments[this.current];
+        }
+
+        this.position = 0;
+        if (this.current + 1 < this.allocated) { // 重复使用已分配的字符段
+            return this.segments[++this.current];
+        }
+
+        if (this.allocated == this.segments.length) {
+            char[][] array = new char[this.segments.length * 2][];
+            System.arraycopy(this.segments, 0, array, 0, this.allocated);
+            this.segments = array;
+        }
+
+        long capacity = (long) this.initCapacity << Math.min(this.allocated, 30);
+        char[] array = allocate((int) Math.min(capacity, Math.max(MAX_SEGMENT_SIZE, this.initCapacity)));
+        this.segments[this.allocated++] = array;
+        this.current++;
+        return array;
+    }
+
+    /**
+     * 设置对象格式化接口
+     *
+     * @param converter 转换接口
+     */
+    public void setConverter(Format converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * 追加对象, 使用对象的 toString() 方法（或格式化接口）将对象转为的字符串，并添加到缓冲区
+     *
+     * @param obj 对象
+     * @return 缓冲区
+     */
+    public SegmentedCharBuffer append(Object obj) {
+        if (obj == null) {
+            return this;
+        } else if (obj instanceof CharSequence) {
+            return this.append((CharSequence) obj);
+        } else {
+            return this.append((this.converter == null) ? obj.toString() : this.converter.format(obj));
+        }
+    }
+
+    /**
+     * 追加字符串
+     *
+     * @param str 字符串
+     * @return 缓冲区
+     */
+    public SegmentedCharBuffer append(String str) {
+        return str == null ? this : this.append(str, 0, str.length());
+    }
+
+    /**
+     * 追加字符串
+     *
+     * @param str    字符串
+     * @param offset 字符串起始位置, 从0开始
+     * @param length 追加长度
+     * @return 缓冲区
+     */
+    public SegmentedCharBuffer append(String str, int offset, int length) {
+        if (str == null) {
+            return this;
+        } else if (offset < 0 || length < 0 || offset + length > str.length()) {
+            throw new IllegalArgumentException(str.length() + ", " + offset + ", " + length);
+        }
+
+        while (length > 0) {
+            char[] array = this.segment();
+            int size = Math.min(array.length - this.position, length);
+            str.getChars(offset, offset + size, array, this.position);
+            this.position += size;
+            this.count += size;
+            offset += size;
+            length -= size;
+        }
+        return this;
+    }
+
+    /**
+     * 追加字符数组
+     *
+     * @param array  字符数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 缓冲区
+     */
+    public SegmentedCharBuffer append(char[] array, int offset, int length) {
+        if (array == null) {
+            return this;
+        } else if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IllegalArgumentException(array.length + ", " + offset + ", " + length);
+        }
+
+        while (length > 0) {
+            char[] segment = this.segment();
+            int size = Math.min(segment.length - this.position, length);
+            System.arraycopy(array, offset, segment, this.position, size);
+            this.position += size;
+            this.count += size;
+            offset += size;
+            length -= size;
+        }
+        return this;
+    }
+
+    /**
+     * 追加字符缓冲区
+     *
+     * @param buf 字符缓冲区
+     * @return 缓冲区
+     */
+    public SegmentedCharBuffer append(CharBuffer buf) {
+        return buf == null ? this : this.append(buf.value(), 0, buf.length());
+    }
+
+    /**
+     * 从 Reader 对象中读取所有字符
+     *
+     * @param in 输入流
+     * @return 缓冲区
+     * @throws IOException 读取输入流发生错误
+     */
+    public SegmentedCharBuffer append(Reader in) throws IOException {
+        if (in != null) {
+            while (true) {
+                char[] array = this.segment();
+                int len = in.read(array, this.position, array.length - this.position);
+                if (len == -1) {
+                    break;
+                }
+                this.position += len;
+                this.count += len;
+            }
+        }
+        return this;
+    }
+
+    public SegmentedCharBuffer append(char c) {
+        char[] array = this.segment();
+        array[this.position++] = c;
+        this.count++;
+        return this;
+    }
+
+    public SegmentedCharBuffer append(CharSequence cs) {
+        return cs == null ? this : this.append(cs, 0, cs.length());
+    }
+
+    public SegmentedCharBuffer append(CharSequence cs, int start, int end) {
+        if (cs == null) {
+            return this;
+        } else if (cs instanceof String) {
+            return this.append((String) cs, start, end - start);
+        } else if (cs instanceof CharBuffer) {
+            CharBuffer buf = (CharBuffer) cs;
+            if (start < 0 || start > end || end > buf.length()) {
+                throw new IllegalArgumentException(start + ", " + end);
+            }
+            return this.append(buf.value(), start, end - start);
+        } else {
+            for (int i = start; i < end; i++) {
+                this.append(cs.charAt(i));
+            }
+            return this;
+        }
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IllegalArgumentException(String.valueOf(index));
+        }
+
+        for (int i = 0; ; i++) { // 当前字符段之前的字符段都已写满
+            char[] array = this.segments[i];
+            if (index < array.length) {
+                return array[index];
+            }
+            index -= array.length;
+        }
+    }
+
+    /**
+     * 将缓冲区中的字符复制到字符数组中
+     *
+     * @param begin 缓冲区中的起始位置
+     * @param end   缓冲区中的终止位置（不包含该位置上的字符）
+     * @param dest  字符数组
+     * @param index 字符数组中的起始位置
+     */
+    public void getChars(int begin, int end, char[] dest, int index) {
+        if (begin < 0 || begin > end || end > this.count) {
+            throw new IllegalArgumentException(begin + ", " + end + ", " + this.count);
+        }
+
+        int start = 0;
+        for (int i = 0; i <= this.current && start < end; i++) {
+            char[] array = this.segments[i];
+            int stop = start + (i == this.current ? this.position : array.length);
+            if (stop > begin) {
+                int from = Math.max(begin, start);
+                int to = Math.min(end, stop);
+                System.arraycopy(array, from - start, dest, index, to - from);
+                index += to - from;
+            }
+            start = stop;
+        }
+    }
+
+    /**
+     * 截取缓冲区中的字符串
+     *
+     * @param begin 截取起始位置
+     * @param end   截取终止位置（截取字符串不包含该位置上的字符）
+     * @return 截取的字符串
+     */
+    public String substring(int begin, int end) {
+        char[] array = new char[end - begin];
+        this.getChars(begin, end, array, 0);
+        return new String(array);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        return this.substring(start, end);
+    }
+
+    /**
+     * 将缓冲区中的所有字符写入输出流
+     *
+     * @param out 输出流
+     * @throws IOException 写入输出流发生错误
+     */
+    public void write(Writer out) throws IOException {
+        for (int i = 0; i <= this.current; i++) {
+            char[] array = this.segments[i];
+            out.write(array, 0, i == this.current ? this.position : array.length);
+        }
+    }
+
+    /**
+     * 使用编码器将缓冲区中的所有字符编码后写入输出流（编码器会被重置）
+     *
+     * @param out     输出流
+     * @param encoder 字符集编码器
+     * @throws IOException 写入输出流发生错误
+     */
+    public void write(OutputStream out, CharsetEncoder encoder) throws IOException {
+        int size = Math.min(Math.max(this.count, 16), ENCODE_BUFFER_SIZE);
+        java.nio.CharBuffer in = java.nio.CharBuffer.allocate(size);
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.ceil(size * encoder.maxBytesPerChar()));
+        encoder.reset();
+
+        for (int i = 0; i <= this.current; i++) {
+            char[] array = this.segments[i];
+            int length = i == this.current ? this.position : array.length;
+            for (int offset = 0; offset < length; ) {
+                int len = Math.min(in.remaining(), length - offset);
+                in.put(array, offset, len);
+                offset += len;
+                in.flip();
+                encode(encoder, in, bytes, out, false);
+                in.compact(); // 保留被字符段拆开的代理字符
+            }
+        }
+
+        in.flip();
+        encode(encoder, in, bytes, out, true);
+        while (true) {
+            CoderResult result = encoder.flush(bytes);
+            flush(bytes, out);
+            if (!result.isOverflow()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 编码字符，并将字节写入输出流
+     *
+     * @param encoder 编码器
+     * @param in      字符
+     * @param bytes   字节缓冲区
+     * @param out     输出流
+     * @param end     true表示没有更多字符
+     * @throws IOException 写入输出流发生错误
+     */
+    private static void encode(CharsetEncoder encoder, java.nio.CharBuffer in, ByteBuffer bytes, OutputStream out, boolean end) throws IOException {
+        while (true) {
+            CoderResult result = encoder.encode(in, bytes, end);
+            flush(bytes, out);
+            if (result.isUnderflow()) {
+                return;
+            } else if (!result.isOverflow()) {
+                result.throwException();
+            }
+        }
+    }
+
+    /**
+     * 将字节缓冲区中的字节写入输出流，并清空字节缓冲区
+     *
+     * @param bytes 字节缓冲区
+     * @param out   输出流
+     * @throws IOException 写入输出流发生错误
+     */
+    private static void flush(ByteBuffer bytes, OutputStream out) throws IOException {
+        out.write(bytes.array(), bytes.arrayOffset(), bytes.position());
+        bytes.clear();
+    }
+
+    /**
+     * 清空缓冲区，保留已分配的字符段
+     */
+    public void clear() {
+        this.current = this.allocated == 0 ? -1 : 0;
+        this.position = 0;
+        this.count = 0;
+    }
+
+    /**
+     * 清空缓冲区，只保留容量之和不超过收缩阈值的字符段（至少保留第一个字符段），其余字符段归还到字符段池中
+     */
+    public void restore() {
+        long capacity = 0;
+        int keep = 0;
+        while (keep < this.allocated && (keep == 0 || capacity + this.segments[keep].length <= this.shrinkCapacity)) {
+            capacity += this.segments[keep++].length;
+        }
+        this.shrink(keep);
+    }
+
+    /**
+     * 清空缓冲区，并将所有字符段归还到字符段池中
+     */
+    public void release() {
+        this.shrink(0);
+    }
+
+    /**
+     * 清空缓冲区，只保留前 n 个字符段
+     *
+     * @param n 保留的字符段个数
+     */
+    private void shrink(int n) {
+        for (int i = n; i < this.allocated; i++) {
+            free(this.segments[i]);
+            this.segments[i] = null;
+        }
+        this.allocated = n;
+        this.clear();
+    }
+
+    /**
+     * 返回已分配的所有字符段的容量之和
+     *
+     * @return 容量
+     */
+    public long getCapacity() {
+        long capacity = 0;
+        for (int i = 0; i < this.allocated; i++) {
+            capacity += this.segments[i].length;
+        }
+        return capacity;
+    }
+
+    /**
+     * 返回已分配的字符段个数
+     *
+     * @return 字符段个数
+     */
+    public int getSegments() {
+        return this.allocated;
+    }
+
+    /**
+     * 判断缓冲区是否为空
+     *
+     * @return 返回true表示没有字符
+     */
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    public int length() {
+        return this.count;
+    }
+
+    /**
+     * 判断是否包含字符数组中的任何一个字符
+     *
+     * @param array 字符数组
+     * @return 返回true表示存在字符
+     */
+    public boolean contains(char... array) {
+        for (int i = 0; i <= this.current; i++) {
+            char[] segment = this.segments[i];
+            for (int j = 0, length = i == this.current ? this.position : segment.length; j < length; j++) {
+                if (StringUtils.inArray(segment[j], array)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public String toString() {
+        return this.substring(0, this.count);
+    }
+
+}
@@ -0,0 +1,316 @@
+package icu.etl.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * 异步日志处理器 <br>
+ * 输出日志的线程只将日志记录写入有界环形缓冲区（无锁），由后台线程批量将日志记录交给目标处理器，每批日志输出完成后刷新一次目标处理器 <br>
+ * <br>
+ * 缓冲区满时默认等待后台线程输出日志，设置 {@linkplain #setDiscard(boolean)} 后会丢弃日志记录 <br>
+ * 目标处理器的格式化器需要输出代码位置时，需要设置 {@linkplain #setCaller(boolean)}，在输出日志的线程上查找代码位置 <br>
+ * <br>
+ * 使用方法: <br>
+ * JUL.out.addHandler(new AsyncLogHandler(new ConsoleHandler(), 8192));
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-29
+ */
+public class AsyncLogHandler extends Handler {
+
+    /** 后台线程每批输出日志记录的最大数量 */
+    public static int BATCH_SIZE = 512;
+
+    /** 缓冲区为空时后台线程的最长等待时间，单位纳秒 */
+    public static long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /** 目标处理器 */
+    private final Handler handler;
+
+    /** 环形缓冲区 */
+    private final AtomicReferenceArray<LogRecord> buffer;
+
+    /** 缓冲区中每个位置的序号，等于写入序号时可以写入，等于写入序号+1时可以读取 */
+    private final AtomicLongArray sequences;
+
+    /** 缓冲区容量减一 */
+    private final int mask;
+
+    /** 下一个写入序号 */
+    private final AtomicLong tail;
+
+    /** 下一个读取序号（只有后台线程修改） */
+    private volatile long head;
+
+    /** 丢弃日志记录的数量 */
+    private final AtomicLong discarded;
+
+    /** 后台线程 */
+    private final Thread thread;
+
+    /** true表示后台线程正在等待日志记录 */
+    private volatile boolean waiting;
+
+    /** true表示已关闭 */
+    private volatile boolean closed;
+
+    /** true表示在输出日志的线程上查找代码位置 */
+    private volatile boolean caller;
+
+    /** true表示缓冲区满时丢弃日志记录 */
+    private volatile boolean discard;
+
+    /**
+     * 异步日志处理器
+     *
+     * @param handler  目标处理器
+     * @param capacity 缓冲区容量（会调整为2的幂）
+     */
+    public AsyncLogHandler(Handler handler, int capacity) {
+        super();
+        if (handler == null) {
+            throw new NullPointerException();
+        }
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+
+        this.handler = handler;
+        this.buffer = new AtomicReferenceArray<LogRecord>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+        this.tail = new AtomicLong();
+        this.head = 0;
+        this.discarded = new AtomicLong();
+        this.caller = false;
+        this.discard = false;
+        this.closed = false;
+        this.setLevel(handler.getLevel());
+
+        this.thread = new Thread(new Consumer(), AsyncLogHandler.class.getSimpleName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 设置是否在输出日志的线程上查找代码位置（目标处理器的格式化器需要输出代码位置时设置为true）
+     *
+     * @param caller true表示查找代码位置
+     */
+    public void setCaller(boolean caller) {
+        this.caller = caller;
+    }
+
+    /**
+     * 设置缓冲区满时是否丢弃日志记录
+     *
+     * @param discard true表示丢弃日志记录，false表示等待后台线程输出日志
+     */
+    public void setDiscard(boolean discard) {
+        this.discard = discard;
+    }
+
+    /**
+     * 返回丢弃日志记录的数量
+     *
+     * @return 日志记录数量
+     */
+    public long getDiscarded() {
+        return this.discarded.get();
+    }
+
+    /**
+     * 返回目标处理器
+     *
+     * @return 目标处理器
+     */
+    public Handler getHandler() {
+        return this.handler;
+    }
+
+    public void publish(LogRecord record) {
+        if (record == null || this.closed || !this.isLoggable(record)) {
+            return;
+        }
+
+        LogRecord copy = this.copy(record);
+        while (!this.offer(copy)) {
+            if (this.discard || this.closed) {
+                this.discarded.incrementAndGet();
+                return;
+            }
+
+            this.wakeup();
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        this.wakeup();
+    }
+
+    /**
+     * 复制日志记录（日志记录写入缓冲区后可能被修改）
+     *
+     * @param record 日志记录
+     * @return 日志记录
+     */
+    private LogRecord copy(LogRecord record) {
+        LogRecord copy = new LogRecord(record.getLevel(), record.getMessage());
+        copy.setLoggerName(record.getLoggerName());
+        copy.setMillis(record.getMillis());
+        copy.setSequenceNumber(record.getSequenceNumber());
+        copy.setThreadID(record.getThreadID());
+        copy.setParameters(record.getParameters());
+        copy.setResourceBundle(record.getResourceBundle());
+        copy.setResourceBundleName(record.getResourceBundleName());
+        copy.setThrown(record.getThrown());
+        if (this.caller) {
+            copy.setSourceClassName(record.getSourceClassName());
+            copy.setSourceMethodName(record.getSourceMethodName());
+        } else {
+            copy.setSourceClassName(null); // 不需要在后台线程中查找代码位置
+            copy.setSourceMethodName(null);
+        }
+        return copy;
+    }
+
+    /**
+     * 将日志记录写入缓冲区
+     *
+     * @param record 日志记录
+     * @return 返回false表示缓冲区已满
+     */
+    private boolean offer(LogRecord record) {
+        while (true) {
+            long sequence = this.tail.get();
+            int index = (int) (sequence & this.mask);
+            long diff = this.sequences.get(index) - sequence;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(sequence, sequence + 1)) {
+                    this.buffer.set(index, record);
+                    this.sequences.set(index, sequence + 1); // 发布日志记录
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 从缓冲区读取日志记录（只有后台线程调用）
+     *
+     * @return 返回null表示缓冲区为空
+     */
+    private LogRecord poll() {
+        long sequence = this.head;
+        int index = (int) (sequence & this.mask);
+        if (this.sequences.get(index) != sequence + 1) {
+            return null;
+        }
+
+        LogRecord record = this.buffer.get(index);
+        this.buffer.set(index, null);
+        this.sequences.set(index, sequence + this.mask + 1); // 释放位置
+        this.head = sequence + 1;
+        return record;
+    }
+
+    /**
+     * 唤醒等待中的后台线程
+     */
+    private void wakeup() {
+        if (this.waiting) {
+            LockSupport.unpark(this.thread);
+        }
+    }
+
+    /**
+     * 等待后台线程输出缓冲区中所有的日志记录，并刷新目标处理器
+     */
+    public void flush() {
+        long sequence = this.tail.get();
+        if (Thread.currentThread() != this.thread) {
+            while (this.head < sequence && this.thread.isAlive()) {
+                this.wakeup();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        this.handler.flush();
+    }
+
+    /**
+     * 输出缓冲区中所有的日志记录后，关闭后台线程与目标处理器
+     */
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.handler.close();
+    }
+
+    /**
+     * 后台线程：批量输出日志记录
+     */
+    private class Consumer implements Runnable {
+
+        public void run() {
+            AsyncLogHandler handler = AsyncLogHandler.this;
+            while (true) {
+                int count = 0;
+                for (LogRecord record; count < BATCH_SIZE && (record = handler.poll()) != null; count++) {
+                    try {
+                        handler.handler.publish(record);
+                    } catch (Throwable e) {
+                        handler.reportError(null, e instanceof Exception ? (Exception) e : new RuntimeException(e), ErrorManager.WRITE_FAILURE);
+                    }
+                }
+
+                if (count > 0) {
+                    try {
+                        handler.handler.flush(); // 每批日志刷新一次
+                    } catch (Throwable e) {
+                        handler.reportError(null, e instanceof Exception ? (Exception) e : new RuntimeException(e), ErrorManager.FLUSH_FAILURE);
+                    }
+                    continue;
+                }
+
+                // 缓冲区为空
+                if (handler.closed) {
+                    if (handler.head == handler.tail.get()) {
+                        return;
+                    } else {
+                        continue; // 关闭前写入的日志记录还未发布
+                    }
+                }
+
+                handler.waiting = true;
+                if (handler.sequences.get((int) (handler.head & handler.mask)) != handler.head + 1 && !handler.closed) {
+                    LockSupport.parkNanos(INTERVAL);
+                }
+                handler.waiting = false;
+            }
+        }
+    }
+
+}
@@ -1,7 +1,5 @@
 package icu.etl.util;
 
-import java.io.BufferedReader;
-import java.io.CharArrayReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -231,10 +229,19 @@ public class CharTable implements Iterable<String> {
         return strlist.iterator();
     }
 
+    /**
+     * 计算每列的显示宽度（单元格内容有回车换行符时按显示宽度最长的行计算）
+     *
+     * @return 每列的宽度
+     */
+    public List<Integer> getWidths() {
+        return RenderUtils.getWidths(this);
+    }
+
     /**
      * 字符图形样式枚举
      */
-    public enum Style implements Render {
+    public enum Style implements StreamRender {
         markdown(new MarkdownSytle()) //
         , db2(new DB2Sytle()) //
         , shell(new ShellSytle()) //
@@ -242,15 +249,31 @@ public class CharTable implements Iterable<String> {
         , standard(new StandardSytle()) //
         ;
 
-        private Render rendor;
+        private StreamRender rendor;
 
-        Style(Render rendor) {
+        Style(StreamRender rendor) {
             this.rendor = rendor;
         }
 
         public StringBuilder toString(CharTable charTable) {
             return this.rendor.toString(charTable);
         }
+
+        public String format(String value) {
+            return this.rendor.format(value);
+        }
+
+        public void addHead(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            this.rendor.addHead(buf, ct, widths);
+        }
+
+        public void addBody(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            this.rendor.addBody(buf, ct, widths);
+        }
+
+        public void addTail(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            this.rendor.addTail(buf, ct, widths);
+        }
     }
 
     /**
@@ -267,94 +290,142 @@ public class CharTable implements Iterable<String> {
         StringBuilder toString(CharTable charTable);
     }
 
-    public static class DB2Sytle implements Render {
-        public StringBuilder toString(CharTable ct) {
-            String prefix = "";
-            String last = "";
-            String delimiter = "  ";
+    /**
+     * 分段输出的字符图形渲染接口，表格头部、单元格、表格尾部可以分别输出，详见 {@linkplain CharTableWriter}
+     */
+    public interface StreamRender extends Render {
 
-            StringBuilder buf = new StringBuilder();
-            List<Integer> maxlengths = RenderUtils.getWidths(ct);
-            RenderUtils.addTitle(buf, ct, maxlengths, prefix, delimiter, last);
-            RenderUtils.addBorder(buf, ct, maxlengths, prefix, delimiter, last);
-            RenderUtils.addValue(buf, ct, maxlengths, prefix, delimiter, last);
-            return buf;
-        }
+        /**
+         * 转换标题或单元格中的内容，在计算列宽度之前执行
+         *
+         * @param value 标题或单元格中的内容
+         * @return 转换后的内容
+         */
+        String format(String value);
+
+        /**
+         * 写入表格头部（标题栏与边框）
+         *
+         * @param buf    字符缓冲区
+         * @param ct     表格
+         * @param widths 每列的宽度
+         */
+        void addHead(StringBuilder buf, CharTable ct, List<Integer> widths);
+
+        /**
+         * 写入表格中的所有单元格
+         *
+         * @param buf    字符缓冲区
+         * @param ct     表格
+         * @param widths 每列的宽度
+         */
+        void addBody(StringBuilder buf, CharTable ct, List<Integer> widths);
+
+        /**
+         * 写入表格尾部
+         *
+         * @param buf    字符缓冲区
+         * @param ct     表格
+         * @param widths 每列的宽度
+         */
+        void addTail(StringBuilder buf, CharTable ct, List<Integer> widths);
     }
 
-    public static class ShellSytle implements Render {
+    /**
+     * 字符图形样式的公共实现：先转换标题与单元格的内容，再计算列宽度，最后依次写入表格头部、单元格、表格尾部
+     */
+    public static abstract class AbstractRender implements StreamRender {
+
+        /** 第一列左侧的字符串 */
+        protected String prefix = "";
+
+        /** 最后一列右侧的字符串 */
+        protected String last = "";
+
+        /** 每列之间的分隔符 */
+        protected String delimiter = "  ";
+
         public StringBuilder toString(CharTable ct) {
-            String prefix = "";
-            String last = "";
-            String delimiter = "  ";
+            List<String> titles = ct.getTitles();
+            List<String> values = ct.getCells();
+
+            // 先转换再计算列宽度
+            for (int i = 0; i < titles.size(); i++) {
+                titles.set(i, this.format(titles.get(i)));
+            }
+            for (int i = 0; i < values.size(); i++) {
+                values.set(i, this.format(values.get(i)));
+            }
 
             StringBuilder buf = new StringBuilder();
-            List<Integer> maxlengths = RenderUtils.getWidths(ct);
-            RenderUtils.addTitle(buf, ct, maxlengths, prefix, delimiter, last);
-            RenderUtils.addValue(buf, ct, maxlengths, prefix, delimiter, last);
+            List<Integer> widths = RenderUtils.getWidths(ct);
+            this.addHead(buf, ct, widths);
+            this.addBody(buf, ct, widths);
+            this.addTail(buf, ct, widths);
             return buf;
         }
-    }
 
-    public static class SimpleSytle implements Render {
-        public StringBuilder toString(CharTable ct) {
-            String prefix = "";
-            String last = "";
-            String delimiter = "  ";
+        public String format(String value) {
+            return value;
+        }
 
-            StringBuilder buf = new StringBuilder();
-            List<Integer> maxlengths = RenderUtils.getWidths(ct);
-            RenderUtils.addValue(buf, ct, maxlengths, prefix, delimiter, last);
-            return buf;
+        public void addHead(StringBuilder buf, CharTable ct, List<Integer> widths) {
+        }
+
+        public void addBody(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            RenderUtils.addValue(buf, ct, widths, this.prefix, this.delimiter, this.last);
+        }
+
+        public void addTail(StringBuilder buf, CharTable ct, List<Integer> widths) {
         }
     }
 
-    public static class StandardSytle implements Render {
-        public StringBuilder toString(CharTable ct) {
-            char c = '-';
-            String prefix = "";
-            String last = "";
-            String delimiter = "  ";
+    public static class DB2Sytle extends AbstractRender {
+        public void addHead(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            RenderUtils.addTitle(buf, ct, widths, this.prefix, this.delimiter, this.last);
+            RenderUtils.addBorder(buf, ct, widths, this.prefix, this.delimiter, this.last);
+        }
+    }
 
-            StringBuilder buf = new StringBuilder();
-            List<Integer> maxlengths = RenderUtils.getWidths(ct);
-            RenderUtils.addBorder(buf, ct, maxlengths, c, prefix, delimiter, last);
-            RenderUtils.addTitle(buf, ct, maxlengths, prefix, delimiter, last);
-            RenderUtils.addBorder(buf, ct, maxlengths, prefix, delimiter, last);
-            RenderUtils.addValue(buf, ct, maxlengths, prefix, delimiter, last);
-            RenderUtils.addBorder(buf, ct, maxlengths, c, prefix, delimiter, last);
-            return buf;
+    public static class ShellSytle extends AbstractRender {
+        public void addHead(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            RenderUtils.addTitle(buf, ct, widths, this.prefix, this.delimiter, this.last);
         }
     }
 
-    public static class MarkdownSytle implements Render {
-        public StringBuilder toString(CharTable ct) {
-            List<String> titles = ct.getTitles();
-            List<String> values = ct.getCells();
+    public static class SimpleSytle extends AbstractRender {
+    }
 
-            // 先转义再计算列宽度
-            for (int i = 0; i < titles.size(); i++) {
-                titles.set(i, this.escape(titles.get(i)));
-            }
+    public static class StandardSytle extends AbstractRender {
 
-            // 先转义再计算列宽度
-            for (int i = 0; i < values.size(); i++) {
-                values.set(i, this.escape(values.get(i)));
-            }
+        /** 边框字符 */
+        private char c = '-';
 
-            String prefix = "| ";
-            String last = " |";
-            String delimiter = " | ";
+        public void addHead(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            RenderUtils.addBorder(buf, ct, widths, this.c, this.prefix, this.delimiter, this.last);
+            RenderUtils.addTitle(buf, ct, widths, this.prefix, this.delimiter, this.last);
+            RenderUtils.addBorder(buf, ct, widths, this.prefix, this.delimiter, this.last);
+        }
 
-            StringBuilder buf = new StringBuilder();
-            List<Integer> widths = RenderUtils.getWidths(ct);  // 计算列宽度
-            RenderUtils.addTitle(buf, ct, widths, prefix, delimiter, last); // 添加标题
-            RenderUtils.addBorder(buf, ct, widths, prefix, delimiter, last); // 添加标题栏下面的分隔
-            RenderUtils.addValue(buf, ct, widths, prefix, delimiter, last);
-            return buf;
+        public void addTail(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            RenderUtils.addBorder(buf, ct, widths, this.c, this.prefix, this.delimiter, this.last);
         }
+    }
+
+    public static class MarkdownSytle extends AbstractRender {
 
-        private String escape(String value) {
+        public MarkdownSytle() {
+            this.prefix = "| ";
+            this.last = " |";
+            this.delimiter = " | ";
+        }
+
+        public void addHead(StringBuilder buf, CharTable ct, List<Integer> widths) {
+            RenderUtils.addTitle(buf, ct, widths, this.prefix, this.delimiter, this.last); // 添加标题
+            RenderUtils.addBorder(buf, ct, widths, this.prefix, this.delimiter, this.last); // 添加标题栏下面的分隔
+        }
+
+        public String format(String value) {
             value = StringUtils.replaceAll(value, "|", "\\|"); // 对竖线做转义
             value = FileUtils.replaceLineSeparator(value, "<br>"); // 对回车换行符进行转义
             return value;
@@ -366,33 +437,32 @@ public class CharTable implements Iterable<String> {
         /**
          * 计算字符串参数的显示宽度，如果字符串包含多行（即：有回车换行符），则返回显示宽度最长的行
          *
-         * @param value       字符串
-         * @param charsetName 字符串的字符集
+         * @param value 字符串
+         * @param table 字符串字符集的宽度表
          * @return 返回字符串的显示宽度
          */
-        public static int width(String value, String charsetName) {
+        public static int width(String value, CharWidthTable table) {
             if (value == null) {
                 return 4; // 4 表示 字符串 null 的长度
-            } else if (value.indexOf('\n') != -1 || value.indexOf('\r') != -1) {
-                int max = 0;
-                BufferedReader in = new BufferedReader(new CharArrayReader(value.toCharArray()));
-                try {
-                    String line;
-                    while ((line = in.readLine()) != null) {
-                        int len = StringUtils.width(line, charsetName);
-                        if (len > max) {
-                            max = len;
-                        }
+            }
+
+            int max = 0;
+            int length = value.length();
+            for (int start = 0, i = 0; i <= length; i++) {
+                char c = i < length ? value.charAt(i) : '\n';
+                if (c == '\n' || c == '\r') {
+                    int len = table.width(value, start, i);
+                    if (len > max) {
+                        max = len;
+                    }
+
+                    if (c == '\r' && i + 1 < length && value.charAt(i + 1) == '\n') { // 回车换行符
+                        i++;
                     }
-                    return max;
-                } catch (Exception e) {
-                    throw new RuntimeException(value, e);
-                } finally {
-                    IO.close(in);
+                    start = i + 1;
                 }
-            } else {
-                return StringUtils.width(value, charsetName);
             }
+            return max;
         }
 
         /**
@@ -402,7 +472,7 @@ public class CharTable implements Iterable<String> {
          * @return 每列的宽度
          */
         public static List<Integer> getWidths(CharTable ct) {
-            String charsetName = ct.getCharsetName();
+            CharWidthTable table = CharWidthTable.get(ct.getCharsetName());
             List<String> titles = ct.getTitles();
             List<String> values = ct.getCells();
 
@@ -410,13 +480,13 @@ public class CharTable implements Iterable<String> {
             int size = titles.size();
             for (int i = 0; i < size; i++) {
                 String obj = titles.get(i);
-                int length = width(obj, charsetName);
+                int length = width(obj, table);
                 list.add(length);
             }
 
             for (int i = 0, column = 0; i < values.size(); i++) {
                 String value = values.get(i);
-                int length = width(value, charsetName); // 长度4表示 null 的长度
+                int length = width(value, table); // 长度4表示 null 的长度
                 int oldLength = list.get(column);
                 if (length > oldLength) {
                     list.set(column, length);
@@ -0,0 +1,227 @@
+package icu.etl.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 逐行输出的字符图形表格 <br>
+ * 与 {@linkplain CharTable#toString(CharTable.Render)} 不同，不需要保存表格中所有单元格，每添加完一行单元格就写入输出流，占用的内存与表格行数无关 <br>
+ * <br>
+ * 列宽度可以在初始化时指定，也可以根据前 N 行单元格计算（计算列宽度之前的单元格暂存在缓冲区中）；
+ * 列宽度确定后，超出列宽度的单元格内容会被截断 <br>
+ * e.g:
+ * <pre>
+ * CharTable table = new CharTable();
+ * table.addTitle("id");
+ * table.addTitle("name");
+ * CharTableWriter out = new CharTableWriter(writer, CharTable.Style.standard, table, 100);
+ * out.addCell(1).addCell("jeremy");
+ * out.close();
+ * </pre>
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-21
+ */
+public class CharTableWriter implements Flushable, Closeable {
+
+    /** 输出流 */
+    private final Appendable out;
+
+    /** 渲染样式 */
+    private final CharTable.StreamRender render;
+
+    /** 表格（只保存标题与未输出的单元格） */
+    private final CharTable table;
+
+    /** 计算列宽度时使用的行数 */
+    private final int sample;
+
+    /** 每列的宽度 */
+    private List<Integer> widths;
+
+    /** 字符缓冲区 */
+    private final StringBuilder buf;
+
+    /** true表示已写入表格头部 */
+    private boolean start;
+
+    /** true表示已写入表格尾部 */
+    private boolean closed;
+
+    /**
+     * 初始化，根据前 sample 行单元格计算列宽度
+     *
+     * @param out    输出流
+     * @param render 渲染样式
+     * @param table  表格，包含标题与对齐方式
+     * @param sample 计算列宽度时使用的行数，必须大于零
+     */
+    public CharTableWriter(Appendable out, CharTable.StreamRender render, CharTable table, int sample) {
+        this(out, render, table, sample, null);
+    }
+
+    /**
+     * 初始化，使用指定的列宽度
+     *
+     * @param out    输出流
+     * @param render 渲染样式
+     * @param table  表格，包含标题与对齐方式
+     * @param widths 每列的宽度
+     */
+    public CharTableWriter(Appendable out, CharTable.StreamRender render, CharTable table, List<Integer> widths) {
+        this(out, render, table, 1, widths);
+        if (widths == null) {
+            throw new NullPointerException();
+        }
+    }
+
+    private CharTableWriter(Appendable out, CharTable.StreamRender render, CharTable table, int sample, List<Integer> widths) {
+        if (out == null || render == null || table == null) {
+            throw new NullPointerException();
+        }
+        if (sample <= 0) {
+            throw new IllegalArgumentException(String.valueOf(sample));
+        }
+
+        this.out = out;
+        this.render = render;
+        this.table = table;
+        this.sample = sample;
+        this.widths = widths == null ? null : new ArrayList<Integer>(widths);
+        this.buf = new StringBuilder(128);
+    }
+
+    /**
+     * 添加表格单元格的值（删除字符串二端的空白字符），添加完一行单元格后写入输出流
+     *
+     * @param obj 单元格中的内容
+     * @return 当前对象
+     * @throws IOException 写入输出流发生错误
+     */
+    public CharTableWriter addCell(Object obj) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException();
+        }
+
+        int column = this.table.getTitles().size();
+        if (column == 0) {
+            throw new IllegalStateException();
+        }
+
+        List<String> cells = this.table.addCell(obj).getCells();
+        int last = cells.size() - 1;
+        cells.set(last, this.render.format(cells.get(last)));
+
+        if (cells.size() % column == 0) { // 添加完一行
+            if (this.start) {
+                this.writeBody();
+            } else if (this.widths != null || cells.size() >= column * this.sample) {
+                this.writeHead();
+                this.writeBody();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 写入表格头部，如果未指定列宽度则根据已添加的单元格计算列宽度
+     *
+     * @throws IOException 写入输出流发生错误
+     */
+    private void writeHead() throws IOException {
+        List<String> titles = this.table.getTitles();
+        for (int i = 0; i < titles.size(); i++) {
+            titles.set(i, this.render.format(titles.get(i)));
+        }
+
+        if (this.widths == null) {
+            this.widths = this.table.getWidths();
+        } else if (this.widths.size() < titles.size()) {
+            throw new IllegalArgumentException(this.widths.size() + " < " + titles.size());
+        }
+
+        this.start = true;
+        this.render.addHead(this.buf, this.table, this.widths);
+        this.write();
+    }
+
+    /**
+     * 写入所有已添加的单元格，并从表格中删除
+     *
+     * @throws IOException 写入输出流发生错误
+     */
+    private void writeBody() throws IOException {
+        List<String> cells = this.table.getCells();
+        if (!cells.isEmpty()) {
+            this.render.addBody(this.buf, this.table, this.widths);
+            cells.clear();
+            this.write();
+        }
+    }
+
+    /**
+     * 将字符缓冲区中的内容写入输出流
+     *
+     * @throws IOException 写入输出流发生错误
+     */
+    private void write() throws IOException {
+        if (this.buf.length() > 0) {
+            this.out.append(this.buf);
+            this.buf.setLength(0);
+        }
+    }
+
+    /**
+     * 返回每列的宽度
+     *
+     * @return 返回 null 表示还未计算列宽度
+     */
+    public List<Integer> getWidths() {
+        return this.widths;
+    }
+
+    /**
+     * 返回表格
+     *
+     * @return 表格
+     */
+    public CharTable getTable() {
+        return this.table;
+    }
+
+    public void flush() throws IOException {
+        if (this.out instanceof Flushable) {
+            ((Flushable) this.out).flush();
+        }
+    }
+
+    /**
+     * 写入剩余的单元格与表格尾部（不足一行的单元格使用空字符串补齐），不会关闭输出流
+     *
+     * @throws IOException 写入输出流发生错误
+     */
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        int column = this.table.getTitles().size();
+        List<String> cells = this.table.getCells();
+        while (column > 0 && cells.size() % column != 0) {
+            cells.add("");
+        }
+
+        if (!this.start) {
+            this.writeHead();
+        }
+        this.writeBody();
+        this.render.addTail(this.buf, this.table, this.widths);
+        this.write();
+        this.closed = true;
+        this.flush();
+    }
+
+}
@@ -0,0 +1,148 @@
+package icu.etl.util;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 字符显示宽度表 <br>
+ * 字符在显示器上的宽度与 {@linkplain StringUtils#width(char, String)} 的规则相同：ASCII 字符或编码后只占一个字节的字符宽度是1，其他字符宽度是2 <br>
+ * <br>
+ * 每个字符集对应一个宽度表，宽度表使用位图记录基本多文种平面（BMP）中所有宽字符，
+ * 位图按256个字符分页，第一次查询某页中的字符时才计算整页字符的宽度，之后查询不需要再对字符进行编码 <br>
+ * 宽度表是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-20
+ */
+public class CharWidthTable {
+
+    /** 字符集名称与宽度表的映射关系 */
+    private final static ConcurrentHashMap<String, CharWidthTable> cache = new ConcurrentHashMap<String, CharWidthTable>();
+
+    /**
+     * 返回字符集对应的宽度表
+     *
+     * @param charsetName 字符集
+     * @return 宽度表
+     */
+    public static CharWidthTable get(String charsetName) {
+        if (charsetName == null) {
+            throw new NullPointerException();
+        }
+
+        CharWidthTable table = cache.get(charsetName);
+        if (table == null) {
+            table = new CharWidthTable(charsetName);
+            CharWidthTable old = cache.putIfAbsent(charsetName, table);
+            if (old != null) {
+                table = old;
+            }
+        }
+        return table;
+    }
+
+    /** 字符集 */
+    private final String charsetName;
+
+    /** 位图，每页记录256个字符，位是1表示宽字符 */
+    private final AtomicReferenceArray<long[]> pages;
+
+    /**
+     * 初始化
+     *
+     * @param charsetName 字符集
+     */
+    private CharWidthTable(String charsetName) {
+        if (!Charset.isSupported(charsetName)) {
+            throw new IllegalArgumentException(charsetName);
+        }
+
+        this.charsetName = charsetName;
+        this.pages = new AtomicReferenceArray<long[]>(256);
+    }
+
+    /**
+     * 计算一页字符的宽度（多个线程同时计算同一页时结果相同，不需要加锁）
+     *
+     * @param index 页号
+     * @return 位图
+     */
+    private long[] build(int index) {
+        long[] page = new long[4];
+        char[] array = new char[1];
+        try {
+            for (int i = 0; i < 256; i++) {
+                char c = (char) ((index << 8) | i);
+                array[0] = c;
+                if (!StringUtils.isAscii(c) && new String(array).getBytes(this.charsetName).length != 1) {
+                    page[i >>> 6] |= 1L << (i & 63);
+                }
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalArgumentException(this.charsetName, e);
+        }
+
+        this.pages.set(index, page);
+        return page;
+    }
+
+    /**
+     * 计算字符在显示器上的宽度
+     *
+     * @param c 字符
+     * @return 1表示半角字符 2表示全角字符
+     */
+    public int width(char c) {
+        if (c <= 127) {
+            return 1;
+        }
+
+        int index = c >>> 8;
+        long[] page = this.pages.get(index);
+        if (page == null) {
+            page = this.build(index);
+        }
+        return (page[(c & 0xFF) >>> 6] & (1L << (c & 63))) == 0 ? 1 : 2;
+    }
+
+    /**
+     * 计算字符串在显示器上的宽度
+     *
+     * @param str 字符串
+     * @return 显示宽度
+     */
+    public int width(CharSequence str) {
+        return this.width(str, 0, str.length());
+    }
+
+    /**
+     * 计算字符串在显示器上的宽度
+     *
+     * @param str   字符串
+     * @param start 起始位置（包含）
+     * @param end   终止位置（不包含）
+     * @return 显示宽度
+     */
+    public int width(CharSequence str, int start, int end) {
+        int width = end - start;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c > 127) {
+                width += this.width(c) - 1;
+            }
+        }
+        return width;
+    }
+
+    /**
+     * 返回字符集
+     *
+     * @return 字符集
+     */
+    public String getCharsetName() {
+        return this.charsetName;
+    }
+
+}
@@ -0,0 +1,235 @@
+package icu.etl.util;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 类的反射信息缓存 <br>
+ * 缓存类中已查找过的方法（包括不存在的方法）、声明的字段与按正则表达式匹配的字段，重复查找时不再调用反射接口，也不会因为方法不存在而创建异常 <br>
+ * <br>
+ * 缓存使用类信息作为弱引用键，缓存的反射信息使用软引用保存（反射信息会引用类信息），不会阻止类加载器被回收 <br>
+ * 返回的方法与字段是缓存中的共享对象，调用者不能修改（例如: 调用 {@linkplain java.lang.reflect.AccessibleObject#setAccessible(boolean)}），
+ * 需要修改访问权限时，应使用 {@linkplain Class#getDeclaredField(String)} 或 {@linkplain Class#getDeclaredMethod(String, Class[])} 重新查找 <br>
+ * 对象是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-28
+ */
+public class ClassMetadata {
+
+    /** 类信息与反射信息的映射关系 */
+    private final static Map<Class<?>, SoftReference<ClassMetadata>> cache = new WeakHashMap<Class<?>, SoftReference<ClassMetadata>>();
+
+    /** 表示方法不存在 */
+    private final static Object NONE = new Object();
+
+    /**
+     * 返回类的反射信息
+     *
+     * @param cls 类信息
+     * @return 反射信息
+     */
+    public static ClassMetadata get(Class<?> cls) {
+        if (cls == null) {
+            throw new NullPointerException();
+        }
+
+        synchronized (cache) {
+            SoftReference<ClassMetadata> reference = cache.get(cls);
+            ClassMetadata metadata = reference == null ? null : reference.get();
+            if (metadata == null) {
+                metadata = new ClassMetadata(cls);
+                cache.put(cls, new SoftReference<ClassMetadata>(metadata));
+            }
+            return metadata;
+        }
+    }
+
+    /** 类信息 */
+    private final Class<?> type;
+
+    /** 已查找过的方法，{@linkplain #NONE} 表示方法不存在 */
+    private final ConcurrentHashMap<Key, Object> methods;
+
+    /** 按正则表达式匹配的字段 */
+    private final ConcurrentHashMap<Key, List<Field>> matches;
+
+    /** 类中声明的字段 */
+    private volatile Field[] fields;
+
+    private ClassMetadata(Class<?> type) {
+        this.type = type;
+        this.methods = new ConcurrentHashMap<Key, Object>();
+        this.matches = new ConcurrentHashMap<Key, List<Field>>();
+    }
+
+    /**
+     * 返回类信息
+     *
+     * @return 类信息
+     */
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * 查找方法，查找规则与 {@linkplain ClassUtils#getMethod(Object, String, Class[])} 相同: <br>
+     * 先查找公共方法（含父类的公共方法），不存在时在类声明的方法中查找；
+     * 只有一个同名方法时直接返回，有多个同名方法时返回参数类型相同的方法
+     *
+     * @param name           方法名
+     * @param parameterTypes 方法的输入参数类型
+     * @return 方法对象（共享对象，不能修改），返回 null 表示方法不存在
+     */
+    public Method getMethod(String name, Class<?>... parameterTypes) {
+        if (parameterTypes == null) {
+            parameterTypes = new Class<?>[0];
+        }
+
+        Object value = this.methods.get(new Key(name, parameterTypes));
+        if (value == null) {
+            Method method = this.findMethod(name, parameterTypes);
+            value = method == null ? NONE : method;
+            this.methods.put(new Key(name, parameterTypes.clone()), value); // 复制参数类型数组，防止数组被修改
+        }
+        return value == NONE ? null : (Method) value;
+    }
+
+    /**
+     * 使用反射接口查找方法
+     *
+     * @param name           方法名
+     * @param parameterTypes 方法的输入参数类型
+     * @return 方法对象，返回 null 表示方法不存在
+     */
+    private Method findMethod(String name, Class<?>[] parameterTypes) {
+        try {
+            return this.type.getMethod(name, parameterTypes);
+        } catch (Throwable e) {
+            Method[] methods = this.type.getDeclaredMethods();
+            List<Method> list = new ArrayList<Method>(methods.length);
+            for (Method method : methods) {
+                if (method.getName().equals(name)) { // 判断方法名是否相等
+                    list.add(method);
+                }
+            }
+
+            if (list.isEmpty()) {
+                return null;
+            } else if (list.size() == 1) {
+                return list.get(0);
+            } else {
+                for (Method method : list) {
+                    if (Arrays.equals(method.getParameterTypes(), parameterTypes)) { // 判断参数类型是否相等
+                        return method;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 返回类中声明的字段（不含父类的字段）
+     *
+     * @return 字段数组（共享对象，不能修改数组与数组中的字段）
+     */
+    public Field[] getDeclaredFields() {
+        Field[] array = this.fields;
+        if (array == null) {
+            array = this.type.getDeclaredFields();
+            this.fields = array;
+        }
+        return array;
+    }
+
+    /**
+     * 返回类中声明的字段
+     *
+     * @param name 字段名
+     * @return 字段（共享对象，不能修改），返回 null 表示字段不存在
+     */
+    public Field getDeclaredField(String name) {
+        for (Field field : this.getDeclaredFields()) {
+            if (field.getName().equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回字段名与正则表达式匹配、且字段类型相同的字段（类中声明的字段）
+     *
+     * @param regex 匹配字段名的正则表达式
+     * @param type  字段类型
+     * @return 字段集合（共享对象，不能修改集合与集合中的字段）
+     */
+    public List<Field> getDeclaredFields(String regex, Class<?> type) {
+        Key key = new Key(regex, type);
+        List<Field> list = this.matches.get(key);
+        if (list == null) {
+            Pattern pattern = Pattern.compile(regex);
+            list = new ArrayList<Field>();
+            for (Field field : this.getDeclaredFields()) {
+                if (pattern.matcher(field.getName()).matches() && field.getType().equals(type)) {
+                    list.add(field);
+                }
+            }
+            list = Collections.unmodifiableList(list);
+            this.matches.put(key, list);
+        }
+        return list;
+    }
+
+    public String toString() {
+        return this.type.getName();
+    }
+
+    /**
+     * 缓存的键: 名字与类型数组
+     */
+    private static class Key {
+
+        /** 名字 */
+        private final String name;
+
+        /** 类型数组 */
+        private final Class<?>[] types;
+
+        /** 哈希值 */
+        private final int hash;
+
+        public Key(String name, Class<?>... types) {
+            this.name = name;
+            this.types = types;
+            this.hash = 31 * (name == null ? 0 : name.hashCode()) + Arrays.hashCode(types);
+        }
+
+        public int hashCode() {
+            return this.hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) obj;
+            return this.hash == key.hash && (this.name == null ? key.name == null : this.name.equals(key.name)) && Arrays.equals(this.types, key.types);
+        }
+    }
+
+}
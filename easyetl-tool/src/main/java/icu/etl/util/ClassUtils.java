@@ -15,10 +15,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * 类信息工具
@@ -34,6 +38,15 @@ public class ClassUtils {
     /** 当前JAVA虚拟机的默认类路径 */
     public static String CLASSPATH = System.getProperty(PROPERTY_CLASSPATH);
 
+    /** 类信息与 classpath 路径的映射关系 */
+    private final static Map<Class<?>, String> classpathCache = new WeakHashMap<Class<?>, String>();
+
+    /** 类信息与 jar 文件路径的映射关系 */
+    private final static Map<Class<?>, String> jarpathCache = new WeakHashMap<Class<?>, String>();
+
+    /** 缓存对应的 {@linkplain #CLASSPATH} 与 java.class.path 属性值 */
+    private static String classpathKey;
+
     public ClassUtils() {
     }
 
@@ -151,19 +164,8 @@ public class ClassUtils {
      * @throws RuntimeException 如果属性不存在则抛出异常
      */
     public static String toFieldName(Object obj, String name) {
-        Field f = null;
         Class<?> cls = (obj instanceof Class) ? ((Class<?>) obj) : obj.getClass();
-        try {
-            f = cls.getDeclaredField(name);
-        } catch (Throwable e) {
-            Field[] array = cls.getDeclaredFields();
-            for (Field field : array) {
-                if (field.getName().equals(name)) {
-                    f = field;
-                    break;
-                }
-            }
-        }
+        Field f = ClassMetadata.get(cls).getDeclaredField(name);
 
         if (f == null) {
             throw new RuntimeException(name);
@@ -225,45 +227,11 @@ public class ClassUtils {
      * @param obj            JAVA对象
      * @param name           方法名
      * @param parameterTypes 方法的输入参数类型
-     * @return 方法对象
+     * @return 方法对象（缓存中的共享对象，不能修改，如需调用 {@linkplain Method#setAccessible(boolean)} 需要重新查找方法）
      */
     public static Method getMethod(Object obj, String name, Class<?>... parameterTypes) {
         Class<?> cls = (obj instanceof Class) ? ((Class<?>) obj) : obj.getClass();
-        try {
-            Method method = cls.getMethod(name, parameterTypes);
-            return method;
-        } catch (Throwable e) {
-            Method[] methods = cls.getDeclaredMethods();
-            List<Method> list = new ArrayList<Method>(methods.length);
-            for (Method method : methods) {
-                if (method.getName().equals(name)) { // 判断方法名是否相等
-                    list.add(method);
-                }
-            }
-
-            if (list.isEmpty()) {
-                return null;
-            } else if (list.size() == 1) {
-                return list.get(0);
-            } else {
-                for (Method method : list) {
-                    Class<?>[] types = method.getParameterTypes();
-                    if (types.length == parameterTypes.length) {
-                        boolean b = true;
-                        for (int i = 0; i < types.length; i++) {
-                            if (!types[i].equals(parameterTypes[i])) { // 判断参数类型是否相等
-                                b = false;
-                                break;
-                            }
-                        }
-                        if (b) {
-                            return method;
-                        }
-                    }
-                }
-            }
-            return null;
-        }
+        return ClassMetadata.get(cls).getMethod(name, parameterTypes);
     }
 
     /**
@@ -294,22 +262,23 @@ public class ClassUtils {
      * @param newValue   新值
      */
     public static <E> void setField(Object obj, String fieldRegex, Class<E> fieldClass, E newValue) {
-        Field[] list = obj.getClass().getDeclaredFields();
-        for (Field field : list) {
-            String name = field.getName();
-            if (name.matches(fieldRegex) && field.getType().equals(fieldClass)) {
-                try {
-                    JUL.debug("change Class: " + obj.getClass().getName() + ", Field: " + name + ", Type: " + field.getType().getName());
-
-                    field.setAccessible(true);
+        List<Field> list = ClassMetadata.get(obj.getClass()).getDeclaredFields(fieldRegex, fieldClass);
+        for (Field cached : list) {
+            String name = cached.getName();
+            try {
+                JUL.debug("change Class: " + obj.getClass().getName() + ", Field: " + name + ", Type: " + cached.getType().getName());
+
+                Field field = cached.getDeclaringClass().getDeclaredField(name); // 缓存中的字段是共享对象，需要使用新的字段对象修改访问权限与修饰符
+                field.setAccessible(true);
+                if (Modifier.isFinal(field.getModifiers())) { // 只有 final 字段需要删除修饰符
                     Field modifiers = Field.class.getDeclaredField("modifiers");
                     modifiers.setAccessible(true);
                     modifiers.setInt(field, field.getModifiers() & ~Modifier.FINAL);
-                    field.set(obj, newValue);
-//                    modifiers.setInt(field, field.getModifiers() & ~Modifier.FINAL); // 再把final修饰符给加回来
-                } catch (Throwable e) {
-                    JUL.warn(obj.getClass().getName(), e);
                 }
+                field.set(obj, newValue);
+//                modifiers.setInt(field, field.getModifiers() & ~Modifier.FINAL); // 再把final修饰符给加回来
+            } catch (Throwable e) {
+                JUL.warn(obj.getClass().getName(), e);
             }
         }
     }
@@ -337,7 +306,8 @@ public class ClassUtils {
     }
 
     /**
-     * 返回 JAVA 类信息所在的 classpath 路径，如果类信息在 jar 文件中则返回 jar 文件绝对路径。
+     * 返回 JAVA 类信息所在的 classpath 路径，如果类信息在 jar 文件中则返回 jar 文件绝对路径。 <br>
+     * 查找结果会被缓存，修改 {@linkplain #CLASSPATH} 或 java.class.path 属性后缓存自动失效，也可以调用 {@linkplain #clearClasspath()} 删除缓存
      *
      * @param cls 类信息
      * @return classpath目录绝对路径或jar文件绝对路径
@@ -347,47 +317,96 @@ public class ClassUtils {
             throw new NullPointerException();
         }
 
-        // 优先检查用户自定义的 CLASSPATH
-        if (ClassUtils.CLASSPATH != null) {
-            if (JUL.isDebugEnabled()) {
-                JUL.debug(ResourcesUtils.getCommonMessage(8, cls.getName(), ClassUtils.CLASSPATH));
-            }
+        List<Class<?>> list = new ArrayList<Class<?>>(1);
+        list.add(cls);
+        return ClassUtils.getClasspaths(list).get(cls);
+    }
 
-            if (ClassUtils.isClasspath0(ClassUtils.CLASSPATH, cls)) {
-                return ClassUtils.CLASSPATH;
-            }
+    /**
+     * 返回多个 JAVA 类信息所在的 classpath 路径，查找规则与 {@linkplain #getClasspath(Class)} 相同 <br>
+     * 所有类只遍历一次环境变量 CLASSPATH 中的类路径
+     *
+     * @param classes 类信息集合
+     * @return 类信息与 classpath目录绝对路径或jar文件绝对路径 的映射关系（按参数的顺序）
+     */
+    public static Map<Class<?>, String> getClasspaths(Collection<Class<?>> classes) {
+        if (classes == null) {
+            throw new NullPointerException();
         }
 
-        // 查询根路径下的 CLASSPATH, 使用场景如: WebContainer
-        String classpath0 = StringUtils.decodeJvmUtf8HexString(cls.getResource("/").getFile());
-        if (classpath0 != null) {
-            if (JUL.isDebugEnabled()) {
-                JUL.debug(ResourcesUtils.getCommonMessage(9, cls.getName(), classpath0));
-            }
+        Map<Class<?>, String> map = new LinkedHashMap<Class<?>, String>();
+        List<Class<?>> list = new ArrayList<Class<?>>(classes.size());
+        synchronized (classpathCache) {
+            ClassUtils.checkClasspath();
+            for (Class<?> cls : classes) {
+                if (cls == null) {
+                    throw new NullPointerException();
+                }
 
-            if (ClassUtils.isClasspath0(classpath0, cls)) {
-                return ClassUtils.getClasspath(classpath0);
+                if (classpathCache.containsKey(cls)) {
+                    map.put(cls, classpathCache.get(cls));
+                } else {
+                    map.put(cls, null);
+                    list.add(cls);
+                }
             }
         }
 
-        // 查询类信息当前路径下的 CLASSPATH, 使用场景如: WebSphere
-        String classpath1 = StringUtils.decodeJvmUtf8HexString(cls.getResource("").getPath());
-        if (classpath1 != null) {
-            if (JUL.isDebugEnabled()) {
-                JUL.debug(ResourcesUtils.getCommonMessage(10, cls.getName(), classpath1));
+        if (!list.isEmpty()) {
+            Map<Class<?>, String> result = new HashMap<Class<?>, String>();
+            ClassUtils.findClasspath(list, result);
+            synchronized (classpathCache) {
+                classpathCache.putAll(result);
             }
+            map.putAll(result);
+        }
+        return map;
+    }
 
-            if (ClassUtils.isClasspath1(classpath1)) {
-                // 截取 classpath 中右侧的JAVA包文件路径, 如: D:\...\classes\cn\com\baidu\webs （删右侧的 cn\com\baidu\webs 得到 classpath 路径）
-                String classPackName = cls.getPackage().getName().replace('.', File.separatorChar);
-                classpath1 = FileUtils.replaceFolderSeparator(StringUtils.rtrim(classpath1, '/', '\\'));
-                if (classpath1.endsWith(classPackName)) {
-                    classpath1 = classpath1.substring(0, classpath1.length() - classPackName.length());
-                }
-                return ClassUtils.getClasspath(classpath1);
+    /**
+     * 删除 {@linkplain #getClasspath(Class)} 与 {@linkplain #getJarPath(Class)} 缓存的查找结果（如: 类路径中增加了新目录）
+     */
+    public static void clearClasspath() {
+        synchronized (classpathCache) {
+            classpathCache.clear();
+            jarpathCache.clear();
+            classpathKey = null;
+        }
+    }
+
+    /**
+     * 如果 {@linkplain #CLASSPATH} 或 java.class.path 属性发生变化，则删除缓存的查找结果
+     */
+    private static void checkClasspath() {
+        String key = ClassUtils.CLASSPATH + File.pathSeparator + System.getProperty("java.class.path");
+        if (!key.equals(classpathKey)) {
+            classpathCache.clear();
+            jarpathCache.clear();
+            classpathKey = key;
+        }
+    }
+
+    /**
+     * 查找类信息所在的 classpath 路径
+     *
+     * @param classes 类信息集合
+     * @param result  类信息与 classpath 路径的映射关系
+     */
+    private static void findClasspath(List<Class<?>> classes, Map<Class<?>, String> result) {
+        List<Class<?>> list = new ArrayList<Class<?>>(classes.size());
+        for (Class<?> cls : classes) {
+            String classpath = ClassUtils.findClasspath(cls);
+            if (classpath == null) {
+                list.add(cls);
+            } else {
+                result.put(cls, classpath);
             }
         }
 
+        if (list.isEmpty()) {
+            return;
+        }
+
         // 从环境变量 CLASSPATH 中读取类所在类目录
         List<String> classpaths = new ArrayList<String>();
         String[] array = ClassUtils.getJavaClassPath();
@@ -398,36 +417,33 @@ public class ClassUtils {
                 continue;
             } else if (file.exists() && file.isDirectory()) {
                 classpaths.add(file.getAbsolutePath());
-                String classPackageName = cls.getPackage().getName().replace('.', File.separatorChar);
-                String classfilepath = FileUtils.joinPath(file.getAbsolutePath(), classPackageName);
-                if (JUL.isDebugEnabled()) {
-                    JUL.debug(ResourcesUtils.getCommonMessage(12, cls.getName(), classfilepath));
+                for (Iterator<Class<?>> it = list.iterator(); it.hasNext(); ) {
+                    Class<?> cls = it.next();
+                    String classPackageName = cls.getPackage().getName().replace('.', File.separatorChar);
+                    String classfilepath = FileUtils.joinPath(file.getAbsolutePath(), classPackageName);
+                    if (JUL.isDebugEnabled()) {
+                        JUL.debug(ResourcesUtils.getCommonMessage(12, cls.getName(), classfilepath));
+                    }
+
+                    if (ClassUtils.isClasspath1(classfilepath)) {
+                        result.put(cls, file.getAbsolutePath());
+                        it.remove();
+                    }
                 }
 
-                if (ClassUtils.isClasspath1(classfilepath)) {
-                    return file.getAbsolutePath();
+                if (list.isEmpty()) {
+                    return;
                 }
             } else {
                 if (JUL.isWarnEnabled()) {
-                    JUL.warn(ResourcesUtils.getCommonMessage(13, cls.getName(), file.getAbsolutePath())); // 类路径不合法
+                    JUL.warn(ResourcesUtils.getCommonMessage(13, list.get(0).getName(), file.getAbsolutePath())); // 类路径不合法
                 }
             }
         }
 
-        // 查询类信息所在 jar 文件的绝对路径
-        String jarfilepath = ClassUtils.getJarPath(cls);
-        if (jarfilepath != null) {
-            if (JUL.isDebugEnabled()) {
-                JUL.debug(ResourcesUtils.getCommonMessage(11, cls.getName(), jarfilepath)); // 类路径不合法
-            }
-
-            return new File(jarfilepath).getAbsolutePath();
-        }
-
         // 默认从环境变量中选一个类路径目录作为返回值
-        if (classpaths.isEmpty()) {
-            return null;
-        } else {
+        String defaultClasspath = null;
+        if (!classpaths.isEmpty()) {
             Comparator<String> c = new Comparator<String>() {
                 public int compare(String o1, String o2) {
                     String[] a1 = StringUtils.split(o1, File.separatorChar);
@@ -445,10 +461,76 @@ public class ClassUtils {
             };
 
             Collections.sort(classpaths, c);
-            return classpaths.get(classpaths.size() - 1); // 默认返回环境变量 CLASSPATH 中最后一个类目录
+            defaultClasspath = classpaths.get(classpaths.size() - 1); // 默认返回环境变量 CLASSPATH 中最后一个类目录
+        }
+
+        for (Class<?> cls : list) {
+            // 查询类信息所在 jar 文件的绝对路径
+            String jarfilepath = ClassUtils.getJarPath(cls);
+            if (jarfilepath != null) {
+                if (JUL.isDebugEnabled()) {
+                    JUL.debug(ResourcesUtils.getCommonMessage(11, cls.getName(), jarfilepath)); // 类路径不合法
+                }
+
+                result.put(cls, new File(jarfilepath).getAbsolutePath());
+            } else {
+                result.put(cls, defaultClasspath);
+            }
         }
     }
 
+    /**
+     * 从用户自定义的 CLASSPATH 与类加载器的资源路径中查找类信息所在的 classpath 路径
+     *
+     * @param cls 类信息
+     * @return classpath 路径，返回 null 表示未找到
+     */
+    private static String findClasspath(Class<?> cls) {
+        // 优先检查用户自定义的 CLASSPATH
+        if (ClassUtils.CLASSPATH != null) {
+            if (JUL.isDebugEnabled()) {
+                JUL.debug(ResourcesUtils.getCommonMessage(8, cls.getName(), ClassUtils.CLASSPATH));
+            }
+
+            if (ClassUtils.isClasspath0(ClassUtils.CLASSPATH, cls)) {
+                return ClassUtils.CLASSPATH;
+            }
+        }
+
+        // 查询根路径下的 CLASSPATH, 使用场景如: WebContainer
+        URL root = cls.getResource("/");
+        String classpath0 = root == null ? null : StringUtils.decodeJvmUtf8HexString(root.getFile());
+        if (classpath0 != null) {
+            if (JUL.isDebugEnabled()) {
+                JUL.debug(ResourcesUtils.getCommonMessage(9, cls.getName(), classpath0));
+            }
+
+            if (ClassUtils.isClasspath0(classpath0, cls)) {
+                return ClassUtils.getClasspath(classpath0);
+            }
+        }
+
+        // 查询类信息当前路径下的 CLASSPATH, 使用场景如: WebSphere
+        URL current = cls.getResource("");
+        String classpath1 = current == null ? null : StringUtils.decodeJvmUtf8HexString(current.getPath());
+        if (classpath1 != null) {
+            if (JUL.isDebugEnabled()) {
+                JUL.debug(ResourcesUtils.getCommonMessage(10, cls.getName(), classpath1));
+            }
+
+            if (ClassUtils.isClasspath1(classpath1)) {
+                // 截取 classpath 中右侧的JAVA包文件路径, 如: D:\...\classes\cn\com\baidu\webs （删右侧的 cn\com\baidu\webs 得到 classpath 路径）
+                String classPackName = cls.getPackage().getName().replace('.', File.separatorChar);
+                classpath1 = FileUtils.replaceFolderSeparator(StringUtils.rtrim(classpath1, '/', '\\'));
+                if (classpath1.endsWith(classPackName)) {
+                    classpath1 = classpath1.substring(0, classpath1.length() - classPackName.length());
+                }
+                return ClassUtils.getClasspath(classpath1);
+            }
+        }
+        return null;
+    }
+
     /**
      * 判断类路径下是否存在 WEB-INF/classes 目录
      *
@@ -508,7 +590,8 @@ public class ClassUtils {
     }
 
     /**
-     * 返回类文件（*.class）所在jar文件的绝对路径, 如果是多层jar包嵌套，则返回第一层jar所在路径
+     * 返回类文件（*.class）所在jar文件的绝对路径, 如果是多层jar包嵌套，则返回第一层jar所在路径 <br>
+     * 查找结果会被缓存，与 {@linkplain #getClasspath(Class)} 使用相同的失效规则
      *
      * @param cls 类信息
      * @return 如果类信息参数不在 jar 包中时返回 null
@@ -518,6 +601,27 @@ public class ClassUtils {
             return null;
         }
 
+        synchronized (classpathCache) {
+            ClassUtils.checkClasspath();
+            if (jarpathCache.containsKey(cls)) {
+                return jarpathCache.get(cls);
+            }
+        }
+
+        String jarpath = ClassUtils.findJarPath(cls);
+        synchronized (classpathCache) {
+            jarpathCache.put(cls, jarpath);
+        }
+        return jarpath;
+    }
+
+    /**
+     * 从类信息的代码来源中查找jar文件的绝对路径
+     *
+     * @param cls 类信息
+     * @return 如果类信息参数不在 jar 包中时返回 null
+     */
+    private static String findJarPath(Class<?> cls) {
         ProtectionDomain domain = cls.getProtectionDomain();
         if (domain == null) {
             throw new RuntimeException(cls.getName());
@@ -0,0 +1,210 @@
+package icu.etl.util;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 预编译的国际化信息 <br>
+ * 信息的格式与 {@linkplain MessageFormat} 相同，只解析一次信息，解析结果由字符串常量与参数位置（如: {0}）组成，
+ * 格式化时按顺序把常量与参数值写入缓冲区，不需要每次重新解析信息 <br>
+ * <br>
+ * 信息中只有简单参数（格式: {数字}）时使用预编译的结果，格式化结果与 {@linkplain MessageFormat#format(String, Object...)} 相同；
+ * 参数带格式类型（如: {0,number,#.##}）或信息格式不正确时使用 {@linkplain MessageFormat} 格式化 <br>
+ * 对象是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-29
+ */
+public class CompiledMessage {
+
+    /** 参数位置的最大值（与 {@linkplain MessageFormat} 相同） */
+    private final static int MAX_INDEX = 10000;
+
+    /** 信息 */
+    private final String pattern;
+
+    /** 字符串常量，参数位置上是 null */
+    private final String[] texts;
+
+    /** 参数位置，字符串常量的位置上是 -1 */
+    private final int[] indexes;
+
+    /** true表示使用 {@linkplain MessageFormat} 格式化 */
+    private final boolean complex;
+
+    /** 字符串常量的总长度 */
+    private final int length;
+
+    /**
+     * 预编译信息
+     *
+     * @param pattern 信息，格式与 {@linkplain MessageFormat} 相同
+     */
+    public CompiledMessage(String pattern) {
+        if (pattern == null) {
+            throw new NullPointerException();
+        }
+
+        this.pattern = pattern;
+        List<String> texts = new ArrayList<String>();
+        List<Integer> indexes = new ArrayList<Integer>();
+        boolean complex = this.parse(pattern, texts, indexes);
+
+        int size = texts.size();
+        this.texts = texts.toArray(new String[size]);
+        this.indexes = new int[size];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            this.indexes[i] = indexes.get(i);
+            if (this.texts[i] != null) {
+                length += this.texts[i].length();
+            }
+        }
+        this.length = length;
+        this.complex = complex;
+    }
+
+    /**
+     * 解析信息
+     *
+     * @param pattern 信息
+     * @param texts   字符串常量
+     * @param indexes 参数位置
+     * @return 返回true表示信息中有简单参数以外的格式，需要使用 {@linkplain MessageFormat} 格式化
+     */
+    private boolean parse(String pattern, List<String> texts, List<Integer> indexes) {
+        StringBuilder buf = new StringBuilder(pattern.length());
+        boolean quoted = false;
+        for (int i = 0, length = pattern.length(); i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'') { // 两个单引号表示一个单引号
+                    buf.append('\'');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (quoted || c != '{') {
+                buf.append(c);
+            } else {
+                int end = pattern.indexOf('}', i + 1);
+                if (end == -1) {
+                    return true;
+                }
+
+                int index = this.toIndex(pattern, i + 1, end);
+                if (index == -1) {
+                    return true;
+                }
+
+                if (buf.length() > 0) {
+                    texts.add(buf.toString());
+                    indexes.add(-1);
+                    buf.setLength(0);
+                }
+                texts.add(null);
+                indexes.add(index);
+                i = end;
+            }
+        }
+
+        if (buf.length() > 0) {
+            texts.add(buf.toString());
+            indexes.add(-1);
+        }
+        return false;
+    }
+
+    /**
+     * 解析参数位置
+     *
+     * @param pattern 信息
+     * @param begin   参数的起始位置（包含）
+     * @param end     参数的结束位置（不包含）
+     * @return 参数位置，返回-1表示不是简单参数
+     */
+    private int toIndex(String pattern, int begin, int end) {
+        if (begin == end || end - begin > 5) {
+            return -1;
+        }
+
+        int index = 0;
+        for (int i = begin; i < end; i++) {
+            char c = pattern.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index < MAX_INDEX ? index : -1;
+    }
+
+    /**
+     * 返回信息
+     *
+     * @return 信息
+     */
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    /**
+     * 将参数带入信息中
+     *
+     * @param args 参数
+     * @return 字符串
+     */
+    public String format(Object... args) {
+        if (this.complex) {
+            return MessageFormat.format(this.pattern, args);
+        } else {
+            return this.format(new StringBuilder(this.length + 16 * this.texts.length), args).toString();
+        }
+    }
+
+    /**
+     * 将参数带入信息中，并写入缓冲区
+     *
+     * @param buf  缓冲区
+     * @param args 参数
+     * @return 缓冲区
+     */
+    public StringBuilder format(StringBuilder buf, Object... args) {
+        if (this.complex) {
+            return buf.append(MessageFormat.format(this.pattern, args));
+        }
+
+        int size = args == null ? 0 : args.length;
+        for (int i = 0; i < this.texts.length; i++) {
+            int index = this.indexes[i];
+            if (index == -1) {
+                buf.append(this.texts[i]);
+            } else if (index >= size) { // 参数不存在时保留占位符
+                buf.append('{').append(index).append('}');
+            } else {
+                Object value = args[index];
+                if (value == null) {
+                    buf.append("null");
+                } else if (value instanceof String) {
+                    buf.append((String) value);
+                } else if (value instanceof Number) {
+                    buf.append(NumberFormat.getInstance().format(value));
+                } else if (value instanceof Date) {
+                    buf.append(DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT).format(value));
+                } else {
+                    buf.append(value.toString());
+                }
+            }
+        }
+        return buf;
+    }
+
+    public String toString() {
+        return this.pattern;
+    }
+
+}
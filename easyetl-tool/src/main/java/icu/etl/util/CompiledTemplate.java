@@ -0,0 +1,208 @@
+package icu.etl.util;
+
+import java.text.Format;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 预编译的变量模版 <br>
+ * 模版中的变量占位符格式是 ${name}，变量名中可以嵌套变量，如: ${${name}} <br>
+ * <br>
+ * 模版只解析一次，解析结果由字符串常量与变量组成，替换变量时按顺序把常量与变量值写入缓冲区，只需要遍历一次；
+ * 适用于使用不同变量值重复替换同一个模版（如: SQL语句模版、文件路径模版） <br>
+ * <br>
+ * 替换规则与 {@linkplain StringUtils#replaceVariable(String, Map)} 相同：
+ * 变量不存在时保留变量占位符；变量值中的变量占位符会继续被替换；没有结束符 } 的变量占位符及其后面的内容都作为字符串常量 <br>
+ * 模版对象是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-22
+ */
+public class CompiledTemplate {
+
+    /** 替换变量值中变量占位符的最大深度，超过深度的变量值不再替换（防止变量值引用自身时无限替换） */
+    public static int MAX_DEPTH = 32;
+
+    /** 模版 */
+    private final String template;
+
+    /** 字符串常量或变量占位符（格式: ${name}） */
+    private final String[] texts;
+
+    /** 变量名模版，null 表示对应位置上是字符串常量 */
+    private final CompiledTemplate[] names;
+
+    /** 模版中没有变量时，模版就是字符串常量 */
+    private final boolean constant;
+
+    /**
+     * 解析模版
+     *
+     * @param template 模版
+     */
+    public CompiledTemplate(String template) {
+        this(template, 0, template.length());
+    }
+
+    /**
+     * 解析模版中的一部分
+     *
+     * @param str   字符串
+     * @param begin 起始位置（包含）
+     * @param end   终止位置（不包含）
+     */
+    private CompiledTemplate(String str, int begin, int end) {
+        List<String> texts = new ArrayList<String>();
+        List<CompiledTemplate> names = new ArrayList<CompiledTemplate>();
+
+        int from = begin; // 字符串常量的起始位置
+        int index = str.indexOf("${", from);
+        while (index != -1 && index < end) {
+            int last = StringUtils.indexOfUnixVariable(str, index + 1, end); // 变量占位符结束符 } 的位置
+            if (last == -1) {
+                break;
+            }
+
+            if (index > from) {
+                texts.add(str.substring(from, index));
+                names.add(null);
+            }
+            texts.add(str.substring(index, last + 1));
+            names.add(new CompiledTemplate(str, index + 2, last));
+
+            from = last + 1;
+            index = str.indexOf("${", from);
+        }
+
+        if (from < end || texts.isEmpty()) {
+            texts.add(str.substring(from, end));
+            names.add(null);
+        }
+
+        this.template = (begin == 0 && end == str.length()) ? str : str.substring(begin, end);
+        this.texts = texts.toArray(new String[texts.size()]);
+        this.names = names.toArray(new CompiledTemplate[names.size()]);
+        this.constant = this.names.length == 1 && this.names[0] == null;
+    }
+
+    /**
+     * 使用变量值替换模版中的变量
+     *
+     * @param map 变量名与变量值的映射，如果是 {@linkplain Properties} 则使用 {@linkplain Properties#getProperty(String)} 查询变量值
+     * @return 字符串
+     */
+    public String render(Map<?, ?> map) {
+        return this.render(map, null);
+    }
+
+    /**
+     * 使用变量值替换模版中的变量
+     *
+     * @param map     变量名与变量值的映射，如果是 {@linkplain Properties} 则使用 {@linkplain Properties#getProperty(String)} 查询变量值
+     * @param convert 把变量值转为字符串，为 null 时使用 {@linkplain StringUtils#toString(Object)}
+     * @return 字符串
+     */
+    public String render(Map<?, ?> map, Format convert) {
+        if (this.constant || map == null) {
+            return this.template;
+        } else {
+            return this.render(map, convert, new StringBuilder(this.template.length() + 16), 0).toString();
+        }
+    }
+
+    /**
+     * 使用变量值替换模版中的变量，并把结果追加到缓冲区中（缓冲区可以重复使用）
+     *
+     * @param map     变量名与变量值的映射，如果是 {@linkplain Properties} 则使用 {@linkplain Properties#getProperty(String)} 查询变量值
+     * @param convert 把变量值转为字符串，为 null 时使用 {@linkplain StringUtils#toString(Object)}
+     * @param buf     缓冲区
+     * @return 缓冲区
+     */
+    public StringBuilder render(Map<?, ?> map, Format convert, StringBuilder buf) {
+        if (this.constant || map == null) {
+            return buf.append(this.template);
+        } else {
+            return this.render(map, convert, buf, 0);
+        }
+    }
+
+    /**
+     * 使用变量值替换模版中的变量
+     *
+     * @param map     变量名与变量值的映射
+     * @param convert 类型转换器
+     * @param buf     缓冲区
+     * @param depth   变量值的替换深度
+     * @return 缓冲区
+     */
+    private StringBuilder render(Map<?, ?> map, Format convert, StringBuilder buf, int depth) {
+        for (int i = 0; i < this.texts.length; i++) {
+            CompiledTemplate name = this.names[i];
+            if (name == null) {
+                buf.append(this.texts[i]);
+                continue;
+            }
+
+            String key = name.constant ? name.template : name.render(map, convert, new StringBuilder(), depth).toString();
+            String value = getValue(map, key, convert);
+            if (value == null) { // 变量不存在时保留变量占位符
+                buf.append(this.texts[i]);
+            } else if (depth < MAX_DEPTH && value.indexOf("${") != -1) { // 替换变量值中的变量
+                new CompiledTemplate(value).render(map, convert, buf, depth + 1);
+            } else {
+                buf.append(value);
+            }
+        }
+        return buf;
+    }
+
+    /**
+     * 查询变量值
+     *
+     * @param map     变量名与变量值的映射
+     * @param key     变量名
+     * @param convert 类型转换器
+     * @return 返回 null 表示变量不存在
+     */
+    private static String getValue(Map<?, ?> map, String key, Format convert) {
+        if (map instanceof Properties) {
+            return ((Properties) map).getProperty(key);
+        }
+
+        Object obj = map.get(key);
+        if (obj == null) {
+            return null;
+        } else if (convert != null) {
+            return convert.format(obj);
+        } else if (obj instanceof String) {
+            return (String) obj;
+        } else {
+            return StringUtils.toString(obj);
+        }
+    }
+
+    /**
+     * 判断模版中是否有变量
+     *
+     * @return 返回true表示模版中有变量
+     */
+    public boolean hasVariable() {
+        return !this.constant;
+    }
+
+    /**
+     * 返回模版
+     *
+     * @return 模版
+     */
+    public String getTemplate() {
+        return this.template;
+    }
+
+    public String toString() {
+        return this.template;
+    }
+
+}
@@ -0,0 +1,390 @@
+package icu.etl.util;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import icu.etl.collection.CharBuffer;
+
+/**
+ * 日期格式化工具 <br>
+ * 不使用 {@linkplain Calendar}，直接根据毫秒数计算年月日时分秒，并把结果写入调用方提供的字符数组或 {@linkplain CharBuffer} 中，格式化过程中不创建对象 <br>
+ * <br>
+ * 每个线程缓存一个时区偏移量（按UTC自然日缓存），时区偏移量不变时不需要访问 {@linkplain TimeZone} <br>
+ * 时区使用线程第一次格式化时的默认时区，修改默认时区（{@linkplain TimeZone#setDefault(TimeZone)}）后需要执行 {@linkplain #reset()} <br>
+ * <br>
+ * 支持的格式（参数 type 与 {@linkplain Dates} 中 formatXX 方法名中的数字相同）:
+ * <p>
+ * 8 yyyyMMdd
+ * 10 yyyy-MM-dd
+ * 12 HH:mm:ss:SSS
+ * 14 yyyyMMddHHmmss
+ * 16 yyyy-MM-dd HH:mm
+ * 17 yyyyMMddHHmmssSSS
+ * 19 yyyy-MM-dd HH:mm:ss
+ * 21 yyyy-MM-dd HH:mm:ss:SSS
+ * <p>
+ * 年份不足4位时左侧补0，超过4位时输出所有数字
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-14
+ */
+public final class DateFormatter {
+
+    /** 一天的毫秒数 */
+    private final static long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /** 格里高利历的启用时间（1582-10-15 00:00:00 UTC），在这之前的日期使用 {@linkplain GregorianCalendar} 计算 */
+    private final static long GREGORIAN_CUTOVER = -12219292800000L;
+
+    /** 时区的版本号，执行 {@linkplain #reset()} 后加一 */
+    private static volatile int version;
+
+    /** 每个线程的时区缓存 */
+    private final static ThreadLocal<Zone> zones = new ThreadLocal<Zone>() {
+        protected Zone initialValue() {
+            return new Zone();
+        }
+    };
+
+    private DateFormatter() {
+    }
+
+    /**
+     * 重新读取默认时区，所有线程的时区缓存都会失效
+     */
+    public static synchronized void reset() {
+        version++;
+    }
+
+    /**
+     * 将日期格式化后写入字符数组
+     *
+     * @param millis 日期的毫秒数，详见 {@linkplain java.util.Date#getTime()}
+     * @param type   格式，详见类说明
+     * @param array  字符数组
+     * @param offset 写入的起始位置
+     * @return 写入的最后一个字符的下一个位置
+     */
+    public static int format(long millis, int type, char[] array, int offset) {
+        Zone zone = zones.get();
+        zone.compute(millis);
+        return DateFormatter.write(zone, type, array, offset);
+    }
+
+    /**
+     * 将日期格式化后追加到缓冲区
+     *
+     * @param millis 日期的毫秒数，详见 {@linkplain java.util.Date#getTime()}
+     * @param type   格式，详见类说明
+     * @param buf    缓冲区
+     * @return 缓冲区
+     */
+    public static CharBuffer format(long millis, int type, CharBuffer buf) {
+        Zone zone = zones.get();
+        zone.compute(millis);
+        buf.expandCapacity(DateFormatter.width(zone, type));
+        buf.setLength(DateFormatter.write(zone, type, buf.value(), buf.length()));
+        return buf;
+    }
+
+    /**
+     * 将日期格式化为字符串
+     *
+     * @param millis 日期的毫秒数，详见 {@linkplain java.util.Date#getTime()}
+     * @param type   格式，详见类说明
+     * @return 字符串
+     */
+    public static String toString(long millis, int type) {
+        Zone zone = zones.get();
+        zone.compute(millis);
+        int end = DateFormatter.write(zone, type, zone.chars, 0);
+        return new String(zone.chars, 0, end);
+    }
+
+    /**
+     * 返回日期在当天中的毫秒数
+     *
+     * @param millis 日期的毫秒数，详见 {@linkplain java.util.Date#getTime()}
+     * @return 从零点开始的毫秒数
+     */
+    public static int getMillisOfDay(long millis) {
+        Zone zone = zones.get();
+        zone.compute(millis);
+        return ((zone.hour * 60 + zone.minute) * 60 + zone.second) * 1000 + zone.millisecond;
+    }
+
+    /**
+     * 计算格式化后的字符个数
+     *
+     * @param zone 时区缓存（已计算日期字段）
+     * @param type 格式
+     * @return 字符个数
+     */
+    private static int width(Zone zone, int type) {
+        int length = type == 21 ? 23 : type; // yyyy-MM-dd HH:mm:ss:SSS
+        if (type == 12 || zone.year <= 9999) {
+            return length;
+        } else {
+            return length + String.valueOf(zone.year).length() - 4;
+        }
+    }
+
+    /**
+     * 将日期字段写入字符数组
+     *
+     * @param zone   时区缓存（已计算日期字段）
+     * @param type   格式
+     * @param array  字符数组
+     * @param offset 写入的起始位置
+     * @return 写入的最后一个字符的下一个位置
+     */
+    private static int write(Zone zone, int type, char[] array, int offset) {
+        switch (type) {
+            case 8: // yyyyMMdd
+                return writeDate(zone, false, array, offset);
+
+            case 10: // yyyy-MM-dd
+                return writeDate(zone, true, array, offset);
+
+            case 12: // HH:mm:ss:SSS
+                return writeTime(zone, true, 4, array, offset);
+
+            case 14: // yyyyMMddHHmmss
+                return writeTime(zone, false, 3, array, writeDate(zone, false, array, offset));
+
+            case 16: // yyyy-MM-dd HH:mm
+                offset = writeDate(zone, true, array, offset);
+                array[offset++] = ' ';
+                return writeTime(zone, true, 2, array, offset);
+
+            case 17: // yyyyMMddHHmmssSSS
+                return writeTime(zone, false, 4, array, writeDate(zone, false, array, offset));
+
+            case 19: // yyyy-MM-dd HH:mm:ss
+                offset = writeDate(zone, true, array, offset);
+                array[offset++] = ' ';
+                return writeTime(zone, true, 3, array, offset);
+
+            case 21: // yyyy-MM-dd HH:mm:ss:SSS
+                offset = writeDate(zone, true, array, offset);
+                array[offset++] = ' ';
+                return writeTime(zone, true, 4, array, offset);
+
+            default:
+                throw new IllegalArgumentException(String.valueOf(type));
+        }
+    }
+
+    /**
+     * 写入 yyyyMMdd 或 yyyy-MM-dd
+     *
+     * @param zone      时区缓存（已计算日期字段）
+     * @param delimiter true表示使用分隔符
+     * @param array     字符数组
+     * @param offset    写入的起始位置
+     * @return 写入的最后一个字符的下一个位置
+     */
+    private static int writeDate(Zone zone, boolean delimiter, char[] array, int offset) {
+        int year = zone.year;
+        if (year <= 9999) {
+            array[offset++] = (char) ('0' + year / 1000);
+            array[offset++] = (char) ('0' + year / 100 % 10);
+            array[offset++] = (char) ('0' + year / 10 % 10);
+            array[offset++] = (char) ('0' + year % 10);
+        } else {
+            String str = String.valueOf(year);
+            str.getChars(0, str.length(), array, offset);
+            offset += str.length();
+        }
+
+        if (delimiter) {
+            array[offset++] = '-';
+        }
+        offset = write2(zone.month, array, offset);
+        if (delimiter) {
+            array[offset++] = '-';
+        }
+        return write2(zone.day, array, offset);
+    }
+
+    /**
+     * 写入 HHmm, HHmmss, HHmmssSSS 或使用冒号分隔的时间
+     *
+     * @param zone      时区缓存（已计算日期字段）
+     * @param delimiter true表示使用冒号分隔
+     * @param fields    字段个数: 2表示时分 3表示时分秒 4表示时分秒毫秒
+     * @param array     字符数组
+     * @param offset    写入的起始位置
+     * @return 写入的最后一个字符的下一个位置
+     */
+    private static int writeTime(Zone zone, boolean delimiter, int fields, char[] array, int offset) {
+        offset = write2(zone.hour, array, offset);
+        if (delimiter) {
+            array[offset++] = ':';
+        }
+        offset = write2(zone.minute, array, offset);
+        if (fields >= 3) {
+            if (delimiter) {
+                array[offset++] = ':';
+            }
+            offset = write2(zone.second, array, offset);
+        }
+        if (fields >= 4) {
+            if (delimiter) {
+                array[offset++] = ':';
+            }
+            int value = zone.millisecond;
+            array[offset++] = (char) ('0' + value / 100);
+            array[offset++] = (char) ('0' + value / 10 % 10);
+            array[offset++] = (char) ('0' + value % 10);
+        }
+        return offset;
+    }
+
+    /**
+     * 写入两位数字
+     *
+     * @param value  数字（0-99）
+     * @param array  字符数组
+     * @param offset 写入的起始位置
+     * @return 写入的最后一个字符的下一个位置
+     */
+    private static int write2(int value, char[] array, int offset) {
+        array[offset++] = (char) ('0' + value / 10);
+        array[offset++] = (char) ('0' + value % 10);
+        return offset;
+    }
+
+    /**
+     * 向下取整的除法
+     *
+     * @param x 被除数
+     * @param y 除数（大于零）
+     * @return 商
+     */
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        return (x % y < 0) ? q - 1 : q;
+    }
+
+    /**
+     * 线程的时区缓存，同时保存最近一次计算的日期字段
+     */
+    private static class Zone {
+
+        /** 时区 */
+        private TimeZone timeZone;
+
+        /** 时区的版本号 */
+        private int version;
+
+        /** 缓存的时区偏移量的有效范围的起始位置（包含） */
+        private long begin;
+
+        /** 缓存的时区偏移量的有效范围的结束位置（不包含） */
+        private long end;
+
+        /** 缓存的时区偏移量 */
+        private int offset;
+
+        /** 年份 */
+        private int year;
+
+        /** 月份（1-12） */
+        private int month;
+
+        /** 月份中的日（1-31） */
+        private int day;
+
+        /** 小时（0-23） */
+        private int hour;
+
+        /** 分钟（0-59） */
+        private int minute;
+
+        /** 秒（0-59） */
+        private int second;
+
+        /** 毫秒（0-999） */
+        private int millisecond;
+
+        /** 格式化为字符串时使用的字符数组 */
+        private final char[] chars = new char[32];
+
+        /**
+         * 计算日期字段
+         *
+         * @param millis 日期的毫秒数
+         */
+        public void compute(long millis) {
+            int version = DateFormatter.version;
+            if (this.timeZone == null || this.version != version) {
+                this.version = version;
+                this.timeZone = TimeZone.getDefault();
+                this.begin = 0;
+                this.end = 0;
+            }
+
+            if (millis < GREGORIAN_CUTOVER + MILLIS_PER_DAY) { // 儒略历
+                GregorianCalendar cr = new GregorianCalendar(this.timeZone);
+                cr.setTimeInMillis(millis);
+                this.year = cr.get(Calendar.YEAR);
+                this.month = cr.get(Calendar.MONTH) + 1;
+                this.day = cr.get(Calendar.DAY_OF_MONTH);
+                this.hour = cr.get(Calendar.HOUR_OF_DAY);
+                this.minute = cr.get(Calendar.MINUTE);
+                this.second = cr.get(Calendar.SECOND);
+                this.millisecond = cr.get(Calendar.MILLISECOND);
+                return;
+            }
+
+            long local = millis + this.getOffset(millis);
+            long days = floorDiv(local, MILLIS_PER_DAY);
+            int time = (int) (local - days * MILLIS_PER_DAY);
+            this.millisecond = time % 1000;
+            time /= 1000;
+            this.second = time % 60;
+            time /= 60;
+            this.minute = time % 60;
+            this.hour = time / 60;
+
+            // 从1970-01-01开始的天数转为年月日（3月1日作为一年的第一天，400年为一个周期）
+            long z = days + 719468;
+            long era = floorDiv(z, 146097);
+            int doe = (int) (z - era * 146097); // 周期中的第几天 [0, 146096]
+            int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365; // 周期中的第几年 [0, 399]
+            int doy = doe - (365 * yoe + yoe / 4 - yoe / 100); // 年中的第几天 [0, 365]
+            int mp = (5 * doy + 2) / 153; // 月份 [0, 11]，从3月开始
+            this.day = doy - (153 * mp + 2) / 5 + 1;
+            this.month = mp < 10 ? mp + 3 : mp - 9;
+            this.year = (int) (yoe + era * 400) + (this.month <= 2 ? 1 : 0);
+        }
+
+        /**
+         * 返回时区偏移量 <br>
+         * 如果UTC自然日的开始与结束时的偏移量相同，则认为当天的偏移量不变，缓存当天的偏移量
+         *
+         * @param millis 日期的毫秒数
+         * @return 时区偏移量，单位: 毫秒
+         */
+        private int getOffset(long millis) {
+            if (millis >= this.begin && millis < this.end) {
+                return this.offset;
+            }
+
+            long begin = floorDiv(millis, MILLIS_PER_DAY) * MILLIS_PER_DAY;
+            long end = begin + MILLIS_PER_DAY;
+            int offset = this.timeZone.getOffset(begin);
+            if (offset == this.timeZone.getOffset(end - 1)) {
+                this.begin = begin;
+                this.end = end;
+                this.offset = offset;
+                return offset;
+            } else { // 当天切换了时区偏移量
+                return this.timeZone.getOffset(millis);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,399 @@
+package icu.etl.util;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * 日期解析器 <br>
+ * 适用于解析一组格式相同的日期字符串（例如：文件中的一列日期） <br>
+ * <br>
+ * 第一次解析时根据字符串分析日期格式，并编译成一个布局（每个数字段在字符串中的位置与含义，每个分隔符的位置），
+ * 后续解析时只需要按布局校验字符，并直接在字符序列上累加数字，不需要截取子字符串，也不需要再次分析日期格式 <br>
+ * 字符串与布局不匹配时，重新分析日期格式；不支持的格式使用 {@linkplain Dates#parse(Object)} 解析 <br>
+ * <br>
+ * 支持编译的日期格式:
+ * <p>
+ * yyyyMMdd
+ * yyyyMMddHH
+ * yyyyMMddHHmm
+ * yyyyMMddHHmmss
+ * yyyyMMddHHmmssSSS
+ * <p>
+ * yyyy-MM-dd
+ * MM/dd/yyyy
+ * <p>
+ * yyyy-MM-dd hh
+ * yyyy-MM-dd hh:mm
+ * yyyy-MM-dd hh:mm:ss
+ * yyyy-MM-dd hh:mm:ss:SSS
+ * <p>
+ * 日期与时间中的分隔符与 {@linkplain Dates#parse(Object)} 相同，解析结果也与 {@linkplain Dates#parse(Object)} 相同 <br>
+ * 因为复用了 {@linkplain Calendar} 对象，所以解析器不是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-13
+ */
+public class DateParser {
+
+    /** 日历 */
+    private final Calendar calendar;
+
+    /** 当前使用的布局 */
+    private Layout layout;
+
+    /**
+     * 初始化
+     */
+    public DateParser() {
+        this.calendar = Calendar.getInstance();
+    }
+
+    /**
+     * 初始化，并使用样本字符串编译日期格式
+     *
+     * @param sample 日期字符串样本
+     */
+    public DateParser(String sample) {
+        this();
+        if (sample != null) {
+            this.layout = Layout.compile(sample, DateParser.begin(sample), DateParser.end(sample));
+        }
+    }
+
+    /**
+     * 将输入参数转为 {@link Date}
+     *
+     * @param obj 日期信息, 支持的格式详见: {@linkplain Dates#parse(Object)}
+     * @return 日期
+     */
+    public Date parse(Object obj) {
+        if (obj == null) {
+            return null;
+        } else if (obj instanceof Date) {
+            return (Date) obj;
+        } else if (obj instanceof Calendar) {
+            return new Date(((Calendar) obj).getTimeInMillis());
+        }
+
+        CharSequence str = obj instanceof CharSequence ? (CharSequence) obj : obj.toString();
+        int begin = DateParser.begin(str);
+        int end = DateParser.end(str);
+
+        if (this.layout != null) {
+            Date date = this.layout.parse(str, begin, end, this.calendar);
+            if (date != null) {
+                return date;
+            }
+        }
+
+        // 与布局不匹配时，重新分析日期格式
+        Layout layout = Layout.compile(str, begin, end);
+        if (layout != null) {
+            Date date = layout.parse(str, begin, end, this.calendar);
+            if (date != null) {
+                this.layout = layout;
+                return date;
+            }
+        }
+        return Dates.parse(str);
+    }
+
+    /**
+     * 返回当前使用的日期格式
+     *
+     * @return 日期时间格式，详见: {@linkplain java.text.SimpleDateFormat}，返回 null 表示还未编译日期格式
+     */
+    public String getPattern() {
+        return this.layout == null ? null : this.layout.pattern;
+    }
+
+    /**
+     * 返回第一个非空白字符的位置
+     *
+     * @param str 字符序列
+     * @return 位置
+     */
+    private static int begin(CharSequence str) {
+        int index = 0, length = str.length();
+        while (index < length && Character.isWhitespace(str.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 返回最后一个非空白字符的下一个位置
+     *
+     * @param str 字符序列
+     * @return 位置
+     */
+    private static int end(CharSequence str) {
+        int index = str.length();
+        while (index > 0 && Character.isWhitespace(str.charAt(index - 1))) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * 编译后的日期格式
+     */
+    protected static class Layout {
+
+        /** 数字 */
+        private final static byte DIGIT = 0;
+
+        /** 日期分隔符，详见 {@linkplain Dates#DATE_DELIMITER} */
+        private final static byte DATE_DELIMITER = 1;
+
+        /** 日期与时间之间的空白字符 */
+        private final static byte BLANK = 2;
+
+        /** 时间分隔符，详见 {@linkplain Dates#TIME_DELIMITER} */
+        private final static byte TIME_DELIMITER = 3;
+
+        /** 字段：年 月 日 时 分 秒 毫秒 */
+        private final static char[] FIELDS = {'y', 'M', 'd', 'H', 'm', 's', 'S'};
+
+        /** 每个字符的类型 */
+        private final byte[] types;
+
+        /** 每个数字段的起始位置（相对于第一个非空白字符） */
+        private final int[] begins;
+
+        /** 每个数字段的结束位置（相对于第一个非空白字符） */
+        private final int[] ends;
+
+        /** 每个数字段对应的字段，详见 {@linkplain #FIELDS} */
+        private final int[] fields;
+
+        /** 时间分隔符 */
+        private final char[] timeDelimiters;
+
+        /** 日期时间格式 */
+        private final String pattern;
+
+        /**
+         * 初始化
+         *
+         * @param str    日期字符串
+         * @param begin  日期字符串的起始位置
+         * @param types  每个字符的类型
+         * @param begins 每个数字段的起始位置
+         * @param ends   每个数字段的结束位置
+         * @param fields 每个数字段对应的字段
+         */
+        private Layout(CharSequence str, int begin, byte[] types, int[] begins, int[] ends, int[] fields) {
+            this.types = types;
+            this.begins = begins;
+            this.ends = ends;
+            this.fields = fields;
+            this.timeDelimiters = Layout.toTimeDelimiters();
+
+            StringBuilder buf = new StringBuilder(types.length);
+            for (int i = 0, n = 0; i < types.length; i++) {
+                if (types[i] == DIGIT) {
+                    while (i >= ends[n]) {
+                        n++;
+                    }
+                    buf.append(FIELDS[fields[n]]);
+                } else {
+                    buf.append(str.charAt(begin + i));
+                }
+            }
+            this.pattern = buf.toString();
+        }
+
+        /**
+         * 返回时间分隔符
+         *
+         * @return 时间分隔符数组
+         */
+        private static char[] toTimeDelimiters() {
+            StringBuilder buf = new StringBuilder();
+            for (String delimiter : Dates.TIME_DELIMITER) {
+                if (delimiter != null && delimiter.length() == 1) {
+                    buf.append(delimiter.charAt(0));
+                }
+            }
+            return buf.toString().toCharArray();
+        }
+
+        /**
+         * 分析日期字符串的格式，并编译成布局
+         *
+         * @param str   日期字符串
+         * @param begin 日期字符串的起始位置（第一个非空白字符）
+         * @param end   日期字符串的结束位置（最后一个非空白字符的下一个位置）
+         * @return 返回 null 表示不支持编译的日期格式
+         */
+        public static Layout compile(CharSequence str, int begin, int end) {
+            int length = end - begin;
+            if (length < 8 || length > 23) {
+                return null;
+            }
+
+            // 查找所有数字段
+            byte[] types = new byte[length];
+            int[] begins = new int[7];
+            int[] ends = new int[7];
+            int size = 0;
+            for (int i = 0; i < length; ) {
+                if (StringUtils.isNumber(str.charAt(begin + i))) {
+                    if (size == begins.length) {
+                        return null;
+                    }
+
+                    begins[size] = i;
+                    while (i < length && StringUtils.isNumber(str.charAt(begin + i))) {
+                        types[i++] = DIGIT;
+                    }
+                    ends[size++] = i;
+                } else if (i == 0 || types[i - 1] != DIGIT) { // 不是数字开头或有连续的分隔符
+                    return null;
+                } else {
+                    i++;
+                }
+            }
+
+            if (size == 1) { // yyyyMMdd, yyyyMMddHH, yyyyMMddHHmm, yyyyMMddHHmmss, yyyyMMddHHmmssSSS
+                if (ends[0] != length || (length != 8 && length != 10 && length != 12 && (length < 14 || length > 17))) {
+                    return null;
+                }
+
+                int count = length <= 14 ? length / 2 - 1 : 7;
+                int[] newbegins = new int[count];
+                int[] newends = new int[count];
+                int[] fields = new int[count];
+                for (int i = 0; i < count; i++) {
+                    newbegins[i] = i == 0 ? 0 : i * 2 + 2;
+                    newends[i] = i == 6 ? length : i * 2 + 4;
+                    fields[i] = i;
+                }
+                return new Layout(str, begin, types, newbegins, newends, fields);
+            }
+
+            if (size < 3 || !Layout.isDateDelimiter(str.charAt(begin + ends[0])) || !Layout.isDateDelimiter(str.charAt(begin + ends[1]))) {
+                return null;
+            }
+
+            int[] fields = new int[size];
+            if (size == 3 && length == 10 && ends[0] == 2 && ends[1] == 5) { // MM/dd/yyyy
+                fields[0] = 1;
+                fields[1] = 2;
+                fields[2] = 0;
+            } else if (ends[0] == 4 && ends[1] == 7 && ends[2] == 10) { // yyyy-MM-dd hh:mm:ss:SSS
+                for (int i = 0; i < size; i++) {
+                    fields[i] = i;
+                }
+            } else {
+                return null;
+            }
+
+            types[ends[0]] = DATE_DELIMITER;
+            types[ends[1]] = DATE_DELIMITER;
+            if (size > 3) {
+                if (!Character.isWhitespace(str.charAt(begin + 10)) || begins[3] != 11) {
+                    return null;
+                }
+                types[10] = BLANK;
+
+                for (int i = 3; i < size; i++) {
+                    int len = ends[i] - begins[i];
+                    if (len > 3 || (len == 3 && i != 6)) { // 时分秒最多2位，毫秒最多3位
+                        return null;
+                    }
+                    if (i > 3) {
+                        if (!Dates.TIME_DELIMITER.contains(String.valueOf(str.charAt(begin + begins[i] - 1)))) {
+                            return null;
+                        }
+                        types[begins[i] - 1] = TIME_DELIMITER;
+                    }
+                }
+            }
+
+            if (ends[size - 1] != length) {
+                return null;
+            }
+            return new Layout(str, begin, types, ArrayUtils.copyOf(begins, size), ArrayUtils.copyOf(ends, size), fields);
+        }
+
+        /**
+         * 判断字符是否是日期分隔符
+         *
+         * @param c 字符
+         * @return 返回true表示是日期分隔符
+         */
+        private static boolean isDateDelimiter(char c) {
+            return StringUtils.inArray(c, Dates.DATE_DELIMITER);
+        }
+
+        /**
+         * 按布局解析日期字符串
+         *
+         * @param str      日期字符串
+         * @param begin    日期字符串的起始位置（第一个非空白字符）
+         * @param end      日期字符串的结束位置（最后一个非空白字符的下一个位置）
+         * @param calendar 日历
+         * @return 返回 null 表示字符串与布局不匹配或不是合法日期
+         */
+        public Date parse(CharSequence str, int begin, int end, Calendar calendar) {
+            if (end - begin != this.types.length) {
+                return null;
+            }
+
+            for (int i = 0; i < this.types.length; i++) {
+                char c = str.charAt(begin + i);
+                switch (this.types[i]) {
+                    case DIGIT:
+                        if (c < '0' || c > '9') {
+                            return null;
+                        }
+                        break;
+
+                    case DATE_DELIMITER:
+                        if (!Layout.isDateDelimiter(c)) {
+                            return null;
+                        }
+                        break;
+
+                    case BLANK:
+                        if (!Character.isWhitespace(c)) {
+                            return null;
+                        }
+                        break;
+
+                    case TIME_DELIMITER:
+                        if (!StringUtils.inArray(c, this.timeDelimiters)) {
+                            return null;
+                        }
+                        break;
+                }
+            }
+
+            // 0 mean year, 1 mean month, 2 mean day of month, 3 mean hour, 4 mean minute, 5 mean second, 6 mean millisecond
+            int[] datetime = new int[7];
+            for (int i = 0; i < this.fields.length; i++) {
+                int value = 0;
+                for (int j = begin + this.begins[i], last = begin + this.ends[i]; j < last; j++) {
+                    value = value * 10 + (str.charAt(j) - '0');
+                }
+                datetime[this.fields[i]] = value;
+            }
+
+            if (!Dates.isDate(datetime[0], datetime[1], datetime[2]) || !Dates.isTime(datetime[3], datetime[4], datetime[5], datetime[6])) {
+                return null;
+            }
+
+            calendar.clear();
+            calendar.set(datetime[0], datetime[1] - 1, datetime[2], datetime[3], datetime[4], datetime[5]);
+            calendar.set(Calendar.MILLISECOND, datetime[6]);
+            return new Date(calendar.getTimeInMillis());
+        }
+
+        public String toString() {
+            return this.pattern;
+        }
+    }
+
+}
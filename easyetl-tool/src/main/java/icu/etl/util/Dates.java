@@ -387,7 +387,8 @@ public final class Dates {
     }
 
     /**
-     * 将数组中的元素转为日期
+     * 将数组中的元素转为日期 <br>
+     * 数组中的元素通常具有相同的日期格式，使用 {@linkplain DateParser} 只分析一次日期格式
      *
      * @param array 数组, 支持的格式详见: {@linkplain #parse(Object)}
      * @return 日期数组
@@ -397,9 +398,10 @@ public final class Dates {
             return null;
         }
 
+        DateParser parser = new DateParser();
         Date[] newarray = new Date[array.length];
         for (int index = 0; index < array.length; index++) {
-            newarray[index] = Dates.parse(array[index]);
+            newarray[index] = parser.parse(array[index]);
         }
         return newarray;
     }
@@ -1054,25 +1056,9 @@ public final class Dates {
     public static String format08(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 8);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int year = cr.get(Calendar.YEAR);
-        int month = cr.get(Calendar.MONTH) + 1;
-        int dayOfMonth = cr.get(Calendar.DAY_OF_MONTH);
-
-        StringBuilder buf = new StringBuilder(8);
-        buf.append(year);
-        if (month <= 9) {
-            buf.append('0');
-        }
-        buf.append(month);
-        if (dayOfMonth <= 9) {
-            buf.append('0');
-        }
-        buf.append(dayOfMonth);
-        return buf.toString();
     }
 
     /**
@@ -1106,27 +1092,9 @@ public final class Dates {
     public static String format10(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 10);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int year = cr.get(Calendar.YEAR);
-        int month = cr.get(Calendar.MONTH) + 1;
-        int dayOfMonth = cr.get(Calendar.DAY_OF_MONTH);
-
-        StringBuilder buf = new StringBuilder(10);
-        buf.append(year);
-        buf.append('-');
-        if (month <= 9) {
-            buf.append('0');
-        }
-        buf.append(month);
-        buf.append('-');
-        if (dayOfMonth <= 9) {
-            buf.append('0');
-        }
-        buf.append(dayOfMonth);
-        return buf.toString();
     }
 
     /**
@@ -1149,41 +1117,9 @@ public final class Dates {
     public static String format12(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 12);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int hour = cr.get(Calendar.HOUR_OF_DAY);
-        int minute = cr.get(Calendar.MINUTE);
-        int second = cr.get(Calendar.SECOND);
-        int mills = cr.get(Calendar.MILLISECOND);
-
-        StringBuilder buf = new StringBuilder(12);
-        if (hour <= 9) {
-            buf.append('0');
-        }
-        buf.append(hour);
-        buf.append(':');
-
-        if (minute <= 9) {
-            buf.append('0');
-        }
-        buf.append(minute);
-        buf.append(':');
-
-        if (second <= 9) {
-            buf.append('0');
-        }
-        buf.append(second);
-        buf.append(':');
-
-        if (mills <= 9) {
-            buf.append("00");
-        } else if (mills <= 99) {
-            buf.append('0');
-        }
-        buf.append(mills);
-        return buf.toString();
     }
 
     /**
@@ -1195,45 +1131,9 @@ public final class Dates {
     public static String format14(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 14);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int year = cr.get(Calendar.YEAR);
-        int month = cr.get(Calendar.MONTH) + 1;
-        int dayOfMonth = cr.get(Calendar.DAY_OF_MONTH);
-        int hour = cr.get(Calendar.HOUR_OF_DAY);
-        int minute = cr.get(Calendar.MINUTE);
-        int second = cr.get(Calendar.SECOND);
-
-        StringBuilder buf = new StringBuilder(14);
-        buf.append(year);
-
-        if (month <= 9) {
-            buf.append('0');
-        }
-        buf.append(month);
-
-        if (dayOfMonth <= 9) {
-            buf.append('0');
-        }
-        buf.append(dayOfMonth);
-
-        if (hour <= 9) {
-            buf.append('0');
-        }
-        buf.append(hour);
-
-        if (minute <= 9) {
-            buf.append('0');
-        }
-        buf.append(minute);
-
-        if (second <= 9) {
-            buf.append('0');
-        }
-        buf.append(second);
-        return buf.toString();
     }
 
     /**
@@ -1245,39 +1145,9 @@ public final class Dates {
     public static String format16(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 16);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int year = cr.get(Calendar.YEAR);
-        int month = cr.get(Calendar.MONTH) + 1;
-        int dayOfMonth = cr.get(Calendar.DAY_OF_MONTH);
-        int hour = cr.get(Calendar.HOUR_OF_DAY);
-        int minute = cr.get(Calendar.MINUTE);
-
-        StringBuilder buf = new StringBuilder(16);
-        buf.append(year);
-        buf.append('-');
-        if (month <= 9) {
-            buf.append('0');
-        }
-        buf.append(month);
-        buf.append('-');
-        if (dayOfMonth <= 9) {
-            buf.append('0');
-        }
-        buf.append(dayOfMonth);
-        buf.append(' ');
-        if (hour <= 9) {
-            buf.append('0');
-        }
-        buf.append(hour);
-        buf.append(':');
-        if (minute <= 9) {
-            buf.append('0');
-        }
-        buf.append(minute);
-        return buf.toString();
     }
 
     /**
@@ -1298,52 +1168,9 @@ public final class Dates {
     public static String format17(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 17);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int year = cr.get(Calendar.YEAR);
-        int month = cr.get(Calendar.MONTH) + 1;
-        int dayOfMonth = cr.get(Calendar.DAY_OF_MONTH);
-        int hour = cr.get(Calendar.HOUR_OF_DAY);
-        int minute = cr.get(Calendar.MINUTE);
-        int second = cr.get(Calendar.SECOND);
-        int millse = cr.get(Calendar.MILLISECOND);
-
-        StringBuilder buf = new StringBuilder(17);
-        buf.append(year);
-        if (month <= 9) {
-            buf.append('0');
-        }
-        buf.append(month);
-
-        if (dayOfMonth <= 9) {
-            buf.append('0');
-        }
-        buf.append(dayOfMonth);
-
-        if (hour <= 9) {
-            buf.append('0');
-        }
-        buf.append(hour);
-
-        if (minute <= 9) {
-            buf.append('0');
-        }
-        buf.append(minute);
-
-        if (second <= 9) {
-            buf.append('0');
-        }
-        buf.append(second);
-
-        if (millse <= 9) {
-            buf.append("00");
-        } else if (millse <= 99) {
-            buf.append('0');
-        }
-        buf.append(millse);
-        return buf.toString();
     }
 
     /**
@@ -1355,45 +1182,9 @@ public final class Dates {
     public static String format19(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 19);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int year = cr.get(Calendar.YEAR);
-        int month = cr.get(Calendar.MONTH) + 1;
-        int dayOfMonth = cr.get(Calendar.DAY_OF_MONTH);
-        int hour = cr.get(Calendar.HOUR_OF_DAY);
-        int minute = cr.get(Calendar.MINUTE);
-        int second = cr.get(Calendar.SECOND);
-
-        StringBuilder buf = new StringBuilder(19);
-        buf.append(year);
-        buf.append('-');
-        if (month <= 9) {
-            buf.append('0');
-        }
-        buf.append(month);
-        buf.append('-');
-        if (dayOfMonth <= 9) {
-            buf.append('0');
-        }
-        buf.append(dayOfMonth);
-        buf.append(' ');
-        if (hour <= 9) {
-            buf.append('0');
-        }
-        buf.append(hour);
-        buf.append(':');
-        if (minute <= 9) {
-            buf.append('0');
-        }
-        buf.append(minute);
-        buf.append(':');
-        if (second <= 9) {
-            buf.append('0');
-        }
-        buf.append(second);
-        return buf.toString();
     }
 
     /**
@@ -1405,65 +1196,9 @@ public final class Dates {
     public static String format21(Date date) {
         if (date == null) {
             return null;
+        } else {
+            return DateFormatter.toString(date.getTime(), 21);
         }
-
-        Calendar cr = Calendar.getInstance();
-        cr.setTime(date);
-        int year = cr.get(Calendar.YEAR);
-        int month = cr.get(Calendar.MONTH) + 1;
-        int dayOfMonth = cr.get(Calendar.DAY_OF_MONTH);
-        int hour = cr.get(Calendar.HOUR_OF_DAY);
-        int minute = cr.get(Calendar.MINUTE);
-        int second = cr.get(Calendar.SECOND);
-        int millse = cr.get(Calendar.MILLISECOND);
-
-        StringBuilder buf = new StringBuilder(21);
-        buf.append(year);
-        buf.append('-');
-
-        if (month <= 9) {
-            buf.append('0');
-        }
-        buf.append(month);
-
-        buf.append('-');
-
-        if (dayOfMonth <= 9) {
-            buf.append('0');
-        }
-        buf.append(dayOfMonth);
-
-        buf.append(' ');
-
-        if (hour <= 9) {
-            buf.append('0');
-        }
-        buf.append(hour);
-
-        buf.append(':');
-
-        if (minute <= 9) {
-            buf.append('0');
-        }
-        buf.append(minute);
-
-        buf.append(':');
-
-        if (second <= 9) {
-            buf.append('0');
-        }
-        buf.append(second);
-
-        buf.append(':');
-
-        if (millse <= 9) {
-            buf.append('0');
-            buf.append('0');
-        } else if (millse <= 99) {
-            buf.append('0');
-        }
-        buf.append(millse);
-        return buf.toString();
     }
 
     /**
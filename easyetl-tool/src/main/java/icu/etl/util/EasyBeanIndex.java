@@ -0,0 +1,262 @@
+package icu.etl.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import icu.etl.annotation.EasyBean;
+
+/**
+ * 组件索引 <br>
+ * 编译时由 easyetl-maven-plugin 插件的 easybean 目标扫描带 {@linkplain EasyBean} 注解的类，将类名与注解属性保存到索引文件 {@linkplain #INDEX} 中，
+ * 容器启动时只需要读取类路径中的索引文件，不需要扫描类路径下所有的类文件 <br>
+ * <br>
+ * 索引文件中每行是一个组件，格式: 类名,singleton,lazy,priority,name <br>
+ * 每个类加载器上读取的索引会被缓存（类加载器是弱引用键）
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-29
+ */
+public class EasyBeanIndex {
+
+    /** 索引文件 */
+    public final static String INDEX = "META-INF/easyetl/easybean.index";
+
+    /** 类加载器与组件索引的映射关系 */
+    private final static Map<ClassLoader, List<EasyBeanIndex>> cache = new WeakHashMap<ClassLoader, List<EasyBeanIndex>>();
+
+    /**
+     * 返回类路径中所有索引文件中的组件（按类路径顺序，同名类只保留第一个）
+     *
+     * @param loader 类加载器
+     * @return 组件集合（不能修改）
+     */
+    public static List<EasyBeanIndex> load(ClassLoader loader) {
+        if (loader == null) {
+            throw new NullPointerException();
+        }
+
+        synchronized (cache) {
+            List<EasyBeanIndex> list = cache.get(loader);
+            if (list == null) {
+                list = Collections.unmodifiableList(EasyBeanIndex.read(loader));
+                cache.put(loader, list);
+            }
+            return list;
+        }
+    }
+
+    /**
+     * 删除类加载器上缓存的组件索引
+     *
+     * @param loader 类加载器，为null时删除所有缓存
+     */
+    public static void clear(ClassLoader loader) {
+        synchronized (cache) {
+            if (loader == null) {
+                cache.clear();
+            } else {
+                cache.remove(loader);
+            }
+        }
+    }
+
+    /**
+     * 读取类路径中的所有索引文件
+     *
+     * @param loader 类加载器
+     * @return 组件集合
+     */
+    private static List<EasyBeanIndex> read(ClassLoader loader) {
+        List<EasyBeanIndex> list = new ArrayList<EasyBeanIndex>();
+        Set<String> names = new HashSet<String>();
+        try {
+            Enumeration<URL> urls = loader.getResources(INDEX);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                InputStream in = url.openStream();
+                try {
+                    for (EasyBeanIndex index : EasyBeanIndex.parse(in)) {
+                        if (names.add(index.getClassName())) {
+                            list.add(index);
+                        }
+                    }
+                } finally {
+                    IO.close(in);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(INDEX, e);
+        }
+        return list;
+    }
+
+    /**
+     * 解析索引文件
+     *
+     * @param in 输入流（不会自动关闭）
+     * @return 组件集合
+     * @throws IOException 读取索引文件错误
+     */
+    public static List<EasyBeanIndex> parse(InputStream in) throws IOException {
+        List<EasyBeanIndex> list = new ArrayList<EasyBeanIndex>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, CharsetName.UTF_8));
+        for (String line; (line = reader.readLine()) != null; ) {
+            if (StringUtils.isBlank(line) || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] array = line.split(",", 5);
+            if (array.length != 5) {
+                throw new IOException(INDEX + ": " + line);
+            }
+
+            try {
+                list.add(new EasyBeanIndex(StringUtils.trimBlank(array[0]), Boolean.parseBoolean(array[1]), Boolean.parseBoolean(array[2]), Integer.parseInt(array[3]), array[4]));
+            } catch (NumberFormatException e) {
+                throw new IOException(INDEX + ": " + line);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 将组件写入索引文件（每个组件占一行）
+     *
+     * @param out  输出流
+     * @param list 组件集合
+     * @throws IOException 写文件错误
+     */
+    public static void store(Writer out, List<EasyBeanIndex> list) throws IOException {
+        for (EasyBeanIndex index : list) {
+            out.write(index.toString());
+            out.write(FileUtils.lineSeparatorUnix);
+        }
+        out.flush();
+    }
+
+    /** 类名 */
+    private final String className;
+
+    /** 单例模式 */
+    private final boolean singleton;
+
+    /** 延迟加载模式 */
+    private final boolean lazy;
+
+    /** 排序编号 */
+    private final int priority;
+
+    /** 组件名 */
+    private final String name;
+
+    /**
+     * 使用类上的 {@linkplain EasyBean} 注解创建组件索引
+     *
+     * @param cls 带 {@linkplain EasyBean} 注解的类
+     */
+    public EasyBeanIndex(Class<?> cls) {
+        EasyBean annotation = cls.getAnnotation(EasyBean.class);
+        if (annotation == null) {
+            throw new IllegalArgumentException(cls.getName());
+        }
+
+        this.className = cls.getName();
+        this.singleton = annotation.singleton();
+        this.lazy = annotation.lazy();
+        this.priority = annotation.priority();
+        this.name = annotation.name();
+    }
+
+    /**
+     * 创建组件索引
+     *
+     * @param className 类名
+     * @param singleton 单例模式
+     * @param lazy      延迟加载模式
+     * @param priority  排序编号
+     * @param name      组件名
+     */
+    public EasyBeanIndex(String className, boolean singleton, boolean lazy, int priority, String name) {
+        if (StringUtils.isBlank(className)) {
+            throw new IllegalArgumentException(className);
+        }
+
+        this.className = className;
+        this.singleton = singleton;
+        this.lazy = lazy;
+        this.priority = priority;
+        this.name = name == null ? "" : name;
+    }
+
+    /**
+     * 返回组件的类名
+     *
+     * @return 类名
+     */
+    public String getClassName() {
+        return this.className;
+    }
+
+    /**
+     * 返回组件的类信息（不会初始化类）
+     *
+     * @param loader 类加载器
+     * @return 类信息
+     */
+    public Class<?> getType(ClassLoader loader) {
+        return ClassUtils.loadClass(this.className, false, loader);
+    }
+
+    /**
+     * 判断组件是否是单例模式
+     *
+     * @return 返回true表示单例模式
+     */
+    public boolean isSingleton() {
+        return this.singleton;
+    }
+
+    /**
+     * 判断组件是否使用延迟加载模式
+     *
+     * @return 返回true表示延迟加载
+     */
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * 返回排序编号
+     *
+     * @return 排序编号
+     */
+    public int getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * 返回组件名
+     *
+     * @return 组件名
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    public String toString() {
+        return this.className + "," + this.singleton + "," + this.lazy + "," + this.priority + "," + StringUtils.replaceAll(StringUtils.replaceAll(this.name, "\r", " "), "\n", " ");
+    }
+
+}
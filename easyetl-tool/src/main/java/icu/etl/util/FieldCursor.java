@@ -0,0 +1,420 @@
+package icu.etl.util;
+
+/**
+ * 字段游标 <br>
+ * 按字段分隔符遍历字符序列中的字段，只记录字段的起始位置与长度，不会为每个字段创建字符串对象 <br>
+ * 解析规则与 {@linkplain StringUtils#split(CharSequence, char, java.util.Collection)} 和
+ * {@linkplain StringUtils#split(CharSequence, String, char, java.util.Collection)} 保持一致 <br>
+ * <br>
+ * 使用方法:
+ * <pre>
+ * FieldCursor cursor = new FieldCursor("||", '\\');
+ * cursor.reset(line);
+ * while (cursor.next()) {
+ *     int offset = cursor.getOffset(); // 字段在字符序列中的起始位置
+ *     int length = cursor.getLength(); // 字段长度（含转义字符）
+ *     ...
+ * }
+ * </pre>
+ * 同一个游标对象可以重复用于解析多条记录，但不是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-08
+ */
+public class FieldCursor {
+
+    /** 字段分隔符 */
+    private final String delimiter;
+
+    /** 字段分隔符的第一个字符 */
+    private final char first;
+
+    /** 字段分隔符的长度 */
+    private final int delimiterLength;
+
+    /** true表示使用转义字符 */
+    private final boolean useEscape;
+
+    /** 转义字符 */
+    private final char escape;
+
+    /** 字符序列 */
+    private CharSequence str;
+
+    /** 字符数组 */
+    private char[] array;
+
+    /** 下一个字段的起始位置，大于 {@linkplain #limit} 表示已遍历所有字段 */
+    private int position;
+
+    /** 字符序列的结束位置（不包含） */
+    private int limit;
+
+    /** 当前字段的起始位置 */
+    private int offset;
+
+    /** 当前字段的结束位置（不包含） */
+    private int end;
+
+    /** 当前字段的序号，从0开始 */
+    private int index;
+
+    /** true表示当前字段中含有转义字符 */
+    private boolean escaped;
+
+    /**
+     * 初始化
+     *
+     * @param delimiter 字段分隔符
+     */
+    public FieldCursor(char delimiter) {
+        this(String.valueOf(delimiter), false, '\0');
+    }
+
+    /**
+     * 初始化
+     *
+     * @param delimiter 字段分隔符
+     */
+    public FieldCursor(String delimiter) {
+        this(delimiter, false, '\0');
+    }
+
+    /**
+     * 初始化
+     *
+     * @param delimiter 字段分隔符
+     * @param escape    转义字符
+     */
+    public FieldCursor(char delimiter, char escape) {
+        this(String.valueOf(delimiter), true, escape);
+    }
+
+    /**
+     * 初始化
+     *
+     * @param delimiter 字段分隔符
+     * @param escape    转义字符
+     */
+    public FieldCursor(String delimiter, char escape) {
+        this(delimiter, true, escape);
+    }
+
+    /**
+     * 初始化
+     *
+     * @param delimiter 字段分隔符
+     * @param useEscape true表示使用转义字符
+     * @param escape    转义字符
+     */
+    private FieldCursor(String delimiter, boolean useEscape, char escape) {
+        if (delimiter == null || delimiter.length() == 0) {
+            throw new IllegalArgumentException(delimiter);
+        }
+
+        this.delimiter = delimiter;
+        this.first = delimiter.charAt(0);
+        this.delimiterLength = delimiter.length();
+        this.useEscape = useEscape;
+        this.escape = escape;
+        this.reset((CharSequence) null);
+    }
+
+    /**
+     * 设置待解析的字符序列，并将游标移动到第一个字段之前
+     *
+     * @param str 字符序列，为 null 时没有字段
+     * @return 游标
+     */
+    public FieldCursor reset(CharSequence str) {
+        this.str = str;
+        this.array = null;
+        this.position = 0;
+        this.limit = str == null ? -1 : str.length();
+        this.index = -1;
+        this.offset = 0;
+        this.end = 0;
+        this.escaped = false;
+        return this;
+    }
+
+    /**
+     * 设置待解析的字符数组，并将游标移动到第一个字段之前 <br>
+     * 字段位置 {@linkplain #getOffset()} 是字符数组中的绝对位置
+     *
+     * @param array  字符数组
+     * @param offset 起始位置
+     * @param length 字符个数
+     * @return 游标
+     */
+    public FieldCursor reset(char[] array, int offset, int length) {
+        if (array == null) {
+            throw new NullPointerException();
+        }
+        if (offset < 0 || length < 0 || offset + length > array.length) {
+            throw new IndexOutOfBoundsException(offset + ", " + length + ", " + array.length);
+        }
+
+        this.str = null;
+        this.array = array;
+        this.position = offset;
+        this.limit = offset + length;
+        this.index = -1;
+        this.offset = offset;
+        this.end = offset;
+        this.escaped = false;
+        return this;
+    }
+
+    /**
+     * 移动游标到下一个字段
+     *
+     * @return 返回 true 表示存在下一个字段 false 表示已遍历所有字段
+     */
+    public boolean next() {
+        if (this.position > this.limit) {
+            return false;
+        }
+
+        int begin = this.position;
+        int limit = this.limit;
+        boolean escaped = false;
+        int i = begin;
+
+        if (this.useEscape) {
+            for (; i < limit; i++) {
+                char c = this.charAt(i);
+                if (c == this.escape) {
+                    escaped = true;
+                    i++; // 跳过转义字符后的字符
+                } else if (c == this.first && this.startsWithDelimiter(i)) {
+                    break;
+                }
+            }
+        } else if (this.delimiterLength == 1) {
+            if (this.array == null && this.str instanceof String) {
+                i = ((String) this.str).indexOf(this.first, begin);
+                if (i == -1) {
+                    i = limit;
+                }
+            } else {
+                for (; i < limit; i++) {
+                    if (this.charAt(i) == this.first) {
+                        break;
+                    }
+                }
+            }
+        } else {
+            for (; i < limit; i++) {
+                if (this.charAt(i) == this.first && this.startsWithDelimiter(i)) {
+                    break;
+                }
+            }
+        }
+
+        this.offset = begin;
+        this.escaped = escaped;
+        this.index++;
+        if (i >= limit) { // 最后一个字段
+            this.end = limit;
+            this.position = limit + 1;
+        } else {
+            this.end = i;
+            this.position = i + this.delimiterLength;
+        }
+        return true;
+    }
+
+    /**
+     * 判断字段分隔符是否出现在指定位置上
+     *
+     * @param index 位置
+     * @return 返回 true 表示位置上是字段分隔符
+     */
+    private boolean startsWithDelimiter(int index) {
+        if (index + this.delimiterLength > this.limit) {
+            return false;
+        }
+        for (int i = 1; i < this.delimiterLength; i++) {
+            if (this.charAt(index + i) != this.delimiter.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 返回字符序列中指定位置上的字符
+     *
+     * @param index 位置
+     * @return 字符
+     */
+    private char charAt(int index) {
+        return this.array == null ? this.str.charAt(index) : this.array[index];
+    }
+
+    /**
+     * 返回当前字段的序号
+     *
+     * @return 从0开始，-1表示还未调用 {@linkplain #next()}
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * 返回当前字段在字符序列中的起始位置
+     *
+     * @return 位置
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * 返回当前字段在字符序列中的结束位置（不包含该位置上的字符）
+     *
+     * @return 位置
+     */
+    public int getEnd() {
+        return this.end;
+    }
+
+    /**
+     * 返回当前字段在字符序列中占用的字符个数（含转义字符）
+     *
+     * @return 字符个数
+     */
+    public int getLength() {
+        return this.end - this.offset;
+    }
+
+    /**
+     * 判断当前字段中是否含有转义字符 <br>
+     * 不含转义字符时，字段内容就是字符序列中 {@linkplain #getOffset()} 到 {@linkplain #getEnd()} 之间的字符
+     *
+     * @return 返回 true 表示含有转义字符
+     */
+    public boolean isEscaped() {
+        return this.escaped;
+    }
+
+    /**
+     * 将当前字段内容（已删除转义字符）复制到字符数组中
+     *
+     * @param dest  字符数组
+     * @param begin 字符数组中的起始位置
+     * @return 复制的字符个数
+     */
+    public int getChars(char[] dest, int begin) {
+        int n = begin;
+        if (this.escaped) {
+            for (int i = this.offset; i < this.end; i++) {
+                char c = this.charAt(i);
+                if (c == this.escape) {
+                    if (++i < this.end) {
+                        dest[n++] = this.charAt(i);
+                    }
+                } else {
+                    dest[n++] = c;
+                }
+            }
+        } else if (this.array != null) {
+            System.arraycopy(this.array, this.offset, dest, begin, this.end - this.offset);
+            n += this.end - this.offset;
+        } else {
+            for (int i = this.offset; i < this.end; i++) {
+                dest[n++] = this.str.charAt(i);
+            }
+        }
+        return n - begin;
+    }
+
+    /**
+     * 将当前字段内容（已删除转义字符）追加到缓冲区中
+     *
+     * @param buf 缓冲区
+     * @return 缓冲区
+     */
+    public StringBuilder appendTo(StringBuilder buf) {
+        if (this.escaped) {
+            for (int i = this.offset; i < this.end; i++) {
+                char c = this.charAt(i);
+                if (c == this.escape) {
+                    if (++i < this.end) {
+                        buf.append(this.charAt(i));
+                    }
+                } else {
+                    buf.append(c);
+                }
+            }
+        } else if (this.array != null) {
+            buf.append(this.array, this.offset, this.end - this.offset);
+        } else {
+            buf.append(this.str, this.offset, this.end);
+        }
+        return buf;
+    }
+
+    /**
+     * 判断当前字段内容（已删除转义字符）是否与字符串相等
+     *
+     * @param str 字符串
+     * @return 返回 true 表示相等
+     */
+    public boolean contentEquals(CharSequence str) {
+        if (str == null) {
+            return false;
+        }
+
+        int n = 0, length = str.length();
+        for (int i = this.offset; i < this.end; i++, n++) {
+            char c = this.charAt(i);
+            if (this.escaped && c == this.escape) {
+                if (++i >= this.end) {
+                    break;
+                }
+                c = this.charAt(i);
+            }
+            if (n >= length || c != str.charAt(n)) {
+                return false;
+            }
+        }
+        return n == length;
+    }
+
+    /**
+     * 返回当前字段内容（已删除转义字符）
+     *
+     * @return 字符串
+     */
+    public String getField() {
+        if (this.escaped) {
+            return this.appendTo(new StringBuilder(this.end - this.offset)).toString();
+        } else if (this.array != null) {
+            return new String(this.array, this.offset, this.end - this.offset);
+        } else {
+            return this.str.subSequence(this.offset, this.end).toString();
+        }
+    }
+
+    /**
+     * 跳过字段
+     *
+     * @param n 跳过字段的个数
+     * @return 返回 true 表示已跳过 n 个字段 false 表示字段个数不足
+     */
+    public boolean skip(int n) {
+        for (int i = 0; i < n; i++) {
+            if (!this.next()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String toString() {
+        return this.index < 0 ? "" : this.getField();
+    }
+
+}
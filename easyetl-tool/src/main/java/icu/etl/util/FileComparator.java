@@ -0,0 +1,309 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件内容比较器 <br>
+ * 返回二个文件中第一个不同字节的位置，适用于校验复制后的大文件 <br>
+ * <br>
+ * 文件按 {@linkplain #CHUNK_SIZE} 分块，每块由一个线程比较，所有块中最小的不同位置就是文件的第一个不同位置；
+ * 某个块找到不同字节后，位置在其后的块不再继续比较 <br>
+ * 大于 {@linkplain #MAPPED_FILESIZE} 的文件使用内存映射读取，其他文件使用 {@linkplain FileChannel#read(ByteBuffer, long)} 读取 <br>
+ * 每次比较8个字节，8个字节不同时再定位具体的字节
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-15
+ */
+public class FileComparator {
+
+    /** 每个线程比较的字节块大小，单位: 字节 */
+    public static int CHUNK_SIZE = 32 * 1024 * 1024;
+
+    /** 大于这个值的文件使用内存映射读取，单位: 字节 */
+    public static long MAPPED_FILESIZE = 64 * 1024 * 1024;
+
+    /** 文件 */
+    private final File file1;
+
+    /** 文件 */
+    private final File file2;
+
+    /** 并发线程数 */
+    private final int threads;
+
+    /** 读取文件的缓冲区大小 */
+    private final int size;
+
+    /**
+     * 初始化
+     *
+     * @param file1   文件
+     * @param file2   文件
+     * @param threads 并发线程数, 小于等于零时使用处理器个数
+     */
+    public FileComparator(File file1, File file2, int threads) {
+        this(file1, file2, threads, 0);
+    }
+
+    /**
+     * 初始化
+     *
+     * @param file1   文件
+     * @param file2   文件
+     * @param threads 并发线程数, 小于等于零时使用处理器个数
+     * @param size    读取文件的缓冲区大小（使用内存映射时表示每次比较的字节个数）, 小于等于零自动赋默认值
+     */
+    public FileComparator(File file1, File file2, int threads, int size) {
+        if (file1 == null) {
+            throw new NullPointerException();
+        }
+        if (file2 == null) {
+            throw new NullPointerException();
+        }
+
+        this.file1 = file1;
+        this.file2 = file2;
+        this.threads = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.size = size <= 0 ? IO.BYTES_BUFFER_SIZE * 100 : size;
+    }
+
+    /**
+     * 比较二个文件的内容
+     *
+     * @return 返回 -1 表示二个文件内容相同，否则返回第一个不同字节的位置（从0开始）；
+     * 如果一个文件的内容是另一个文件的前缀，则返回较短文件的长度
+     * @throws IOException 读取文件发生错误
+     */
+    public long mismatch() throws IOException {
+        if (this.file1.equals(this.file2)) {
+            return -1;
+        }
+
+        FileInputStream in1 = new FileInputStream(this.file1);
+        try {
+            FileInputStream in2 = new FileInputStream(this.file2);
+            try {
+                FileChannel channel1 = in1.getChannel();
+                FileChannel channel2 = in2.getChannel();
+                long length1 = channel1.size();
+                long length2 = channel2.size();
+                long length = Math.min(length1, length2);
+
+                AtomicLong result = new AtomicLong(Long.MAX_VALUE);
+                boolean mapped = length > MAPPED_FILESIZE;
+                List<Chunk> chunks = new ArrayList<Chunk>();
+                for (long start = 0; start < length; start += CHUNK_SIZE) {
+                    chunks.add(new Chunk(channel1, channel2, start, Math.min(CHUNK_SIZE, length - start), mapped, this.size, result));
+                }
+
+                if (chunks.size() <= 1 || this.threads == 1) {
+                    for (Chunk chunk : chunks) {
+                        if (chunk.call().position != -1) {
+                            break;
+                        }
+                    }
+                } else {
+                    this.execute(chunks);
+                }
+
+                long position = result.get();
+                if (position != Long.MAX_VALUE) {
+                    return position;
+                } else {
+                    return length1 == length2 ? -1 : length;
+                }
+            } finally {
+                in2.close();
+            }
+        } finally {
+            in1.close();
+        }
+    }
+
+    /**
+     * 使用线程池并发比较所有字节块
+     *
+     * @param chunks 字节块
+     * @throws IOException 读取文件发生错误
+     */
+    private void execute(List<Chunk> chunks) throws IOException {
+        ExecutorService service = Executors.newFixedThreadPool(Math.min(this.threads, chunks.size()));
+        try {
+            List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>(chunks);
+            List<Future<Chunk>> futures = service.invokeAll(tasks);
+            for (Future<Chunk> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(this.file1.getAbsolutePath() + ", " + this.file2.getAbsolutePath() + ", " + e.getLocalizedMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else {
+                throw new RuntimeException(this.file1.getAbsolutePath() + ", " + this.file2.getAbsolutePath(), cause);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * 比较二个缓冲区中的字节（从缓冲区的当前位置开始，比较的字节个数是第一个缓冲区的剩余字节数）
+     *
+     * @param b1 缓冲区
+     * @param b2 缓冲区
+     * @return 返回 -1 表示相同，否则返回第一个不同字节相对于缓冲区起始位置的偏移量
+     */
+    protected static int mismatch(ByteBuffer b1, ByteBuffer b2) {
+        int start = b1.position();
+        while (b1.remaining() >= 8) {
+            long value = b1.getLong() ^ b2.getLong();
+            if (value != 0) { // 大端字节序，高位是前面的字节
+                return b1.position() - 8 - start + Long.numberOfLeadingZeros(value) / 8;
+            }
+        }
+
+        while (b1.hasRemaining()) {
+            if (b1.get() != b2.get()) {
+                return b1.position() - 1 - start;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 二个文件中相同位置的字节块
+     */
+    protected static class Chunk implements Callable<Chunk> {
+
+        /** 文件通道 */
+        private final FileChannel channel1;
+
+        /** 文件通道 */
+        private final FileChannel channel2;
+
+        /** 字节块在文件中的起始位置 */
+        private final long start;
+
+        /** 字节块的长度 */
+        private final long length;
+
+        /** true表示使用内存映射 */
+        private final boolean mapped;
+
+        /** 缓冲区大小 */
+        private final int size;
+
+        /** 所有字节块中第一个不同字节的位置 */
+        private final AtomicLong result;
+
+        /** 字节块中第一个不同字节的位置，-1表示相同 */
+        private long position;
+
+        public Chunk(FileChannel channel1, FileChannel channel2, long start, long length, boolean mapped, int size, AtomicLong result) {
+            this.channel1 = channel1;
+            this.channel2 = channel2;
+            this.start = start;
+            this.length = length;
+            this.mapped = mapped;
+            this.size = size;
+            this.result = result;
+            this.position = -1;
+        }
+
+        public Chunk call() throws IOException {
+            if (this.mapped) {
+                ByteBuffer b1 = this.channel1.map(FileChannel.MapMode.READ_ONLY, this.start, this.length);
+                ByteBuffer b2 = this.channel2.map(FileChannel.MapMode.READ_ONLY, this.start, this.length);
+                while (b1.position() < this.length) {
+                    if (this.result.get() < this.start) { // 前面的字节块已找到不同字节
+                        return this;
+                    }
+
+                    int begin = b1.position();
+                    int limit = (int) Math.min(this.length, begin + (long) this.size);
+                    b1.limit(limit);
+                    b2.limit(limit);
+                    int index = FileComparator.mismatch(b1, b2);
+                    if (index != -1) {
+                        return this.found(begin + index);
+                    }
+                }
+            } else {
+                int capacity = (int) Math.min(this.length, this.size);
+                ByteBuffer b1 = ByteBuffer.allocate(capacity);
+                ByteBuffer b2 = ByteBuffer.allocate(capacity);
+                long position = this.start;
+                long end = this.start + this.length;
+                while (position < end) {
+                    if (this.result.get() < this.start) {
+                        return this;
+                    }
+
+                    int len = (int) Math.min(capacity, end - position);
+                    FileComparator.read(this.channel1, b1, position, len);
+                    FileComparator.read(this.channel2, b2, position, len);
+                    int index = FileComparator.mismatch(b1, b2);
+                    if (index != -1) {
+                        return this.found(position - this.start + index);
+                    }
+                    position += len;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 记录不同字节的位置
+         *
+         * @param offset 不同字节相对于字节块起始位置的偏移量
+         * @return 字节块
+         */
+        private Chunk found(long offset) {
+            this.position = this.start + offset;
+            long value;
+            while ((value = this.result.get()) > this.position) {
+                if (this.result.compareAndSet(value, this.position)) {
+                    break;
+                }
+            }
+            return this;
+        }
+    }
+
+    /**
+     * 从文件通道的指定位置读取字节，直到填满缓冲区
+     *
+     * @param channel  文件通道
+     * @param buf      缓冲区
+     * @param position 文件中的位置
+     * @param length   读取的字节个数
+     * @throws IOException 读取文件发生错误
+     */
+    private static void read(FileChannel channel, ByteBuffer buf, long position, int length) throws IOException {
+        buf.clear();
+        buf.limit(length);
+        while (buf.hasRemaining()) {
+            int len = channel.read(buf, position + buf.position());
+            if (len <= 0) {
+                throw new IOException((position + buf.position()) + " >= " + channel.size());
+            }
+        }
+        buf.flip();
+    }
+
+}
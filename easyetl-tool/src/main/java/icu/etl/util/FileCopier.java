@@ -0,0 +1,321 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件复制器 <br>
+ * 使用 {@linkplain FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} 复制文件内容（操作系统支持时不需要把字节复制到用户空间） <br>
+ * 复制目录时先在当前线程中创建所有子目录，再使用线程池并发复制目录中的文件 <br>
+ * <br>
+ * 文件每复制 {@linkplain #CHUNK_SIZE} 个字节执行一次进度回调，并发线程数大于1时回调方法会在多个线程中同时执行，回调方法需要是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-26
+ */
+public class FileCopier {
+
+    /** 每次传输的字节数（执行一次进度回调），单位: 字节 */
+    public static long CHUNK_SIZE = 8 * 1024 * 1024;
+
+    /** 并发线程数 */
+    private final int threads;
+
+    /** true表示保留文件的最后修改时间 */
+    private boolean preserveTime;
+
+    /** 进度回调接口 */
+    private Progress progress;
+
+    /** 已复制的字节数 */
+    private final AtomicLong bytes;
+
+    /** 开始复制的时间 */
+    private long start;
+
+    /**
+     * 初始化
+     *
+     * @param threads 并发线程数, 小于等于零时使用处理器个数
+     */
+    public FileCopier(int threads) {
+        this.threads = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.bytes = new AtomicLong();
+    }
+
+    /**
+     * 设置是否保留文件与目录的最后修改时间
+     *
+     * @param preserveTime true表示目标文件的最后修改时间与源文件相同
+     * @return 当前对象
+     */
+    public FileCopier setPreserveTime(boolean preserveTime) {
+        this.preserveTime = preserveTime;
+        return this;
+    }
+
+    /**
+     * 设置进度回调接口
+     *
+     * @param progress 进度回调接口
+     * @return 当前对象
+     */
+    public FileCopier setProgress(Progress progress) {
+        this.progress = progress;
+        return this;
+    }
+
+    /**
+     * 复制文件或目录
+     *
+     * @param file 文件或目录
+     * @param dest 目标文件
+     * @return 返回true表示操作成功 false表示操作失败
+     * @throws IOException 访问文件错误
+     */
+    public boolean copy(File file, File dest) throws IOException {
+        if (file == null || dest == null) {
+            throw new NullPointerException();
+        }
+        if (!file.exists()) {
+            throw new IllegalArgumentException(file.getAbsolutePath());
+        }
+
+        // 文件复制自身
+        if (file.equals(dest)) {
+            if (JUL.isWarnEnabled()) {
+                JUL.warn(ResourcesUtils.getFilesMessage(6, file));
+            }
+            return true;
+        }
+
+        this.bytes.set(0);
+        this.start = System.currentTimeMillis();
+
+        // 复制文件
+        if (file.isFile()) {
+            return this.copyFile(file, dest);
+        }
+
+        // 复制目录
+        if (file.isDirectory()) {
+            return this.copyDirectory(file, dest);
+        }
+
+        // 其他类型
+        else {
+            return this.copyFile(file, dest) || this.copyDirectory(file, dest);
+        }
+    }
+
+    /**
+     * 复制文件
+     *
+     * @param file 文件
+     * @param dest 目标文件
+     * @return 返回true表示操作成功 false表示操作失败
+     * @throws IOException 访问文件错误
+     */
+    protected boolean copyFile(File file, File dest) throws IOException {
+        if (!FileUtils.Atomic.createFile(dest, false)) {
+            return false;
+        }
+
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileOutputStream out = new FileOutputStream(dest, false);
+            try {
+                FileChannel input = in.getChannel();
+                FileChannel output = out.getChannel();
+                long length = input.size();
+                long position = 0;
+                while (position < length) {
+                    long len = IO.transfer(input, position, Math.min(CHUNK_SIZE, length - position), output);
+                    if (len <= 0) {
+                        break;
+                    }
+
+                    position += len;
+                    long total = this.bytes.addAndGet(len);
+                    if (this.progress != null) {
+                        this.progress.update(file, position, total, System.currentTimeMillis() - this.start);
+                    }
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+
+        if (this.preserveTime) {
+            dest.setLastModified(file.lastModified());
+        }
+        return dest.exists() && (dest.length() == file.length());
+    }
+
+    /**
+     * 复制目录
+     *
+     * @param dir  目录
+     * @param dest 目标目录
+     * @return 返回true表示操作成功 false表示操作失败
+     * @throws IOException 访问文件错误
+     */
+    protected boolean copyDirectory(File dir, File dest) throws IOException {
+        List<File[]> dirs = new ArrayList<File[]>();
+        List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+        boolean value = this.prepare(dir, dest, dirs, tasks);
+
+        if (tasks.size() <= 1 || this.threads == 1) {
+            for (Callable<Boolean> task : tasks) {
+                value = this.call(task) && value;
+            }
+        } else {
+            value = this.execute(dir, tasks) && value;
+        }
+
+        // 复制文件会改变目录的最后修改时间，所以最后设置目录的最后修改时间（先设置子目录）
+        if (this.preserveTime) {
+            for (int i = dirs.size() - 1; i >= 0; i--) {
+                File[] array = dirs.get(i);
+                array[1].setLastModified(array[0].lastModified());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 创建目标目录及所有子目录，并生成复制文件的任务
+     *
+     * @param dir   目录
+     * @param dest  目标目录
+     * @param dirs  源目录与目标目录
+     * @param tasks 复制文件的任务
+     * @return 返回true表示操作成功 false表示操作失败
+     */
+    private boolean prepare(File dir, File dest, List<File[]> dirs, List<Callable<Boolean>> tasks) {
+        if (!FileUtils.Atomic.createDirectory(dest, false)) {
+            return false;
+        }
+        dirs.add(new File[]{dir, dest});
+
+        boolean value = true;
+        File[] files = FileUtils.Atomic.array(dir.listFiles());
+        for (final File child : files) {
+            final File newchild = new File(dest, child.getName());
+            if (child.isDirectory()) {
+                if (!this.prepare(child, newchild, dirs, tasks)) {
+                    value = false;
+                }
+            } else {
+                tasks.add(new Callable<Boolean>() {
+                    public Boolean call() throws IOException {
+                        return copyFile(child, newchild) || (!child.isFile() && copyDirectory(child, newchild));
+                    }
+                });
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 在当前线程中执行任务
+     *
+     * @param task 任务
+     * @return 返回true表示操作成功 false表示操作失败
+     * @throws IOException 访问文件错误
+     */
+    private boolean call(Callable<Boolean> task) throws IOException {
+        try {
+            return task.call();
+        } catch (IOException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * 使用线程池并发复制文件
+     *
+     * @param dir   目录
+     * @param tasks 复制文件的任务
+     * @return 返回true表示操作成功 false表示操作失败
+     * @throws IOException 访问文件错误
+     */
+    private boolean execute(File dir, List<Callable<Boolean>> tasks) throws IOException {
+        ExecutorService service = Executors.newFixedThreadPool(Math.min(this.threads, tasks.size()));
+        try {
+            boolean value = true;
+            List<Future<Boolean>> futures = service.invokeAll(tasks);
+            for (Future<Boolean> future : futures) {
+                if (!future.get()) {
+                    value = false;
+                }
+            }
+            return value;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(dir.getAbsolutePath() + ", " + e.getLocalizedMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else {
+                throw new RuntimeException(dir.getAbsolutePath(), cause);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * 返回最后一次复制操作已复制的字节数
+     *
+     * @return 字节数
+     */
+    public long getBytes() {
+        return this.bytes.get();
+    }
+
+    /**
+     * 返回最后一次复制操作的平均速度
+     *
+     * @return 每秒复制的字节数
+     */
+    public long getThroughput() {
+        long millis = System.currentTimeMillis() - this.start;
+        return millis <= 0 ? this.bytes.get() : this.bytes.get() * 1000 / millis;
+    }
+
+    /**
+     * 复制进度的回调接口
+     */
+    public interface Progress {
+
+        /**
+         * 更新复制进度
+         *
+         * @param file   正在复制的文件
+         * @param length 文件已复制的字节数
+         * @param total  所有文件已复制的字节数
+         * @param millis 已用时间，单位: 毫秒
+         */
+        void update(File file, long length, long total, long millis);
+    }
+
+}
@@ -0,0 +1,423 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import icu.etl.collection.ByteBuffer;
+
+/**
+ * 文本文件的行索引 <br>
+ * 扫描一次文件，每隔 {@linkplain #getInterval()} 行记录一次行首在文件中的字节位置（稀疏索引），
+ * 读取任意一行时先定位到最近的索引位置，再向后跳过不超过 {@linkplain #getInterval()} 行，不需要从文件第一行开始读取 <br>
+ * <br>
+ * 换行符的规则与 {@linkplain java.io.BufferedReader#readLine()} 相同（\n, \r, \r\n），
+ * 只支持兼容ASCII编码的字符集，详见 {@linkplain StringUtils#isAsciiCompatible(String)} <br>
+ * <br>
+ * 索引对象会缓存在内存中（详见 {@linkplain #get(File, String)}），文件的长度或修改时间发生变化时自动重建索引
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-10
+ */
+public class FileLineIndex {
+
+    /** 默认每隔1000行记录一次行首位置 */
+    public final static int DEFAULT_INTERVAL = 1000;
+
+    /** 缓存索引的最大个数 */
+    public static int CACHE_SIZE = 32;
+
+    /** 按行号读取文件时，文件长度大于等于该值（单位字节）才建立索引，较小的文件直接从头读取 */
+    public static long MIN_LENGTH = 1024 * 1024;
+
+    /** 缓存的索引，文件绝对路径与字符集 - 索引 */
+    private final static Map<String, FileLineIndex> cache = new LinkedHashMap<String, FileLineIndex>(16, 0.75f, true) {
+        private final static long serialVersionUID = 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<String, FileLineIndex> eldest) {
+            return this.size() > CACHE_SIZE;
+        }
+    };
+
+    /** 文件 */
+    private final File file;
+
+    /** 文件字符集 */
+    private final String charsetName;
+
+    /** 索引间隔的行数 */
+    private final int interval;
+
+    /** 建立索引时文件的长度 */
+    private long length;
+
+    /** 建立索引时文件的修改时间 */
+    private long lastModified;
+
+    /** 文件的总行数 */
+    private long lines;
+
+    /** 行首的字节位置，第 i 个元素是第 (i * interval + 1) 行的行首位置 */
+    private long[] offsets;
+
+    /** 数组 {@linkplain #offsets} 中的元素个数 */
+    private int size;
+
+    /**
+     * 建立文件的行索引
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @throws IOException 读取文件发生错误
+     */
+    public FileLineIndex(File file, String charsetName) throws IOException {
+        this(file, charsetName, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * 建立文件的行索引
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @param interval    每隔几行记录一次行首位置
+     * @throws IOException 读取文件发生错误
+     */
+    public FileLineIndex(File file, String charsetName, int interval) throws IOException {
+        if (file == null) {
+            throw new NullPointerException();
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException(String.valueOf(interval));
+        }
+
+        charsetName = StringUtils.charset(charsetName);
+        if (!StringUtils.isAsciiCompatible(charsetName)) {
+            throw new UnsupportedEncodingException(charsetName);
+        }
+
+        this.file = file;
+        this.charsetName = charsetName;
+        this.interval = interval;
+        this.build();
+    }
+
+    /**
+     * 返回缓存中的索引，如果索引不存在或已过期则重新建立索引
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @return 索引
+     * @throws IOException 读取文件发生错误
+     */
+    public static FileLineIndex get(File file, String charsetName) throws IOException {
+        FileLineIndex index = FileLineIndex.lookup(file, charsetName);
+        if (index == null) {
+            index = new FileLineIndex(file, charsetName);
+            synchronized (cache) {
+                cache.put(key(file, index.charsetName), index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 返回缓存中的索引
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @return 返回 null 表示索引不存在或已过期
+     */
+    public static FileLineIndex lookup(File file, String charsetName) {
+        String key = key(file, StringUtils.charset(charsetName));
+        synchronized (cache) {
+            FileLineIndex index = cache.get(key);
+            if (index == null) {
+                return null;
+            }
+
+            if (index.isExpired()) {
+                cache.remove(key);
+                return null;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 删除文件在缓存中的所有索引
+     *
+     * @param file 文件
+     */
+    public static void remove(File file) {
+        String prefix = file.getAbsolutePath() + "|";
+        synchronized (cache) {
+            for (Iterator<String> it = cache.keySet().iterator(); it.hasNext(); ) {
+                if (it.next().startsWith(prefix)) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * 清空缓存中的所有索引
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 返回缓存的关键字
+     *
+     * @param file        文件
+     * @param charsetName 字符集
+     * @return 关键字
+     */
+    private static String key(File file, String charsetName) {
+        return file.getAbsolutePath() + "|" + charsetName.toUpperCase();
+    }
+
+    /**
+     * 扫描文件，建立行索引
+     *
+     * @throws IOException 读取文件发生错误
+     */
+    private void build() throws IOException {
+        this.lastModified = this.file.lastModified();
+        this.offsets = new long[16];
+        this.size = 0;
+
+        long terminators = 0; // 换行符的个数
+        long start = 0; // 当前行的行首位置
+        long position = 0; // 缓冲区第一个字节在文件中的位置
+        boolean cr = false; // true表示上一个字节是回车符
+
+        this.add(0);
+        InputStream in = new FileInputStream(this.file);
+        try {
+            byte[] buf = new byte[IO.BYTES_BUFFER_SIZE * 4];
+            for (int len; (len = in.read(buf)) != -1; position += len) {
+                for (int i = 0; i < len; i++) {
+                    byte b = buf[i];
+                    if (b == '\n') {
+                        cr = false;
+                        start = position + i + 1;
+                        if (++terminators % this.interval == 0) {
+                            this.add(start);
+                        }
+                    } else if (cr) { // 上一个回车符是一个独立的换行符
+                        cr = b == '\r';
+                        start = position + i;
+                        if (++terminators % this.interval == 0) {
+                            this.add(start);
+                        }
+                    } else if (b == '\r') {
+                        cr = true;
+                    }
+                }
+            }
+        } finally {
+            in.close();
+        }
+
+        if (cr) { // 文件最后一个字节是回车符
+            start = position;
+            terminators++;
+        }
+
+        this.length = position;
+        this.lines = start < position ? terminators + 1 : terminators;
+    }
+
+    /**
+     * 记录行首位置
+     *
+     * @param offset 行首在文件中的字节位置
+     */
+    private void add(long offset) {
+        if (this.size == this.offsets.length) {
+            long[] array = new long[this.offsets.length * 2];
+            System.arraycopy(this.offsets, 0, array, 0, this.size);
+            this.offsets = array;
+        }
+        this.offsets[this.size++] = offset;
+    }
+
+    /**
+     * 判断文件在建立索引后是否发生了变化
+     *
+     * @return 返回 true 表示索引已过期
+     */
+    public boolean isExpired() {
+        return this.file.length() != this.length || this.file.lastModified() != this.lastModified;
+    }
+
+    /**
+     * 返回文件
+     *
+     * @return 文件
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 返回文件字符集
+     *
+     * @return 字符集
+     */
+    public String getCharsetName() {
+        return charsetName;
+    }
+
+    /**
+     * 返回索引间隔的行数
+     *
+     * @return 行数
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * 返回文件的总行数
+     *
+     * @return 行数
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * 返回文件的第n行内容
+     *
+     * @param number 文件行号（从1开始 -1表示读取最后一行）
+     * @return 返回null表示文件中不存在第n行
+     * @throws IOException 访问文件错误
+     */
+    public String readline(long number) throws IOException {
+        if (number == -1) {
+            number = this.lines;
+        }
+        if (number < 1 || number > this.lines) {
+            return null;
+        }
+
+        List<String> list = this.readlines(number, 1);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     * 从文件的第 {@code number} 行开始，读取 {@code count} 行内容
+     *
+     * @param number 起始行号，从1开始
+     * @param count  读取的行数
+     * @return 文件内容，集合元素个数小于 count 表示已读取到文件末尾
+     * @throws IOException 访问文件错误
+     */
+    public List<String> readlines(long number, int count) throws IOException {
+        if (number < 1) {
+            throw new IllegalArgumentException(String.valueOf(number));
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException(String.valueOf(count));
+        }
+
+        List<String> list = new ArrayList<String>(Math.min(count, 100));
+        if (count == 0 || number > this.lines) {
+            return list;
+        }
+
+        int i = (int) ((number - 1) / this.interval);
+        InputStream in = new FileInputStream(this.file);
+        try {
+            IO.skip(in, this.offsets[i]);
+            FileLineIndex.readlines(in, (number - 1) % this.interval, count, this.charsetName, list);
+            return list;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 读取文件最后 {@code count} 行内容
+     *
+     * @param count 读取的行数
+     * @return 文件内容
+     * @throws IOException 访问文件错误
+     */
+    public List<String> tail(int count) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException(String.valueOf(count));
+        }
+        return this.readlines(Math.max(1, this.lines - count + 1), count);
+    }
+
+    /**
+     * 从输入流中跳过 {@code skip} 行后，读取 {@code count} 行内容 <br>
+     * 在字节上查找换行符，只对需要返回的行进行解码
+     *
+     * @param in          输入流
+     * @param skip        跳过的行数
+     * @param count       读取的行数
+     * @param charsetName 字符集（需要兼容ASCII编码）
+     * @param list        读取的行
+     * @throws IOException 读取文件发生错误
+     */
+    protected static void readlines(InputStream in, long skip, int count, String charsetName, List<String> list) throws IOException {
+        ByteBuffer line = new ByteBuffer(128, 1024, charsetName);
+        byte[] buf = new byte[IO.BYTES_BUFFER_SIZE];
+        long terminators = 0; // 已读取换行符的个数
+        long last = skip + count; // 读取到第几个换行符时结束
+        boolean cr = false; // true表示上一个字节是回车符
+
+        for (int len; (len = in.read(buf)) != -1; ) {
+            int begin = 0; // 当前行在缓冲区中的起始位置
+            for (int i = 0; i < len; i++) {
+                byte b = buf[i];
+                if (cr) {
+                    cr = false;
+                    if (b == '\n') { // 回车换行符中的换行符
+                        begin = i + 1;
+                        continue;
+                    }
+                }
+
+                if (b == '\n' || b == '\r') {
+                    if (terminators >= skip) {
+                        line.append(buf, begin, i - begin);
+                        list.add(line.toString());
+                        line.clear();
+                    }
+                    if (++terminators == last) {
+                        return;
+                    }
+                    cr = b == '\r';
+                    begin = i + 1;
+                }
+            }
+
+            if (terminators >= skip && begin < len) {
+                line.append(buf, begin, len - begin);
+            }
+        }
+
+        if (line.length() > 0) { // 最后一行没有换行符
+            list.add(line.toString());
+        }
+    }
+
+    public String toString() {
+        return this.file.getAbsolutePath() + ", " + this.charsetName + ", lines: " + this.lines + ", interval: " + this.interval;
+    }
+
+}
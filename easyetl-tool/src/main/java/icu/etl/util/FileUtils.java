@@ -12,12 +12,13 @@ import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -528,6 +529,11 @@ public final class FileUtils {
             return false;
         }
 
+        // 兼容ASCII编码的字符集直接在字节上转换
+        if (StringUtils.isAsciiCompatible(StringUtils.charset(charsetName))) {
+            return FileUtils.replaceLineSeparator(file, charsetName, FileUtils.lineSeparatorUnix, parent);
+        }
+
         // 如果文件小于10M，则读取全部内容
         if (file.exists() && file.length() <= DOC2UNIX_FILESIZE) {
             String content = FileUtils.readline(file, charsetName, 0);
@@ -974,6 +980,21 @@ public final class FileUtils {
         return filepath == null ? null : StringUtils.rtrimBlank(filepath, '/', '\\');
     }
 
+    /**
+     * 使用行间分隔符参数替换文件中的行分隔符（\n, \r, \r\n） <br>
+     * 使用多线程直接在字节上转换，转换结果先写入临时文件再重命名为原文件，详见 {@linkplain LineSeparatorConverter}
+     *
+     * @param file          文件
+     * @param charsetName   文件字符集（需要兼容ASCII编码）, 为空时取操作系统默认值
+     * @param lineSeparator 行间分隔符
+     * @param parent        临时文件存储目录, 如果是null，就使用文件所在目录
+     * @return 返回true表示操作成功 false表示操作失败
+     * @throws IOException 访问文件错误
+     */
+    public static boolean replaceLineSeparator(File file, String charsetName, String lineSeparator, File parent) throws IOException {
+        return new LineSeparatorConverter(file, charsetName, 0).replace(lineSeparator, parent);
+    }
+
     /**
      * 使用操作系统默认的行间分隔符替换字符序列参数 str 中的行间分隔符
      *
@@ -997,22 +1018,23 @@ public final class FileUtils {
         }
 
         StringBuilder buf = new StringBuilder(cs.length() + 20);
+        int from = 0; // 未复制字符的起始位置
         for (int i = 0, size = cs.length(); i < size; i++) {
             char c = cs.charAt(i);
 
             if (c == '\n') {
-                buf.append(lineSeparator);
+                buf.append(cs, from, i).append(lineSeparator);
+                from = i + 1;
             } else if (c == '\r') {
-                buf.append(lineSeparator);
+                buf.append(cs, from, i).append(lineSeparator);
                 int next = i + 1;
                 if (next < size && cs.charAt(next) == '\n') {
                     i = next;
                 }
-            } else {
-                buf.append(c);
+                from = i + 1;
             }
         }
-        return buf.toString();
+        return buf.append(cs, from, cs.length()).toString();
     }
 
     /**
@@ -1052,7 +1074,9 @@ public final class FileUtils {
     }
 
     /**
-     * 返回文件的第n行内容
+     * 返回文件的第n行内容 <br>
+     * 如果字符集兼容ASCII编码（详见 {@linkplain StringUtils#isAsciiCompatible(String)}），则直接在字节上查找换行符，只对返回的行进行解码，
+     * 读取最后一行或文件长度不小于 {@linkplain FileLineIndex#MIN_LENGTH} 时会建立文件的行索引 {@linkplain FileLineIndex} 并缓存，再次读取该文件时使用索引定位行的位置
      *
      * @param file        文件
      * @param charsetName 文件字符集, 为空时取操作系统默认值
@@ -1071,6 +1095,28 @@ public final class FileUtils {
             charsetName = StringUtils.CHARSET;
         }
 
+        // 读取所有行
+        if (number == 0) {
+            return FileUtils.read(file, charsetName);
+        }
+
+        // 在字节上查找换行符
+        if (StringUtils.isAsciiCompatible(charsetName)) {
+            FileLineIndex index = (number == -1 || file.length() >= FileLineIndex.MIN_LENGTH) ? FileLineIndex.get(file, charsetName) : FileLineIndex.lookup(file, charsetName);
+            if (index != null) {
+                return index.readline(number);
+            }
+
+            List<String> list = new ArrayList<String>(1);
+            FileInputStream in = new FileInputStream(file);
+            try {
+                FileLineIndex.readlines(in, number - 1, 1, charsetName, list);
+                return list.isEmpty() ? null : list.get(0);
+            } finally {
+                in.close();
+            }
+        }
+
         // 读取最后一行
         if (number == -1) {
             BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), charsetName));
@@ -1085,28 +1131,12 @@ public final class FileUtils {
             }
         }
 
-        // 读取所有行
-        if (number == 0) {
-            FileInputStream in = new FileInputStream(file);
-            try {
-                byte[] buf = new byte[(int) file.length()];
-                int len = in.read(buf);
-                if (buf.length == len) {
-                    return new String(buf, charsetName);
-                } else {
-                    throw new IOException(buf.length + " != " + len);
-                }
-            } finally {
-                in.close();
-            }
-        }
-
         // 读取指定行
         else {
             BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), charsetName));
             try {
                 String line;
-                for (int i = 1; (line = in.readLine()) != null; i++) {
+                for (long i = 1; (line = in.readLine()) != null; i++) {
                     if (i == number) {
                         return line;
                     }
@@ -1118,6 +1148,87 @@ public final class FileUtils {
         }
     }
 
+    /**
+     * 读取文件所有内容
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @return 文件内容
+     * @throws IOException 访问文件错误
+     */
+    public static String read(File file, String charsetName) throws IOException {
+        if (file == null) {
+            throw new NullPointerException();
+        }
+        if (StringUtils.isBlank(charsetName)) {
+            charsetName = StringUtils.CHARSET;
+        }
+
+        long length = file.length();
+        if (length <= IO.FILE_BYTES_BUFFER_SIZE) { // 小文件一次性读取所有字节
+            FileInputStream in = new FileInputStream(file);
+            try {
+                byte[] buf = new byte[(int) length];
+                int off = 0;
+                for (int len; off < buf.length && (len = in.read(buf, off, buf.length - off)) != -1; ) {
+                    off += len;
+                }
+                if (off != buf.length) {
+                    throw new IOException(buf.length + " != " + off);
+                }
+                return new String(buf, charsetName);
+            } finally {
+                in.close();
+            }
+        } else {
+            StringBuilder buf = new StringBuilder((int) Math.min(length, Integer.MAX_VALUE - 8));
+            FileUtils.read(file, charsetName, buf);
+            return buf.toString();
+        }
+    }
+
+    /**
+     * 读取文件所有内容，并写入到输出流中 <br>
+     * 使用固定长度的缓冲区，不会一次性将文件读取到内存中
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @param out         输出流
+     * @return 读取的字符个数
+     * @throws IOException 访问文件错误
+     */
+    public static long read(File file, String charsetName, Appendable out) throws IOException {
+        if (file == null) {
+            throw new NullPointerException();
+        }
+        if (out == null) {
+            throw new NullPointerException();
+        }
+        if (StringUtils.isBlank(charsetName)) {
+            charsetName = StringUtils.CHARSET;
+        }
+
+        InputStreamReader in = new InputStreamReader(new FileInputStream(file), charsetName);
+        try {
+            long total = 0;
+            char[] array = new char[IO.READER_BUFFER_SIZE];
+            CharSequence cs = java.nio.CharBuffer.wrap(array);
+            for (int len; (len = in.read(array)) != -1; ) {
+                if (out instanceof Writer) {
+                    ((Writer) out).write(array, 0, len);
+                } else if (out instanceof StringBuilder) {
+                    ((StringBuilder) out).append(array, 0, len);
+                } else {
+                    out.append(cs, 0, len);
+                }
+                total += len;
+            }
+            return total;
+        } finally {
+            in.close();
+        }
+    }
+
     /**
      * 返回文件的换行符
      *
@@ -1191,7 +1302,9 @@ public final class FileUtils {
     }
 
     /**
-     * 单线程计算文本行数
+     * 计算文本行数 <br>
+     * 如果字符集兼容ASCII编码（详见 {@linkplain StringUtils#isAsciiCompatible(String)}），则直接在字节上多线程统计换行符，详见 {@linkplain LineCounter}
+     * 否则使用单线程逐行读取文件
      *
      * @param file        文件
      * @param charsetName 文件的字符集
@@ -1199,6 +1312,30 @@ public final class FileUtils {
      * @throws IOException 读取文件发生错误
      */
     public static long count(File file, String charsetName) throws IOException {
+        return FileUtils.count(file, charsetName, 0);
+    }
+
+    /**
+     * 计算文本行数
+     *
+     * @param file        文件
+     * @param charsetName 文件的字符集
+     * @param threads     并发线程数，小于等于零时使用处理器个数
+     * @return 文件行数
+     * @throws IOException 读取文件发生错误
+     */
+    public static long count(File file, String charsetName, int threads) throws IOException {
+        if (file == null) {
+            throw new NullPointerException();
+        }
+        if (StringUtils.isBlank(charsetName)) {
+            charsetName = StringUtils.CHARSET;
+        }
+
+        if (StringUtils.isAsciiCompatible(charsetName)) {
+            return new LineCounter(file, charsetName, threads).count();
+        }
+
         BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), charsetName), IO.FILE_BYTES_BUFFER_SIZE);
         try {
             long count = 0;
@@ -1236,7 +1373,8 @@ public final class FileUtils {
     }
 
     /**
-     * 复制文件或目录
+     * 复制文件或目录 <br>
+     * 使用 {@linkplain FileCopier} 复制，文件内容通过通道直接传输，目录中的文件由多个线程并发复制
      *
      * @param file 文件或目录
      * @param dest 目标文件
@@ -1465,6 +1603,7 @@ public final class FileUtils {
         }
 
         // 写入文件
+        FileLineIndex.remove(file);
         Writer out = new OutputStreamWriter(new FileOutputStream(file, append), charsetName);
         try {
             out.write(content == null ? "" : content.toString());
@@ -1496,6 +1635,7 @@ public final class FileUtils {
             charsetName = StringUtils.CHARSET;
         }
 
+        FileLineIndex.remove(file);
         Writer out = new OutputStreamWriter(new FileOutputStream(file, append), charsetName);
         try {
             byte[] buf = new byte[IO.BYTES_BUFFER_SIZE];
@@ -1510,7 +1650,8 @@ public final class FileUtils {
     }
 
     /**
-     * 在指定时间范围内，检查目录中的文件是否发生了变化（文件被写入了相同内容也算变化）
+     * 在指定时间范围内，检查目录中的文件是否发生了变化（文件被写入了相同内容也算变化） <br>
+     * 需要在每个文件写入完成后立即处理文件时，使用 {@linkplain FileWatcher}
      *
      * @param dir     目录
      * @param millis  线程的休眠时间（单位毫秒）
@@ -1533,27 +1674,49 @@ public final class FileUtils {
             };
         }
 
-        Map<File, Long> map = new HashMap<File, Long>();
-        Atomic.loadFileTime(dir, filters, map); // 读取所有文件的最后修改时间
+        FileWalker walker = new FileWalker(0).setFilters(filters);
+        final Map<File, Long> map = new ConcurrentHashMap<File, Long>();
+        final List<File> list = Collections.synchronizedList(new ArrayList<File>());
+        try {
+            // 读取所有文件的最后修改时间
+            walker.walk(dir, new FileWalker.Visitor() {
+                public boolean visit(File file) {
+                    map.put(file, file.lastModified());
+                    return true;
+                }
+            });
+
+            // 休眠
+            if (millis > 0) {
+                Dates.sleep(millis, TimeUnit.MILLISECONDS);
+            }
 
-        // 休眠
-        if (millis > 0) {
-            Dates.sleep(millis, TimeUnit.MILLISECONDS);
+            // 比较文件的最后修改时间
+            walker.walk(dir, new FileWalker.Visitor() {
+                public boolean visit(File file) {
+                    Long time = map.remove(file);
+                    if (time == null || file.lastModified() != time) {
+                        list.add(file); // 文件发生了变化
+                    }
+                    return true;
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(dir.getAbsolutePath(), e);
         }
 
-        List<File> list = new ArrayList<File>(map.size());
-        Atomic.compareFileTime(dir, filters, map, list); // 比较文件的最后修改时间
         list.addAll(map.keySet()); // 将已删除的文件添加到集合中
         map.clear();
-        return list;
+        return new ArrayList<File>(list);
     }
 
     /**
-     * 判断二个文件的内容是否相等
+     * 判断二个文件的内容是否相等 <br>
+     * 使用多线程比较文件内容，详见 {@linkplain FileComparator}
      *
      * @param file1 文件
      * @param file2 文件
-     * @param size  文件输入流的字节缓冲区大小; 小于等于零自动赋默认值
+     * @param size  读取文件的缓冲区大小; 小于等于零自动赋默认值
      * @return 返回true表示相等 false表示不等
      * @throws IOException 访问文件错误
      */
@@ -1573,36 +1736,21 @@ public final class FileUtils {
         if (file1.length() != file2.length()) {
             return false;
         }
-        if (size <= 0) {
-            size = IO.BYTES_BUFFER_SIZE;
-        }
-
-        FileInputStream in1 = new FileInputStream(file1);
-        try {
-            FileInputStream in2 = new FileInputStream(file2);
-            try {
-                byte[] b1 = new byte[size];
-                byte[] b2 = new byte[size];
-                int s1, s2;
-                while ((s1 = in1.read(b1)) == (s2 = in2.read(b2))) {
-                    if (s1 == -1) {
-                        break;
-                    }
+        return new FileComparator(file1, file2, 0, size).mismatch() == -1;
+    }
 
-                    while (s2 >= 1) {
-                        s2--;
-                        if (b1[s2] != b2[s2]) {
-                            return false;
-                        }
-                    }
-                }
-                return s1 == s2;
-            } finally {
-                in2.close();
-            }
-        } finally {
-            in1.close();
-        }
+    /**
+     * 查找二个文件内容中第一个不同字节的位置
+     *
+     * @param file1   文件
+     * @param file2   文件
+     * @param threads 并发线程数, 小于等于零时使用处理器个数
+     * @return 返回 -1 表示二个文件内容相同，否则返回第一个不同字节的位置（从0开始）；
+     * 如果一个文件的内容是另一个文件的前缀，则返回较短文件的长度
+     * @throws IOException 访问文件错误
+     */
+    public static long mismatch(File file1, File file2, int threads) throws IOException {
+        return new FileComparator(file1, file2, threads).mismatch();
     }
 
     /**
@@ -1668,30 +1816,62 @@ public final class FileUtils {
      *
      * @param file 文件或目录 <br>
      *             如果是文件，判断文件名与 {@code name} 参数是否匹配 <br>
-     *             如果是目录，在目录中查找与 {@code name} 参数匹配的文件
+     *             如果是目录，在目录中查找与 {@code name} 参数匹配的文件与子目录
      * @param name 文件名（含扩展名）或正则表达式
-     * @return 匹配查找条件的文件
+     * @return 匹配查找条件的文件（按文件路径排序）
      */
     public static List<File> find(File file, String name) {
         if (file == null || !file.exists()) {
             throw new IllegalArgumentException(String.valueOf(file));
         }
 
+        FileWalker walker = new FileWalker(0).setName(name).setDirectory(true);
+
         // 如果是目录
         if (file.isDirectory()) {
-            List<File> list = new ArrayList<File>();
-            Atomic.find(file, name, list);
-            return list;
+            final List<File> list = Collections.synchronizedList(new ArrayList<File>());
+            if (walker.matches(file.getName())) {
+                list.add(file);
+            }
+
+            try {
+                walker.walk(file, new FileWalker.Visitor() {
+                    public boolean visit(File file) {
+                        return list.add(file);
+                    }
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(file.getAbsolutePath(), e);
+            }
+
+            List<File> result = new ArrayList<File>(list);
+            Collections.sort(result); // 多线程遍历的顺序不确定
+            return result;
         }
 
         // 如果是文件或其他类型文件
-        if (file.getName().equals(name) || file.getName().matches(name)) {
+        if (walker.matches(file.getName())) {
             return ArrayUtils.asList(file);
         } else {
             return new ArrayList<File>(0);
         }
     }
 
+    /**
+     * 搜索目录中的文件，每找到一个匹配的文件就执行一次回调方法（不会把文件保存到集合中）<br>
+     * 使用多线程遍历目录，详见 {@linkplain FileWalker}
+     *
+     * @param dir      目录
+     * @param name     文件名（含扩展名）或正则表达式
+     * @param maxDepth 遍历的最大深度，小于等于零表示不限制
+     * @param threads  并发线程数, 小于等于零时使用处理器个数
+     * @param visitor  回调接口，并发线程数大于1时需要是线程安全的
+     * @throws IOException 回调方法发生错误或遍历被中断
+     */
+    public static void find(File dir, String name, int maxDepth, int threads, FileWalker.Visitor visitor) throws IOException {
+        new FileWalker(threads).setName(name).setMaxDepth(maxDepth).walk(dir, visitor);
+    }
+
     // 创建文件 {0} 失败!
     private static boolean log1(File file, boolean value) {
         if (value) {
@@ -2034,7 +2214,7 @@ public final class FileUtils {
         }
 
         /**
-         * 复制文件或目录
+         * 复制文件或目录，详见 {@linkplain FileCopier}
          *
          * @param file 文件或目录
          * @param dest 目标文件
@@ -2042,186 +2222,7 @@ public final class FileUtils {
          * @throws IOException 访问文件错误
          */
         public static boolean copy(File file, File dest) throws IOException {
-            if (!file.exists()) {
-                throw new IllegalArgumentException(file.getAbsolutePath());
-            }
-
-            // 文件复制自身
-            if (file.equals(dest)) {
-                if (JUL.isWarnEnabled()) {
-                    JUL.warn(ResourcesUtils.getFilesMessage(6, file));
-                }
-                return true;
-            }
-
-            // 复制文件
-            if (file.isFile()) {
-                return Atomic.copyFile(file, dest);
-            }
-
-            // 复制目录
-            if (file.isDirectory()) {
-                return Atomic.copyDirectory(file, dest);
-            }
-
-            // 其他类型
-            else {
-                return Atomic.copyOther(file, dest);
-            }
-        }
-
-        /**
-         * 复制文件
-         *
-         * @param file 文件
-         * @param dest 目标文件
-         * @return 返回true表示操作成功 false表示操作失败
-         * @throws IOException 访问文件错误
-         */
-        public static boolean copyFile(File file, File dest) throws IOException {
-            if (!Atomic.createFile(dest, false)) {
-                return false;
-            }
-
-            FileInputStream in = new FileInputStream(file);
-            try {
-                FileOutputStream out = new FileOutputStream(dest, false);
-                try {
-                    byte[] buf = new byte[IO.BYTES_BUFFER_SIZE];
-                    for (int len; (len = in.read(buf)) != -1; ) {
-                        out.write(buf, 0, len);
-                        out.flush();
-                    }
-                } finally {
-                    out.close();
-                }
-            } finally {
-                in.close();
-            }
-
-            return dest.exists() && (dest.length() == file.length());
-        }
-
-        /**
-         * 复制目录
-         *
-         * @param file 目录
-         * @param dest 目标文件
-         * @return 返回true表示操作成功 false表示操作失败
-         * @throws IOException 访问文件错误
-         */
-        public static boolean copyDirectory(File file, File dest) throws IOException {
-            if (!Atomic.createDirectory(dest, false)) {
-                return false;
-            }
-
-            // 复制子文件
-            boolean value = true;
-            File[] files = Atomic.array(file.listFiles());
-            for (File child : files) {
-                File newchild = new File(dest, child.getName());
-                if (!Atomic.copy(child, newchild)) {
-                    value = false;
-                }
-            }
-            return value;
-        }
-
-        /**
-         * 复制其他类型的文件（非文件、非目录）
-         *
-         * @param file 文件
-         * @param dest 目标文件
-         * @return 返回true表示操作成功 false表示操作失败
-         * @throws IOException 访问文件错误
-         */
-        public static boolean copyOther(File file, File dest) throws IOException {
-            return Atomic.copyFile(file, dest) || Atomic.copyDirectory(file, dest);
-        }
-
-        /**
-         * 比较文件的最后修改时间
-         *
-         * @param dir     目录
-         * @param filters 文件过滤器数组
-         * @param map     文件的历史状态，文件与文件的最后修改时间的映射关系
-         * @param list    将发生变化的文件保存到集合中
-         */
-        public static void compareFileTime(File dir, FilenameFilter[] filters, Map<File, Long> map, List<File> list) {
-            for (FilenameFilter filter : filters) {
-                File[] files = Atomic.array(dir.listFiles(filter));
-                for (int i = 0; i < files.length; i++) {
-                    File file = files[i];
-                    if (file == null) {
-                        continue;
-                    }
-
-                    // 如果是目录
-                    if (file.isDirectory()) {
-                        compareFileTime(file, filters, map, list);
-                        continue;
-                    }
-
-                    // 如果是文件或其他类型文件
-                    Long time = map.remove(file);
-                    if (time == null || file.lastModified() != time) {
-                        list.add(file); // 文件发生了变化
-                    }
-                }
-            }
-        }
-
-        /**
-         * 搜索文件
-         *
-         * @param dir 目录
-         */
-        public static void find(File dir, String name, List<File> list) {
-            if (dir.getName().equals(name) || dir.getName().matches(name)) {
-                list.add(dir);
-            }
-
-            File[] array = Atomic.array(dir.listFiles());
-            for (File file : array) {
-                if (file.isFile()) {
-                    if (file.getName().equals(name) || file.getName().matches(name)) {
-                        list.add(file);
-                        continue;
-                    }
-                }
-
-                if (file.isDirectory()) {
-                    find(file, name, list);
-                }
-            }
-        }
-
-        /**
-         * 遍历目录中的文件，并将文件的最后修改时间保存到集合map中
-         *
-         * @param dir     目录
-         * @param filters 文件过滤器数组
-         * @param map     文件与最后修改时间的映射关系
-         */
-        public static void loadFileTime(File dir, FilenameFilter[] filters, Map<File, Long> map) {
-            for (FilenameFilter filter : filters) {
-                File[] files = Atomic.array(dir.listFiles(filter));
-                for (int i = 0; i < files.length; i++) {
-                    File file = files[i];
-                    if (file == null) {
-                        continue;
-                    }
-
-                    // 如果是目录
-                    if (file.isDirectory()) {
-                        loadFileTime(file, filters, map);
-                        continue;
-                    }
-
-                    // 如果是文件或其他类型文件
-                    map.put(file, file.lastModified());
-                }
-            }
+            return new FileCopier(0).copy(file, dest);
         }
 
         /**
@@ -0,0 +1,335 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 目录遍历器 <br>
+ * 使用线程池并发遍历目录树，每个子目录由一个线程读取，遍历到的文件通过 {@linkplain Visitor} 逐个回调，不需要把所有文件保存到集合中 <br>
+ * <br>
+ * 文件名的正则表达式只编译一次；使用 {@linkplain File#list()} 读取目录中的文件名，只为通过过滤器的文件创建文件对象，每个文件只判断一次是否是目录 <br>
+ * 并发线程数大于1时，回调方法会在多个线程中同时执行，回调方法需要是线程安全的，文件的回调顺序也不确定
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-24
+ */
+public class FileWalker {
+
+    /** 并发线程数 */
+    private final int threads;
+
+    /** 遍历的最大深度 */
+    private int maxDepth;
+
+    /** 文件过滤器 */
+    private FilenameFilter[] filters;
+
+    /** 文件名 */
+    private String name;
+
+    /** 文件名的正则表达式，null 表示只按文件名比较 */
+    private Pattern pattern;
+
+    /** true表示回调与文件名匹配的子目录 */
+    private boolean directory;
+
+    /**
+     * 初始化
+     *
+     * @param threads 并发线程数, 小于等于零时使用处理器个数
+     */
+    public FileWalker(int threads) {
+        this.threads = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.maxDepth = Integer.MAX_VALUE;
+    }
+
+    /**
+     * 设置遍历的最大深度
+     *
+     * @param maxDepth 最大深度，目录中的文件深度是1，子目录中的文件深度是2，以此类推；小于等于零表示不限制
+     * @return 当前对象
+     */
+    public FileWalker setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth <= 0 ? Integer.MAX_VALUE : maxDepth;
+        return this;
+    }
+
+    /**
+     * 设置文件过滤器，只遍历任意一个过滤器接受的文件与目录
+     *
+     * @param filters 文件过滤器数组，为空时遍历所有文件
+     * @return 当前对象
+     */
+    public FileWalker setFilters(FilenameFilter... filters) {
+        this.filters = filters == null || filters.length == 0 ? null : filters;
+        return this;
+    }
+
+    /**
+     * 设置文件名，只回调与文件名匹配的文件（不影响遍历子目录）
+     *
+     * @param name 文件名（含扩展名）或正则表达式，为 null 时回调所有文件
+     * @return 当前对象
+     */
+    public FileWalker setName(String name) {
+        this.name = name;
+        try {
+            this.pattern = name == null ? null : Pattern.compile(name);
+        } catch (PatternSyntaxException e) {
+            this.pattern = null;
+        }
+        return this;
+    }
+
+    /**
+     * 设置是否回调与文件名匹配的子目录（不包含遍历的起始目录），子目录回调后继续遍历子目录中的文件
+     *
+     * @param directory true表示回调子目录
+     * @return 当前对象
+     */
+    public FileWalker setDirectory(boolean directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * 判断文件名是否与 {@linkplain #setName(String)} 匹配
+     *
+     * @param name 文件名
+     * @return 返回true表示匹配
+     */
+    public boolean matches(String name) {
+        return this.name == null || this.name.equals(name) || (this.pattern != null && this.pattern.matcher(name).matches());
+    }
+
+    /**
+     * 判断过滤器是否接受文件
+     *
+     * @param dir  目录
+     * @param name 文件名
+     * @return 返回true表示接受
+     */
+    protected boolean accept(File dir, String name) {
+        if (this.filters == null) {
+            return true;
+        }
+
+        for (FilenameFilter filter : this.filters) {
+            if (filter.accept(dir, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 遍历目录中的文件（设置 {@linkplain #setDirectory(boolean)} 后也回调子目录）
+     *
+     * @param dir     目录
+     * @param visitor 回调接口
+     * @throws IOException 回调方法发生错误或遍历被中断
+     */
+    public void walk(File dir, Visitor visitor) throws IOException {
+        if (dir == null || !dir.isDirectory()) {
+            throw new IllegalArgumentException(String.valueOf(dir));
+        }
+        if (visitor == null) {
+            throw new NullPointerException();
+        }
+
+        Walk walk = new Walk(visitor);
+        if (this.threads == 1) {
+            walk.run(dir);
+        } else {
+            walk.execute(dir);
+        }
+    }
+
+    /**
+     * 文件的回调接口
+     */
+    public interface Visitor {
+
+        /**
+         * 访问文件
+         *
+         * @param file 文件
+         * @return 返回true表示继续遍历，返回false表示终止遍历
+         * @throws IOException 处理文件发生错误
+         */
+        boolean visit(File file) throws IOException;
+    }
+
+    /**
+     * 一次遍历操作
+     */
+    private class Walk {
+
+        /** 回调接口 */
+        private final Visitor visitor;
+
+        /** 未遍历完的目录个数 */
+        private final AtomicInteger pending;
+
+        /** 所有目录遍历完成 */
+        private final CountDownLatch done;
+
+        /** 线程池 */
+        private ExecutorService service;
+
+        /** 第一个错误 */
+        private volatile Throwable error;
+
+        /** true表示终止遍历 */
+        private volatile boolean stop;
+
+        public Walk(Visitor visitor) {
+            this.visitor = visitor;
+            this.pending = new AtomicInteger();
+            this.done = new CountDownLatch(1);
+        }
+
+        /**
+         * 在当前线程中遍历目录
+         *
+         * @param dir 目录
+         * @throws IOException 回调方法发生错误
+         */
+        public void run(File dir) throws IOException {
+            List<File> dirs = new ArrayList<File>();
+            List<Integer> depths = new ArrayList<Integer>();
+            dirs.add(dir);
+            depths.add(0);
+            while (!dirs.isEmpty() && !this.stop) {
+                int last = dirs.size() - 1;
+                File file = dirs.remove(last);
+                int depth = depths.remove(last);
+                List<File> list = this.scan(file, depth);
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    dirs.add(list.get(i));
+                    depths.add(depth + 1);
+                }
+            }
+        }
+
+        /**
+         * 使用线程池遍历目录
+         *
+         * @param dir 目录
+         * @throws IOException 回调方法发生错误或遍历被中断
+         */
+        public void execute(File dir) throws IOException {
+            this.service = Executors.newFixedThreadPool(FileWalker.this.threads);
+            try {
+                this.submit(dir, 0);
+                this.done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(dir.getAbsolutePath() + ", " + e.getLocalizedMessage());
+            } finally {
+                this.service.shutdownNow();
+            }
+
+            Throwable cause = this.error;
+            if (cause == null) {
+                return;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new RuntimeException(dir.getAbsolutePath(), cause);
+            }
+        }
+
+        /**
+         * 提交遍历目录的任务
+         *
+         * @param dir   目录
+         * @param depth 目录深度
+         */
+        private void submit(final File dir, final int depth) {
+            this.pending.incrementAndGet();
+            this.service.execute(new Runnable() {
+                public void run() {
+                    try {
+                        File file = dir;
+                        int level = depth;
+                        while (file != null && !stop) {
+                            List<File> list = scan(file, level);
+                            int size = list.size();
+                            for (int i = 1; i < size; i++) { // 第一个子目录在当前线程中遍历，其他子目录提交到线程池
+                                submit(list.get(i), level + 1);
+                            }
+                            file = size == 0 ? null : list.get(0);
+                            level++;
+                        }
+                    } catch (Throwable e) {
+                        if (error == null) {
+                            error = e;
+                        }
+                        stop = true;
+                    } finally {
+                        if (pending.decrementAndGet() == 0) {
+                            done.countDown();
+                        }
+                    }
+                }
+            });
+        }
+
+        /**
+         * 回调目录中的文件
+         *
+         * @param dir   目录
+         * @param depth 目录深度
+         * @return 需要继续遍历的子目录
+         * @throws IOException 回调方法发生错误
+         */
+        private List<File> scan(File dir, int depth) throws IOException {
+            String[] names = dir.list();
+            if (names == null || names.length == 0) {
+                return new ArrayList<File>(0);
+            }
+
+            List<File> dirs = new ArrayList<File>();
+            for (String name : names) {
+                if (this.stop) {
+                    break;
+                }
+                if (!FileWalker.this.accept(dir, name)) {
+                    continue;
+                }
+
+                File file = new File(dir, name);
+                if (file.isDirectory()) {
+                    if (FileWalker.this.directory && FileWalker.this.matches(name) && !this.visitor.visit(file)) {
+                        this.stop = true;
+                        break;
+                    }
+                    if (depth + 1 < FileWalker.this.maxDepth) {
+                        dirs.add(file);
+                    }
+                    continue;
+                }
+
+                if (FileWalker.this.matches(name) && !this.visitor.visit(file)) {
+                    this.stop = true;
+                }
+            }
+            return dirs;
+        }
+    }
+
+}
@@ -0,0 +1,616 @@
+package icu.etl.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件写入完成监听器 <br>
+ * 监听目录（含子目录）中文件的长度与最后修改时间，文件在指定时间内没有发生变化时认为文件已写入完成（静止），
+ * 与 {@linkplain FileUtils#isWriting(File, long, FilenameFilter...)} 不同，每个文件静止后就立即返回，不需要等待整个目录都静止 <br>
+ * <br>
+ * JDK7 及以上版本使用操作系统的文件监听服务（java.nio.file.WatchService，通过反射调用），只重新读取发生变化的文件的状态；
+ * 不支持文件监听服务时，每隔一段时间重新遍历一次目录 <br>
+ * 监听器初始化时目录中已存在的文件也会在静止后返回；文件静止后再次发生变化，会在重新静止后再次返回 <br>
+ * 监听器不是线程安全的 <br>
+ * e.g:
+ * <pre>
+ * FileWatcher watcher = new FileWatcher(dir, 5000);
+ * try {
+ *     while (..) {
+ *         for (File file : watcher.poll(1, TimeUnit.MINUTES)) {
+ *             load(file);
+ *         }
+ *     }
+ * } finally {
+ *     watcher.close();
+ * }
+ * </pre>
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-25
+ */
+public class FileWatcher implements Closeable {
+
+    /** 检查文件状态的最大时间间隔，单位: 毫秒 */
+    public static long INTERVAL = 1000;
+
+    /** 目录 */
+    private final File dir;
+
+    /** 文件静止的时间，单位: 毫秒 */
+    private final long quiet;
+
+    /** 检查文件状态的时间间隔，单位: 毫秒 */
+    private final long interval;
+
+    /** 目录遍历器 */
+    private final FileWalker walker;
+
+    /** 文件与文件状态的映射关系 */
+    private final Map<File, State> files;
+
+    /** 还未静止的文件 */
+    private final Set<File> pending;
+
+    /** 文件监听服务，null 表示使用轮询方式 */
+    private Watcher watcher;
+
+    /** true表示已关闭 */
+    private boolean closed;
+
+    /**
+     * 初始化，优先使用操作系统的文件监听服务
+     *
+     * @param dir     目录
+     * @param quiet   文件静止的时间，单位: 毫秒
+     * @param filters 文件过滤器数组，用来筛选目录中的文件与子目录，为空时监听所有文件
+     * @throws IOException 访问目录发生错误
+     */
+    public FileWatcher(File dir, long quiet, FilenameFilter... filters) throws IOException {
+        this(dir, quiet, true, filters);
+    }
+
+    /**
+     * 初始化
+     *
+     * @param dir     目录
+     * @param quiet   文件静止的时间，单位: 毫秒
+     * @param watch   true表示优先使用操作系统的文件监听服务 false表示使用轮询方式
+     * @param filters 文件过滤器数组，用来筛选目录中的文件与子目录，为空时监听所有文件
+     * @throws IOException 访问目录发生错误
+     */
+    public FileWatcher(File dir, long quiet, boolean watch, FilenameFilter... filters) throws IOException {
+        if (!FileUtils.isDirectory(dir)) {
+            throw new IllegalArgumentException(String.valueOf(dir));
+        }
+        if (quiet < 0) {
+            throw new IllegalArgumentException(String.valueOf(quiet));
+        }
+
+        this.dir = dir;
+        this.quiet = quiet;
+        this.interval = Math.max(10, Math.min(quiet / 2, INTERVAL));
+        this.walker = new FileWalker(0).setFilters(filters);
+        this.files = new HashMap<File, State>();
+        this.pending = new LinkedHashSet<File>();
+
+        if (watch && Watcher.SUPPORT) {
+            this.watcher = new Watcher();
+            this.register(dir);
+        }
+        this.scan(System.currentTimeMillis());
+    }
+
+    /**
+     * 等待文件静止
+     *
+     * @param timeout 最长等待时间
+     * @param unit    时间单位
+     * @return 已静止的文件，等待超时返回空集合
+     * @throws IOException 访问目录发生错误或线程被中断
+     */
+    public List<File> poll(long timeout, TimeUnit unit) throws IOException {
+        if (this.closed) {
+            throw new IllegalStateException();
+        }
+
+        List<File> list = new ArrayList<File>();
+        long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (true) {
+            long now = System.currentTimeMillis();
+            long next = this.check(now, list);
+            if (!list.isEmpty() || now >= deadline) {
+                return list;
+            }
+
+            long millis = Math.max(1, Math.min(deadline, next) - now);
+            if (this.watcher == null) {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(this.dir.getAbsolutePath() + ", " + e.getLocalizedMessage());
+                }
+                this.scan(System.currentTimeMillis());
+            } else {
+                this.events(this.watcher.poll(millis));
+            }
+        }
+    }
+
+    /**
+     * 检查未静止文件的状态
+     *
+     * @param now  当前时间
+     * @param list 保存已静止的文件
+     * @return 下一次检查文件状态的时间
+     */
+    private long check(long now, List<File> list) {
+        long next = now + this.interval;
+        for (Iterator<File> it = this.pending.iterator(); it.hasNext(); ) {
+            File file = it.next();
+            State state = this.files.get(file);
+            long lastModified = file.lastModified();
+            if (lastModified == 0 && !file.exists()) { // 文件已删除
+                it.remove();
+                this.files.remove(file);
+                continue;
+            }
+
+            if (state.update(file.length(), lastModified, now)) {
+                continue;
+            }
+
+            long time = state.time + this.quiet;
+            if (time <= now) {
+                it.remove();
+                list.add(file);
+            } else if (time < next) {
+                next = time;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * 遍历目录，更新所有文件的状态
+     *
+     * @param now 当前时间
+     * @throws IOException 访问目录发生错误
+     */
+    private void scan(long now) throws IOException {
+        final Map<File, long[]> map = new ConcurrentHashMap<File, long[]>();
+        this.walker.walk(this.dir, new FileWalker.Visitor() {
+            public boolean visit(File file) {
+                map.put(file, new long[]{file.length(), file.lastModified()});
+                return true;
+            }
+        });
+
+        for (Iterator<File> it = this.files.keySet().iterator(); it.hasNext(); ) {
+            File file = it.next();
+            if (!map.containsKey(file)) { // 文件已删除
+                it.remove();
+                this.pending.remove(file);
+            }
+        }
+
+        for (Map.Entry<File, long[]> entry : map.entrySet()) {
+            long[] value = entry.getValue();
+            this.update(entry.getKey(), value[0], value[1], now);
+        }
+    }
+
+    /**
+     * 遍历新建的子目录，将子目录中的文件加入到未静止文件中
+     *
+     * @param dir 目录
+     * @param now 当前时间
+     * @throws IOException 访问目录发生错误
+     */
+    private void scan(File dir, long now) throws IOException {
+        final List<File> list = Collections.synchronizedList(new ArrayList<File>());
+        this.walker.walk(dir, new FileWalker.Visitor() {
+            public boolean visit(File file) {
+                return list.add(file);
+            }
+        });
+
+        for (File file : list) {
+            this.update(file, file.length(), file.lastModified(), now);
+        }
+    }
+
+    /**
+     * 处理文件监听服务返回的文件变化
+     *
+     * @param changes 发生变化的文件，null 表示有事件丢失
+     * @throws IOException 访问目录发生错误
+     */
+    private void events(List<File> changes) throws IOException {
+        long now = System.currentTimeMillis();
+        if (changes == null) {
+            this.scan(now);
+            return;
+        }
+
+        for (File file : changes) {
+            if (!this.walker.accept(file.getParentFile(), file.getName())) {
+                continue;
+            }
+
+            if (file.isDirectory()) { // 新建的子目录
+                if (!this.watcher.contains(file)) {
+                    this.register(file);
+                    this.scan(file, now);
+                }
+                continue;
+            }
+
+            long lastModified = file.lastModified();
+            if (lastModified == 0 && !file.exists()) {
+                this.remove(file);
+            } else {
+                this.update(file, file.length(), lastModified, now);
+            }
+        }
+    }
+
+    /**
+     * 删除已不存在的文件，如果是子目录（已删除或移出目录），则删除子目录中所有文件的状态并取消子目录的注册
+     *
+     * @param file 文件或子目录
+     * @throws IOException 取消注册发生错误
+     */
+    private void remove(File file) throws IOException {
+        this.pending.remove(file);
+        if (this.files.remove(file) != null) { // 文件
+            return;
+        }
+
+        String prefix = file.getPath() + File.separator;
+        for (Iterator<File> it = this.files.keySet().iterator(); it.hasNext(); ) {
+            File child = it.next();
+            if (child.getPath().startsWith(prefix)) {
+                it.remove();
+                this.pending.remove(child);
+            }
+        }
+        this.watcher.unregister(file);
+    }
+
+    /**
+     * 返回正在监听的文件个数（含已静止的文件）
+     *
+     * @return 文件个数
+     */
+    public int size() {
+        return this.files.size();
+    }
+
+    /**
+     * 更新文件状态，文件是新增文件或发生变化时加入到未静止文件中
+     *
+     * @param file         文件
+     * @param length       文件长度
+     * @param lastModified 文件最后修改时间
+     * @param now          当前时间
+     */
+    private void update(File file, long length, long lastModified, long now) {
+        State state = this.files.get(file);
+        if (state == null) {
+            this.files.put(file, new State(length, lastModified, now));
+            this.pending.add(file);
+        } else if (state.update(length, lastModified, now)) {
+            this.pending.add(file);
+        }
+    }
+
+    /**
+     * 在文件监听服务上注册目录及其所有子目录
+     *
+     * @param dir 目录
+     * @throws IOException 注册目录发生错误
+     */
+    private void register(File dir) throws IOException {
+        this.watcher.register(dir);
+        File[] array = dir.listFiles();
+        if (array != null) {
+            for (File file : array) {
+                if (file.isDirectory() && this.walker.accept(dir, file.getName())) {
+                    this.register(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * 判断是否使用操作系统的文件监听服务
+     *
+     * @return 返回true表示使用文件监听服务 false表示使用轮询方式
+     */
+    public boolean isWatchService() {
+        return this.watcher != null;
+    }
+
+    /**
+     * 返回目录
+     *
+     * @return 目录
+     */
+    public File getDir() {
+        return this.dir;
+    }
+
+    public void close() throws IOException {
+        this.closed = true;
+        this.files.clear();
+        this.pending.clear();
+        if (this.watcher != null) {
+            this.watcher.close();
+            this.watcher = null;
+        }
+    }
+
+    /**
+     * 文件状态
+     */
+    private static class State {
+
+        /** 文件长度 */
+        private long length;
+
+        /** 文件最后修改时间 */
+        private long lastModified;
+
+        /** 最后一次发现文件变化的时间 */
+        private long time;
+
+        public State(long length, long lastModified, long time) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.time = time;
+        }
+
+        /**
+         * 更新文件状态
+         *
+         * @param length       文件长度
+         * @param lastModified 文件最后修改时间
+         * @param now          当前时间
+         * @return 返回true表示文件发生了变化
+         */
+        public boolean update(long length, long lastModified, long now) {
+            if (this.length == length && this.lastModified == lastModified) {
+                return false;
+            }
+
+            this.length = length;
+            this.lastModified = lastModified;
+            this.time = now;
+            return true;
+        }
+    }
+
+    /**
+     * 操作系统的文件监听服务（java.nio.file.WatchService） <br>
+     * 工具包需要兼容 JDK5，所以通过反射调用 JDK7 的接口
+     */
+    private static class Watcher {
+
+        /** true表示支持文件监听服务 */
+        private final static boolean SUPPORT;
+
+        /** FileSystems.getDefault().newWatchService() */
+        private static Object fileSystem;
+        private static Method newWatchService;
+
+        /** File.toPath() */
+        private static Method toPath;
+
+        /** Path.register(WatchService, WatchEvent.Kind...) */
+        private static Method register;
+
+        /** 监听的事件类型：创建、修改、删除 */
+        private static Object kinds;
+
+        /** 事件丢失 */
+        private static Object overflow;
+
+        /** WatchService.poll(long, TimeUnit), WatchService.close() */
+        private static Method poll;
+        private static Method close;
+
+        /** WatchKey.pollEvents(), WatchKey.reset(), WatchKey.cancel() */
+        private static Method pollEvents;
+        private static Method reset;
+        private static Method cancel;
+
+        /** WatchEvent.kind(), WatchEvent.context() */
+        private static Method kind;
+        private static Method context;
+
+        static {
+            boolean support;
+            try {
+                Class<?> fileSystemsClass = Class.forName("java.nio.file.FileSystems");
+                Class<?> fileSystemClass = Class.forName("java.nio.file.FileSystem");
+                Class<?> pathClass = Class.forName("java.nio.file.Path");
+                Class<?> serviceClass = Class.forName("java.nio.file.WatchService");
+                Class<?> keyClass = Class.forName("java.nio.file.WatchKey");
+                Class<?> eventClass = Class.forName("java.nio.file.WatchEvent");
+                Class<?> kindClass = Class.forName("java.nio.file.WatchEvent$Kind");
+                Class<?> standardClass = Class.forName("java.nio.file.StandardWatchEventKinds");
+
+                fileSystem = fileSystemsClass.getMethod("getDefault").invoke(null);
+                newWatchService = fileSystemClass.getMethod("newWatchService");
+                toPath = File.class.getMethod("toPath");
+
+                kinds = Array.newInstance(kindClass, 3);
+                Array.set(kinds, 0, standardClass.getField("ENTRY_CREATE").get(null));
+                Array.set(kinds, 1, standardClass.getField("ENTRY_MODIFY").get(null));
+                Array.set(kinds, 2, standardClass.getField("ENTRY_DELETE").get(null));
+                overflow = standardClass.getField("OVERFLOW").get(null);
+                register = pathClass.getMethod("register", serviceClass, kinds.getClass());
+
+                poll = serviceClass.getMethod("poll", long.class, TimeUnit.class);
+                close = serviceClass.getMethod("close");
+                pollEvents = keyClass.getMethod("pollEvents");
+                reset = keyClass.getMethod("reset");
+                cancel = keyClass.getMethod("cancel");
+                kind = eventClass.getMethod("kind");
+                context = eventClass.getMethod("context");
+                support = true;
+            } catch (Throwable e) {
+                if (JUL.isDebugEnabled()) {
+                    JUL.debug(e.getLocalizedMessage(), e);
+                }
+                support = false;
+            }
+            SUPPORT = support;
+        }
+
+        /** WatchService */
+        private final Object service;
+
+        /** WatchKey 与目录的映射关系 */
+        private final Map<Object, File> keys;
+
+        /** 已注册的目录 */
+        private final Set<File> dirs;
+
+        public Watcher() throws IOException {
+            this.service = invoke(newWatchService, fileSystem);
+            this.keys = new HashMap<Object, File>();
+            this.dirs = new HashSet<File>();
+        }
+
+        /**
+         * 注册目录
+         *
+         * @param dir 目录
+         * @throws IOException 注册目录发生错误
+         */
+        public void register(File dir) throws IOException {
+            if (this.dirs.add(dir)) {
+                Object key = invoke(register, invoke(toPath, dir), this.service, kinds);
+                this.keys.put(key, dir);
+            }
+        }
+
+        /**
+         * 取消目录及其所有子目录的注册
+         *
+         * @param dir 目录
+         * @throws IOException 取消注册发生错误
+         */
+        public void unregister(File dir) throws IOException {
+            String prefix = dir.getPath() + File.separator;
+            for (Iterator<Map.Entry<Object, File>> it = this.keys.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Object, File> entry = it.next();
+                File file = entry.getValue();
+                if (file.equals(dir) || file.getPath().startsWith(prefix)) {
+                    invoke(cancel, entry.getKey());
+                    it.remove();
+                    this.dirs.remove(file);
+                }
+            }
+        }
+
+        /**
+         * 判断目录是否已注册
+         *
+         * @param dir 目录
+         * @return 返回true表示已注册
+         */
+        public boolean contains(File dir) {
+            return this.dirs.contains(dir);
+        }
+
+        /**
+         * 等待文件变化
+         *
+         * @param millis 最长等待时间，单位: 毫秒
+         * @return 发生变化的文件（含目录），null 表示有事件丢失
+         * @throws IOException 线程被中断
+         */
+        public List<File> poll(long millis) throws IOException {
+            List<File> list = new ArrayList<File>();
+            boolean lost = false;
+            Object key = invoke(poll, this.service, millis, TimeUnit.MILLISECONDS);
+            while (key != null) {
+                File dir = this.keys.get(key);
+                List<?> events = (List<?>) invoke(pollEvents, key);
+                for (Object event : events) {
+                    if (invoke(kind, event) == overflow) {
+                        lost = true;
+                    } else if (dir != null) {
+                        list.add(new File(dir, String.valueOf(invoke(context, event))));
+                    }
+                }
+
+                if (!(Boolean) invoke(reset, key)) { // 目录已删除
+                    this.keys.remove(key);
+                    this.dirs.remove(dir);
+                }
+                key = invoke(poll, this.service, 0L, TimeUnit.MILLISECONDS);
+            }
+            return lost ? null : list;
+        }
+
+        public void close() throws IOException {
+            for (Object key : this.keys.keySet()) {
+                invoke(cancel, key);
+            }
+            this.keys.clear();
+            this.dirs.clear();
+            invoke(close, this.service);
+        }
+
+        /**
+         * 调用方法
+         *
+         * @param method 方法
+         * @param obj    对象
+         * @param args   参数
+         * @return 方法返回值
+         * @throws IOException 方法发生错误或线程被中断
+         */
+        private static Object invoke(Method method, Object obj, Object... args) throws IOException {
+            try {
+                return method.invoke(obj, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(cause.getLocalizedMessage());
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else {
+                    throw new RuntimeException(method.getName(), cause);
+                }
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(method.getName(), e);
+            }
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package icu.etl.util;
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -18,6 +19,10 @@ import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Map;
 import java.util.Set;
 
@@ -370,6 +375,18 @@ public class IO {
         }
 
         try {
+            // 文件之间直接在通道上传输，不经过堆内存（管道等长度为零的文件仍使用缓冲区复制）
+            if (in instanceof FileInputStream && out instanceof FileOutputStream) {
+                FileChannel channel = ((FileInputStream) in).getChannel();
+                long position = channel.position();
+                long size = channel.size();
+                if (size > position) {
+                    long total = IO.transfer(channel, position, size - position, ((FileOutputStream) out).getChannel());
+                    channel.position(position + total);
+                    return total;
+                }
+            }
+
             long total = 0;
             byte[] array = new byte[IO.BYTES_BUFFER_SIZE];
             for (int len; (len = in.read(array)) != -1; ) {
@@ -383,6 +400,110 @@ public class IO {
         }
     }
 
+    /**
+     * 将文件输入流中剩余的字节发送到套接字 <br>
+     * 如果套接字是通过 {@linkplain SocketChannel} 创建的（阻塞模式），则使用 {@linkplain FileChannel#transferTo(long, long, WritableByteChannel)} 直接发送，不经过堆内存
+     *
+     * @param in     文件输入流（会自动关闭）
+     * @param socket 套接字（不会关闭）
+     * @return 返回总输出字节数
+     * @throws IOException IO错误
+     */
+    public static long write(FileInputStream in, Socket socket) throws IOException {
+        if (in == null) {
+            throw new NullPointerException();
+        }
+        if (socket == null) {
+            throw new NullPointerException();
+        }
+
+        try {
+            FileChannel channel = in.getChannel();
+            long position = channel.position();
+            long size = channel.size();
+            SocketChannel out = socket.getChannel();
+            if (out != null && size > position) {
+                return IO.transfer(channel, position, size - position, out);
+            }
+
+            long total = 0;
+            OutputStream os = socket.getOutputStream();
+            byte[] array = new byte[IO.BYTES_BUFFER_SIZE];
+            for (int len; (len = in.read(array)) != -1; ) {
+                os.write(array, 0, len);
+                total += len;
+            }
+            os.flush();
+            return total;
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 将文件通道中指定范围的字节写入到通道中 <br>
+     * 使用 {@linkplain FileChannel#transferTo(long, long, WritableByteChannel)} 传输字节（操作系统支持时不需要把字节复制到用户空间），
+     * 无法继续传输时使用缓冲区复制剩余的字节
+     *
+     * @param in       文件通道（不会改变通道的位置）
+     * @param position 起始位置
+     * @param count    字节数
+     * @param out      输出通道
+     * @return 实际传输的字节数，到达文件末尾时小于 count
+     * @throws IOException IO错误
+     */
+    public static long transfer(FileChannel in, long position, long count, WritableByteChannel out) throws IOException {
+        long total = 0;
+        while (total < count) {
+            long len = in.transferTo(position + total, count - total, out);
+            if (len <= 0) {
+                break;
+            }
+            total += len;
+        }
+
+        if (total < count) {
+            ByteBuffer buf = ByteBuffer.allocate((int) Math.min(IO.BYTES_BUFFER_SIZE, count - total));
+            while (total < count) {
+                buf.clear();
+                if (buf.remaining() > count - total) {
+                    buf.limit((int) (count - total));
+                }
+                int len = in.read(buf, position + total);
+                if (len == -1) {
+                    break;
+                }
+
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+                total += len;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 从输入流中跳过 {@code n} 个字节
+     *
+     * @param in 输入流
+     * @param n  跳过的字节数
+     * @throws IOException 输入流中的字节个数小于 n 或读取字节发生错误
+     */
+    public static void skip(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skip = in.skip(n);
+            if (skip <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException(String.valueOf(n));
+                }
+                skip = 1;
+            }
+            n -= skip;
+        }
+    }
+
     /**
      * 从输入流中读取所有字符到缓冲区 buf 中
      *
@@ -63,55 +63,141 @@ public class JUL {
     }
 
     public static void trace(String msg, Object... args) {
-        out.log(Level.FINEST, new MessageFormatter().format(msg, args));
+        if (out.isLoggable(Level.FINEST)) {
+            TraceRecord.log(Level.FINEST, new MessageFormatter().format(msg, args));
+        }
     }
 
     public static void trace(String msg, Throwable e) {
-        out.log(Level.FINEST, new MessageFormatter().format(msg, e));
+        if (out.isLoggable(Level.FINEST)) {
+            TraceRecord.log(Level.FINEST, new MessageFormatter().format(msg, e));
+        }
     }
 
     public static void debug(String msg, Object... args) {
-        out.log(Level.CONFIG, new MessageFormatter().format(msg, args));
+        if (out.isLoggable(Level.CONFIG)) {
+            TraceRecord.log(Level.CONFIG, new MessageFormatter().format(msg, args));
+        }
     }
 
     public static void debug(String msg, Throwable e) {
-        out.log(Level.CONFIG, new MessageFormatter().format(msg, e));
+        if (out.isLoggable(Level.CONFIG)) {
+            TraceRecord.log(Level.CONFIG, new MessageFormatter().format(msg, e));
+        }
     }
 
     public static void info(String msg, Object... args) {
-        out.log(Level.INFO, new MessageFormatter().format(msg, args));
+        if (out.isLoggable(Level.INFO)) {
+            TraceRecord.log(Level.INFO, new MessageFormatter().format(msg, args));
+        }
     }
 
     public static void info(String msg, Throwable e) {
-        out.log(Level.INFO, new MessageFormatter().format(msg, e));
+        if (out.isLoggable(Level.INFO)) {
+            TraceRecord.log(Level.INFO, new MessageFormatter().format(msg, e));
+        }
     }
 
     public static void warn(String msg, Object... args) {
-        out.log(Level.WARNING, new MessageFormatter().format(msg, args));
+        if (out.isLoggable(Level.WARNING)) {
+            TraceRecord.log(Level.WARNING, new MessageFormatter().format(msg, args));
+        }
     }
 
     public static void warn(String msg, Throwable e) {
-        out.log(Level.WARNING, new MessageFormatter().format(msg, e));
+        if (out.isLoggable(Level.WARNING)) {
+            TraceRecord.log(Level.WARNING, new MessageFormatter().format(msg, e));
+        }
     }
 
     public static void error(String msg, Object... args) {
-        out.log(Level.SEVERE, new MessageFormatter().format(msg, args));
+        if (out.isLoggable(Level.SEVERE)) {
+            TraceRecord.log(Level.SEVERE, new MessageFormatter().format(msg, args));
+        }
     }
 
     public static void error(String msg, Throwable e) {
-        out.log(Level.SEVERE, new MessageFormatter().format(msg, e));
+        if (out.isLoggable(Level.SEVERE)) {
+            TraceRecord.log(Level.SEVERE, new MessageFormatter().format(msg, e));
+        }
     }
 
     public static void fatal(String msg, Object... args) {
-        out.log(Level.SEVERE, new MessageFormatter().format(msg, args));
+        if (out.isLoggable(Level.SEVERE)) {
+            TraceRecord.log(Level.SEVERE, new MessageFormatter().format(msg, args));
+        }
     }
 
     public static void fatal(String msg, Throwable e) {
-        out.log(Level.SEVERE, new MessageFormatter().format(msg, e));
+        if (out.isLoggable(Level.SEVERE)) {
+            TraceRecord.log(Level.SEVERE, new MessageFormatter().format(msg, e));
+        }
     }
 
     /**
-     * 让JUL日志准确输出代码位置
+     * 日志记录 <br>
+     * 第一次读取代码位置时才从堆栈中查找输出日志的代码位置（只输出日志信息的格式化器不需要查找堆栈） <br>
+     * 需要在输出日志的线程上读取代码位置，异步输出时参考 {@linkplain AsyncLogHandler#setCaller(boolean)}
+     */
+    static class TraceRecord extends LogRecord {
+        private final static long serialVersionUID = 1L;
+
+        /**
+         * 输出日志，代码位置在格式化日志时才查找 <br>
+         * 方法不能写在 {@linkplain JUL} 中，否则堆栈中 {@linkplain JUL} 的下一个位置不是输出日志的代码位置
+         *
+         * @param level   日志级别
+         * @param message 日志信息
+         */
+        public static void log(Level level, String message) {
+            LogRecord record = new TraceRecord(level, message);
+            record.setLoggerName(out.getName());
+            out.log(record);
+        }
+
+        /** true表示已查找代码位置 */
+        private boolean inferred;
+
+        public TraceRecord(Level level, String msg) {
+            super(level, msg);
+        }
+
+        /**
+         * 查找输出日志的代码位置
+         */
+        private void infer() {
+            if (!this.inferred) {
+                this.inferred = true;
+                StackTraceElement trace = LogUtils.getStackTrace(JUL.class.getName());
+                super.setSourceClassName(trace.getClassName());
+                super.setSourceMethodName(trace.getMethodName());
+            }
+        }
+
+        public String getSourceClassName() {
+            this.infer();
+            return super.getSourceClassName();
+        }
+
+        public void setSourceClassName(String sourceClassName) {
+            this.inferred = true;
+            super.setSourceClassName(sourceClassName);
+        }
+
+        public String getSourceMethodName() {
+            this.infer();
+            return super.getSourceMethodName();
+        }
+
+        public void setSourceMethodName(String sourceMethodName) {
+            this.inferred = true;
+            super.setSourceMethodName(sourceMethodName);
+        }
+    }
+
+    /**
+     * 让JUL日志准确输出代码位置 <br>
+     * {@linkplain JUL} 输出的日志在格式化时才查找代码位置，其他日志在这里查找代码位置
      */
     public static class TraceHandler extends Handler {
 
@@ -120,6 +206,10 @@ public class JUL {
         }
 
         public void publish(LogRecord record) {
+            if (record instanceof TraceRecord) {
+                return;
+            }
+
             StackTraceElement trace = LogUtils.getStackTrace(JUL.class.getName());
             record.setLoggerName(trace.getClassName());
             record.setSourceClassName(trace.getClassName());
@@ -0,0 +1,290 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 文本文件行数统计器 <br>
+ * 直接在字节上查找换行符（\n, \r, \r\n），不对文件内容进行解码，只支持兼容ASCII编码的字符集（详见 {@linkplain StringUtils#isAsciiCompatible(String)}）<br>
+ * <br>
+ * 文件按 {@linkplain #CHUNK_SIZE} 分块，每块由一个线程统计换行符个数，最后合并所有块的结果（处理跨块的回车换行符）；
+ * 大于 {@linkplain #MAPPED_FILESIZE} 的文件使用内存映射读取，其他文件使用 {@linkplain FileChannel#read(ByteBuffer, long)} 读取 <br>
+ * 每次读取8个字节，使用位运算同时判断8个字节中的换行符
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-12
+ */
+public class LineCounter {
+
+    /** 每个线程统计的字节块大小，单位: 字节 */
+    public static int CHUNK_SIZE = 32 * 1024 * 1024;
+
+    /** 大于这个值的文件使用内存映射读取，单位: 字节 */
+    public static long MAPPED_FILESIZE = 64 * 1024 * 1024;
+
+    /** 8个字节都是回车符 */
+    private final static long CR = 0x0D0D0D0D0D0D0D0DL;
+
+    /** 8个字节都是换行符 */
+    private final static long LF = 0x0A0A0A0A0A0A0A0AL;
+
+    /** 每个字节的低7位 */
+    private final static long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    /** 第一个字节的最高位（大端字节序） */
+    private final static long FIRST = 0x8000000000000000L;
+
+    /** 最后一个字节的最高位（大端字节序） */
+    private final static long LAST = 0x80L;
+
+    /** 文件 */
+    private final File file;
+
+    /** 并发线程数 */
+    private final int threads;
+
+    /**
+     * 初始化
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @param threads     并发线程数, 小于等于零时使用处理器个数
+     * @throws UnsupportedEncodingException 字符集不兼容ASCII编码
+     */
+    public LineCounter(File file, String charsetName, int threads) throws UnsupportedEncodingException {
+        if (file == null) {
+            throw new NullPointerException();
+        }
+
+        charsetName = StringUtils.charset(charsetName);
+        if (!StringUtils.isAsciiCompatible(charsetName)) {
+            throw new UnsupportedEncodingException(charsetName);
+        }
+
+        this.file = file;
+        this.threads = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    /**
+     * 统计文件行数
+     *
+     * @return 文件行数
+     * @throws IOException 读取文件发生错误
+     */
+    public long count() throws IOException {
+        FileInputStream in = new FileInputStream(this.file);
+        try {
+            FileChannel channel = in.getChannel();
+            long length = channel.size();
+            if (length == 0) {
+                return 0;
+            }
+
+            boolean mapped = length > MAPPED_FILESIZE;
+            List<Chunk> chunks = new ArrayList<Chunk>();
+            for (long start = 0; start < length; start += CHUNK_SIZE) {
+                chunks.add(new Chunk(channel, start, Math.min(CHUNK_SIZE, length - start), mapped));
+            }
+
+            if (chunks.size() == 1 || this.threads == 1) {
+                for (Chunk chunk : chunks) {
+                    chunk.call();
+                }
+            } else {
+                this.execute(chunks);
+            }
+            return LineCounter.merge(chunks);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 使用线程池并发统计所有字节块
+     *
+     * @param chunks 字节块
+     * @throws IOException 读取文件发生错误
+     */
+    private void execute(List<Chunk> chunks) throws IOException {
+        ExecutorService service = Executors.newFixedThreadPool(Math.min(this.threads, chunks.size()));
+        try {
+            List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>(chunks);
+            List<Future<Chunk>> futures = service.invokeAll(tasks);
+            for (Future<Chunk> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(this.file.getAbsolutePath() + ", " + e.getLocalizedMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else {
+                throw new RuntimeException(this.file.getAbsolutePath(), cause);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * 合并所有字节块的统计结果
+     *
+     * @param chunks 字节块（按位置排序）
+     * @return 文件行数
+     */
+    private static long merge(List<Chunk> chunks) {
+        long terminators = 0;
+        byte previous = 0;
+        for (Chunk chunk : chunks) {
+            terminators += chunk.terminators;
+            if (previous == '\r' && chunk.first == '\n') { // 回车换行符跨越了两个字节块
+                terminators--;
+            }
+            previous = chunk.last;
+        }
+
+        // 最后一行没有换行符
+        return (previous == '\r' || previous == '\n') ? terminators : terminators + 1;
+    }
+
+    /**
+     * 返回8个字节中等于0的字节，等于0的字节的最高位是1，其他位都是0
+     *
+     * @param value 8个字节
+     * @return 位掩码
+     */
+    private static long zeros(long value) {
+        return ~(((value & LOW7) + LOW7) | value | LOW7);
+    }
+
+    /**
+     * 统计缓冲区中换行符的个数（回车换行符算一个）
+     *
+     * @param buf   缓冲区
+     * @param cr    true表示缓冲区之前的一个字节是回车符
+     * @param chunk 保存统计结果
+     * @return true表示缓冲区最后一个字节是回车符
+     */
+    protected static boolean count(ByteBuffer buf, boolean cr, Chunk chunk) {
+        long crs = 0, lfs = 0, pairs = 0;
+        while (buf.remaining() >= 8) {
+            long value = buf.getLong();
+            long mcr = zeros(value ^ CR);
+            long mlf = zeros(value ^ LF);
+            if ((mcr | mlf) == 0) {
+                cr = false;
+                continue;
+            }
+
+            crs += Long.bitCount(mcr);
+            lfs += Long.bitCount(mlf);
+            pairs += Long.bitCount((mcr >>> 8) & mlf);
+            if (cr && (mlf & FIRST) != 0) {
+                pairs++;
+            }
+            cr = (mcr & LAST) != 0;
+        }
+
+        while (buf.hasRemaining()) {
+            byte b = buf.get();
+            if (b == '\r') {
+                crs++;
+                cr = true;
+            } else {
+                if (b == '\n') {
+                    lfs++;
+                    if (cr) {
+                        pairs++;
+                    }
+                }
+                cr = false;
+            }
+        }
+
+        chunk.terminators += crs + lfs - pairs;
+        return cr;
+    }
+
+    /**
+     * 文件中的一个字节块
+     */
+    protected static class Chunk implements Callable<Chunk> {
+
+        /** 文件通道 */
+        private final FileChannel channel;
+
+        /** 字节块在文件中的起始位置 */
+        private final long start;
+
+        /** 字节块的长度 */
+        private final long length;
+
+        /** true表示使用内存映射 */
+        private final boolean mapped;
+
+        /** 换行符的个数 */
+        private long terminators;
+
+        /** 字节块的第一个字节 */
+        private byte first;
+
+        /** 字节块的最后一个字节 */
+        private byte last;
+
+        public Chunk(FileChannel channel, long start, long length, boolean mapped) {
+            this.channel = channel;
+            this.start = start;
+            this.length = length;
+            this.mapped = mapped;
+        }
+
+        public Chunk call() throws IOException {
+            this.terminators = 0;
+            if (this.mapped) {
+                ByteBuffer buf = this.channel.map(FileChannel.MapMode.READ_ONLY, this.start, this.length);
+                this.first = buf.get(0);
+                this.last = buf.get((int) this.length - 1);
+                LineCounter.count(buf, false, this);
+            } else {
+                ByteBuffer buf = ByteBuffer.allocate((int) Math.min(this.length, IO.BYTES_BUFFER_SIZE * 100));
+                long position = this.start;
+                long end = this.start + this.length;
+                boolean cr = false;
+                while (position < end) {
+                    buf.clear();
+                    if (end - position < buf.capacity()) {
+                        buf.limit((int) (end - position));
+                    }
+
+                    int len = this.channel.read(buf, position);
+                    if (len <= 0) {
+                        throw new IOException(position + " >= " + this.channel.size());
+                    }
+
+                    buf.flip();
+                    if (position == this.start) {
+                        this.first = buf.get(0);
+                    }
+                    this.last = buf.get(len - 1);
+                    cr = LineCounter.count(buf, cr, this);
+                    position += len;
+                }
+            }
+            return this;
+        }
+    }
+
+}
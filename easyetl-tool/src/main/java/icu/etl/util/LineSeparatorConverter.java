@@ -0,0 +1,426 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 文本文件换行符转换器 <br>
+ * 直接在字节上把换行符（\n, \r, \r\n）替换为指定的换行符，不对文件内容进行解码，只支持兼容ASCII编码的字符集（详见 {@linkplain StringUtils#isAsciiCompatible(String)}）<br>
+ * <br>
+ * 文件按 {@linkplain #CHUNK_SIZE} 分块，分二次并发处理所有块：第一次统计每块转换后的长度，计算每块在输出文件中的位置；
+ * 第二次每块由一个线程转换，并使用 {@linkplain FileChannel#write(ByteBuffer, long)} 写入到输出文件的对应位置 <br>
+ * 大于 {@linkplain #MAPPED_FILESIZE} 的文件使用内存映射读取，其他文件使用 {@linkplain FileChannel#read(ByteBuffer, long)} 读取 <br>
+ * 转换文件自身时，先写入同目录下的临时文件，再把临时文件重命名为原文件
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-27
+ */
+public class LineSeparatorConverter {
+
+    /** 每个线程转换的字节块大小，单位: 字节 */
+    public static int CHUNK_SIZE = 32 * 1024 * 1024;
+
+    /** 大于这个值的文件使用内存映射读取，单位: 字节 */
+    public static long MAPPED_FILESIZE = 64 * 1024 * 1024;
+
+    /** 文件 */
+    private final File file;
+
+    /** 文件字符集 */
+    private final String charsetName;
+
+    /** 并发线程数 */
+    private final int threads;
+
+    /**
+     * 初始化
+     *
+     * @param file        文件
+     * @param charsetName 文件字符集, 为空时取操作系统默认值
+     * @param threads     并发线程数, 小于等于零时使用处理器个数
+     * @throws UnsupportedEncodingException 字符集不兼容ASCII编码
+     */
+    public LineSeparatorConverter(File file, String charsetName, int threads) throws UnsupportedEncodingException {
+        if (file == null) {
+            throw new NullPointerException();
+        }
+
+        charsetName = StringUtils.charset(charsetName);
+        if (!StringUtils.isAsciiCompatible(charsetName)) {
+            throw new UnsupportedEncodingException(charsetName);
+        }
+
+        this.file = file;
+        this.charsetName = charsetName;
+        this.threads = threads <= 0 ? Runtime.getRuntime().availableProcessors() : threads;
+    }
+
+    /**
+     * 转换文件中的换行符，并将结果写入到输出文件中
+     *
+     * @param dest          输出文件（不能是文件自身）
+     * @param lineSeparator 换行符
+     * @return 输出文件的长度
+     * @throws IOException 访问文件发生错误
+     */
+    public long convert(File dest, String lineSeparator) throws IOException {
+        if (dest == null) {
+            throw new NullPointerException();
+        }
+        if (dest.equals(this.file)) {
+            throw new IllegalArgumentException(dest.getAbsolutePath());
+        }
+
+        FileInputStream in = new FileInputStream(this.file);
+        try {
+            FileChannel channel = in.getChannel();
+            List<Chunk> chunks = this.split(channel, lineSeparator);
+            this.execute(chunks); // 统计每块转换后的长度
+            return this.write(chunks, dest);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 转换文件自身的换行符，文件中没有需要替换的换行符时不会改写文件
+     *
+     * @param lineSeparator 换行符
+     * @param parent        临时文件存储目录, 如果是null，就使用文件所在目录（保证重命名是原子操作）
+     * @return 返回true表示操作成功 false表示操作失败
+     * @throws IOException 访问文件发生错误
+     */
+    public boolean replace(String lineSeparator, File parent) throws IOException {
+        File newfile;
+        FileInputStream in = new FileInputStream(this.file);
+        try {
+            FileChannel channel = in.getChannel();
+            List<Chunk> chunks = this.split(channel, lineSeparator);
+            this.execute(chunks); // 统计每块转换后的长度
+
+            boolean modified = false;
+            for (Chunk chunk : chunks) {
+                modified |= chunk.modified;
+            }
+            if (!modified) {
+                return true;
+            }
+
+            newfile = FileUtils.createNewFile(parent == null ? this.file.getAbsoluteFile().getParentFile() : parent, "." + this.file.getName() + ".tmp");
+            this.write(chunks, newfile);
+        } finally {
+            in.close();
+        }
+
+        // 同一个目录中的重命名是原子操作，如果目标文件存在时不能重命名，则使用备份方式重命名
+        return newfile.renameTo(this.file) || FileUtils.rename(newfile, this.file, null);
+    }
+
+    /**
+     * 将文件分块
+     *
+     * @param channel       文件通道
+     * @param lineSeparator 换行符
+     * @return 字节块
+     * @throws IOException 访问文件发生错误
+     */
+    private List<Chunk> split(FileChannel channel, String lineSeparator) throws IOException {
+        if (lineSeparator == null) {
+            throw new NullPointerException();
+        }
+
+        byte[] separator = lineSeparator.getBytes(this.charsetName);
+        boolean lf = separator.length == 1 && separator[0] == '\n'; // true表示只需要替换回车符
+        long length = channel.size();
+        boolean mapped = length > MAPPED_FILESIZE;
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        for (long start = 0; start < length; start += CHUNK_SIZE) {
+            chunks.add(new Chunk(channel, start, Math.min(CHUNK_SIZE, length - start), mapped, separator, lf));
+        }
+        return chunks;
+    }
+
+    /**
+     * 将所有字节块转换后写入到输出文件中
+     *
+     * @param chunks 字节块（已统计转换后的长度）
+     * @param dest   输出文件
+     * @return 输出文件的长度
+     * @throws IOException 访问文件发生错误
+     */
+    private long write(List<Chunk> chunks, File dest) throws IOException {
+        if (!FileUtils.Atomic.createFile(dest, false)) {
+            throw new IOException(dest.getAbsolutePath());
+        }
+
+        FileOutputStream out = new FileOutputStream(dest, false);
+        try {
+            FileChannel channel = out.getChannel();
+            long position = 0;
+            for (Chunk chunk : chunks) {
+                chunk.output = channel;
+                chunk.offset = position;
+                position += chunk.length;
+            }
+
+            this.execute(chunks);
+            channel.truncate(position);
+            return position;
+        } finally {
+            for (Chunk chunk : chunks) {
+                chunk.output = null;
+            }
+            out.close();
+        }
+    }
+
+    /**
+     * 处理所有字节块
+     *
+     * @param chunks 字节块
+     * @throws IOException 访问文件发生错误
+     */
+    private void execute(List<Chunk> chunks) throws IOException {
+        if (chunks.size() <= 1 || this.threads == 1) {
+            for (Chunk chunk : chunks) {
+                chunk.call();
+            }
+            return;
+        }
+
+        ExecutorService service = Executors.newFixedThreadPool(Math.min(this.threads, chunks.size()));
+        try {
+            List<Callable<Chunk>> tasks = new ArrayList<Callable<Chunk>>(chunks);
+            List<Future<Chunk>> futures = service.invokeAll(tasks);
+            for (Future<Chunk> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(this.file.getAbsolutePath() + ", " + e.getLocalizedMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else {
+                throw new RuntimeException(this.file.getAbsolutePath(), cause);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * 文件中的一个字节块 <br>
+     * 未设置输出通道时只统计转换后的长度，设置输出通道后将转换结果写入到输出通道的指定位置
+     */
+    protected static class Chunk implements Callable<Chunk> {
+
+        /** 文件通道 */
+        private final FileChannel channel;
+
+        /** 字节块在文件中的起始位置 */
+        private final long start;
+
+        /** 字节块的长度 */
+        private final long size;
+
+        /** true表示使用内存映射 */
+        private final boolean mapped;
+
+        /** 换行符 */
+        private final byte[] separator;
+
+        /** true表示换行符是 \n，只需要替换回车符 */
+        private final boolean lf;
+
+        /** true表示换行符是 \r\n，文件中的 \r\n 不需要替换 */
+        private final boolean crlf;
+
+        /** true表示换行符是 \r，文件中单独的 \r 不需要替换 */
+        private final boolean cr;
+
+        /** 转换后的长度 */
+        private long length;
+
+        /** true表示字节块中有需要替换的换行符（转换后的字节与原字节不同） */
+        private boolean modified;
+
+        /** 输出通道 */
+        private FileChannel output;
+
+        /** 在输出通道中的起始位置 */
+        private long offset;
+
+        /** 输出缓冲区 */
+        private ByteBuffer buf;
+
+        public Chunk(FileChannel channel, long start, long size, boolean mapped, byte[] separator, boolean lf) {
+            this.channel = channel;
+            this.start = start;
+            this.size = size;
+            this.mapped = mapped;
+            this.separator = separator;
+            this.lf = lf;
+            this.crlf = separator.length == 2 && separator[0] == '\r' && separator[1] == '\n';
+            this.cr = separator.length == 1 && separator[0] == '\r';
+        }
+
+        public Chunk call() throws IOException {
+            this.length = 0;
+            this.modified = false;
+            if (this.output != null) {
+                this.buf = ByteBuffer.allocate(IO.BYTES_BUFFER_SIZE * 10);
+            }
+
+            // 字节块之前的一个字节是回车符时，字节块开头的换行符已经与回车符一起替换
+            boolean cr = false;
+            if (this.start > 0) {
+                ByteBuffer previous = ByteBuffer.allocate(1);
+                this.channel.read(previous, this.start - 1);
+                cr = previous.get(0) == '\r';
+            }
+
+            byte[] array = new byte[(int) Math.min(this.size, IO.BYTES_BUFFER_SIZE * 100)];
+            ByteBuffer map = this.mapped ? this.channel.map(FileChannel.MapMode.READ_ONLY, this.start, this.size) : null;
+            long position = this.start;
+            long end = this.start + this.size;
+            while (position < end) {
+                int len = (int) Math.min(array.length, end - position);
+                if (map != null) {
+                    map.get(array, 0, len);
+                } else {
+                    this.read(array, len, position);
+                }
+
+                cr = this.convert(array, len, cr);
+                position += len;
+            }
+
+            // 文件最后一个字节是单独的回车符
+            if (cr && !this.cr && end == this.channel.size()) {
+                this.modified = true;
+            }
+
+            if (this.output != null) {
+                this.flush();
+                this.buf = null;
+            }
+            return this;
+        }
+
+        /**
+         * 从文件中读取字节
+         *
+         * @param array    字节数组
+         * @param len      读取的字节数
+         * @param position 文件中的位置
+         * @throws IOException 访问文件发生错误
+         */
+        private void read(byte[] array, int len, long position) throws IOException {
+            ByteBuffer buf = ByteBuffer.wrap(array, 0, len);
+            while (buf.hasRemaining()) {
+                int n = this.channel.read(buf, position + buf.position());
+                if (n <= 0) {
+                    throw new IOException(position + " >= " + this.channel.size());
+                }
+            }
+        }
+
+        /**
+         * 转换字节数组中的换行符
+         *
+         * @param array 字节数组
+         * @param len   字节数组的长度
+         * @param cr    true表示字节数组之前的一个字节是回车符
+         * @return true表示字节数组最后一个字节是回车符
+         * @throws IOException 写入文件发生错误
+         */
+        private boolean convert(byte[] array, int len, boolean cr) throws IOException {
+            int from = 0; // 未输出字节的起始位置
+            for (int i = 0; i < len; i++) {
+                byte b = array[i];
+                boolean previous = i == 0 ? cr : array[i - 1] == '\r'; // true表示上一个字节是回车符
+                if (b == '\n') {
+                    if (this.lf && !previous) { // 单独的换行符不需要替换
+                        continue;
+                    }
+
+                    this.put(array, from, i - from);
+                    if (previous) {
+                        if (!this.crlf) { // 回车符已输出换行符，\r\n 只有换行符是 \r\n 时保持不变
+                            this.modified = true;
+                        }
+                    } else {
+                        this.put(this.separator, 0, this.separator.length);
+                        this.modified = true;
+                    }
+                    from = i + 1;
+                } else {
+                    if (previous && !this.cr) { // 单独的回车符只有换行符是 \r 时保持不变
+                        this.modified = true;
+                    }
+
+                    if (b == '\r') { // 是否修改由下一个字节决定
+                        this.put(array, from, i - from);
+                        this.put(this.separator, 0, this.separator.length);
+                        from = i + 1;
+                    }
+                }
+            }
+            this.put(array, from, len - from);
+            return len > 0 ? array[len - 1] == '\r' : cr;
+        }
+
+        /**
+         * 输出字节
+         *
+         * @param array 字节数组
+         * @param off   起始位置
+         * @param len   字节数
+         * @throws IOException 写入文件发生错误
+         */
+        private void put(byte[] array, int off, int len) throws IOException {
+            this.length += len;
+            if (this.output == null) {
+                return;
+            }
+
+            while (len > 0) {
+                int n = Math.min(len, this.buf.remaining());
+                this.buf.put(array, off, n);
+                off += n;
+                len -= n;
+                if (!this.buf.hasRemaining()) {
+                    this.flush();
+                }
+            }
+        }
+
+        /**
+         * 将输出缓冲区写入到输出通道的对应位置
+         *
+         * @throws IOException 写入文件发生错误
+         */
+        private void flush() throws IOException {
+            this.buf.flip();
+            while (this.buf.hasRemaining()) {
+                this.offset += this.output.write(this.buf, this.offset);
+            }
+            this.buf.clear();
+        }
+    }
+
+}
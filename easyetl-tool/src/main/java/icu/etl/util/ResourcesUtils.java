@@ -5,12 +5,12 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.naming.Context;
 import javax.naming.InitialContext;
 
@@ -27,6 +27,12 @@ public class ResourcesUtils {
     /** 资源文件名（不包含扩展名） */
     public static String ResourceName = "Messages";
 
+    /** 属性名与预编译信息的映射关系，{@linkplain #NONE} 表示属性不存在 */
+    private final static ConcurrentHashMap<String, Object> MESSAGES = new ConcurrentHashMap<String, Object>();
+
+    /** 表示属性不存在 */
+    private final static Object NONE = new Object();
+
     /** 资源文件 */
     private static ResourceBundle INTERNAL = ResourceBundle.getBundle(ResourcesUtils.ResourceName, Locale.getDefault());
 
@@ -71,6 +77,7 @@ public class ResourcesUtils {
             throw new NullPointerException();
         } else {
             INTERNAL = bundle;
+            MESSAGES.clear();
         }
     }
 
@@ -81,6 +88,7 @@ public class ResourcesUtils {
      */
     public static void setExternalBundle(ResourceBundle bundle) {
         EXTERNAL = bundle;
+        MESSAGES.clear();
     }
 
     /**
@@ -153,21 +161,81 @@ public class ResourcesUtils {
     }
 
     /**
-     * 返回资源文件中属性值
+     * 返回资源文件中属性值 <br>
+     * 属性值只查找与解析一次（属性不存在时也会缓存），重新设置资源配置信息后缓存失效
      *
      * @param key  属性名
      * @param args 属性值中占位符对应的参数
      * @return 属性值
      */
     public static String getMessage(String key, Object... args) {
+        CompiledMessage message = ResourcesUtils.getCompiledMessage(key);
+        if (message == null) {
+            return "";
+        } else if (args == null || args.length == 0) {
+            return message.getPattern();
+        } else {
+            return message.format(args);
+        }
+    }
+
+    /**
+     * 将资源文件中属性值写入缓冲区（不创建中间字符串），适用于频繁输出的信息
+     *
+     * @param buf  缓冲区
+     * @param key  属性名
+     * @param args 属性值中占位符对应的参数
+     * @return 缓冲区
+     */
+    public static StringBuilder appendMessage(StringBuilder buf, String key, Object... args) {
+        CompiledMessage message = ResourcesUtils.getCompiledMessage(key);
+        if (message == null) {
+            return buf;
+        } else if (args == null || args.length == 0) {
+            return buf.append(message.getPattern());
+        } else {
+            return message.format(buf, args);
+        }
+    }
+
+    /**
+     * 返回属性名对应的预编译信息
+     *
+     * @param key 属性名
+     * @return 预编译信息，返回 null 表示属性不存在
+     */
+    private static CompiledMessage getCompiledMessage(String key) {
         // 检查是否已设置了外部资源配置文件
         if (EXTERNAL == null) {
             String value = System.getProperty(PROPERTY_RESOURCE);
             if (value != null && value.length() != 0) {
                 EXTERNAL = readExternalBundle();
+                if (EXTERNAL != null) {
+                    MESSAGES.clear();
+                }
             }
         }
 
+        if (key == null) {
+            return null;
+        }
+
+        Object value = MESSAGES.get(key);
+        if (value == null) {
+            String message = ResourcesUtils.readMessage(key);
+            value = message == null ? NONE : new CompiledMessage(message);
+            MESSAGES.put(key, value);
+        }
+        return value == NONE ? null : (CompiledMessage) value;
+    }
+
+    /**
+     * 从资源配置信息中读取属性值
+     *
+     * @param key 属性名
+     * @return 属性值，返回 null 表示属性不存在
+     */
+    private static String readMessage(String key) {
         // 优先读取外部资源信息
         String message = null;
         if (EXTERNAL != null) {
@@ -190,15 +258,7 @@ public class ResourcesUtils {
                 }
             }
         }
-
-        // 将参数带入资源配置信息中
-        if (message == null) {
-            return "";
-        } else if (args.length == 0) {
-            return message;
-        } else {
-            return MessageFormat.format(message, args);
-        }
+        return message;
     }
 
     /**
@@ -4,22 +4,40 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.WeakHashMap;
 
 /**
- * 为了在JDK5中能够支持SPI机制增加的类
+ * 为了在JDK5中能够支持SPI机制增加的类 <br>
+ * <br>
+ * 每个类加载器上解析过的实现类会被缓存（类加载器是弱引用键，不会阻止类加载器被回收），再次加载同一个接口时只需要创建实现类的实例 <br>
+ * 类路径中的服务索引文件 {@linkplain #INDEX}（由 easyetl-maven-plugin 插件的 spi 目标生成）只有包含标记 {@linkplain #APPLICATION}（表示由最终运行的工程生成）时才会使用，
+ * 按类路径顺序合并所有带标记的索引文件，索引中的接口直接从索引中读取实现类，不再查找类路径中所有 META-INF/services 文件；
+ * 不带标记的索引文件（如: 依赖jar包中的索引文件）会被忽略，不会遮蔽其他jar包中的服务配置文件
  *
  * @author jeremy8551@qq.com
  * @createtime 2023/11/29
  */
-public class SPI<E> {
+public class SPI {
+
+    /** 服务索引文件，格式: 接口名=实现类名,实现类名 */
+    public final static String INDEX = "META-INF/easyetl/spi.index";
+
+    /** 服务索引文件中的标记，值是 true 表示索引文件由最终运行的工程生成，包含运行时类路径中所有的服务配置 */
+    public final static String APPLICATION = "@application";
+
+    /** 服务配置文件所在目录 */
+    public final static String SERVICES = "META-INF/services/";
+
+    /** 类加载器与已解析实现类的映射关系 */
+    private final static Map<ClassLoader, Providers> cache = new WeakHashMap<ClassLoader, Providers>();
 
     /**
      * 加载接口对应的实现类
@@ -30,177 +48,253 @@ public class SPI<E> {
      * @return 实现类集合
      */
     public static <E> List<E> load(ClassLoader loader, Class<E> service) {
-        SPI<E> spi = new SPI<E>(service, loader);
-        Iterator<E> it = spi.iterator();
-        List<E> list = new ArrayList<E>();
-        while (it.hasNext()) {
-            list.add(it.next());
+        Ensure.notNull(service);
+        Ensure.notNull(loader);
+
+        List<Class<?>> classes = SPI.getProviders(loader, service);
+        List<E> list = new ArrayList<E>(classes.size());
+        for (Class<?> cls : classes) {
+            list.add(service.cast(ClassUtils.newInstance(cls)));
         }
         return list;
     }
 
-    /** 类或接口 */
-    private final Class<E> service;
-
-    /** 类名与其实例对象的映射，按实例化顺序 */
-    private final LinkedHashMap<String, E> providers;
-
-    /** 延迟查找迭代器 */
-    private final LazyIterator<E> iterator;
-
-    private SPI(Class<E> service, ClassLoader classLoader) {
-        this.service = Ensure.notNull(service);
-        ClassLoader loader = Ensure.notNull(classLoader);
-        this.providers = new LinkedHashMap<String, E>();
-        this.iterator = new SPI.LazyIterator<E>(this.service, loader, this.providers);
-    }
-
-    private Iterator<E> iterator() {
-        return new InstanceIterator<E>(providers.entrySet().iterator(), this.iterator);
-    }
-
-    private static class InstanceIterator<E> implements Iterator<E> {
-        private final Iterator<Map.Entry<String, E>> knownProviders;
-        private final LazyIterator<E> iterator;
-
-        public InstanceIterator(Iterator<Map.Entry<String, E>> knownProviders, LazyIterator<E> iterator) {
-            this.knownProviders = knownProviders;
-            this.iterator = iterator;
+    /**
+     * 返回接口对应的实现类（按配置文件中的顺序）
+     *
+     * @param loader  类加载器, 不能为null
+     * @param service 接口或类，不能为null
+     * @return 实现类集合
+     */
+    public static List<Class<?>> getProviders(ClassLoader loader, Class<?> service) {
+        Providers providers;
+        synchronized (cache) {
+            providers = cache.get(loader);
+            if (providers == null) {
+                providers = new Providers(loader);
+                cache.put(loader, providers);
+            }
         }
+        return providers.get(service);
+    }
 
-        public boolean hasNext() {
-            if (this.knownProviders.hasNext()) {
-                return true;
+    /**
+     * 删除类加载器上缓存的实现类（如: 类路径中增加了新的服务配置文件）
+     *
+     * @param loader 类加载器，为null时删除所有缓存
+     */
+    public static void clear(ClassLoader loader) {
+        synchronized (cache) {
+            if (loader == null) {
+                cache.clear();
             } else {
-                return this.iterator.hasNext();
+                cache.remove(loader);
             }
         }
+    }
 
-        public E next() {
-            if (this.knownProviders.hasNext()) {
-                return this.knownProviders.next().getValue();
-            } else {
-                return this.iterator.next();
+    /**
+     * 解析服务配置文件（META-INF/services/接口名），忽略注释与重复的类名
+     *
+     * @param in    输入流（不会自动关闭）
+     * @param names 保存实现类的类名
+     * @throws IOException 读取配置文件错误
+     */
+    public static void parse(InputStream in, List<String> names) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, CharsetName.UTF_8));
+        for (String line; (line = reader.readLine()) != null; ) {
+            // 注释
+            int index = line.indexOf('#');
+            if (index >= 0) {
+                line = line.substring(0, index);
             }
-        }
+            line = StringUtils.trimBlank(line, ';');
 
-        public void remove() {
-            throw new UnsupportedOperationException();
+            if (line.length() != 0 && !names.contains(line)) {
+                names.add(line);
+            }
         }
     }
 
     /**
-     * 延迟加载迭代器
+     * 类加载器上已解析的实现类
      */
-    private static class LazyIterator<E> implements Iterator<E> {
-        private final Class<E> service;
-        private final ClassLoader loader;
-        private Enumeration<URL> configs = null;
-        private Iterator<String> pending = null;
-        private String nextName = null;
-        private final LinkedHashMap<String, E> providers;
-
-        private LazyIterator(Class<E> service, ClassLoader loader, LinkedHashMap<String, E> providers) {
-            this.service = service;
-            this.loader = loader;
-            this.providers = providers;
+    private static class Providers {
+
+        /** 类加载器（弱引用） */
+        private final WeakReference<ClassLoader> loader;
+
+        /** 接口名与实现类的映射关系（实现类由类加载器引用，弱引用不会提前被回收） */
+        private final Map<String, List<WeakReference<Class<?>>>> map;
+
+        /** 接口名与索引中实现类名的映射关系，null 表示还未读取 */
+        private Map<String, List<String>> index;
+
+        public Providers(ClassLoader loader) {
+            this.loader = new WeakReference<ClassLoader>(loader);
+            this.map = new HashMap<String, List<WeakReference<Class<?>>>>();
         }
 
-        public boolean hasNext() {
-            if (this.nextName != null) {
-                return true;
+        /**
+         * 返回接口对应的实现类
+         *
+         * @param service 接口
+         * @return 实现类集合
+         */
+        public synchronized List<Class<?>> get(Class<?> service) {
+            ClassLoader loader = this.loader.get();
+            if (loader == null) {
+                throw new IllegalStateException(service.getName());
             }
 
-            // 初始化
-            if (this.configs == null) {
-                try {
-                    String fullName = "META-INF/services/" + this.service.getName();
-                    if (this.loader == null) {
-                        this.configs = ClassLoader.getSystemResources(fullName);
-                    } else {
-                        this.configs = this.loader.getResources(fullName);
+            List<WeakReference<Class<?>>> references = this.map.get(service.getName());
+            if (references != null) {
+                List<Class<?>> list = new ArrayList<Class<?>>(references.size());
+                for (WeakReference<Class<?>> reference : references) {
+                    Class<?> cls = reference.get();
+                    if (cls == null) {
+                        list = null;
+                        break;
                     }
-                } catch (IOException e) {
-                    throw new RuntimeException(service.getName() + ": Error locating configuration files", e);
+                    list.add(cls);
                 }
-            }
 
-            while ((this.pending == null) || !this.pending.hasNext()) {
-                if (!this.configs.hasMoreElements()) {
-                    return false;
-                } else {
-                    this.pending = this.parse(this.service, this.configs.nextElement());
+                if (list != null && this.isAssignable(service, list)) {
+                    return list;
                 }
             }
 
-            this.nextName = this.pending.next();
-            return true;
+            List<Class<?>> list = new ArrayList<Class<?>>();
+            references = new ArrayList<WeakReference<Class<?>>>();
+            for (String className : this.getNames(loader, service)) {
+                Class<?> cls = ClassUtils.loadClass(className, false, loader);
+                if (!service.isAssignableFrom(cls)) {
+                    throw new UnsupportedOperationException(service.getName() + ": " + "Provider " + className + " not a subtype");
+                }
+                list.add(cls);
+                references.add(new WeakReference<Class<?>>(cls));
+            }
+            this.map.put(service.getName(), references);
+            return list;
         }
 
-        private Iterator<String> parse(Class<?> service, URL url) throws Error {
-            InputStream is = null;
-            BufferedReader in = null;
-            ArrayList<String> names = new ArrayList<String>();
-            try {
-                is = url.openStream();
-                in = new BufferedReader(new InputStreamReader(is, CharsetName.UTF_8));
-                for (int lineno = 1; (lineno = this.parseLine(in, lineno, names)) >= 0; ) ;
-                return names.iterator();
-            } catch (IOException x) {
-                throw new RuntimeException(service.getName() + ": Error reading configuration file", x);
-            } finally {
-                IO.close(in, is);
+        /**
+         * 判断缓存的实现类是否都实现了接口（不同类加载器中可能存在同名的接口）
+         *
+         * @param service 接口
+         * @param list    实现类集合
+         * @return 返回true表示都实现了接口
+         */
+        private boolean isAssignable(Class<?> service, List<Class<?>> list) {
+            for (Class<?> cls : list) {
+                if (!service.isAssignableFrom(cls)) {
+                    return false;
+                }
             }
+            return true;
         }
 
-        private int parseLine(BufferedReader in, int lineno, List<String> names) throws IOException, Error {
-            String line = in.readLine();
-            if (line == null) {
-                return -1;
+        /**
+         * 返回接口对应的实现类名，优先从服务索引中读取
+         *
+         * @param loader  类加载器
+         * @param service 接口
+         * @return 实现类名集合
+         */
+        private List<String> getNames(ClassLoader loader, Class<?> service) {
+            if (this.index == null) {
+                this.index = this.readIndex(loader);
             }
 
-            // 注释
-            int index = line.indexOf('#');
-            if (index >= 0) {
-                line = line.substring(0, index);
+            List<String> value = this.index.get(service.getName());
+            if (value != null) {
+                return new ArrayList<String>(value);
             }
-            line = StringUtils.trimBlank(line, ';');
 
-            int length = line.length();
-            if (length != 0) {
-                if (!this.providers.containsKey(line) && !names.contains(line)) {
-                    names.add(line);
+            // 查找类路径中的所有服务配置文件
+            List<String> names = new ArrayList<String>();
+            try {
+                Enumeration<URL> configs = loader.getResources(SERVICES + service.getName());
+                while (configs.hasMoreElements()) {
+                    URL url = configs.nextElement();
+                    InputStream in = url.openStream();
+                    try {
+                        SPI.parse(in, names);
+                    } finally {
+                        IO.close(in);
+                    }
                 }
+            } catch (IOException e) {
+                throw new RuntimeException(service.getName() + ": Error reading configuration file", e);
             }
-            return lineno + 1;
+            return names;
         }
 
-        public E next() {
-            if (!this.hasNext()) {
-                throw new NoSuchElementException();
-            }
+        /**
+         * 按类路径顺序读取并合并所有带标记 {@linkplain #APPLICATION} 的服务索引文件
+         *
+         * @param loader 类加载器
+         * @return 接口名与实现类名的映射关系
+         */
+        private Map<String, List<String>> readIndex(ClassLoader loader) {
+            Map<String, List<String>> map = new HashMap<String, List<String>>();
+            try {
+                Enumeration<URL> urls = loader.getResources(INDEX);
+                while (urls.hasMoreElements()) {
+                    URL url = urls.nextElement();
+                    Properties index = this.read(url);
+                    if (!"true".equalsIgnoreCase(StringUtils.trimBlank(index.getProperty(APPLICATION)))) {
+                        continue; // 不是最终运行的工程生成的索引
+                    }
 
-            String className = this.nextName;
-            this.nextName = null;
-            Class<?> cls = ClassUtils.loadClass(className, false, this.loader);
+                    for (Enumeration<?> it = index.propertyNames(); it.hasMoreElements(); ) {
+                        String service = (String) it.nextElement();
+                        if (APPLICATION.equals(service)) {
+                            continue;
+                        }
 
-            if (this.service.isAssignableFrom(cls)) {
-                E obj = this.service.cast(ClassUtils.newInstance(cls));
-                this.providers.put(className, obj);
-                return obj;
-            } else {
-                throw new UnsupportedOperationException(service.getName() + ": " + "Provider " + className + " not a subtype");
+                        List<String> names = map.get(service);
+                        if (names == null) {
+                            names = new ArrayList<String>();
+                            map.put(service, names);
+                        }
+
+                        for (String name : StringUtils.split(index.getProperty(service), ',')) {
+                            if (StringUtils.isNotBlank(name)) {
+                                name = StringUtils.trimBlank(name);
+                                if (!names.contains(name)) {
+                                    names.add(name);
+                                }
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(INDEX + ": Error reading index file", e);
             }
+            return map;
         }
 
-        public void remove() {
-            throw new UnsupportedOperationException();
+        /**
+         * 读取服务索引文件
+         *
+         * @param url 服务索引文件
+         * @return 服务索引
+         */
+        private Properties read(URL url) {
+            Properties index = new Properties();
+            try {
+                InputStream in = url.openStream();
+                try {
+                    index.load(in);
+                } finally {
+                    IO.close(in);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(url + ": Error reading index file", e);
+            }
+            return index;
         }
     }
 
-    public String toString() {
-        return SPI.class.getSimpleName() + "[" + this.service.getName() + "]";
-    }
-
 }
-
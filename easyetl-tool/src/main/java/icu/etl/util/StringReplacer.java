@@ -0,0 +1,312 @@
+package icu.etl.util;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多字符串替换器 <br>
+ * 使用映射关系中的所有关键字（被替换的字符串）建立 Aho-Corasick 自动机，只需要遍历一次字符串就能替换所有关键字，时间复杂度与关键字个数无关 <br>
+ * <br>
+ * 替换规则：从左向右搜索，同一位置上有多个关键字时替换最长的关键字，替换后的内容不再参与搜索（与 {@linkplain StringUtils#replaceAll(CharSequence, String, String)} 相同） <br>
+ * 替换器建立后不受映射关系变化的影响，替换器是线程安全的
+ *
+ * @author jeremy8551@qq.com
+ * @createtime 2024-01-23
+ */
+public class StringReplacer {
+
+    /** 缓存替换器的个数 */
+    public static int CACHE_SIZE = 8;
+
+    /** 最近使用的替换器 */
+    private final static LinkedList<Cache> cache = new LinkedList<Cache>();
+
+    /**
+     * 返回映射关系对应的替换器 <br>
+     * 按映射关系对象缓存最近使用的替换器，映射关系的内容发生变化后会重新建立替换器
+     *
+     * @param map 被替换字符串与替换字符串的映射关系
+     * @return 替换器
+     */
+    public static StringReplacer get(Map<String, String> map) {
+        if (map == null) {
+            throw new NullPointerException();
+        }
+
+        synchronized (cache) {
+            for (Iterator<Cache> it = cache.iterator(); it.hasNext(); ) {
+                Cache entry = it.next();
+                Map<String, String> key = entry.map.get();
+                if (key == null) { // 映射关系已被回收
+                    it.remove();
+                } else if (key == map) {
+                    it.remove();
+                    if (entry.replacer.map.equals(map)) {
+                        cache.addFirst(entry);
+                        return entry.replacer;
+                    }
+                }
+            }
+        }
+
+        StringReplacer replacer = new StringReplacer(map);
+        synchronized (cache) {
+            cache.addFirst(new Cache(map, replacer));
+            while (cache.size() > CACHE_SIZE) {
+                cache.removeLast();
+            }
+        }
+        return replacer;
+    }
+
+    /** 映射关系的副本 */
+    private final HashMap<String, String> map;
+
+    /** 自动机的根节点 */
+    private final Node root;
+
+    /**
+     * 初始化
+     *
+     * @param map 被替换字符串与替换字符串的映射关系（忽略空字符串关键字）
+     */
+    public StringReplacer(Map<String, String> map) {
+        this.map = new HashMap<String, String>(map);
+        this.root = new Node(0);
+
+        for (Map.Entry<String, String> entry : this.map.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (key == null || value == null) {
+                throw new NullPointerException(key + "=" + value);
+            }
+            if (key.length() == 0) {
+                continue;
+            }
+
+            Node node = this.root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.add(key.charAt(i));
+            }
+            node.value = value;
+        }
+
+        this.build();
+    }
+
+    /**
+     * 按层遍历字典树，设置每个节点的失败指针与输出节点
+     */
+    private void build() {
+        List<Node> queue = new ArrayList<Node>();
+        this.root.fail = this.root;
+        for (Node child : this.root.children()) {
+            child.fail = this.root;
+            queue.add(child);
+        }
+
+        for (int index = 0; index < queue.size(); index++) {
+            Node node = queue.get(index);
+            node.output = node.value != null ? node : node.fail.output;
+
+            for (int i = 0; i < node.size; i++) {
+                char c = node.chars[i];
+                Node child = node.nodes[i];
+                Node fail = node.fail;
+                while (fail != this.root && fail.get(c) == null) {
+                    fail = fail.fail;
+                }
+                Node next = fail.get(c);
+                child.fail = next == null ? this.root : next;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * 替换字符串中所有关键字
+     *
+     * @param str 字符串
+     * @return 替换后的字符串
+     */
+    public String replace(CharSequence str) {
+        if (str == null) {
+            return null;
+        }
+
+        StringBuilder buf = new StringBuilder(str.length() + 16);
+        if (this.replace(str, buf)) {
+            return buf.toString();
+        } else {
+            return str.toString();
+        }
+    }
+
+    /**
+     * 替换字符串中所有关键字，并把结果追加到缓冲区中
+     *
+     * @param str 字符串
+     * @param buf 缓冲区
+     * @return 返回true表示至少替换了一个关键字
+     */
+    public boolean replace(CharSequence str, StringBuilder buf) {
+        int length = str.length();
+        int copied = 0; // 已复制到缓冲区的位置
+        int start = -1, end = 0; // 待替换关键字的位置
+        String value = null;
+        boolean modified = false;
+
+        Node node = this.root;
+        for (int i = 0; ; ) {
+            if (i < length) {
+                char c = str.charAt(i++);
+                while (node != this.root && node.get(c) == null) {
+                    node = node.fail;
+                }
+                Node next = node.get(c);
+                node = next == null ? this.root : next;
+
+                Node output = node.output; // 以当前位置结尾的最长关键字
+                if (output != null) {
+                    int begin = i - output.depth;
+                    if (start == -1 || begin < start || (begin == start && i > end)) {
+                        start = begin;
+                        end = i;
+                        value = output.value;
+                    }
+                }
+
+                if (start == -1 || i - node.depth <= start) { // 后面仍可能有起始位置更靠左或更长的关键字
+                    continue;
+                }
+            } else if (start == -1) {
+                break;
+            }
+
+            // 替换关键字，从关键字的下一个字符开始重新搜索
+            buf.append(str, copied, start).append(value);
+            copied = end;
+            i = end;
+            start = -1;
+            node = this.root;
+            modified = true;
+        }
+
+        buf.append(str, copied, length);
+        return modified;
+    }
+
+    /**
+     * 字典树节点
+     */
+    private static class Node {
+
+        /** 节点深度（即节点对应前缀的长度） */
+        private final int depth;
+
+        /** 子节点的字符（已排序） */
+        private char[] chars;
+
+        /** 子节点 */
+        private Node[] nodes;
+
+        /** 子节点个数 */
+        private int size;
+
+        /** 失败指针 */
+        private Node fail;
+
+        /** 以当前节点结尾的最长关键字节点 */
+        private Node output;
+
+        /** 替换字符串，null 表示节点不是关键字结尾 */
+        private String value;
+
+        public Node(int depth) {
+            this.depth = depth;
+            this.chars = new char[0];
+            this.nodes = new Node[0];
+        }
+
+        public Node get(char c) {
+            int index = this.indexOf(c);
+            return index < 0 ? null : this.nodes[index];
+        }
+
+        public Node add(char c) {
+            int index = this.indexOf(c);
+            if (index >= 0) {
+                return this.nodes[index];
+            }
+
+            index = -index - 1;
+            if (this.size == this.chars.length) {
+                int capacity = Math.max(2, this.size * 2);
+                char[] chars = new char[capacity];
+                Node[] nodes = new Node[capacity];
+                System.arraycopy(this.chars, 0, chars, 0, this.size);
+                System.arraycopy(this.nodes, 0, nodes, 0, this.size);
+                this.chars = chars;
+                this.nodes = nodes;
+            }
+
+            System.arraycopy(this.chars, index, this.chars, index + 1, this.size - index);
+            System.arraycopy(this.nodes, index, this.nodes, index + 1, this.size - index);
+            Node node = new Node(this.depth + 1);
+            this.chars[index] = c;
+            this.nodes[index] = node;
+            this.size++;
+            return node;
+        }
+
+        /**
+         * 二分查找子节点的字符
+         *
+         * @param c 字符
+         * @return 子节点的位置，未找到时返回 (-(插入位置) - 1)
+         */
+        private int indexOf(char c) {
+            int low = 0, high = this.size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char value = this.chars[mid];
+                if (value < c) {
+                    low = mid + 1;
+                } else if (value > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        public List<Node> children() {
+            return Arrays.asList(this.nodes).subList(0, this.size);
+        }
+    }
+
+    /**
+     * 缓存的替换器
+     */
+    private static class Cache {
+
+        /** 映射关系 */
+        private final WeakReference<Map<String, String>> map;
+
+        /** 替换器 */
+        private final StringReplacer replacer;
+
+        public Cache(Map<String, String> map, StringReplacer replacer) {
+            this.map = new WeakReference<Map<String, String>>(map);
+            this.replacer = replacer;
+        }
+    }
+
+}
@@ -10,10 +10,8 @@ import java.nio.charset.Charset;
 import java.sql.Clob;
 import java.sql.SQLException;
 import java.text.Format;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
@@ -102,6 +100,30 @@ public class StringUtils {
         }
     }
 
+    /**
+     * 判断字符集是否兼容ASCII编码 <br>
+     * 兼容ASCII编码的字符集（如: UTF-8, GBK, ISO-8859-1）中回车符与换行符只占一个字节，且不会出现在多字节字符的编码中，
+     * 所以可以直接在字节上查找换行符，不需要先解码为字符
+     *
+     * @param charsetName 字符集
+     * @return 返回 true 表示兼容ASCII编码; 返回 false 表示不兼容（如: UTF-16, UTF-32）
+     */
+    public static boolean isAsciiCompatible(String charsetName) {
+        try {
+            byte[] array = "\r\n09Az".getBytes(StringUtils.charset(charsetName));
+            return array.length == 6 //
+                    && array[0] == '\r' //
+                    && array[1] == '\n' //
+                    && array[2] == '0' //
+                    && array[3] == '9' //
+                    && array[4] == 'A' //
+                    && array[5] == 'z' //
+                    ;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
     /**
      * 返回字符串参数 str 的字节长度
      *
@@ -147,16 +169,19 @@ public class StringUtils {
      */
     public static int width(CharSequence str, String charsetName) {
         try {
-            int length = 0;
-            for (int i = 0; i < str.length(); i++) {
+            int length = str.length();
+            int width = length;
+            CharWidthTable table = null; // 字符串中只有 ASCII 字符时不需要查询宽度表
+            for (int i = 0; i < length; i++) {
                 char c = str.charAt(i);
-                if (StringUtils.isAscii(c) || String.valueOf(c).getBytes(charsetName).length == 1) {
-                    length++;
-                } else {
-                    length += 2;
+                if (!StringUtils.isAscii(c)) {
+                    if (table == null) {
+                        table = CharWidthTable.get(charsetName);
+                    }
+                    width += table.width(c) - 1;
                 }
             }
-            return length;
+            return width;
         } catch (Exception e) {
             throw new RuntimeException(str + ", " + charsetName, e);
         }
@@ -171,11 +196,7 @@ public class StringUtils {
      */
     public static int width(char c, String charsetName) {
         try {
-            if (StringUtils.isAscii(c) || String.valueOf(c).getBytes(charsetName).length == 1) {
-                return 1;
-            } else {
-                return 2;
-            }
+            return StringUtils.isAscii(c) ? 1 : CharWidthTable.get(charsetName).width(c);
         } catch (Exception e) {
             throw new RuntimeException(c + ", " + charsetName, e);
         }
@@ -739,15 +760,49 @@ public class StringUtils {
             throw new NullPointerException();
         }
 
-        StringBuilder buf = new StringBuilder(str);
-        for (int index = 0; ; ) {
-            if ((index = buf.indexOf(oldStr, index)) == -1) {
-                break;
+        if (oldStr.length() == 0) {
+            StringBuilder buf = new StringBuilder(str);
+            for (int index = 0; ; ) {
+                if ((index = buf.indexOf(oldStr, index)) == -1) {
+                    break;
+                }
+                buf.replace(index, index + oldStr.length(), newStr);
+                index += newStr.length();
             }
-            buf.replace(index, index + oldStr.length(), newStr);
-            index += newStr.length();
+            return buf.toString();
+        }
+
+        String value = str.toString();
+        int index = value.indexOf(oldStr);
+        if (index == -1) {
+            return value;
+        }
+
+        StringBuilder buf = new StringBuilder(value.length() + Math.max(newStr.length() - oldStr.length(), 0) * 4);
+        int from = 0; // 未复制到缓冲区的位置
+        do {
+            buf.append(value, from, index).append(newStr);
+            from = index + oldStr.length();
+        } while ((index = value.indexOf(oldStr, from)) != -1);
+        return buf.append(value, from, value.length()).toString();
+    }
+
+    /**
+     * 使用映射关系中的替换字符串替换字符串参数str中所有被替换字符串，只遍历一次字符串 <br>
+     * 同一位置上有多个被替换字符串时替换最长的，替换后的内容不再参与替换，详见 {@linkplain StringReplacer}
+     *
+     * @param str 字符串
+     * @param map 被替换字符串与替换字符串的映射关系
+     * @return 替换后的字符串
+     */
+    public static String replaceAll(CharSequence str, Map<String, String> map) {
+        if (str == null) {
+            return null;
+        } else if (map == null) {
+            throw new NullPointerException();
+        } else {
+            return StringReplacer.get(map).replace(str);
         }
-        return buf.toString();
     }
 
     /**
@@ -862,47 +917,18 @@ public class StringUtils {
      * @return
      */
     protected static String replaceVariable(String str, Map<String, Object> map, int index, Format convert) {
-        if (index == -1) {
-            index = str.indexOf("${");
-        }
-
-        int from = 0; // 下一次搜索开始的位置
-        while (index != -1) {
-            int end = StringUtils.indexOfUnixVariable(str, index + 1, str.length()) + 1; // 搜索变量名结尾的下一个字符
-            if (end == 0) {
-                return str;
-            }
-
-            String var = str.substring(index, end); // 格式: ${name}
-            String key = var.substring(2, var.length() - 1); // 格式: name
-
-            // 解析 key 中的嵌套变量
-            int start = key.indexOf("${");
-            if (start != -1) {
-                key = StringUtils.replaceVariable(key, map, start, convert); // 替换嵌套变量名
-            }
-
-            Object obj = map.get(key);
-            String value = null;
-            if (obj != null) {
-                value = (convert == null ? StringUtils.toString(obj) : convert.format(obj));
-            }
-
-            if (value == null) {
-                from = end;
-            } else {
-                str = StringUtils.replace(str, var, value);
-            }
-
-            index = str.indexOf("${", from);
+        if (index == -1 && str.indexOf("${") == -1) {
+            return str;
+        } else {
+            return new CompiledTemplate(str).render(map, convert);
         }
-        return str;
     }
 
     /**
      * 使用Map中的变量替换字符串参数str中的shell型变量
      * Map == first=99 second=2
      * replaceVariable("${first} + ${second}", map) == "99 + 2"
+     * 重复替换同一个字符串时可以使用 {@linkplain CompiledTemplate}，只解析一次字符串
      *
      * @param str 字符串
      * @param map 变量集合
@@ -944,36 +970,11 @@ public class StringUtils {
      * @return
      */
     protected static String replaceVariable(String str, Map<String, String> map, int index) {
-        if (index == -1) {
-            index = str.indexOf("${");
-        }
-
-        int from = 0; // 下一次搜索开始的位置
-        while (index != -1) {
-            int end = StringUtils.indexOfUnixVariable(str, index + 1, str.length()) + 1; // 搜索变量名结尾的下一个字符
-            if (end == 0) {
-                return str;
-            }
-
-            String var = str.substring(index, end); // 格式: ${name}
-            String key = var.substring(2, var.length() - 1); // 格式: name
-
-            // 解析 key 中的嵌套变量
-            int start = key.indexOf("${");
-            if (start != -1) {
-                key = StringUtils.replaceVariable(key, map, start); // 替换嵌套变量名
-            }
-
-            String value = map.get(key);
-            if (value == null) {
-                from = end;
-            } else {
-                str = StringUtils.replace(str, var, value);
-            }
-
-            index = str.indexOf("${", from);
+        if (index == -1 && str.indexOf("${") == -1) {
+            return str;
+        } else {
+            return new CompiledTemplate(str).render(map);
         }
-        return str;
     }
 
     /**
@@ -1045,36 +1046,11 @@ public class StringUtils {
      * @return
      */
     private static String replaceVariable(String str, Properties p, int index) {
-        if (index == -1) {
-            index = str.indexOf("${");
-        }
-
-        int from = 0; // 下一次搜索开始的位置
-        while (index != -1) {
-            int end = StringUtils.indexOfUnixVariable(str, index + 1, str.length()) + 1; // 搜索变量名结尾的下一个字符
-            if (end == 0) {
-                return str;
-            }
-
-            String var = str.substring(index, end); // 格式: ${name}
-            String name = var.substring(2, var.length() - 1); // 格式: name
-
-            // 解析 key 中的嵌套变量
-            int start = name.indexOf("${");
-            if (start != -1) {
-                name = StringUtils.replaceVariable(name, p, start); // 替换嵌套变量名
-            }
-
-            String value = p.getProperty(name);
-            if (value == null) {
-                from = end;
-            } else {
-                str = StringUtils.replace(str, var, value);
-            }
-
-            index = str.indexOf("${", from);
+        if (index == -1 && str.indexOf("${") == -1) {
+            return str;
+        } else {
+            return new CompiledTemplate(str).render(p);
         }
-        return str;
     }
 
     /**
@@ -1376,9 +1352,10 @@ public class StringUtils {
             return str;
         } else if (actualWidth < width) {
             StringBuilder buf = new StringBuilder(str.length() + width - actualWidth).append(str);
+            int cw = StringUtils.width(d, charsetName);
             do {
                 buf.append(d);
-            } while ((actualWidth = StringUtils.width(buf, charsetName)) < width);
+            } while ((actualWidth += cw) < width);
 
             if (actualWidth == width) {
                 return buf.toString();
@@ -1531,13 +1508,14 @@ public class StringUtils {
         if (actualWidth == width) {
             return str;
         } else if (actualWidth < width) {
-            StringBuilder buf = new StringBuilder(str.length() + width - actualWidth).append(str);
+            StringBuilder buf = new StringBuilder(str.length() + width - actualWidth);
+            int cw = StringUtils.width(d, charsetName);
             do {
-                buf.insert(0, d);
-            } while ((actualWidth = StringUtils.width(buf, charsetName)) < width);
+                buf.append(d);
+            } while ((actualWidth += cw) < width);
 
             if (actualWidth == width) {
-                return buf.toString();
+                return buf.append(str).toString();
             } else {
                 throw new IllegalArgumentException(String.valueOf(d));
             }
@@ -1589,20 +1567,23 @@ public class StringUtils {
         } else if (actualWidth > width) {
             return StringUtils.left(str, width, charsetName, d);
         } else {
-            StringBuilder buf = new StringBuilder(str.length()).append(str);
-            for (int i = 0, cz = width - actualWidth; i < cz; i++) {
-                if (i % 2 == 0) { // 在右侧填充字符
-                    buf.append(d);
-                } else { // 在左侧填充字符
-                    buf.insert(0, d);
-                }
+            int cw = StringUtils.width(d, charsetName);
+            int size = 0; // 填充字符的个数，先在右侧填充，再在左侧填充，交替进行
+            while (actualWidth < width) {
+                actualWidth += cw;
+                size++;
+            }
+            if (actualWidth > width) {
+                throw new IllegalArgumentException(String.valueOf(d)); // 填充字符错误
+            }
 
-                actualWidth = StringUtils.width(buf, charsetName);
-                if (actualWidth == width) {
-                    return buf.toString();
-                } else if (actualWidth > width) {
-                    throw new IllegalArgumentException(String.valueOf(d)); // 填充字符错误
-                }
+            StringBuilder buf = new StringBuilder(str.length() + size);
+            for (int i = size / 2; i > 0; i--) {
+                buf.append(d);
+            }
+            buf.append(str);
+            for (int i = size - size / 2; i > 0; i--) {
+                buf.append(d);
             }
             return buf.toString();
         }
@@ -3292,21 +3273,16 @@ public class StringUtils {
          * yyyy-MM-dd hh:mm:ss:SSS 
          */
         if (obj instanceof Date) {
-            Date date = (Date) obj;
-            Calendar cr = Calendar.getInstance();
-            cr.setTime(date);
-            int hour = cr.get(Calendar.HOUR_OF_DAY);
-            int minute = cr.get(Calendar.MINUTE);
-            int second = cr.get(Calendar.SECOND);
-            int mills = cr.get(Calendar.MILLISECOND);
-            if (mills > 0) {
-                return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss:SSS").format(date);
-            } else if (second > 0) {
-                return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(date);
-            } else if (minute > 0 || hour > 0) {
-                return new SimpleDateFormat("yyyy-MM-dd HH:mm").format(date);
+            long millis = ((Date) obj).getTime();
+            int time = DateFormatter.getMillisOfDay(millis);
+            if (time % 1000 > 0) {
+                return DateFormatter.toString(millis, 21);
+            } else if (time % 60000 > 0) {
+                return DateFormatter.toString(millis, 19);
+            } else if (time > 0) {
+                return DateFormatter.toString(millis, 16);
             } else {
-                return new SimpleDateFormat("yyyy-MM-dd").format(date);
+                return DateFormatter.toString(millis, 10);
             }
         } else if (obj instanceof Throwable) {
             Throwable e = (Throwable) obj;
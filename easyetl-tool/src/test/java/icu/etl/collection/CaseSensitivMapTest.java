@@ -1,6 +1,7 @@
 package icu.etl.collection;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -82,4 +83,24 @@ public class CaseSensitivMapTest {
 
     }
 
+    @Test
+    public void testOrder() {
+        CaseSensitivMap<String> map = new CaseSensitivMap<String>();
+        map.put("b", "1");
+        map.put("A", "2");
+        map.put("B", "3");
+        map.put("c", "4");
+
+        Iterator<Entry<String, String>> it = map.entrySet().iterator();
+        assertEquals("b", it.next().getKey());
+        assertEquals("A", it.next().getKey());
+        assertEquals("c", it.next().getKey());
+        assertEquals("3", map.get("B"));
+
+        map.values().remove("2");
+        assertTrue(!map.containsKey("a"));
+        map.clear();
+        assertTrue(map.keySet().isEmpty());
+    }
+
 }
@@ -1,5 +1,6 @@
 package icu.etl.collection;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 
@@ -109,4 +110,34 @@ public class CaseSensitveSetTest {
         assertTrue(!set.retainAll(test) && old == set.size());
     }
 
+    @Test
+    public void testIndex() {
+        CaseSensitivSet set = new CaseSensitivSet();
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(set.add("Column" + i));
+        }
+        assertEquals(10000, set.size());
+        assertEquals("Column9999", set.get("COLUMN9999"));
+        assertTrue(!set.add("column0"));
+
+        // equalsIgnoreCase 的规则
+        set.clear();
+        set.add("\u00DF");
+        assertTrue(!set.contains("ss"));
+        assertTrue(set.contains("\u00DF"));
+        set.add("\u0131");
+        assertTrue(set.contains("i"));
+        assertTrue(set.contains("I"));
+
+        set.clear();
+        set.add("a");
+        set.add("B");
+        set.add("c");
+        assertTrue(set.retainAll(Arrays.asList("b", "C", 1)));
+        Iterator<String> it = set.iterator();
+        assertEquals("B", it.next());
+        assertEquals("c", it.next());
+        assertTrue(!it.hasNext());
+    }
+
 }
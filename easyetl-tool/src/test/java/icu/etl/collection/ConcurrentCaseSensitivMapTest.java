@@ -0,0 +1,139 @@
+package icu.etl.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.Map.Entry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentCaseSensitivMapTest {
+
+    @Test
+    public void test() {
+        ConcurrentCaseSensitivMap<String> map = new ConcurrentCaseSensitivMap<String>();
+        Assert.assertTrue(map.isEmpty());
+
+        Assert.assertNull(map.put("Name", "1"));
+        Assert.assertEquals("1", map.put("NAME", "2"));
+        Assert.assertNull(map.put("age", "3"));
+        Assert.assertEquals("3", map.putIfAbsent("AGE", "4"));
+        Assert.assertNull(map.putIfAbsent("id", "5"));
+        Assert.assertEquals(3, map.size());
+
+        Assert.assertEquals("2", map.get("name"));
+        Assert.assertEquals("Name", map.getKey("nAmE"));
+        Assert.assertTrue(map.containsKey("ID"));
+        Assert.assertTrue(map.containsValue("3"));
+        Assert.assertFalse(map.containsKey(null));
+        Assert.assertNull(map.get(1));
+
+        // 添加顺序
+        Assert.assertEquals(Arrays.asList("Name", "age", "id"), new ArrayList<String>(map.keySet()));
+        Assert.assertEquals(Arrays.asList("2", "3", "5"), map.values());
+        Assert.assertEquals("{Name=2, age=3, id=5}", map.toString());
+        Assert.assertTrue(map.keySet().contains("AGE"));
+
+        for (Entry<String, String> entry : map.entrySet()) {
+            entry.setValue(entry.getKey());
+        }
+        Assert.assertEquals("age", map.get("AGE"));
+
+        Assert.assertEquals("Name", map.remove("NAME"));
+        map.put("NAME", "6");
+        Assert.assertEquals(Arrays.asList("age", "id", "NAME"), new ArrayList<String>(map.keySet()));
+
+        try {
+            map.put("x", null);
+            Assert.fail();
+        } catch (NullPointerException e) {
+        }
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testThreads() throws InterruptedException {
+        final ConcurrentCaseSensitivMap<Integer> map = new ConcurrentCaseSensitivMap<Integer>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            final boolean upper = i % 2 == 0;
+            Thread thread = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        String key = "column" + j;
+                        map.put(upper ? key.toUpperCase() : key, j);
+                        Assert.assertEquals(Integer.valueOf(j), map.get(key));
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(1000, map.size());
+    }
+
+    /**
+     * 并发添加与删除同一个关键字，结果与某种执行顺序一致（不会丢失修改）
+     */
+    @Test
+    public void testPutRemove() throws Exception {
+        final ConcurrentCaseSensitivMap<Integer> map = new ConcurrentCaseSensitivMap<Integer>();
+        final int size = 20000;
+        final CyclicBarrier barrier = new CyclicBarrier(3);
+        final Integer[] removed = new Integer[size];
+
+        Thread putter = new Thread() {
+            public void run() {
+                try {
+                    for (int i = 0; i < size; i++) {
+                        barrier.await();
+                        map.put("Name", i);
+                        barrier.await();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+
+        Thread remover = new Thread() {
+            public void run() {
+                try {
+                    for (int i = 0; i < size; i++) {
+                        barrier.await();
+                        removed[i] = map.remove("NAME");
+                        barrier.await();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+
+        putter.start();
+        remover.start();
+        for (int i = 0; i < size; i++) {
+            map.put("name", -1);
+            barrier.await();
+            barrier.await();
+
+            Integer value = map.get("name");
+            if (Integer.valueOf(-1).equals(removed[i])) { // 先删除后添加
+                Assert.assertEquals("round " + i, Integer.valueOf(i), value);
+            } else { // 先添加后删除
+                Assert.assertEquals("round " + i, Integer.valueOf(i), removed[i]);
+                Assert.assertNull("round " + i, value);
+            }
+        }
+        putter.join();
+        remover.join();
+    }
+
+}
@@ -1,8 +1,15 @@
 package icu.etl.collection;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
 import icu.etl.util.StringComparator;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class MatrixTest {
@@ -71,4 +78,58 @@ public class MatrixTest {
         System.out.println(m.equals(n));
     }
 
+    @Test
+    public void testSort() {
+        int threshold = Matrix.PARALLEL_THRESHOLD;
+        try {
+            Random random = new Random(20240117);
+            Comparator<Integer> comparator = new Comparator<Integer>() {
+                public int compare(Integer o1, Integer o2) {
+                    return o1.compareTo(o2);
+                }
+            };
+
+            for (int n = 0; n < 50; n++) {
+                int rows = 1 + random.nextInt(200);
+                Matrix<Integer> m = new Matrix<Integer>(rows, 4);
+                List<Integer[]> list = new ArrayList<Integer[]>();
+                for (int r = 0; r < rows; r++) {
+                    Integer[] row = {random.nextInt(3), random.nextInt(3), random.nextInt(3), r}; // 最后一列是原始行号
+                    m.setRow(r, row);
+                    list.add(row);
+                }
+
+                // 多字段排序：先比较第2列，再比较第1列
+                final boolean asc = random.nextBoolean();
+                Collections.sort(list, new Comparator<Integer[]>() {
+                    public int compare(Integer[] o1, Integer[] o2) {
+                        int r = o1[1].compareTo(o2[1]);
+                        if (r == 0) {
+                            r = o1[0].compareTo(o2[0]);
+                        }
+                        return asc ? r : -r;
+                    }
+                });
+
+                Matrix.PARALLEL_THRESHOLD = 1 + random.nextInt(20);
+                Matrix<Integer> s = m.clone();
+                s.sortRow(asc, new int[]{1, 0}, comparator, 1 + random.nextInt(5));
+                for (int r = 0; r < rows; r++) {
+                    assertEquals(list.get(r)[3], s.get(r, 3));
+                }
+
+                // 逆时针旋转后，原来的第 r 行变成第 r 列，原来的第 c 列变成第 (3 - c) 行
+                s = m.clone();
+                s.reverseRotate();
+                s.sortCol(asc, new int[]{2, 3}, comparator, 1 + random.nextInt(5));
+                s.rotate();
+                for (int r = 0; r < rows; r++) {
+                    assertEquals(list.get(r)[3], s.get(r, 3));
+                }
+            }
+        } finally {
+            Matrix.PARALLEL_THRESHOLD = threshold;
+        }
+    }
+
 }
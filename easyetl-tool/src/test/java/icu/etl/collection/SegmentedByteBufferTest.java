@@ -0,0 +1,165 @@
+package icu.etl.collection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import icu.etl.util.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentedByteBufferTest {
+
+    @Test
+    public void testAppend() throws IOException {
+        Random random = new Random(20240118);
+        for (int d = 0; d < 2; d++) {
+            SegmentedByteBuffer buf = new SegmentedByteBuffer(7, d == 0, "UTF-8");
+            for (int r = 0; r < 20; r++) {
+                ByteBuffer expect = new ByteBuffer(10, 3, "UTF-8");
+                buf.clear();
+                for (int i = 0, n = random.nextInt(200); i < n; i++) {
+                    switch (random.nextInt(5)) {
+                        case 0:
+                            expect.append("中文abc");
+                            buf.append("中文abc");
+                            break;
+                        case 1:
+                            expect.append((byte) i);
+                            buf.append((byte) i);
+                            break;
+                        case 2:
+                            expect.append('汉');
+                            buf.append('汉');
+                            break;
+                        case 3:
+                            byte[] array = new byte[random.nextInt(40)];
+                            random.nextBytes(array);
+                            expect.append(array);
+                            buf.append(array);
+                            break;
+                        default:
+                            expect.append("ab中", "GBK");
+                            buf.append("ab中", "GBK");
+                            break;
+                    }
+                }
+
+                Assert.assertEquals(expect.length(), buf.length());
+                Assert.assertArrayEquals(expect.value(), buf.value());
+                for (int i = 0; i < buf.length(); i++) {
+                    Assert.assertEquals(expect.byteAt(i), buf.byteAt(i));
+                }
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                buf.write(out);
+                Assert.assertArrayEquals(expect.value(), out.toByteArray());
+            }
+            buf.release();
+        }
+    }
+
+    @Test
+    public void testGrowth() {
+        SegmentedByteBuffer buf = new SegmentedByteBuffer(10, false, "UTF-8");
+        Assert.assertTrue(buf.isEmpty());
+        Assert.assertEquals(0, buf.getSegments());
+
+        buf.append("0123456789");
+        Assert.assertEquals(1, buf.getSegments());
+        buf.append("0");
+        Assert.assertEquals(2, buf.getSegments());
+        Assert.assertEquals(30, buf.getCapacity());
+        buf.append(new byte[60]);
+        Assert.assertEquals(4, buf.getSegments());
+        Assert.assertEquals(150, buf.getCapacity());
+        Assert.assertEquals(71, buf.length());
+
+        buf.clear(); // 保留字节段
+        Assert.assertEquals(0, buf.length());
+        Assert.assertEquals(4, buf.getSegments());
+        buf.append("中文");
+        Assert.assertEquals("中文", buf.toString());
+        Assert.assertEquals(150, buf.getCapacity());
+    }
+
+    @Test
+    public void testEncode() {
+        SegmentedByteBuffer buf = new SegmentedByteBuffer(4, true, "UTF-8");
+        buf.append("a"); // 剩余3个字节，不足以保存 '中' 和 '😀'
+        buf.append("b");
+        buf.append("中😀");
+        Assert.assertEquals(2 + 3 + 4, buf.length());
+        Assert.assertEquals("ab中😀", buf.toString());
+
+        buf.clear();
+        buf.append("0123456789", 2, 5);
+        buf.append('\uD800'); // 单独的代理字符使用替换字符
+        Assert.assertEquals("234?", buf.toString());
+    }
+
+    @Test(timeout = 10000)
+    public void testStatefulCharset() throws IOException {
+        // 有状态的字符集在刷新编码器时还会输出字节（如: ISO-2022-JP 的转义序列），字节段剩余空间可能不足
+        String[] array = {"\u3042", "a\u3042b\u3044", "\u3042\u3044\u3046"};
+        for (String charsetName : new String[]{"ISO-2022-JP", "UTF-16"}) {
+            for (String str : array) {
+                byte[] expect = str.getBytes(charsetName);
+                for (int size = 1; size <= expect.length + 2; size++) {
+                    for (int d = 0; d < 2; d++) {
+                        SegmentedByteBuffer buf = new SegmentedByteBuffer(size, d == 0, charsetName);
+                        buf.append(str, charsetName);
+                        Assert.assertTrue(charsetName + ", " + size, Arrays.equals(expect, buf.value()));
+                        Assert.assertEquals(str, buf.toString(charsetName));
+                        buf.release();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPool() {
+        SegmentedByteBuffer buf = new SegmentedByteBuffer(1000, true, "UTF-8");
+        buf.append(new byte[1500]);
+        java.nio.ByteBuffer[] array = buf.buffers();
+        Assert.assertEquals(2, array.length);
+        Assert.assertTrue(array[0].isDirect());
+        Assert.assertTrue(array[0].isReadOnly());
+        buf.release();
+        Assert.assertEquals(0, buf.getSegments());
+
+        java.nio.ByteBuffer segment = SegmentedByteBuffer.allocate(2000, true);
+        Assert.assertEquals(2000, segment.capacity());
+        Assert.assertEquals(0, segment.position());
+        SegmentedByteBuffer.free(segment);
+    }
+
+    @Test
+    public void testWriteFile() throws IOException {
+        File file = FileUtils.createTempFile("SegmentedByteBufferTest.txt");
+        SegmentedByteBuffer buf = new SegmentedByteBuffer(16, true, "UTF-8");
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            str.append(i).append(",中文\n");
+        }
+        buf.append(str);
+
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write("head\n".getBytes("UTF-8"));
+            buf.write(out);
+            buf.write(out.getChannel());
+        } finally {
+            out.close();
+        }
+
+        Assert.assertEquals("head\n" + str + str, FileUtils.read(file, "UTF-8"));
+        buf.release();
+        file.delete();
+    }
+
+}
@@ -0,0 +1,114 @@
+package icu.etl.collection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentedCharBufferTest {
+
+    @Test
+    public void testAppend() throws IOException {
+        Random random = new Random(20240119);
+        SegmentedCharBuffer buf = new SegmentedCharBuffer(5, 40);
+        for (int r = 0; r < 50; r++) {
+            StringBuilder expect = new StringBuilder();
+            buf.restore();
+            for (int i = 0, n = random.nextInt(100); i < n; i++) {
+                switch (random.nextInt(6)) {
+                    case 0:
+                        expect.append("中文abc");
+                        buf.append("中文abc");
+                        break;
+                    case 1:
+                        expect.append((char) ('a' + i % 26));
+                        buf.append((char) ('a' + i % 26));
+                        break;
+                    case 2:
+                        expect.append(i);
+                        buf.append(Integer.valueOf(i));
+                        break;
+                    case 3:
+                        expect.append("0123456789", 2, 7);
+                        buf.append(new StringBuilder("0123456789"), 2, 7);
+                        break;
+                    case 4:
+                        expect.append("reader\n");
+                        buf.append(new StringReader("reader\n"));
+                        break;
+                    default:
+                        expect.append("x😀");
+                        buf.append(new CharBuffer(2, 2).append("x😀"));
+                        break;
+                }
+            }
+
+            String str = expect.toString();
+            Assert.assertEquals(str.length(), buf.length());
+            Assert.assertEquals(str, buf.toString());
+            for (int i = 0; i < str.length(); i++) {
+                Assert.assertEquals(str.charAt(i), buf.charAt(i));
+            }
+            if (str.length() > 3) {
+                Assert.assertEquals(str.substring(1, str.length() - 2), buf.substring(1, str.length() - 2));
+            }
+
+            StringWriter out = new StringWriter();
+            buf.write(out);
+            Assert.assertEquals(str, out.toString());
+        }
+    }
+
+    @Test
+    public void testRestore() {
+        SegmentedCharBuffer buf = new SegmentedCharBuffer(10, 30);
+        Assert.assertTrue(buf.isEmpty());
+        buf.append(new char[100], 0, 100); // 10 + 20 + 40 + 80
+        Assert.assertEquals(4, buf.getSegments());
+        Assert.assertEquals(150, buf.getCapacity());
+
+        buf.clear();
+        Assert.assertEquals(0, buf.length());
+        Assert.assertEquals(4, buf.getSegments());
+
+        buf.restore();
+        Assert.assertEquals(2, buf.getSegments());
+        Assert.assertEquals(30, buf.getCapacity());
+        buf.append("abc");
+        Assert.assertEquals("abc", buf.toString());
+        Assert.assertTrue(buf.contains('c', 'd'));
+        Assert.assertFalse(buf.contains('d'));
+
+        buf.release();
+        Assert.assertEquals(0, buf.getSegments());
+        Assert.assertEquals("", buf.toString());
+
+        char[] array = SegmentedCharBuffer.allocate(80);
+        Assert.assertEquals(80, array.length);
+        SegmentedCharBuffer.free(array);
+    }
+
+    @Test
+    public void testEncode() throws IOException {
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            str.append(i).append("中😀,");
+        }
+
+        for (String charsetName : new String[]{"UTF-8", "GBK", "UTF-16"}) {
+            SegmentedCharBuffer buf = new SegmentedCharBuffer(3, 0); // 代理字符会被字符段拆开
+            buf.append(str);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            buf.write(out, Charset.forName(charsetName).newEncoder().onUnmappableCharacter(CodingErrorAction.REPLACE));
+            Assert.assertEquals(new String(str.toString().getBytes(charsetName), charsetName), new String(out.toByteArray(), charsetName));
+            buf.release();
+        }
+    }
+
+}
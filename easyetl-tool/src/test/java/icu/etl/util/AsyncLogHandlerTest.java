@@ -0,0 +1,141 @@
+package icu.etl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncLogHandlerTest {
+
+    /**
+     * 保存日志记录的处理器
+     */
+    private static class ListHandler extends Handler {
+
+        final List<LogRecord> list = new ArrayList<LogRecord>();
+        final List<String> sources = new ArrayList<String>();
+        volatile CountDownLatch latch;
+        int flushes;
+
+        public synchronized void publish(LogRecord record) {
+            if (this.latch != null) {
+                try {
+                    this.latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            this.list.add(record);
+            this.sources.add(record.getSourceClassName());
+        }
+
+        public synchronized void flush() {
+            this.flushes++;
+        }
+
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testPublish() throws InterruptedException {
+        final ListHandler target = new ListHandler();
+        final AsyncLogHandler handler = new AsyncLogHandler(target, 10);
+        final int size = 5000;
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final String name = String.valueOf(i);
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < size; j++) {
+                        LogRecord record = new LogRecord(Level.INFO, String.valueOf(j));
+                        record.setLoggerName(name);
+                        handler.publish(record);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        handler.flush();
+        Assert.assertEquals(0, handler.getDiscarded());
+        synchronized (target) {
+            Assert.assertEquals(threads.length * size, target.list.size());
+            Assert.assertTrue(target.flushes > 0 && target.flushes <= target.list.size());
+
+            // 同一个线程输出的日志保持顺序
+            int[] next = new int[threads.length];
+            for (LogRecord record : target.list) {
+                int thread = Integer.parseInt(record.getLoggerName());
+                Assert.assertEquals(next[thread]++, Integer.parseInt(record.getMessage()));
+            }
+        }
+        handler.close();
+    }
+
+    @Test
+    public void testDiscard() {
+        ListHandler target = new ListHandler();
+        target.latch = new CountDownLatch(1);
+        AsyncLogHandler handler = new AsyncLogHandler(target, 4);
+        handler.setDiscard(true);
+
+        for (int i = 0; i < 100; i++) {
+            handler.publish(new LogRecord(Level.INFO, String.valueOf(i)));
+        }
+        Assert.assertTrue(handler.getDiscarded() > 0);
+
+        target.latch.countDown();
+        handler.close();
+        Assert.assertEquals(100, target.list.size() + handler.getDiscarded());
+
+        // 关闭后不再输出日志
+        handler.publish(new LogRecord(Level.INFO, "closed"));
+        Assert.assertEquals(100, target.list.size() + handler.getDiscarded());
+    }
+
+    @Test
+    public void testCaller() {
+        ListHandler target = new ListHandler();
+        AsyncLogHandler handler = new AsyncLogHandler(target, 16);
+        JUL.out.addHandler(handler);
+        try {
+            JUL.info("without caller");
+            handler.setCaller(true);
+            JUL.info("with caller");
+            handler.flush();
+        } finally {
+            JUL.out.removeHandler(handler);
+            handler.close();
+        }
+
+        Assert.assertEquals(2, target.list.size());
+        Assert.assertNull(target.sources.get(0));
+        Assert.assertEquals(AsyncLogHandlerTest.class.getName(), target.sources.get(1));
+    }
+
+    @Test
+    public void testTraceRecord() {
+        ListHandler target = new ListHandler();
+        JUL.out.addHandler(target);
+        try {
+            JUL.warn("print warn");
+        } finally {
+            JUL.out.removeHandler(target);
+        }
+
+        Assert.assertEquals(1, target.list.size());
+        Assert.assertEquals(AsyncLogHandlerTest.class.getName(), target.sources.get(0));
+        Assert.assertEquals("testTraceRecord", target.list.get(0).getSourceMethodName());
+    }
+
+}
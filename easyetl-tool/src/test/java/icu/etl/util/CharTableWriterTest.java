@@ -0,0 +1,88 @@
+package icu.etl.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CharTableWriterTest {
+
+    private CharTable create() {
+        CharTable table = new CharTable("UTF-8");
+        table.addTitle("列", CharTable.ALIGN_LEFT);
+        table.addTitle("name", CharTable.ALIGN_MIDDLE);
+        table.addTitle("value", CharTable.ALIGN_RIGHT);
+        return table;
+    }
+
+    private Object[] cells() {
+        return new Object[]{ //
+                "第一列", "测试|换行列\n你好啊\n世界", 1, //
+                "2", null, "中文", //
+                "x", " y ", 3.5 //
+        };
+    }
+
+    @Test
+    public void testStyle() throws IOException {
+        for (CharTable.Style style : CharTable.Style.values()) {
+            CharTable expect = this.create();
+            for (Object obj : this.cells()) {
+                expect.addCell(obj);
+            }
+            String str = expect.toString(style);
+
+            StringWriter out = new StringWriter();
+            CharTableWriter writer = new CharTableWriter(out, style, this.create(), 10);
+            for (Object obj : this.cells()) {
+                writer.addCell(obj);
+            }
+            Assert.assertEquals(9, writer.getTable().getCells().size()); // 行数小于 10 时暂存在表格中
+            writer.close();
+            Assert.assertEquals(style.name(), str, out.toString());
+            Assert.assertTrue(writer.getTable().getCells().isEmpty());
+        }
+    }
+
+    @Test
+    public void testSample() throws IOException {
+        StringWriter out = new StringWriter();
+        CharTable table = new CharTable();
+        table.addTitle("a");
+        table.addTitle("b");
+        table.setLineSeparator("\n");
+        CharTableWriter writer = new CharTableWriter(out, CharTable.Style.standard, table, 1);
+        writer.addCell("1").addCell("22");
+        Assert.assertEquals(Arrays.asList(1, 2), writer.getWidths());
+        Assert.assertEquals("-----\na  b \n-  --\n1  22\n", out.toString());
+
+        writer.addCell("333").addCell("4"); // 超出列宽度的内容被截断
+        Assert.assertEquals(0, table.getCells().size());
+        writer.addCell("5");
+        writer.close();
+        writer.close();
+        Assert.assertEquals("-----\na  b \n-  --\n1  22\n3  4 \n5    \n-----\n", out.toString());
+    }
+
+    @Test
+    public void testWidths() throws IOException {
+        StringBuilder out = new StringBuilder();
+        CharTable table = new CharTable();
+        table.addTitle("a");
+        table.setLineSeparator("\n");
+        CharTableWriter writer = new CharTableWriter(out, CharTable.Style.shell, table, Arrays.asList(3));
+        writer.addCell("1");
+        Assert.assertEquals("a  \n1  \n", out.toString());
+        writer.close();
+        Assert.assertEquals("a  \n1  \n", out.toString());
+
+        try {
+            writer.addCell("2");
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package icu.etl.util;
+
+import java.io.UnsupportedEncodingException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CharWidthTableTest {
+
+    @Test
+    public void testWidth() throws UnsupportedEncodingException {
+        for (String charsetName : new String[]{"UTF-8", "GBK", "ISO-8859-1", "UTF-16"}) {
+            CharWidthTable table = CharWidthTable.get(charsetName);
+            Assert.assertSame(table, CharWidthTable.get(charsetName));
+            Assert.assertEquals(charsetName, table.getCharsetName());
+
+            for (int i = 0; i <= Character.MAX_VALUE; i++) {
+                char c = (char) i;
+                int expect = StringUtils.isAscii(c) || String.valueOf(c).getBytes(charsetName).length == 1 ? 1 : 2;
+                Assert.assertEquals(charsetName + ", " + i, expect, table.width(c));
+            }
+        }
+    }
+
+    @Test
+    public void testString() {
+        CharWidthTable table = CharWidthTable.get("UTF-8");
+        Assert.assertEquals(0, table.width(""));
+        Assert.assertEquals(8, table.width("a中文b😀")); // 代理字符单独编码时是替换字符，宽度是1
+        Assert.assertEquals(4, table.width("a中文b", 1, 3));
+        Assert.assertEquals(8, StringUtils.width("a中文b😀", "UTF-8"));
+        Assert.assertEquals(3, StringUtils.width("abc", (String) null));
+        Assert.assertEquals(2, StringUtils.width('中', "GBK"));
+        Assert.assertEquals(1, StringUtils.width('é', "ISO-8859-1"));
+    }
+
+    @Test
+    public void testPadding() {
+        Assert.assertEquals("中文  ", StringUtils.left("中文", 6, "UTF-8", ' '));
+        Assert.assertEquals("  中文", StringUtils.right("中文", 6, "UTF-8", ' '));
+        Assert.assertEquals(" 中文  ", StringUtils.middle("中文", 7, "UTF-8", ' '));
+        Assert.assertEquals("中中a", StringUtils.right("a", 5, "UTF-8", '中'));
+        Assert.assertEquals("中a中", StringUtils.middle("a", 5, "UTF-8", '中'));
+
+        try {
+            StringUtils.left("a", 4, "UTF-8", '中');
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("中", e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupported() {
+        CharWidthTable.get("unknown-charset");
+    }
+
+}
@@ -0,0 +1,102 @@
+package icu.etl.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassMetadataTest {
+
+    public static class Sample {
+
+        private String name1 = "name1";
+        private String name2 = "name2";
+        private int name3 = 3;
+
+        public String getName() {
+            return this.name1;
+        }
+
+        private int add(int value) {
+            return this.name3 + value;
+        }
+
+        private String concat(String str) {
+            return this.name2 + str;
+        }
+
+        private String concat(String str, int value) {
+            return this.name2 + str + value;
+        }
+    }
+
+    @Test
+    public void testGet() {
+        ClassMetadata metadata = ClassMetadata.get(Sample.class);
+        Assert.assertSame(metadata, ClassMetadata.get(Sample.class));
+        Assert.assertEquals(Sample.class, metadata.getType());
+        Assert.assertNotSame(metadata, ClassMetadata.get(String.class));
+    }
+
+    @Test
+    public void testMethod() throws Exception {
+        ClassMetadata metadata = ClassMetadata.get(Sample.class);
+
+        Method method = metadata.getMethod("getName");
+        Assert.assertNotNull(method);
+        Assert.assertSame(method, metadata.getMethod("getName"));
+        Assert.assertSame(method, metadata.getMethod("getName", (Class<?>[]) null));
+        Assert.assertSame(method, ClassUtils.getMethod(new Sample(), "getName"));
+
+        // 只有一个同名方法时忽略参数类型
+        Method add = metadata.getMethod("add");
+        Assert.assertNotNull(add);
+        Assert.assertEquals(int.class, add.getParameterTypes()[0]);
+
+        // 多个同名方法时按参数类型查找
+        Class<?>[] types = new Class<?>[]{String.class, int.class};
+        Method concat = metadata.getMethod("concat", types);
+        Assert.assertEquals(2, concat.getParameterTypes().length);
+        types[1] = long.class; // 修改参数数组不影响缓存
+        Assert.assertNull(metadata.getMethod("concat", types));
+        Assert.assertSame(concat, metadata.getMethod("concat", String.class, int.class));
+        Assert.assertEquals(1, metadata.getMethod("concat", String.class).getParameterTypes().length);
+        Assert.assertNull(metadata.getMethod("concat"));
+
+        // 方法不存在
+        Assert.assertNull(metadata.getMethod("notExists"));
+        Assert.assertNull(metadata.getMethod("notExists"));
+        Assert.assertNull(metadata.getMethod(null));
+
+        Assert.assertEquals("name1", ClassUtils.executeMethod(new Sample(), "getName"));
+    }
+
+    @Test
+    public void testField() {
+        ClassMetadata metadata = ClassMetadata.get(Sample.class);
+        Assert.assertSame(metadata.getDeclaredFields(), metadata.getDeclaredFields());
+        Assert.assertEquals("name2", metadata.getDeclaredField("name2").getName());
+        Assert.assertNull(metadata.getDeclaredField("name4"));
+        Assert.assertEquals(Sample.class.getName() + ".name3", ClassUtils.toFieldName(Sample.class, "name3"));
+
+        List<Field> list = metadata.getDeclaredFields("name[0-9]", String.class);
+        Assert.assertEquals(2, list.size());
+        Assert.assertSame(list, metadata.getDeclaredFields("name[0-9]", String.class));
+        Assert.assertEquals(1, metadata.getDeclaredFields("name[0-9]", int.class).size());
+        Assert.assertEquals(0, metadata.getDeclaredFields("name", String.class).size());
+
+        Sample sample = new Sample();
+        ClassUtils.setField(sample, "name[12]", String.class, "new");
+        Assert.assertEquals("new", sample.name1);
+        Assert.assertEquals("new", sample.name2);
+
+        // 不修改缓存中的共享字段
+        for (Field field : list) {
+            Assert.assertFalse(field.isAccessible());
+        }
+        Assert.assertFalse(metadata.getDeclaredField("name1").isAccessible());
+    }
+
+}
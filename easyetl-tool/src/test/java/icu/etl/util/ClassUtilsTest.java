@@ -3,8 +3,10 @@ package icu.etl.util;
 import java.io.File;
 import java.io.Serializable;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import icu.etl.collection.ArrayDeque;
@@ -76,6 +78,36 @@ public class ClassUtilsTest {
         Assert.assertTrue(FileUtils.isDirectory(ClassUtils.getClasspath(ClassUtils.class)));
     }
 
+    @Test
+    public void testGetClasspaths() {
+        List<Class<?>> list = new ArrayList<Class<?>>();
+        list.add(ClassUtilsTest.class);
+        list.add(ClassUtils.class);
+        list.add(StringUtils.class);
+
+        ClassUtils.clearClasspath();
+        Map<Class<?>, String> map = ClassUtils.getClasspaths(list);
+        Assert.assertEquals(list, new ArrayList<Class<?>>(map.keySet()));
+        for (Class<?> cls : list) {
+            Assert.assertEquals(map.get(cls), ClassUtils.getClasspath(cls));
+        }
+
+        ClassUtils.clearClasspath();
+        for (Class<?> cls : list) {
+            Assert.assertEquals(map.get(cls), ClassUtils.getClasspath(cls));
+        }
+
+        // 修改 CLASSPATH 后缓存失效
+        String classpath = ClassUtils.CLASSPATH;
+        try {
+            ClassUtils.CLASSPATH = ClassUtils.getClasspath(ClassUtilsTest.class);
+            Assert.assertEquals(ClassUtils.CLASSPATH, ClassUtils.getClasspath(ClassUtilsTest.class));
+        } finally {
+            ClassUtils.CLASSPATH = classpath;
+        }
+        Assert.assertEquals(map.get(ClassUtils.class), ClassUtils.getClasspath(ClassUtils.class));
+    }
+
     @Test
     public void testgetPackageNameString() {
         Class<?> cls = ClassUtils.class;
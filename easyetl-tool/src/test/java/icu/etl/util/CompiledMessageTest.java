@@ -0,0 +1,58 @@
+package icu.etl.util;
+
+import java.text.MessageFormat;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledMessageTest {
+
+    private void assertFormat(String pattern, Object... args) {
+        CompiledMessage message = new CompiledMessage(pattern);
+        String expect = MessageFormat.format(pattern, args);
+        Assert.assertEquals(expect, message.format(args));
+        Assert.assertEquals("|" + expect, message.format(new StringBuilder("|"), args).toString());
+    }
+
+    @Test
+    public void testFormat() {
+        Object[] args = {"a", 1234567, null, new Date(1700000000000L), 1.5, new StringBuilder("sb"), 'c'};
+        String[] patterns = { //
+                "", //
+                "text", //
+                "{0}", //
+                "{0}{1}{2}{3}{4}{5}{6}", //
+                "file {0} line {1}: {2}", //
+                "{7} {10} {00} {01}", // 参数不存在
+                "it''s {0}", //
+                "'{0}' {0}", //
+                "'it''s {0}'{1}", //
+                "'unclosed {0}", //
+                "} {0} }", //
+                "{4,number,#.##} {0}", //
+                "{1,number,integer}", //
+                "{4,choice,0#zero|1#one|2#two}", //
+                "{99999}", //
+        };
+
+        for (String pattern : patterns) {
+            this.assertFormat(pattern, args);
+            this.assertFormat(pattern);
+            this.assertFormat(pattern, (Object[]) null);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnmatched() {
+        new CompiledMessage("{0").format("a");
+    }
+
+    @Test
+    public void testPattern() {
+        CompiledMessage message = new CompiledMessage("it''s {0}");
+        Assert.assertEquals("it''s {0}", message.getPattern());
+        Assert.assertEquals("it's 1", message.format("1"));
+    }
+
+}
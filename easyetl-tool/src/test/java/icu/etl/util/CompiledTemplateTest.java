@@ -0,0 +1,70 @@
+package icu.etl.util;
+
+import java.text.DecimalFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledTemplateTest {
+
+    @Test
+    public void testRender() {
+        Map<String, String> map = new HashMap<String, String>();
+        map.put("schema", "etl");
+        map.put("table", "t_customer");
+        map.put("column", "name");
+        map.put("name", "customer_name");
+        map.put("empty", "");
+
+        CompiledTemplate template = new CompiledTemplate("select ${${column}} from ${schema}.${table} where ${missing} = '${empty}'");
+        Assert.assertTrue(template.hasVariable());
+        Assert.assertEquals("select customer_name from etl.t_customer where ${missing} = ''", template.render(map));
+
+        map.put("table", "t_order");
+        StringBuilder buf = new StringBuilder("-- ");
+        Assert.assertSame(buf, template.render(map, null, buf));
+        Assert.assertEquals("-- select customer_name from etl.t_order where ${missing} = ''", buf.toString());
+
+        Assert.assertFalse(new CompiledTemplate("abc").hasVariable());
+        Assert.assertEquals("", new CompiledTemplate("").render(map));
+        Assert.assertEquals("a${b", new CompiledTemplate("a${b").render(map));
+        Assert.assertEquals("etl${b", new CompiledTemplate("${schema}${b").render(map));
+        Assert.assertEquals("${${x}}", new CompiledTemplate("${${x}}").render(map));
+        Assert.assertEquals("${}$", new CompiledTemplate("${}$").render(map));
+        Assert.assertEquals("${schema}", new CompiledTemplate("${schema}").render(null));
+    }
+
+    @Test
+    public void testValue() {
+        Map<String, Object> map = new HashMap<String, Object>();
+        map.put("a", "${b}/x");
+        map.put("b", 12);
+        map.put("self", "${self}");
+        Assert.assertEquals("12/x", new CompiledTemplate("${a}").render(map));
+        Assert.assertEquals("12.00", new CompiledTemplate("${b}").render(map, new DecimalFormat("0.00")));
+        Assert.assertEquals("${self}", new CompiledTemplate("${self}").render(map));
+
+        Properties p = new Properties();
+        p.setProperty("v1", "vn1");
+        p.put("v2", 2); // 不是字符串的属性值
+        Assert.assertEquals("vn1+${v2}", new CompiledTemplate("${v1}+${v2}").render(p));
+    }
+
+    @Test
+    public void testStringUtils() {
+        Map<String, String> map = new HashMap<String, String>();
+        map.put("a", "1");
+        map.put("b", "a");
+        map.put("c", "${a}${a}");
+        String[] array = {"${a}", "${${b}}", "x${c}y${a}", "${d}${a}${d}", "${a", "$a}", "{${b}}"};
+        String[] expect = {"1", "1", "x11y1", "${d}1${d}", "${a", "$a}", "{a}"};
+        for (int i = 0; i < array.length; i++) {
+            Assert.assertEquals(expect[i], StringUtils.replaceVariable(array[i], map));
+            Assert.assertEquals(expect[i], new CompiledTemplate(array[i]).render(map));
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package icu.etl.util;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import icu.etl.collection.CharBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DateFormatterTest {
+
+    /** 格式与对应的日期格式 */
+    private final static Object[][] PATTERNS = { //
+            {8, "yyyyMMdd"}, //
+            {10, "yyyy-MM-dd"}, //
+            {12, "HH:mm:ss:SSS"}, //
+            {14, "yyyyMMddHHmmss"}, //
+            {16, "yyyy-MM-dd HH:mm"}, //
+            {17, "yyyyMMddHHmmssSSS"}, //
+            {19, "yyyy-MM-dd HH:mm:ss"}, //
+            {21, "yyyy-MM-dd HH:mm:ss:SSS"} //
+    };
+
+    /**
+     * 使用 SimpleDateFormat 校验格式化结果
+     */
+    private static void check(long min, long max, int count) {
+        Random random = new Random(20240114);
+        for (Object[] array : PATTERNS) {
+            int type = (Integer) array[0];
+            SimpleDateFormat format = new SimpleDateFormat((String) array[1]);
+            for (int i = 0; i < count; i++) {
+                long millis = min + (long) (random.nextDouble() * (max - min));
+                String expect = format.format(new Date(millis));
+                Assert.assertEquals(expect, DateFormatter.toString(millis, type));
+            }
+        }
+    }
+
+    @Test
+    public void testFormat() {
+        long min = Dates.parse("1000-01-01").getTime();
+        long max = Dates.parse("9999-12-31").getTime();
+        check(min, max, 2000);
+
+        // 夏令时
+        check(Dates.parse("1985-01-01").getTime(), Dates.parse("1992-12-31").getTime(), 2000);
+    }
+
+    @Test
+    public void testTimeZone() {
+        TimeZone timeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            DateFormatter.reset();
+            check(Dates.parse("1960-01-01").getTime(), Dates.parse("2060-12-31").getTime(), 2000);
+        } finally {
+            TimeZone.setDefault(timeZone);
+            DateFormatter.reset();
+        }
+    }
+
+    @Test
+    public void testBuffer() {
+        long millis = Dates.parse("2024-01-14 09:08:07:006").getTime();
+        char[] array = new char[25];
+        Assert.assertEquals(25, DateFormatter.format(millis, 21, array, 2));
+        Assert.assertEquals("2024-01-14 09:08:07:006", new String(array, 2, 23));
+
+        CharBuffer buf = new CharBuffer(2, 2);
+        buf.append('[');
+        DateFormatter.format(millis, 8, buf).append(',');
+        DateFormatter.format(millis, 12, buf).append(']');
+        Assert.assertEquals("[20240114,09:08:07:006]", buf.toString());
+
+        try {
+            DateFormatter.format(millis, 9, array, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testDates() {
+        Date date = Dates.parse("2024-01-14 09:08:07:006");
+        Assert.assertEquals("20240114", Dates.format08(date));
+        Assert.assertEquals("2024-01-14", Dates.format10(date));
+        Assert.assertEquals("20240114090807", Dates.format14(date));
+        Assert.assertEquals("20240114090807006", Dates.format17(date));
+        Assert.assertEquals("2024-01-14 09:08:07", Dates.format19(date));
+        Assert.assertEquals("2024-01-14 09:08:07:006", Dates.format21(date));
+
+        Assert.assertEquals("2024-01-14 09:08:07:006", StringUtils.toString(date));
+        Assert.assertEquals("2024-01-14 09:08:07", StringUtils.toString(Dates.parse("2024-01-14 09:08:07")));
+        Assert.assertEquals("2024-01-14 09:08", StringUtils.toString(Dates.parse("2024-01-14 09:08")));
+        Assert.assertEquals("2024-01-14", StringUtils.toString(Dates.parse("2024-01-14")));
+    }
+
+}
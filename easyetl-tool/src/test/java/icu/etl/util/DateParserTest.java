@@ -0,0 +1,87 @@
+package icu.etl.util;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DateParserTest {
+
+    @Test
+    public void testPattern() {
+        Assert.assertNull(new DateParser().getPattern());
+        Assert.assertEquals("yyyyMMdd", new DateParser("20240113").getPattern());
+        Assert.assertEquals("yyyyMMddHH", new DateParser("2024011312").getPattern());
+        Assert.assertEquals("yyyyMMddHHmmssSSS", new DateParser("20240113123456789").getPattern());
+        Assert.assertEquals("yyyy-MM-dd", new DateParser(" 2024-01-13 ").getPattern());
+        Assert.assertEquals("MM/dd/yyyy", new DateParser("01/13/2024").getPattern());
+        Assert.assertEquals("yyyy/MM/dd H:mm", new DateParser("2024/01/13 1:23").getPattern());
+        Assert.assertEquals("yyyy-MM-dd HH:mm:ss.SSS", new DateParser("2024-01-13 12:34:56.789").getPattern());
+        Assert.assertNull(new DateParser("2024年01月13日").getPattern());
+        Assert.assertNull(new DateParser("202401131").getPattern());
+        Assert.assertNull(new DateParser("2024-01-13T12:34:56").getPattern());
+    }
+
+    @Test
+    public void testParse() {
+        String[] patterns = {"yyyyMMdd", "yyyyMMddHH", "yyyyMMddHHmm", "yyyyMMddHHmmss", "yyyyMMddHHmmssSSS", "yyyy-MM-dd", "yyyy/MM/dd", "MM/dd/yyyy", "yyyy-MM-dd HH", "yyyy-MM-dd HH:mm", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm:ss:SSS", "yyyy.MM.dd H.m.s", "dd MMM yyyy"};
+        Random random = new Random(20240113);
+        Date start = Dates.parse("1960-01-01");
+        Date end = Dates.parse("2060-12-31");
+
+        for (String pattern : patterns) {
+            DateParser parser = new DateParser();
+            for (int i = 0; i < 200; i++) {
+                Calendar cr = Calendar.getInstance();
+                cr.setTime(Dates.random(start, end));
+                cr.set(Calendar.HOUR_OF_DAY, random.nextInt(24));
+                cr.set(Calendar.MINUTE, random.nextInt(60));
+                cr.set(Calendar.SECOND, random.nextInt(60));
+                cr.set(Calendar.MILLISECOND, random.nextInt(1000));
+
+                String str = Dates.format(cr.getTime(), pattern, Locale.ENGLISH);
+                Assert.assertEquals(str, Dates.parse(str), parser.parse(str));
+            }
+        }
+    }
+
+    @Test
+    public void testMismatch() {
+        DateParser parser = new DateParser("2024-01-13");
+        Assert.assertEquals(Dates.parse("2024-01-14"), parser.parse("2024-01-14"));
+        Assert.assertEquals("yyyy-MM-dd", parser.getPattern());
+
+        // 格式变化后重新分析日期格式
+        Assert.assertEquals(Dates.parse("20240115"), parser.parse("20240115"));
+        Assert.assertEquals("yyyyMMdd", parser.getPattern());
+
+        // 不支持编译的格式
+        Assert.assertEquals(Dates.parse("2024年1月16日"), parser.parse("2024年1月16日"));
+        Assert.assertEquals("yyyyMMdd", parser.getPattern());
+
+        Date date = new Date();
+        Assert.assertSame(date, parser.parse(date));
+        Assert.assertNull(parser.parse(null));
+
+        // 非法日期
+        try {
+            parser.parse("20240230");
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals("yyyyMMdd", parser.getPattern());
+        }
+    }
+
+    @Test
+    public void testParseArray() {
+        Date[] array = Dates.parse("20240113", "2024-01-14", " 2024-01-15 12:00 ", null);
+        Assert.assertEquals(Dates.parse("20240113"), array[0]);
+        Assert.assertEquals(Dates.parse("2024-01-14"), array[1]);
+        Assert.assertEquals(Dates.parse("2024-01-15 12:00"), array[2]);
+        Assert.assertNull(array[3]);
+    }
+
+}
@@ -0,0 +1,77 @@
+package icu.etl.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EasyBeanIndexTest {
+
+    @Test
+    public void testAnnotation() throws IOException {
+        EasyBeanIndex index = new EasyBeanIndex(StringComparator.class);
+        Assert.assertEquals(StringComparator.class.getName(), index.getClassName());
+        Assert.assertEquals("string", index.getName());
+        Assert.assertFalse(index.isSingleton());
+        Assert.assertTrue(index.isLazy());
+        Assert.assertEquals(0, index.getPriority());
+        Assert.assertEquals(StringComparator.class, index.getType(ClassUtils.getDefaultClassLoader()));
+
+        // 写入后再读取
+        List<EasyBeanIndex> list = new ArrayList<EasyBeanIndex>();
+        list.add(index);
+        list.add(new EasyBeanIndex("a.b.C", true, false, -2, "name,with,comma"));
+        StringWriter out = new StringWriter();
+        EasyBeanIndex.store(out, list);
+
+        List<EasyBeanIndex> result = EasyBeanIndex.parse(new ByteArrayInputStream(out.toString().getBytes(CharsetName.UTF_8)));
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(index.toString(), result.get(0).toString());
+        Assert.assertEquals("a.b.C", result.get(1).getClassName());
+        Assert.assertTrue(result.get(1).isSingleton());
+        Assert.assertFalse(result.get(1).isLazy());
+        Assert.assertEquals(-2, result.get(1).getPriority());
+        Assert.assertEquals("name,with,comma", result.get(1).getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAnnotated() {
+        new EasyBeanIndex(EasyBeanIndexTest.class);
+    }
+
+    @Test(expected = IOException.class)
+    public void testParseError() throws IOException {
+        EasyBeanIndex.parse(new ByteArrayInputStream("a.b.C,true,false".getBytes(CharsetName.UTF_8)));
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        File dir1 = FileUtils.getTempDir("test", EasyBeanIndexTest.class.getSimpleName(), "dir1");
+        File dir2 = FileUtils.getTempDir("test", EasyBeanIndexTest.class.getSimpleName(), "dir2");
+        File index1 = new File(dir1, EasyBeanIndex.INDEX);
+        File index2 = new File(dir2, EasyBeanIndex.INDEX);
+        FileUtils.assertCreateDirectory(index1.getParentFile());
+        FileUtils.assertCreateDirectory(index2.getParentFile());
+        FileUtils.write(index1, CharsetName.UTF_8, false, "# index\n" + StringComparator.class.getName() + ",false,true,0,string\na.b.C,true,false,1,c\n");
+        FileUtils.write(index2, CharsetName.UTF_8, false, "a.b.C,false,false,9,c\na.b.D,false,true,0,d\n");
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{dir1.toURI().toURL(), dir2.toURI().toURL()}, ClassUtils.getDefaultClassLoader());
+        List<EasyBeanIndex> list = EasyBeanIndex.load(loader);
+        Assert.assertEquals(3, list.size());
+        Assert.assertSame(list, EasyBeanIndex.load(loader));
+        Assert.assertEquals(StringComparator.class, list.get(0).getType(loader));
+        Assert.assertEquals(1, list.get(1).getPriority()); // 同名类只保留第一个
+        Assert.assertEquals("a.b.D", list.get(2).getClassName());
+
+        EasyBeanIndex.clear(loader);
+        Assert.assertNotSame(list, EasyBeanIndex.load(loader));
+    }
+
+}
@@ -0,0 +1,125 @@
+package icu.etl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FieldCursorTest {
+
+    /**
+     * 使用游标遍历所有字段
+     */
+    private static List<String> fields(FieldCursor cursor) {
+        List<String> list = new ArrayList<String>();
+        while (cursor.next()) {
+            list.add(cursor.getField());
+        }
+        return list;
+    }
+
+    @Test
+    public void testChar() {
+        FieldCursor cursor = new FieldCursor(',');
+        assertEquals("[1, 2, ]", fields(cursor.reset("1,2,")).toString());
+        assertEquals(1, fields(cursor.reset("")).size());
+        assertEquals(0, fields(cursor.reset((CharSequence) null)).size());
+        assertEquals("[, , ]", fields(cursor.reset(",,")).toString());
+
+        cursor.reset(new StringBuilder("ab,cd"));
+        assertTrue(cursor.next());
+        assertEquals(0, cursor.getIndex());
+        assertEquals(0, cursor.getOffset());
+        assertEquals(2, cursor.getLength());
+        assertTrue(cursor.contentEquals("ab"));
+        assertFalse(cursor.contentEquals("abc"));
+        assertTrue(cursor.next());
+        assertEquals(1, cursor.getIndex());
+        assertEquals(3, cursor.getOffset());
+        assertEquals(5, cursor.getEnd());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testCharArray() {
+        char[] array = "xx1||22||333yy".toCharArray();
+        FieldCursor cursor = new FieldCursor("||").reset(array, 2, 10);
+        assertTrue(cursor.next());
+        assertEquals(2, cursor.getOffset());
+        assertEquals("1", cursor.getField());
+        assertTrue(cursor.next());
+        assertEquals(5, cursor.getOffset());
+        assertEquals("22", cursor.getField());
+        assertTrue(cursor.next());
+        assertEquals("333", cursor.getField());
+
+        char[] dest = new char[3];
+        assertEquals(3, cursor.getChars(dest, 0));
+        assertEquals("333", new String(dest));
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testEscape() {
+        FieldCursor cursor = new FieldCursor(',', '\\');
+        cursor.reset("1,2,\\3,4\\,5,");
+        assertTrue(cursor.skip(3));
+        assertTrue(cursor.isEscaped());
+        assertEquals("3", cursor.getField());
+        assertTrue(cursor.contentEquals("3"));
+        assertTrue(cursor.next());
+        assertEquals("4,5", cursor.getField());
+        assertEquals("4,5", cursor.appendTo(new StringBuilder()).toString());
+        assertTrue(cursor.next());
+        assertEquals("", cursor.getField());
+        assertFalse(cursor.next());
+        assertFalse(cursor.skip(1));
+    }
+
+    @Test
+    public void testSameAsSplit() {
+        Random random = new Random(20240108);
+        char[] chars = {'a', 'b', '|', ',', '\\', ' '};
+        FieldCursor c1 = new FieldCursor(',');
+        FieldCursor c2 = new FieldCursor("||");
+        FieldCursor c3 = new FieldCursor(',', '\\');
+        FieldCursor c4 = new FieldCursor("||", '\\');
+
+        for (int n = 0; n < 2000; n++) {
+            StringBuilder buf = new StringBuilder();
+            for (int i = random.nextInt(20); i > 0; i--) {
+                buf.append(chars[random.nextInt(chars.length)]);
+            }
+            String str = buf.toString();
+
+            List<String> list = new ArrayList<String>();
+            StringUtils.split(str, ',', list);
+            assertEquals(str, list, fields(c1.reset(str)));
+            assertEquals(str, list, fields(c1.reset(str.toCharArray(), 0, str.length())));
+
+            list.clear();
+            StringUtils.split(str, "||", list);
+            assertEquals(str, list, fields(c2.reset(new StringBuilder(str))));
+
+            list.clear();
+            StringUtils.split(str, ',', '\\', list);
+            assertEquals(str, list, fields(c3.reset(str)));
+
+            list.clear();
+            StringUtils.split(str, "||", '\\', list);
+            List<String> fields = fields(c4.reset(str.toCharArray(), 0, str.length()));
+            assertEquals(str, list, fields);
+
+            c4.reset(str);
+            for (int i = 0; c4.next(); i++) {
+                assertTrue(str, c4.contentEquals(list.get(i)));
+            }
+        }
+    }
+
+}
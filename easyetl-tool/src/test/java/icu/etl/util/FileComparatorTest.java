@@ -0,0 +1,91 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileComparatorTest {
+
+    /**
+     * 将字节数组写入文件
+     */
+    private static void write(File file, byte[] array, int length) throws IOException {
+        FileOutputStream out = new FileOutputStream(file, false);
+        try {
+            out.write(array, 0, length);
+        } finally {
+            out.close();
+        }
+    }
+
+    @Test
+    public void testMismatch() throws IOException {
+        int chunkSize = FileComparator.CHUNK_SIZE;
+        long mappedSize = FileComparator.MAPPED_FILESIZE;
+        try {
+            File file1 = FileUtils.createTempFile("FileComparatorTest1.txt");
+            File file2 = FileUtils.createTempFile("FileComparatorTest2.txt");
+            Random random = new Random(20240115);
+
+            for (int n = 0; n < 200; n++) {
+                byte[] array1 = new byte[random.nextInt(100)];
+                random.nextBytes(array1);
+                byte[] array2 = array1.clone();
+
+                long expect = -1;
+                int length2 = array2.length;
+                switch (random.nextInt(4)) {
+                    case 0: // 相同
+                        break;
+
+                    case 1: // 修改一个或多个字节
+                        if (array2.length > 0) {
+                            int index = random.nextInt(array2.length);
+                            array2[index]++;
+                            if (random.nextBoolean() && index + 1 < array2.length) {
+                                array2[index + 1 + random.nextInt(array2.length - index - 1)]++;
+                            }
+                            expect = index;
+                        }
+                        break;
+
+                    default: // 长度不同
+                        if (array2.length > 0) {
+                            length2 = random.nextInt(array2.length);
+                            expect = length2;
+                        }
+                        break;
+                }
+
+                write(file1, array1, array1.length);
+                write(file2, array2, length2);
+
+                FileComparator.CHUNK_SIZE = chunkSize;
+                FileComparator.MAPPED_FILESIZE = mappedSize;
+                Assert.assertEquals(expect, FileUtils.mismatch(file1, file2, 0));
+                Assert.assertEquals(expect, FileUtils.mismatch(file2, file1, 0));
+                Assert.assertEquals(expect == -1, FileUtils.equals(file1, file2, 0));
+
+                // 分块比较
+                FileComparator.CHUNK_SIZE = 1 + random.nextInt(17);
+                Assert.assertEquals(expect, new FileComparator(file1, file2, 1, 1 + random.nextInt(9)).mismatch());
+                Assert.assertEquals(expect, new FileComparator(file1, file2, 4, 1 + random.nextInt(9)).mismatch());
+
+                // 内存映射
+                FileComparator.MAPPED_FILESIZE = 0;
+                Assert.assertEquals(expect, new FileComparator(file1, file2, 3, 1 + random.nextInt(9)).mismatch());
+                Assert.assertEquals(expect == -1, FileUtils.equals(file1, file2, 3));
+            }
+
+            Assert.assertEquals(-1, FileUtils.mismatch(file1, file1, 0));
+        } finally {
+            FileComparator.CHUNK_SIZE = chunkSize;
+            FileComparator.MAPPED_FILESIZE = mappedSize;
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileCopierTest {
+
+    private final Random random = new Random(20240126);
+
+    private File createFile(File file, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        this.random.nextBytes(bytes);
+        FileUtils.assertCreateDirectory(file.getParentFile());
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private File createDirectory(String name) throws IOException {
+        File dir = FileUtils.getTempDir("test", FileCopierTest.class.getSimpleName(), name);
+        FileUtils.assertCreateDirectory(dir);
+        FileUtils.clearDirectory(dir);
+        return dir;
+    }
+
+    @Test
+    public void testCopyFile() throws IOException {
+        long chunk = FileCopier.CHUNK_SIZE;
+        FileCopier.CHUNK_SIZE = 1000;
+        try {
+            File dir = this.createDirectory("file");
+            File file = this.createFile(new File(dir, "src.dat"), 12345);
+            file.setLastModified(1700000000000L);
+            File dest = new File(dir, "dest/dest.dat");
+
+            final AtomicLong count = new AtomicLong();
+            final AtomicLong last = new AtomicLong();
+            FileCopier copier = new FileCopier(1).setPreserveTime(true).setProgress(new FileCopier.Progress() {
+                public void update(File file, long length, long total, long millis) {
+                    count.incrementAndGet();
+                    Assert.assertEquals(length, total);
+                    Assert.assertTrue(total > last.get());
+                    last.set(total);
+                }
+            });
+
+            Assert.assertTrue(copier.copy(file, dest));
+            Assert.assertTrue(FileUtils.equals(file, dest, 0));
+            Assert.assertEquals(file.lastModified(), dest.lastModified());
+            Assert.assertEquals(13, count.get());
+            Assert.assertEquals(12345, copier.getBytes());
+            Assert.assertTrue(copier.getThroughput() > 0);
+
+            // 复制空文件
+            File empty = this.createFile(new File(dir, "empty.dat"), 0);
+            Assert.assertTrue(copier.copy(empty, new File(dir, "empty.copy")));
+            Assert.assertEquals(0, new File(dir, "empty.copy").length());
+            Assert.assertTrue(copier.copy(file, file));
+        } finally {
+            FileCopier.CHUNK_SIZE = chunk;
+        }
+    }
+
+    @Test
+    public void testCopyDirectory() throws IOException {
+        File dir = this.createDirectory("dir");
+        File src = new File(dir, "src");
+        long bytes = 0;
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 4; j++) {
+                int length = this.random.nextInt(100000);
+                File file = this.createFile(new File(src, "d" + i + "/e" + j + "/f" + j + ".dat"), length);
+                file.setLastModified(1700000000000L + i * 1000);
+                bytes += length;
+            }
+        }
+        FileUtils.assertCreateDirectory(new File(src, "empty"));
+        new File(src, "d1").setLastModified(1600000000000L);
+
+        for (int threads : new int[]{1, 4}) {
+            File dest = new File(dir, "dest" + threads);
+            FileCopier copier = new FileCopier(threads).setPreserveTime(true);
+            Assert.assertTrue(copier.copy(src, dest));
+            Assert.assertEquals(bytes, copier.getBytes());
+            Assert.assertTrue(new File(dest, "empty").isDirectory());
+            Assert.assertEquals(1600000000000L, new File(dest, "d1").lastModified());
+
+            for (int i = 0; i < 5; i++) {
+                for (int j = 0; j < 4; j++) {
+                    String name = "d" + i + "/e" + j + "/f" + j + ".dat";
+                    Assert.assertTrue(FileUtils.equals(new File(src, name), new File(dest, name), 0));
+                    Assert.assertEquals(1700000000000L + i * 1000, new File(dest, name).lastModified());
+                }
+            }
+        }
+
+        // FileUtils.copy 不保留最后修改时间
+        File dest = new File(dir, "dest");
+        Assert.assertTrue(FileUtils.copy(src, dest));
+        Assert.assertTrue(FileUtils.equals(new File(src, "d2/e3/f3.dat"), new File(dest, "d2/e3/f3.dat"), 0));
+        Assert.assertTrue(new File(dest, "d1").lastModified() != 1600000000000L);
+    }
+
+    @Test
+    public void testWriteStream() throws IOException {
+        File dir = this.createDirectory("stream");
+        File file = this.createFile(new File(dir, "src.dat"), 50000);
+        File dest = new File(dir, "dest.dat");
+
+        FileInputStream in = new FileInputStream(file);
+        IO.skip(in, 100);
+        Assert.assertEquals(49900, IO.write(in, new FileOutputStream(dest)));
+
+        byte[] expect = IO.read(file);
+        byte[] array = IO.read(dest);
+        Assert.assertEquals(49900, array.length);
+        for (int i = 0; i < array.length; i++) {
+            Assert.assertEquals(expect[i + 100], array[i]);
+        }
+    }
+
+    @Test
+    public void testWriteSocket() throws Exception {
+        File dir = this.createDirectory("socket");
+        File file = this.createFile(new File(dir, "src.dat"), 300000);
+
+        for (int i = 0; i < 2; i++) {
+            final File dest = new File(dir, "dest" + i + ".dat");
+            final ServerSocket server = new ServerSocket(0);
+            final long[] length = new long[1];
+            Thread thread = new Thread() {
+                public void run() {
+                    try {
+                        Socket accept = server.accept();
+                        try {
+                            length[0] = IO.write(accept.getInputStream(), new FileOutputStream(dest));
+                        } finally {
+                            accept.close();
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+            thread.start();
+
+            try {
+                Socket socket = i == 0 ? SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getLocalPort())).socket() : new Socket("127.0.0.1", server.getLocalPort());
+                try {
+                    Assert.assertEquals(i == 0, socket.getChannel() != null);
+                    Assert.assertEquals(300000, IO.write(new FileInputStream(file), socket));
+                } finally {
+                    socket.close();
+                }
+                thread.join();
+            } finally {
+                server.close();
+            }
+
+            Assert.assertEquals(300000, length[0]);
+            Assert.assertTrue(FileUtils.equals(file, dest, 0));
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package icu.etl.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileLineIndexTest {
+
+    /**
+     * 使用 BufferedReader 读取所有行
+     */
+    private static List<String> readLines(String str) throws IOException {
+        List<String> list = new ArrayList<String>();
+        BufferedReader in = new BufferedReader(new StringReader(str));
+        for (String line; (line = in.readLine()) != null; ) {
+            list.add(line);
+        }
+        return list;
+    }
+
+    @Test
+    public void testReadline() throws IOException {
+        File file = FileUtils.createTempFile("FileLineIndexTest.txt");
+        String[] separators = {"\n", "\r", "\r\n", "\n\n", "\r\r", "\r\n\r"};
+        Random random = new Random(20240110);
+
+        for (int n = 0; n < 50; n++) {
+            StringBuilder buf = new StringBuilder();
+            for (int i = random.nextInt(60); i > 0; i--) {
+                if (random.nextBoolean()) {
+                    buf.append("行").append(i).append("line");
+                }
+                buf.append(separators[random.nextInt(separators.length)]);
+            }
+            if (random.nextBoolean()) {
+                buf.append("last");
+            }
+
+            String str = buf.toString();
+            Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_8, false, str));
+            List<String> lines = readLines(str);
+
+            for (int interval = 1; interval <= 4; interval++) {
+                FileLineIndex index = new FileLineIndex(file, CharsetName.UTF_8, interval);
+                Assert.assertEquals(lines.size(), index.getLines());
+                for (int i = 0; i < lines.size(); i++) {
+                    Assert.assertEquals(lines.get(i), index.readline(i + 1));
+                }
+                Assert.assertNull(index.readline(lines.size() + 1));
+                Assert.assertEquals(lines.isEmpty() ? null : lines.get(lines.size() - 1), index.readline(-1));
+                Assert.assertEquals(lines.subList(Math.max(0, lines.size() - 3), lines.size()), index.tail(3));
+            }
+
+            for (int i = 0; i < lines.size(); i++) {
+                Assert.assertEquals(lines.get(i), FileUtils.readline(file, CharsetName.UTF_8, i + 1));
+            }
+            Assert.assertEquals(lines.isEmpty() ? null : lines.get(lines.size() - 1), FileUtils.readline(file, CharsetName.UTF_8, -1));
+            Assert.assertEquals(str, FileUtils.readline(file, CharsetName.UTF_8, 0));
+        }
+    }
+
+    @Test
+    public void testCache() throws IOException {
+        File file = FileUtils.createTempFile("FileLineIndexTest.txt");
+        Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_8, false, "1\n2\n3"));
+        Assert.assertEquals("3", FileUtils.readline(file, CharsetName.UTF_8, -1));
+
+        FileLineIndex index = FileLineIndex.lookup(file, CharsetName.UTF_8);
+        Assert.assertNotNull(index);
+        Assert.assertEquals(3, index.getLines());
+        Assert.assertEquals("2", FileUtils.readline(file, CharsetName.UTF_8, 2));
+
+        // 修改文件后索引失效
+        Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_8, true, "\n4"));
+        Assert.assertNull(FileLineIndex.lookup(file, CharsetName.UTF_8));
+        Assert.assertEquals("4", FileUtils.readline(file, CharsetName.UTF_8, -1));
+        Assert.assertEquals(4, FileLineIndex.get(file, CharsetName.UTF_8).getLines());
+
+        FileLineIndex.remove(file);
+        Assert.assertNull(FileLineIndex.lookup(file, CharsetName.UTF_8));
+    }
+
+    /**
+     * 按行号读取大文件时建立索引，再次读取时使用缓存中的索引
+     */
+    @Test
+    public void testReadlineCache() throws IOException {
+        File file = FileUtils.createTempFile("FileLineIndexTest.txt");
+        StringBuilder buf = new StringBuilder();
+        for (int i = 1; i <= 5000; i++) {
+            buf.append("line").append(i).append('\n');
+        }
+        Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_8, false, buf));
+
+        long length = FileLineIndex.MIN_LENGTH;
+        try {
+            // 小于阈值的文件不建立索引
+            FileLineIndex.MIN_LENGTH = file.length() + 1;
+            Assert.assertEquals("line10", FileUtils.readline(file, CharsetName.UTF_8, 10));
+            Assert.assertNull(FileLineIndex.lookup(file, CharsetName.UTF_8));
+
+            // 第一次读取时建立索引，第二次读取时使用缓存
+            FileLineIndex.MIN_LENGTH = file.length();
+            Assert.assertEquals("line4000", FileUtils.readline(file, CharsetName.UTF_8, 4000));
+            FileLineIndex index = FileLineIndex.lookup(file, CharsetName.UTF_8);
+            Assert.assertNotNull(index);
+            Assert.assertEquals("line2500", FileUtils.readline(file, CharsetName.UTF_8, 2500));
+            Assert.assertSame(index, FileLineIndex.lookup(file, CharsetName.UTF_8));
+            Assert.assertNull(FileUtils.readline(file, CharsetName.UTF_8, 5001));
+            Assert.assertSame(index, FileLineIndex.lookup(file, CharsetName.UTF_8));
+        } finally {
+            FileLineIndex.MIN_LENGTH = length;
+            FileLineIndex.remove(file);
+        }
+    }
+
+    @Test
+    public void testUTF16() throws IOException {
+        File file = FileUtils.createTempFile("FileLineIndexTest.txt");
+        Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_16, false, "1\n2\n3"));
+        Assert.assertEquals("2", FileUtils.readline(file, CharsetName.UTF_16, 2));
+        Assert.assertEquals("3", FileUtils.readline(file, CharsetName.UTF_16, -1));
+
+        try {
+            new FileLineIndex(file, CharsetName.UTF_16);
+            Assert.fail();
+        } catch (UnsupportedEncodingException e) {
+            Assert.assertFalse(StringUtils.isAsciiCompatible(CharsetName.UTF_16));
+            Assert.assertTrue(StringUtils.isAsciiCompatible(CharsetName.GBK));
+        }
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        File file = FileUtils.createTempFile("FileLineIndexTest.txt");
+        Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_8, false, "中文\n2\r\n3"));
+
+        StringBuilder buf = new StringBuilder();
+        Assert.assertEquals(7, FileUtils.read(file, CharsetName.UTF_8, buf));
+        Assert.assertEquals("中文\n2\r\n3", buf.toString());
+        Assert.assertEquals("中文\n2\r\n3", FileUtils.read(file, CharsetName.UTF_8));
+    }
+
+}
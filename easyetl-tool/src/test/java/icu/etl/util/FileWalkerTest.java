@@ -0,0 +1,199 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileWalkerTest {
+
+    /**
+     * 创建测试目录: 每层目录中有3个文件与2个子目录
+     *
+     * @param dir   目录
+     * @param depth 子目录层数
+     * @param files 所有文件
+     */
+    private void create(File dir, int depth, List<File> files) throws IOException {
+        FileUtils.assertCreateDirectory(dir);
+        for (int i = 0; i < 3; i++) {
+            File file = new File(dir, "f" + depth + "_" + i + (i == 2 ? ".log" : ".txt"));
+            FileUtils.write(file, StringUtils.CHARSET, false, String.valueOf(i));
+            files.add(file);
+        }
+
+        if (depth > 0) {
+            for (int i = 0; i < 2; i++) {
+                this.create(new File(dir, "d" + i), depth - 1, files);
+            }
+        }
+    }
+
+    private File create(String name, List<File> files) throws IOException {
+        File dir = FileUtils.getTempDir("test", FileWalkerTest.class.getSimpleName(), name);
+        FileUtils.clearDirectory(dir);
+        this.create(dir, 4, files);
+        return dir;
+    }
+
+    private Set<File> walk(FileWalker walker, File dir) throws IOException {
+        final Set<File> set = Collections.synchronizedSet(new HashSet<File>());
+        walker.walk(dir, new FileWalker.Visitor() {
+            public boolean visit(File file) {
+                Assert.assertTrue(set.add(file));
+                return true;
+            }
+        });
+        return set;
+    }
+
+    @Test
+    public void testWalk() throws IOException {
+        List<File> files = new ArrayList<File>();
+        File dir = this.create("walk", files);
+        Assert.assertEquals(93, files.size());
+
+        for (int threads : new int[]{1, 2, 8}) {
+            Assert.assertEquals(new HashSet<File>(files), this.walk(new FileWalker(threads), dir));
+
+            Set<File> set = this.walk(new FileWalker(threads).setName(".*\\.log"), dir);
+            Assert.assertEquals(31, set.size());
+            for (File file : set) {
+                Assert.assertTrue(file.getName().endsWith(".log"));
+            }
+
+            Assert.assertEquals(3, this.walk(new FileWalker(threads).setMaxDepth(1), dir).size());
+            Assert.assertEquals(9, this.walk(new FileWalker(threads).setMaxDepth(2), dir).size());
+            Assert.assertEquals(93, this.walk(new FileWalker(threads).setMaxDepth(0), dir).size());
+        }
+    }
+
+    @Test
+    public void testFilter() throws IOException {
+        List<File> files = new ArrayList<File>();
+        File dir = this.create("filter", files);
+
+        FileWalker walker = new FileWalker(4).setFilters(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return !name.equals("d1");
+            }
+        }, new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".txt");
+            }
+        });
+        Assert.assertEquals(15, this.walk(walker, dir).size()); // 只遍历 d0 子目录
+    }
+
+    @Test
+    public void testStop() throws IOException {
+        List<File> files = new ArrayList<File>();
+        File dir = this.create("stop", files);
+
+        for (int threads : new int[]{1, 4}) {
+            final AtomicInteger count = new AtomicInteger();
+            new FileWalker(threads).walk(dir, new FileWalker.Visitor() {
+                public boolean visit(File file) {
+                    return count.incrementAndGet() < 5;
+                }
+            });
+            Assert.assertTrue(count.get() >= 5);
+            Assert.assertTrue(count.get() < files.size());
+        }
+    }
+
+    @Test
+    public void testError() throws IOException {
+        List<File> files = new ArrayList<File>();
+        File dir = this.create("error", files);
+
+        for (int threads : new int[]{1, 4}) {
+            try {
+                new FileWalker(threads).walk(dir, new FileWalker.Visitor() {
+                    public boolean visit(File file) throws IOException {
+                        throw new IOException(file.getName());
+                    }
+                });
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().startsWith("f"));
+            }
+        }
+    }
+
+    @Test
+    public void testFind() throws IOException {
+        List<File> files = new ArrayList<File>();
+        File dir = this.create("find", files);
+
+        List<File> list = FileUtils.find(dir, "f0_[0-9]\\.txt");
+        Assert.assertEquals(32, list.size());
+
+        list = FileUtils.find(dir, "find");
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(dir, list.get(0));
+
+        Assert.assertEquals(1, FileUtils.find(dir, "f4_0.txt").size());
+        Assert.assertEquals(0, FileUtils.find(dir, "f[0.txt").size()); // 不是正则表达式时只比较文件名
+
+        final List<File> found = Collections.synchronizedList(new ArrayList<File>());
+        FileUtils.find(dir, ".*\\.txt", 2, 0, new FileWalker.Visitor() {
+            public boolean visit(File file) {
+                return found.add(file);
+            }
+        });
+        Assert.assertEquals(6, found.size());
+    }
+
+    @Test
+    public void testFindDirectory() throws IOException {
+        File dir = FileUtils.getTempDir("test", FileWalkerTest.class.getSimpleName(), "finddir");
+        FileUtils.assertCreateDirectory(dir);
+        FileUtils.clearDirectory(dir);
+
+        File a = new File(dir, "a");
+        File alogs = new File(a, "logs");
+        FileUtils.assertCreateDirectory(new File(alogs, "logs")); // 匹配的目录中还有匹配的子目录
+        File blogs = new File(new File(dir, "b"), "logs");
+        FileUtils.assertCreateDirectory(blogs.getParentFile());
+        FileUtils.write(blogs, StringUtils.CHARSET, false, "file");
+        FileUtils.write(new File(alogs, "a.txt"), StringUtils.CHARSET, false, "file");
+
+        List<File> list = FileUtils.find(dir, "logs");
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals(alogs, list.get(0));
+        Assert.assertEquals(new File(alogs, "logs"), list.get(1));
+        Assert.assertEquals(blogs, list.get(2));
+        Assert.assertEquals(list, FileUtils.find(dir, "logs")); // 顺序是确定的
+
+        // 默认只回调文件
+        final List<File> found = Collections.synchronizedList(new ArrayList<File>());
+        FileUtils.find(dir, "logs", 0, 1, new FileWalker.Visitor() {
+            public boolean visit(File file) {
+                return found.add(file);
+            }
+        });
+        Assert.assertEquals(1, found.size());
+        Assert.assertEquals(blogs, found.get(0));
+
+        // 回调目录时返回false终止遍历
+        found.clear();
+        new FileWalker(1).setName("a").setDirectory(true).walk(dir, new FileWalker.Visitor() {
+            public boolean visit(File file) {
+                found.add(file);
+                return false;
+            }
+        });
+        Assert.assertEquals(1, found.size());
+        Assert.assertEquals(a, found.get(0));
+    }
+
+}
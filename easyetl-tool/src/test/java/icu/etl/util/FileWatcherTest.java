@@ -0,0 +1,179 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FileWatcherTest {
+
+    private File create(String name) {
+        File dir = FileUtils.getTempDir("test", FileWatcherTest.class.getSimpleName(), name);
+        FileUtils.assertCreateDirectory(dir);
+        FileUtils.clearDirectory(dir);
+        return dir;
+    }
+
+    /**
+     * 等待所有文件静止
+     */
+    private List<File> poll(FileWatcher watcher, int size) throws IOException {
+        List<File> list = new ArrayList<File>();
+        long start = System.currentTimeMillis();
+        while (list.size() < size && System.currentTimeMillis() - start < 10000) {
+            list.addAll(watcher.poll(1, TimeUnit.SECONDS));
+        }
+        return list;
+    }
+
+    @Test
+    public void testPolling() throws Exception {
+        this.test(false);
+    }
+
+    @Test
+    public void testWatchService() throws Exception {
+        this.test(true);
+    }
+
+    private void test(boolean watch) throws Exception {
+        File dir = this.create(watch ? "watch" : "polling");
+        final File file1 = new File(dir, "exists.txt");
+        FileUtils.write(file1, StringUtils.CHARSET, false, "1");
+
+        FileWatcher watcher = new FileWatcher(dir, 300, watch);
+        Assert.assertEquals(watch, watcher.isWatchService());
+        try {
+            // 已存在的文件
+            List<File> list = this.poll(watcher, 1);
+            Assert.assertEquals(1, list.size());
+            Assert.assertEquals(file1, list.get(0));
+            Assert.assertTrue(watcher.poll(100, TimeUnit.MILLISECONDS).isEmpty());
+
+            // 持续写入的文件
+            File sub = new File(dir, "sub");
+            FileUtils.assertCreateDirectory(sub);
+            final File file2 = new File(sub, "writing.txt");
+            final long[] end = new long[1];
+            Thread thread = new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 10; i++) {
+                            FileUtils.write(file2, StringUtils.CHARSET, true, "line" + i + "\n");
+                            Thread.sleep(100);
+                        }
+                        end[0] = System.currentTimeMillis();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+            thread.start();
+
+            list = this.poll(watcher, 1);
+            long time = System.currentTimeMillis();
+            thread.join();
+            Assert.assertEquals(1, list.size());
+            Assert.assertEquals(file2, list.get(0));
+            Assert.assertTrue(end[0] > 0 && time >= end[0]);
+            Assert.assertEquals(10, FileUtils.count(file2, StringUtils.CHARSET));
+
+            // 已静止的文件再次变化
+            Thread.sleep(20);
+            FileUtils.write(file1, StringUtils.CHARSET, true, "2");
+            list = this.poll(watcher, 1);
+            Assert.assertEquals(1, list.size());
+            Assert.assertEquals(file1, list.get(0));
+        } finally {
+            watcher.close();
+        }
+
+        try {
+            watcher.poll(1, TimeUnit.MILLISECONDS);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+        }
+    }
+
+    /**
+     * 子目录移出或删除后释放子目录中文件的状态
+     */
+    @Test
+    public void testRemoveDirectory() throws Exception {
+        File dir = this.create("remove");
+        File sub = new File(dir, "sub");
+        File moved = this.create("moved");
+        FileUtils.deleteDirectory(moved);
+        for (int i = 0; i < 3; i++) {
+            FileUtils.write(new File(sub, "file" + i + ".txt"), StringUtils.CHARSET, false, String.valueOf(i));
+        }
+        FileUtils.write(new File(dir, "exists.txt"), StringUtils.CHARSET, false, "1");
+
+        FileWatcher watcher = new FileWatcher(dir, 0);
+        try {
+            Assert.assertEquals(4, this.poll(watcher, 4).size());
+            Assert.assertEquals(4, watcher.size());
+
+            // 子目录移出监听目录
+            Assert.assertTrue(sub.renameTo(moved));
+            this.release(watcher, 1);
+            Assert.assertEquals(1, watcher.size());
+
+            // 移出的子目录中发生变化不再返回
+            FileUtils.write(new File(moved, "new.txt"), StringUtils.CHARSET, false, "new");
+            Assert.assertTrue(watcher.poll(300, TimeUnit.MILLISECONDS).isEmpty());
+            Assert.assertEquals(1, watcher.size());
+
+            // 删除子目录
+            FileUtils.assertCreateDirectory(sub);
+            FileUtils.write(new File(sub, "a.txt"), StringUtils.CHARSET, false, "a");
+            Assert.assertEquals(1, this.poll(watcher, 1).size());
+            Assert.assertEquals(2, watcher.size());
+            Assert.assertTrue(FileUtils.deleteDirectory(sub));
+            this.release(watcher, 1);
+            Assert.assertEquals(1, watcher.size());
+        } finally {
+            watcher.close();
+            FileUtils.deleteDirectory(moved);
+        }
+    }
+
+    /**
+     * 等待监听器释放文件状态
+     */
+    private void release(FileWatcher watcher, int size) throws IOException {
+        long start = System.currentTimeMillis();
+        while (watcher.size() > size && System.currentTimeMillis() - start < 10000) {
+            watcher.poll(100, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        File dir = this.create("filter");
+        FileUtils.write(new File(dir, "a.txt"), StringUtils.CHARSET, false, "a");
+        FileUtils.write(new File(dir, "b.log"), StringUtils.CHARSET, false, "b");
+
+        FileWatcher watcher = new FileWatcher(dir, 0, new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".txt");
+            }
+        });
+        try {
+            List<File> list = watcher.poll(1, TimeUnit.SECONDS);
+            Assert.assertEquals(1, list.size());
+            Assert.assertEquals("a.txt", list.get(0).getName());
+
+            FileUtils.deleteFile(new File(dir, "a.txt"));
+            Assert.assertTrue(watcher.poll(100, TimeUnit.MILLISECONDS).isEmpty());
+        } finally {
+            watcher.close();
+        }
+    }
+
+}
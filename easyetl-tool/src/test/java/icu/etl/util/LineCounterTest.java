@@ -0,0 +1,80 @@
+package icu.etl.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LineCounterTest {
+
+    /**
+     * 使用 BufferedReader 统计行数
+     */
+    private static long count(String str) throws IOException {
+        long count = 0;
+        BufferedReader in = new BufferedReader(new StringReader(str));
+        while (in.readLine() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testCount() throws IOException {
+        int chunkSize = LineCounter.CHUNK_SIZE;
+        long mappedSize = LineCounter.MAPPED_FILESIZE;
+        try {
+            File file = FileUtils.createTempFile("LineCounterTest.txt");
+            String[] separators = {"\n", "\r", "\r\n", "\n\n", "\r\r", "\n\r"};
+            Random random = new Random(20240112);
+
+            for (int n = 0; n < 200; n++) {
+                StringBuilder buf = new StringBuilder();
+                for (int i = random.nextInt(80); i > 0; i--) {
+                    for (int j = random.nextInt(12); j > 0; j--) {
+                        buf.append(j % 3 == 0 ? '中' : (char) ('a' + j));
+                    }
+                    buf.append(separators[random.nextInt(separators.length)]);
+                }
+                if (random.nextBoolean()) {
+                    buf.append("last");
+                }
+
+                String str = buf.toString();
+                Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_8, false, str));
+                long expect = count(str);
+
+                LineCounter.CHUNK_SIZE = chunkSize;
+                LineCounter.MAPPED_FILESIZE = mappedSize;
+                Assert.assertEquals(str, expect, FileUtils.count(file, CharsetName.UTF_8));
+
+                // 分块统计
+                LineCounter.CHUNK_SIZE = 1 + random.nextInt(17);
+                Assert.assertEquals(str, expect, FileUtils.count(file, CharsetName.UTF_8, 1));
+                Assert.assertEquals(str, expect, FileUtils.count(file, CharsetName.UTF_8, 4));
+
+                // 内存映射
+                LineCounter.MAPPED_FILESIZE = 0;
+                Assert.assertEquals(str, expect, FileUtils.count(file, CharsetName.UTF_8, 3));
+            }
+        } finally {
+            LineCounter.CHUNK_SIZE = chunkSize;
+            LineCounter.MAPPED_FILESIZE = mappedSize;
+        }
+    }
+
+    @Test
+    public void testUTF16() throws IOException {
+        File file = FileUtils.createTempFile("LineCounterTest.txt");
+        Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_16, false, "1\r\n2\n3"));
+        Assert.assertEquals(3, FileUtils.count(file, CharsetName.UTF_16));
+
+        Assert.assertTrue(FileUtils.write(file, CharsetName.UTF_8, false, ""));
+        Assert.assertEquals(0, FileUtils.count(file, CharsetName.UTF_8));
+    }
+
+}
@@ -0,0 +1,124 @@
+package icu.etl.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LineSeparatorConverterTest {
+
+    private final Random random = new Random(20240127);
+
+    private String text(int length) {
+        String[] array = {"\r", "\n", "\r\n", "\n\r", "a", "bc", "中文", " ", "\r\r\n"};
+        StringBuilder buf = new StringBuilder(length + 10);
+        while (buf.length() < length) {
+            buf.append(array[this.random.nextInt(array.length)]);
+        }
+        return buf.toString();
+    }
+
+    @Test
+    public void testConvert() throws IOException {
+        int chunk = LineSeparatorConverter.CHUNK_SIZE;
+        long mapped = LineSeparatorConverter.MAPPED_FILESIZE;
+        try {
+            File dir = FileUtils.getTempDir("test", LineSeparatorConverterTest.class.getSimpleName());
+            FileUtils.assertCreateDirectory(dir);
+            File file = new File(dir, "source.txt");
+            File dest = new File(dir, "dest.txt");
+
+            for (int i = 0; i < 40; i++) {
+                String str = this.text(this.random.nextInt(2000));
+                FileUtils.write(file, StringUtils.CHARSET, false, str);
+
+                LineSeparatorConverter.CHUNK_SIZE = 1 + this.random.nextInt(64);
+                LineSeparatorConverter.MAPPED_FILESIZE = i % 2 == 0 ? 0 : Long.MAX_VALUE;
+                for (String separator : new String[]{"\n", "\r\n", "\r", "|"}) {
+                    LineSeparatorConverter converter = new LineSeparatorConverter(file, StringUtils.CHARSET, 1 + i % 4);
+                    String expect = FileUtils.replaceLineSeparator(str, separator);
+                    long length = converter.convert(dest, separator);
+                    Assert.assertEquals(expect, FileUtils.readline(dest, StringUtils.CHARSET, 0));
+                    Assert.assertEquals(expect.getBytes(StringUtils.CHARSET).length, length);
+                    Assert.assertEquals(length, dest.length());
+                }
+            }
+        } finally {
+            LineSeparatorConverter.CHUNK_SIZE = chunk;
+            LineSeparatorConverter.MAPPED_FILESIZE = mapped;
+        }
+    }
+
+    @Test
+    public void testReplace() throws IOException {
+        int chunk = LineSeparatorConverter.CHUNK_SIZE;
+        try {
+            LineSeparatorConverter.CHUNK_SIZE = 7;
+            String str = this.text(5000);
+            File file = FileUtils.createTempFile("replace.txt");
+            FileUtils.write(file, "GBK", false, str);
+            Assert.assertTrue(FileUtils.replaceLineSeparator(file, "GBK", "\n", null));
+            Assert.assertEquals(FileUtils.replaceLineSeparator(str, "\n"), FileUtils.readline(file, "GBK", 0));
+            Assert.assertFalse(new File(file.getParentFile(), "." + file.getName() + ".tmp").exists()); // 临时文件已重命名
+
+            // 没有需要替换的换行符时不改写文件
+            file.setLastModified(1700000000000L);
+            Assert.assertTrue(FileUtils.dos2unix(file, "GBK", null));
+            Assert.assertEquals(1700000000000L, file.lastModified());
+
+            FileUtils.write(file, StringUtils.CHARSET, false, "1\r\n2\r3\n");
+            Assert.assertTrue(FileUtils.dos2unix(file, StringUtils.CHARSET, null));
+            Assert.assertEquals("1\n2\n3\n", FileUtils.readline(file, StringUtils.CHARSET, 0));
+
+            // 不兼容ASCII编码的字符集
+            FileUtils.write(file, "UTF-16", false, "1\r\n2\r\n");
+            Assert.assertTrue(FileUtils.dos2unix(file, "UTF-16", null));
+            Assert.assertEquals("1\n2\n", FileUtils.readline(file, "UTF-16", 0));
+        } finally {
+            LineSeparatorConverter.CHUNK_SIZE = chunk;
+        }
+    }
+
+    /**
+     * 换行符与参数相同时不改写文件
+     */
+    @Test
+    public void testReplaceUnchanged() throws IOException {
+        int chunk = LineSeparatorConverter.CHUNK_SIZE;
+        try {
+            File file = FileUtils.createTempFile("unchanged.txt");
+            FileUtils.write(file, StringUtils.CHARSET, false, "1\r\n2\r\n3\r\n");
+            file.setLastModified(1700000000000L);
+            Assert.assertTrue(FileUtils.replaceLineSeparator(file, StringUtils.CHARSET, "\r\n", null));
+            Assert.assertEquals(1700000000000L, file.lastModified());
+
+            for (int i = 0; i < 40; i++) {
+                LineSeparatorConverter.CHUNK_SIZE = 1 + this.random.nextInt(16);
+                for (String separator : new String[]{"\n", "\r\n", "\r", "|"}) {
+                    String str = this.text(this.random.nextInt(500));
+                    String expect = FileUtils.replaceLineSeparator(str, separator);
+                    FileUtils.write(file, StringUtils.CHARSET, false, str);
+                    Assert.assertTrue(FileUtils.replaceLineSeparator(file, StringUtils.CHARSET, separator, null));
+                    Assert.assertEquals(expect, FileUtils.readline(file, StringUtils.CHARSET, 0));
+
+                    // 再次替换时文件不变
+                    file.setLastModified(1700000000000L);
+                    Assert.assertTrue(FileUtils.replaceLineSeparator(file, StringUtils.CHARSET, separator, null));
+                    Assert.assertEquals(1700000000000L, file.lastModified());
+                    Assert.assertEquals(expect, FileUtils.readline(file, StringUtils.CHARSET, 0));
+                }
+            }
+        } finally {
+            LineSeparatorConverter.CHUNK_SIZE = chunk;
+        }
+    }
+
+    @Test(expected = UnsupportedEncodingException.class)
+    public void testUnsupported() throws IOException {
+        new LineSeparatorConverter(FileUtils.createTempFile("utf16.txt"), "UTF-16", 1);
+    }
+
+}
@@ -1,5 +1,8 @@
 package icu.etl.util;
 
+import java.util.ListResourceBundle;
+import java.util.ResourceBundle;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -15,4 +18,28 @@ public class ResourcesUtilsTest {
 
         Assert.assertFalse(ResourcesUtils.existsMessage("test.msg.stdout"));
     }
+
+    @Test
+    public void testCache() {
+        ResourceBundle external = ResourcesUtils.getExternalBundle();
+        try {
+            Assert.assertEquals("", ResourcesUtils.getMessage("test.msg.not.exists", "a"));
+            Assert.assertEquals("", ResourcesUtils.getMessage("test.msg.not.exists"));
+            Assert.assertEquals("|", ResourcesUtils.appendMessage(new StringBuilder("|"), "test.msg.not.exists", "a").toString());
+
+            // 重新设置资源配置信息后缓存失效
+            ResourcesUtils.setExternalBundle(new ListResourceBundle() {
+                protected Object[][] getContents() {
+                    return new Object[][]{{"test.msg.not.exists", "value {0} and {1}"}};
+                }
+            });
+            Assert.assertEquals("value a and {1}", ResourcesUtils.getMessage("test.msg.not.exists", "a"));
+            Assert.assertEquals("value {0} and {1}", ResourcesUtils.getMessage("test.msg.not.exists"));
+            Assert.assertEquals("|value a and b", ResourcesUtils.appendMessage(new StringBuilder("|"), "test.msg.not.exists", "a", "b").toString());
+            Assert.assertEquals(ResourcesUtils.getMessage("test.msg.not.exists", "a", "b"), ResourcesUtils.getMessage("test.msg.not.exists", "a", "b"));
+        } finally {
+            ResourcesUtils.setExternalBundle(external);
+        }
+        Assert.assertEquals("", ResourcesUtils.getMessage("test.msg.not.exists", "a"));
+    }
 }
@@ -1,5 +1,9 @@
 package icu.etl.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.List;
 
 import icu.etl.impl.AttributeImpl;
@@ -17,4 +21,78 @@ public class SPITest {
         Assert.assertEquals(Attribute2Impl.class, it.get(1).getClass());
         Assert.assertEquals(Attribute1Impl.class, it.get(2).getClass());
     }
+
+    @Test
+    public void testCache() {
+        ClassLoader loader = ClassUtils.getDefaultClassLoader();
+        List<Class<?>> list = SPI.getProviders(loader, Attribute.class);
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals(list, SPI.getProviders(loader, Attribute.class));
+
+        // 每次都创建新的实例
+        List<Attribute> l1 = SPI.load(loader, Attribute.class);
+        List<Attribute> l2 = SPI.load(loader, Attribute.class);
+        Assert.assertNotSame(l1.get(0), l2.get(0));
+        Assert.assertEquals(l1.get(0).getClass(), l2.get(0).getClass());
+
+        SPI.clear(loader);
+        Assert.assertEquals(list, SPI.getProviders(loader, Attribute.class));
+        Assert.assertEquals(0, SPI.getProviders(loader, SPITest.class).size());
+    }
+
+    @Test
+    public void testIndex() throws IOException {
+        File dir = FileUtils.getTempDir("test", SPITest.class.getSimpleName());
+        FileUtils.assertCreateDirectory(dir);
+        File index = new File(dir, SPI.INDEX);
+        FileUtils.assertCreateDirectory(index.getParentFile());
+        FileUtils.write(index, CharsetName.ISO_8859_1, false, "# index\n" + SPI.APPLICATION + "=true\n" + Attribute.class.getName() + "=" + Attribute1Impl.class.getName() + ", " + AttributeImpl.class.getName() + "\n");
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, ClassUtils.getDefaultClassLoader());
+        List<Attribute> list = SPI.load(loader, Attribute.class);
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals(Attribute1Impl.class, list.get(0).getClass());
+        Assert.assertEquals(AttributeImpl.class, list.get(1).getClass());
+
+        // 索引中不存在的接口，从服务配置文件中查找
+        SPI.clear(loader);
+        FileUtils.write(index, CharsetName.ISO_8859_1, false, SPI.APPLICATION + "=true\nicu.etl.util.None=" + AttributeImpl.class.getName() + "\n");
+        Assert.assertEquals(3, SPI.load(loader, Attribute.class).size());
+    }
+
+    /**
+     * 类路径中有多个服务索引文件
+     */
+    @Test
+    public void testIndexes() throws IOException {
+        File dir1 = FileUtils.getTempDir("test", SPITest.class.getSimpleName(), "index1");
+        File dir2 = FileUtils.getTempDir("test", SPITest.class.getSimpleName(), "index2");
+        File index1 = new File(dir1, SPI.INDEX);
+        File index2 = new File(dir2, SPI.INDEX);
+        FileUtils.assertCreateDirectory(index1.getParentFile());
+        FileUtils.assertCreateDirectory(index2.getParentFile());
+
+        // 依赖jar包中不带标记的索引不能遮蔽服务配置文件
+        FileUtils.write(index1, CharsetName.ISO_8859_1, false, Attribute.class.getName() + "=" + AttributeImpl.class.getName() + "\n");
+        FileUtils.write(index2, CharsetName.ISO_8859_1, false, SPI.APPLICATION + "=true\n" + Attribute.class.getName() + "=" + Attribute1Impl.class.getName() + "\n");
+        URLClassLoader loader = new URLClassLoader(new URL[]{dir1.toURI().toURL()}, ClassUtils.getDefaultClassLoader());
+        Assert.assertEquals(3, SPI.getProviders(loader, Attribute.class).size());
+
+        // 不带标记的索引被忽略，只使用带标记的索引
+        loader = new URLClassLoader(new URL[]{dir1.toURI().toURL(), dir2.toURI().toURL()}, ClassUtils.getDefaultClassLoader());
+        List<Class<?>> list = SPI.getProviders(loader, Attribute.class);
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(Attribute1Impl.class, list.get(0));
+
+        // 按类路径顺序合并所有带标记的索引，忽略重复的实现类
+        FileUtils.write(index1, CharsetName.ISO_8859_1, false, SPI.APPLICATION + "=true\n" + Attribute.class.getName() + "=" + AttributeImpl.class.getName() + "," + Attribute1Impl.class.getName() + "\n");
+        FileUtils.write(index2, CharsetName.ISO_8859_1, false, SPI.APPLICATION + "=true\n" + Attribute.class.getName() + "=" + Attribute1Impl.class.getName() + "," + Attribute2Impl.class.getName() + "\n");
+        SPI.clear(loader);
+        list = SPI.getProviders(loader, Attribute.class);
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals(AttributeImpl.class, list.get(0));
+        Assert.assertEquals(Attribute1Impl.class, list.get(1));
+        Assert.assertEquals(Attribute2Impl.class, list.get(2));
+    }
+
 }
@@ -0,0 +1,103 @@
+package icu.etl.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringReplacerTest {
+
+    /**
+     * 逐个位置比较所有关键字，作为替换结果的参照
+     */
+    private String replace(String str, Map<String, String> map) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < str.length(); ) {
+            String match = null;
+            for (String key : map.keySet()) {
+                if (key.length() > 0 && str.startsWith(key, i) && (match == null || key.length() > match.length())) {
+                    match = key;
+                }
+            }
+
+            if (match == null) {
+                buf.append(str.charAt(i++));
+            } else {
+                buf.append(map.get(match));
+                i += match.length();
+            }
+        }
+        return buf.toString();
+    }
+
+    private String random(Random random, int length) {
+        StringBuilder buf = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            buf.append((char) ('a' + random.nextInt(3)));
+        }
+        return buf.toString();
+    }
+
+    @Test
+    public void testReplace() {
+        Random random = new Random(20240123);
+        for (int r = 0; r < 500; r++) {
+            Map<String, String> map = new HashMap<String, String>();
+            for (int i = 0, n = 1 + random.nextInt(6); i < n; i++) {
+                map.put(this.random(random, 1 + random.nextInt(4)), "<" + i + ">");
+            }
+
+            String str = this.random(random, random.nextInt(40));
+            Assert.assertEquals(map + " " + str, this.replace(str, map), new StringReplacer(map).replace(str));
+            Assert.assertEquals(map + " " + str, this.replace(str, map), StringUtils.replaceAll(str, map));
+        }
+    }
+
+    @Test
+    public void testOverlap() {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        map.put("b", "1");
+        map.put("abc", "2");
+        map.put("bcd", "3");
+        map.put("", "x");
+        StringReplacer replacer = new StringReplacer(map);
+        Assert.assertEquals("2d", replacer.replace("abcd"));
+        Assert.assertEquals("x3", replacer.replace("xbcd"));
+        Assert.assertEquals("x1y", replacer.replace("xby"));
+        Assert.assertEquals("ac", replacer.replace("ac"));
+        Assert.assertEquals("", replacer.replace(""));
+        Assert.assertNull(replacer.replace(null));
+
+        StringBuilder buf = new StringBuilder("=");
+        Assert.assertTrue(replacer.replace("abc", buf));
+        Assert.assertEquals("=2", buf.toString());
+        Assert.assertFalse(replacer.replace("zz", buf));
+        Assert.assertEquals("=2zz", buf.toString());
+    }
+
+    @Test
+    public void testCache() {
+        Map<String, String> map = new HashMap<String, String>();
+        map.put("${HOME}", "/home");
+        StringReplacer replacer = StringReplacer.get(map);
+        Assert.assertSame(replacer, StringReplacer.get(map));
+        Assert.assertEquals("/home/a", StringUtils.replaceAll("${HOME}/a", map));
+
+        map.put("a", "b"); // 映射关系变化后重新建立替换器
+        Assert.assertNotSame(replacer, StringReplacer.get(map));
+        Assert.assertEquals("/home/b", StringUtils.replaceAll("${HOME}/a", map));
+    }
+
+    @Test
+    public void testReplaceAll() {
+        Assert.assertEquals("a-b-c", StringUtils.replaceAll("a||b||c", "||", "-"));
+        Assert.assertEquals("abc", StringUtils.replaceAll("abc", "||", "-"));
+        Assert.assertEquals("xx", StringUtils.replaceAll("aaaa", "aa", "x"));
+        Assert.assertEquals("aaaa", StringUtils.replaceAll("aa", "a", "aa"));
+        Assert.assertEquals("", StringUtils.replaceAll("", "a", "b"));
+    }
+
+}